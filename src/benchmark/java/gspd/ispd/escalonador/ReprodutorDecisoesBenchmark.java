@@ -0,0 +1,75 @@
+package gspd.ispd.escalonador;
+
+import gspd.ispd.arquivo.xml.IconicoXML;
+import gspd.ispd.motor.SequentialSimulation;
+import gspd.ispd.motor.Simulation;
+import gspd.ispd.motor.SimulationProgress;
+import gspd.ispd.motor.carga.GerarCarga;
+import gspd.ispd.motor.filas.RedeDeFilas;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Mestre;
+import java.awt.Color;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.w3c.dom.Document;
+
+/**
+ * Records the scheduler calls of every master while simulating a model, then
+ * replays them against the given schedulers outside the engine. Not a unit
+ * test: run it by hand with
+ *
+ * <pre>
+ * ReprodutorDecisoesBenchmark model.ims [rounds] [scheduler class...]
+ * </pre>
+ *
+ * Without scheduler classes, each master's own scheduler class is replayed.
+ * Only the last round is printed, the previous ones warm up the JIT.
+ */
+public class ReprodutorDecisoesBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Document modelo = IconicoXML.ler(new File(args[0]));
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        RedeDeFilas redeDeFilas = IconicoXML.newRedeDeFilas(modelo);
+        GerarCarga carga = IconicoXML.newGerarCarga(modelo);
+        List<CS_Mestre> mestres = new ArrayList<CS_Mestre>();
+        for (CS_Processamento mestre : redeDeFilas.getMestres()) {
+            CS_Mestre cs = (CS_Mestre) mestre;
+            cs.setRastro(new RastroDecisoes(cs.getEscalonador()));
+            mestres.add(cs);
+        }
+        SimulationProgress progresso = new SimulationProgress() {
+            @Override
+            public void incProgresso(int n) {
+            }
+
+            @Override
+            public void print(String text, Color cor) {
+            }
+        };
+        Simulation sim = new SequentialSimulation(progresso, redeDeFilas, carga.toTarefaList(redeDeFilas));
+        sim.simular();
+
+        for (CS_Mestre mestre : mestres) {
+            RastroDecisoes rastro = mestre.getRastro();
+            System.out.println("Master " + mestre.getId() + ": " + rastro.size() + " recorded calls");
+            List<Class<?>> classes = new ArrayList<Class<?>>();
+            if (args.length > 2) {
+                for (int i = 2; i < args.length; i++) {
+                    classes.add(Class.forName(args[i]));
+                }
+            } else {
+                classes.add(mestre.getEscalonador().getClass());
+            }
+            ReprodutorDecisoes reprodutor = new ReprodutorDecisoes(rastro);
+            for (Class<?> classe : classes) {
+                ReprodutorDecisoes.Resultado resultado = null;
+                for (int round = 0; round < rounds; round++) {
+                    resultado = reprodutor.reproduzir((Escalonador) classe.newInstance());
+                }
+                System.out.print(resultado);
+            }
+        }
+    }
+}
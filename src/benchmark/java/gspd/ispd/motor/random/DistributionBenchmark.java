@@ -0,0 +1,89 @@
+package gspd.ispd.motor.random;
+
+import gspd.ispd.util.distribution.BufferedDistribution;
+import gspd.ispd.util.distribution.DistributionBuilder;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the single value and the bulk sampling paths. Not a unit test: run
+ * it by hand, optionally passing the number of values to generate.
+ */
+public class DistributionBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+        double[] values = new double[n];
+        for (int round = 0; round < ROUNDS; round++) {
+            boolean print = round == ROUNDS - 1;
+
+            Distribution d = new Distribution(1);
+            long t = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                values[i] = d.twoStageUniform(200, 5000, 25000, 0.5);
+            }
+            report(print, "twoStageUniform, one call per value", t, values);
+            t = System.nanoTime();
+            new Distribution(1).twoStageUniform(200, 5000, 25000, 0.5, values);
+            report(print, "twoStageUniform, bulk", t, values);
+
+            Random legado = new Random(1);
+            t = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                values[i] = -10 * Math.log(legado.nextDouble());
+            }
+            report(print, "exponential, java.util.Random", t, values);
+            t = System.nanoTime();
+            new Distribution(1).exponencial(10, values);
+            report(print, "exponencial, bulk", t, values);
+
+            t = System.nanoTime();
+            d = new Distribution(1);
+            for (int i = 0; i < n; i++) {
+                values[i] = d.nextNormal(0, 1);
+            }
+            report(print, "nextNormal (sum of 12), one call per value", t, values);
+
+            DistributionBuilder normal = DistributionBuilder.normal(0, 1);
+            gspd.ispd.util.distribution.Distribution zig = normal.build(new SplittableRandom(1));
+            t = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                values[i] = zig.random();
+            }
+            report(print, "normal builder (ziggurat), one call per value", t, values);
+            t = System.nanoTime();
+            normal.build(new SplittableRandom(1)).random(values, 0, n);
+            report(print, "normal builder (ziggurat), bulk", t, values);
+
+            DistributionBuilder uniform = DistributionBuilder.uniform(DistributionBuilder.exponential(5), DistributionBuilder.normal(100, 10));
+            gspd.ispd.util.distribution.Distribution u = uniform.build(new SplittableRandom(1));
+            t = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                values[i] = u.random();
+            }
+            report(print, "nested uniform builder, one call per value", t, values);
+            t = System.nanoTime();
+            uniform.build(new SplittableRandom(1)).random(values, 0, n);
+            report(print, "nested uniform builder, bulk", t, values);
+            gspd.ispd.util.distribution.Distribution buffered = new BufferedDistribution(uniform.build(new SplittableRandom(1)));
+            t = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                values[i] = buffered.random();
+            }
+            report(print, "nested uniform builder, buffered", t, values);
+        }
+    }
+
+    private static void report(boolean print, String name, long start, double[] values) {
+        long ns = System.nanoTime() - start;
+        double sum = 0;
+        for (double v : values) {
+            sum += v;
+        }
+        if (print) {
+            System.out.printf("%-48s %8.2f ns/value (mean %.4f)%n", name, (double) ns / values.length, sum / values.length);
+        }
+    }
+}
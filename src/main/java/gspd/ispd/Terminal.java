@@ -5,15 +5,21 @@
 package gspd.ispd;
 
 import gspd.ispd.arquivo.xml.IconicoXML;
+import gspd.ispd.escalonador.Mestre;
 import gspd.ispd.gui.JResultados;
+import gspd.ispd.motor.ControleDuracao;
 import gspd.ispd.motor.SimulationProgress;
 import gspd.ispd.motor.Simulation;
 import gspd.ispd.motor.ParallelSimulation;
 import gspd.ispd.motor.SequentialSimulation;
+import gspd.ispd.motor.carga.GerarCarga;
 import gspd.ispd.motor.filas.RedeDeFilas;
 import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.metricas.EstatisticasReplicacoes;
 import gspd.ispd.motor.metricas.Metricas;
 import gspd.ispd.motor.metricas.MetricasGlobais;
+import gspd.ispd.motor.random.FluxosAleatorios;
 import java.awt.Color;
 import java.io.BufferedReader;
 import java.io.File;
@@ -27,6 +33,7 @@ import java.net.Socket;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.xml.parsers.ParserConfigurationException;
@@ -42,6 +49,14 @@ import org.xml.sax.SAXException;
  *     -th <number>   number of threads
  *     -p             Optimistic parallel simulation
  *     -o <directory> directory to save html output
+ *     -s <number>    seed of the random streams, to repeat a run
+ *                    or to compare models with common random numbers
+ *     -a             antithetic pairs of replications
+ *     -r <number>    stop each simulation when the steady-state response
+ *                    time and utilization reach this relative precision
+ *     -ci <number>   run replications until the confidence interval
+ *                    half-width of every metric, relative to its mean, is
+ *                    below this value (-n becomes the maximum)
  *     -help          print this help message
  * @author denison
  */
@@ -66,6 +81,25 @@ public class Terminal {
     private boolean paralelo = false;
     private boolean visible = true;
     private int port = 2004;
+    /**
+     * Precisão relativa que encerra cada simulação, ou 0 para simular até o
+     * fim dos eventos
+     */
+    private double precisaoDuracao = 0;
+    /**
+     * Metade da largura relativa dos intervalos de confiança que encerra as
+     * replicações, ou 0 para executar exatamente numExecucoes replicações
+     */
+    private double meiaLarguraRelativa = 0;
+    /**
+     * Se os mestres atribuem em cada rodada todas as tarefas que a política
+     * consegue posicionar, em vez de uma tarefa por rodada
+     */
+    private boolean lote = false;
+    /**
+     * Menor número de amostras independentes antes de avaliar os intervalos
+     */
+    private static final int MINIMO_AMOSTRAS = 5;
     //Resultados
     MetricasGlobais resuladosGlobais;
 
@@ -119,6 +153,8 @@ public class Terminal {
             int atual = 0;
             numThreads = 1;
             numExecucoes = 1;
+            Long semente = null;
+            boolean antiteticas = false;
             while (args[atual].charAt(0) == '-') {
                 if (args[atual].equals("-n")) {
                     numExecucoes = Integer.parseInt(args[atual + 1]);
@@ -138,10 +174,28 @@ public class Terminal {
                 } else if (args[atual].equals("-p")) {
                     paralelo = true;
                     atual++;
+                } else if (args[atual].equals("-s")) {
+                    semente = Long.parseLong(args[atual + 1]);
+                    atual += 2;
+                } else if (args[atual].equals("-a")) {
+                    antiteticas = true;
+                    atual++;
+                } else if (args[atual].equals("-r")) {
+                    precisaoDuracao = Double.parseDouble(args[atual + 1]);
+                    atual += 2;
+                } else if (args[atual].equals("-ci")) {
+                    meiaLarguraRelativa = Double.parseDouble(args[atual + 1]);
+                    atual += 2;
+                } else if (args[atual].equals("-b")) {
+                    lote = true;
+                    atual++;
                 } else {
                     atual++;
                 }
             }
+            if (semente != null || antiteticas) {
+                FluxosAleatorios.setPadrao(new FluxosAleatorios(semente != null ? semente : System.nanoTime(), antiteticas));
+            }
             opcao = 1;
             String nomeArquivo = args[atual];
             for (int i = atual + 1; i < args.length; i++) {
@@ -178,13 +232,22 @@ public class Terminal {
                 System.out.println("\t-th <number>\tnumber of threads");
                 System.out.println("\t-p \tOptimistic parallel simulation");
                 System.out.println("\t-o <directory>\tdirectory to save html output");
+                System.out.println("\t-s <number>\tseed of the random streams");
+                System.out.println("\t-a \tantithetic pairs of replications");
+                System.out.println("\t-r <number>\tstop at this steady-state relative precision");
+                System.out.println("\t-ci <number>\treplicate until this relative confidence interval half-width (at most -n)");
+                System.out.println("\t-b \tmasters assign every task they can place in each scheduling round");
                 System.out.println("\t-server <port>");
                 System.out.println("\t-client <> <model file.imsx>");
                 System.out.println("\t-help\tprint this help message");
                 break;
             case 1:
-                if (arquivoIn.getName().endsWith(".imsx") && arquivoIn.exists()) {
-                    if (numThreads > 1 && !paralelo) {
+                if (meiaLarguraRelativa > 0 && paralelo) {
+                    System.out.println("The options -ci and -p can not be used together");
+                } else if (arquivoIn.getName().endsWith(".imsx") && arquivoIn.exists()) {
+                    if (meiaLarguraRelativa > 0) {
+                        this.simularAtePrecisao();
+                    } else if (numThreads > 1 && !paralelo) {
                         this.simularParalelo();
                     } else {
                         this.simularSequencial();
@@ -232,7 +295,12 @@ public class Terminal {
             //criar tarefas
 
             Metricas metricas = new Metricas(IconicoXML.newListUsers(modelo));
+            resuladosGlobais = new MetricasGlobais();
             double total = 0;
+            //a carga é lida uma única vez quando há mais de uma replicação
+            GerarCarga carga = newCarga(modelo, numExecucoes);
+            //a mesma semente reproduz os números aleatórios de carga e falhas
+            progrSim.println("Random seed: " + FluxosAleatorios.getPadrao().getSemente());
 
             for (int i = 1; i <= numExecucoes; i++) {
                 double t1 = System.currentTimeMillis();
@@ -241,28 +309,30 @@ public class Terminal {
                 progrSim.print("  Mounting network queue.");
                 progrSim.print(" -> ");
                 RedeDeFilas redeDeFilas = IconicoXML.newRedeDeFilas(modelo);
+                redeDeFilas.setFluxos(FluxosAleatorios.getPadrao().replicacao(i));
                 progrSim.println("OK", Color.green);
                 progrSim.print("  Creating tasks.");
                 progrSim.print(" -> ");
-                List<Tarefa> tarefas = IconicoXML.newGerarCarga(modelo).toTarefaList(redeDeFilas);
                 progrSim.print("OK\n  ", Color.green);
                 //Verifica recursos do modelo e define roteamento
                 Simulation sim;
                 if (!paralelo) {
-                    sim = new SequentialSimulation(progrSim, redeDeFilas, tarefas);//[10%] --> 55 %
+                    sim = newSimulacaoSequencial(redeDeFilas, carga);//[10%] --> 55 %
                 } else {
                     System.out.println("Execução paralela da simulação");
-                    sim = new ParallelSimulation(progrSim, redeDeFilas, tarefas, numThreads);
+                    configurarLote(redeDeFilas);
+                    sim = new ParallelSimulation(progrSim, redeDeFilas, carga.toTarefaList(redeDeFilas), numThreads);
                 }
                 //Realiza asimulação
                 progrSim.println("  Simulating.");
                 //recebe instante de tempo em milissegundos ao iniciar a simulação
                 sim.simular();//[30%] --> 85%
                 if (arquivoOut == null) {
-                    resuladosGlobais.add(new MetricasGlobais(redeDeFilas, sim.getTime(null), tarefas));
+                    resuladosGlobais.add(sim.getMetricasGlobais());
                 } else {
                     Metricas temp = sim.getMetricas();
                     metricas.addMetrica(temp);
+                    resuladosGlobais.add(temp.getMetricasGlobais());
                 }
                 //Recebe instante de tempo em milissegundos ao fim da execução da simulação
                 double t2 = System.currentTimeMillis();
@@ -273,7 +343,9 @@ public class Terminal {
             }
             if (numExecucoes > 1 && arquivoOut != null) {
                 metricas.calculaMedia();
-                resuladosGlobais = metricas.getMetricasGlobais();
+            }
+            if (resuladosGlobais.getReplicacoes() != null) {
+                resuladosGlobais.getReplicacoes().setMediaControle(carga.getMediaComputacao());
             }
             progrSim.println("Results:");
             if (numExecucoes > 1) {
@@ -318,6 +390,8 @@ public class Terminal {
             Metricas metricas = new Metricas(IconicoXML.newListUsers(modelo[0]));
             //Verifica se foi construido modelo corretamente
             progrSim.validarInicioSimulacao(modelo[0]);
+            GerarCarga carga = newCarga(modelo[0], numExecucoes);
+            progrSim.println("Random seed: " + FluxosAleatorios.getPadrao().getSemente());
             int inicio = 0, incremento = numExecucoes / numThreads;
             RunnableImpl[] trabalhador = new RunnableImpl[numThreads];
             Thread[] thread = new Thread[numThreads];
@@ -325,12 +399,12 @@ public class Terminal {
             visible = false;
             double t1 = System.currentTimeMillis();
             for (int i = 0; i < numThreads - 1; i++) {
-                trabalhador[i] = new RunnableImpl(modelo[i], inicio, incremento);
+                trabalhador[i] = new RunnableImpl(modelo[i], carga, inicio, incremento);
                 thread[i] = new Thread(trabalhador[i]);
                 thread[i].start();
                 inicio += incremento;
             }
-            trabalhador[numThreads - 1] = new RunnableImpl(modelo[numThreads - 1], inicio, numExecucoes - inicio);
+            trabalhador[numThreads - 1] = new RunnableImpl(modelo[numThreads - 1], carga, inicio, numExecucoes - inicio);
             thread[numThreads - 1] = new Thread(trabalhador[numThreads - 1]);
             thread[numThreads - 1].start();
             for (int i = 0; i < numThreads; i++) {
@@ -348,10 +422,13 @@ public class Terminal {
                     metricas.addMetrica(trabalhador[i].getMetricas());
                 }
                 metricas.calculaMedia();
-            } else {
-                for (int i = 0; i < numThreads; i++) {
-                    resuladosGlobais.add(trabalhador[i].getMetricasGlobais());
-                }
+            }
+            resuladosGlobais = new MetricasGlobais();
+            for (int i = 0; i < numThreads; i++) {
+                resuladosGlobais.add(trabalhador[i].getMetricasGlobais());
+            }
+            if (resuladosGlobais.getReplicacoes() != null) {
+                resuladosGlobais.getReplicacoes().setMediaControle(carga.getMediaComputacao());
             }
             progrSim.println("OK");
             progrSim.println("Results:");
@@ -372,6 +449,124 @@ public class Terminal {
         }
     }
 
+    /**
+     * Executa replicações em várias threads até que o intervalo de confiança
+     * de todas as métricas globais atinja a largura relativa pedida ou até
+     * numExecucoes replicações. As replicações são avaliadas em ordem: o
+     * resultado usa sempre as primeiras replicações, que dependem apenas da
+     * semente, mesmo que outras já tenham terminado.
+     */
+    private void simularAtePrecisao() {
+        progrSim.println("Simulation Initiated.");
+        try {
+            progrSim.print("Opening iconic model.");
+            progrSim.print(" -> ");
+            int threads = Math.max(1, Math.min(numThreads, numExecucoes));
+            final Document[] modelo = IconicoXML.clone(arquivoIn, threads);
+            progrSim.println("OK", Color.green);
+            progrSim.validarInicioSimulacao(modelo[0]);
+            final Metricas metricas = new Metricas(IconicoXML.newListUsers(modelo[0]));
+            final GerarCarga carga = newCarga(modelo[0], numExecucoes);
+            progrSim.println("Random seed: " + FluxosAleatorios.getPadrao().getSemente());
+            final MetricasGlobais[] globais = new MetricasGlobais[numExecucoes + 1];
+            final Metricas[] completas = new Metricas[numExecucoes + 1];
+            final AtomicInteger proxima = new AtomicInteger();
+            final int[] avaliadas = {0};
+            final boolean[] atingida = {false};
+            //primeira falha de uma replicação, que interrompe as demais
+            final Exception[] falha = {null};
+            resuladosGlobais = new MetricasGlobais();
+            visible = false;
+            double t1 = System.currentTimeMillis();
+            Thread[] thread = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                final Document modeloThread = modelo[t];
+                thread[t] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        int i;
+                        while ((i = proxima.incrementAndGet()) <= numExecucoes) {
+                            synchronized (globais) {
+                                if (atingida[0] || falha[0] != null) {
+                                    return;
+                                }
+                            }
+                            Metricas temp = null;
+                            MetricasGlobais global;
+                            try {
+                                RedeDeFilas redeDeFilas = IconicoXML.newRedeDeFilas(modeloThread);
+                                redeDeFilas.setFluxos(FluxosAleatorios.getPadrao().replicacao(i));
+                                Simulation sim = newSimulacaoSequencial(redeDeFilas, carga);
+                                sim.simular();
+                                if (arquivoOut != null) {
+                                    temp = sim.getMetricas();
+                                    global = temp.getMetricasGlobais();
+                                } else {
+                                    global = sim.getMetricasGlobais();
+                                }
+                            } catch (Throwable ex) {
+                                synchronized (globais) {
+                                    if (falha[0] == null) {
+                                        falha[0] = new Exception("Replication " + i + " failed: " + ex, ex);
+                                    }
+                                }
+                                return;
+                            }
+                            synchronized (globais) {
+                                globais[i] = global;
+                                completas[i] = temp;
+                                //somente a sequência contínua de replicações terminadas é avaliada
+                                while (!atingida[0] && avaliadas[0] < numExecucoes && globais[avaliadas[0] + 1] != null) {
+                                    avaliadas[0]++;
+                                    resuladosGlobais.add(globais[avaliadas[0]]);
+                                    if (completas[avaliadas[0]] != null) {
+                                        metricas.addMetrica(completas[avaliadas[0]]);
+                                    }
+                                    EstatisticasReplicacoes estatisticas = resuladosGlobais.getReplicacoes();
+                                    estatisticas.setMediaControle(carga.getMediaComputacao());
+                                    atingida[0] = estatisticas.getNumAmostras() >= MINIMO_AMOSTRAS
+                                            && estatisticas.isPrecisaoAtingida(meiaLarguraRelativa, EstatisticasReplicacoes.CONFIANCA);
+                                }
+                            }
+                        }
+                    }
+                });
+                thread[t].start();
+            }
+            for (int t = 0; t < threads; t++) {
+                thread[t].join();
+            }
+            visible = true;
+            if (falha[0] != null) {
+                Logger.getLogger(Terminal.class.getName()).log(Level.SEVERE, null, falha[0]);
+                throw falha[0];
+            }
+            double t2 = System.currentTimeMillis();
+            progrSim.println("  Total Simulation Execution Time = " + (t2 - t1) / 1000 + "seconds");
+            if (atingida[0]) {
+                progrSim.println("  Precision reached after " + avaliadas[0] + " replications");
+            } else {
+                progrSim.println("  Precision not reached within " + avaliadas[0] + " replications", Color.orange);
+            }
+            progrSim.println("Results:");
+            if (arquivoOut != null) {
+                if (avaliadas[0] > 1) {
+                    metricas.calculaMedia();
+                }
+                t1 = System.currentTimeMillis();
+                JResultados result = new JResultados(metricas);
+                result.salvarHTML(arquivoOut);
+                t2 = System.currentTimeMillis();
+                progrSim.println("  Time to create html = " + (t2 - t1) / 1000 + "seconds");
+            }
+            progrSim.println(resuladosGlobais.toString());
+        } catch (Exception erro) {
+            progrSim.println(erro.getMessage(), Color.red);
+            progrSim.print("Simulation Aborted", Color.red);
+            progrSim.println("!", Color.red);
+        }
+    }
+
     /**
      * Simulação cliente servidor
      * Executa as ações do servidor, porem ainda não é a versão definitiva
@@ -403,10 +598,11 @@ public class Terminal {
         if (numThreads <= 1) {
             System.out.println("Será realizado " + numExecucoes + " simulações.");
             double t1 = System.currentTimeMillis();
+            GerarCarga carga = newCarga(modelo, numExecucoes);
             for (int i = 1; i <= numExecucoes; i++) {
                 RedeDeFilas redeDeFilas = IconicoXML.newRedeDeFilas(modelo);
-                List<Tarefa> tarefas = IconicoXML.newGerarCarga(modelo).toTarefaList(redeDeFilas);
-                Simulation sim = new SequentialSimulation(progrSim, redeDeFilas, tarefas);//[10%] --> 55 %
+                redeDeFilas.setFluxos(FluxosAleatorios.getPadrao().replicacao(i));
+                Simulation sim = newSimulacaoSequencial(redeDeFilas, carga);//[10%] --> 55 %
                 sim.simular();//[30%] --> 85%
                 Metricas temp = sim.getMetricas();
                 metricas.addMetrica(temp);
@@ -500,6 +696,54 @@ public class Terminal {
         System.out.println("Realizados " + metricas.getNumeroDeSimulacoes() + " simulações");
     }
 
+    /**
+     * Obtém a carga do modelo. Quando ela é usada por mais de uma replicação
+     * suas entradas são lidas uma única vez e compartilhadas entre as
+     * replicações e threads; em uma única simulação as tarefas são lidas sob
+     * demanda, sem manter o trace inteiro em memória.
+     *
+     * @param replicacoes número de simulações que usarão a carga
+     */
+    static GerarCarga newCarga(Document modelo, int replicacoes) {
+        GerarCarga carga = IconicoXML.newGerarCarga(modelo);
+        if (carga == null || replicacoes <= 1) {
+            return carga;
+        }
+        return carga.compilar();
+    }
+
+    /**
+     * Cria a simulação sequencial do modelo. As tarefas de todas as cargas são
+     * lidas sob demanda durante a simulação, cada replicação com as suas
+     * próprias fontes.
+     */
+    Simulation newSimulacaoSequencial(RedeDeFilas redeDeFilas, GerarCarga carga) {
+        configurarLote(redeDeFilas);
+        Simulation sim;
+        if (carga != null) {
+            sim = new SequentialSimulation(progrSim, redeDeFilas, carga);
+        } else {
+            sim = new SequentialSimulation(progrSim, redeDeFilas, (List<Tarefa>) null);
+        }
+        if (precisaoDuracao > 0) {
+            sim.setControleDuracao(new ControleDuracao(precisaoDuracao));
+        }
+        return sim;
+    }
+
+    /**
+     * Ativa o escalonamento em lote nos mestres quando pedido com -b
+     */
+    private void configurarLote(RedeDeFilas redeDeFilas) {
+        if (lote) {
+            for (CS_Processamento mestre : redeDeFilas.getMestres()) {
+                if (mestre instanceof Mestre) {
+                    ((Mestre) mestre).setTamanhoLote(Mestre.LOTE_COMPLETO);
+                }
+            }
+        }
+    }
+
     /**
      * Realiza a leitura de um arquivo de configuração para a simulação cliente/servidor
      * @param configuracao aquivo com linhas contendo: [servidor/ip] [porta] [numero de simulações]
@@ -535,13 +779,15 @@ public class Terminal {
     private class RunnableImpl implements Runnable {
 
         private final Document modelo;
+        private final GerarCarga carga;
         private final int numExecucaoThread;
         private final int inicio;
         private Metricas metricas;
         private MetricasGlobais metricasGlobais;
 
-        public RunnableImpl(Document modelo, int inicio, int numExecucao) {
+        public RunnableImpl(Document modelo, GerarCarga carga, int inicio, int numExecucao) {
             this.modelo = modelo;
+            this.carga = carga;
             this.numExecucaoThread = numExecucao;
             this.inicio = inicio;
             this.metricas = new Metricas(null);
@@ -564,27 +810,18 @@ public class Terminal {
                 //criar grade
                 RedeDeFilas redeDeFilas;
                 redeDeFilas = IconicoXML.newRedeDeFilas(modelo);
-                List<Tarefa> tarefas = IconicoXML.newGerarCarga(modelo).toTarefaList(redeDeFilas);
+                //o número da replicação define seus fluxos, qualquer que seja a thread
+                redeDeFilas.setFluxos(FluxosAleatorios.getPadrao().replicacao(inicio + 1 + i));
                 //Verifica recursos do modelo e define roteamento
-                Simulation sim = new SequentialSimulation(progrSim, redeDeFilas, tarefas);//[10%] --> 55 %
+                Simulation sim = newSimulacaoSequencial(redeDeFilas, carga);//[10%] --> 55 %
                 //Realiza asimulação
                 sim.simular();//[30%] --> 85%
                 if (arquivoOut == null) {
-                    MetricasGlobais global = new MetricasGlobais(redeDeFilas, sim.getTime(null), tarefas);
-                    metricasGlobais.setTempoSimulacao(metricasGlobais.getTempoSimulacao() + global.getTempoSimulacao());
-                    metricasGlobais.setSatisfacaoMedia(metricasGlobais.getSatisfacaoMedia() + global.getSatisfacaoMedia());
-                    metricasGlobais.setOciosidadeComputacao(metricasGlobais.getOciosidadeComputacao() + global.getOciosidadeComputacao());
-                    metricasGlobais.setOciosidadeComunicacao(metricasGlobais.getOciosidadeComunicacao() + global.getOciosidadeComunicacao());
-                    metricasGlobais.setEficiencia(metricasGlobais.getEficiencia() + global.getEficiencia());
+                    metricasGlobais.add(sim.getMetricasGlobais());
                 } else {
                     Metricas temp = sim.getMetricas();
                     metricas.addMetrica(temp);
-                    MetricasGlobais global = temp.getMetricasGlobais();
-                    metricasGlobais.setTempoSimulacao(metricasGlobais.getTempoSimulacao() + global.getTempoSimulacao());
-                    metricasGlobais.setSatisfacaoMedia(metricasGlobais.getSatisfacaoMedia() + global.getSatisfacaoMedia());
-                    metricasGlobais.setOciosidadeComputacao(metricasGlobais.getOciosidadeComputacao() + global.getOciosidadeComputacao());
-                    metricasGlobais.setOciosidadeComunicacao(metricasGlobais.getOciosidadeComunicacao() + global.getOciosidadeComunicacao());
-                    metricasGlobais.setEficiencia(metricasGlobais.getEficiencia() + global.getEficiencia());
+                    metricasGlobais.add(temp.getMetricasGlobais());
                 }
                 double t2 = System.currentTimeMillis();
                 //Calcula tempo de simulação em segundos
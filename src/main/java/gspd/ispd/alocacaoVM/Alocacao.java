@@ -5,8 +5,10 @@
  */
 package gspd.ispd.alocacaoVM;
 
+import gspd.ispd.escalonador.IndiceEscravos;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.CentroServico;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_MaquinaCloud;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_VMM;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_VirtualMac;
 import java.util.List;
@@ -22,6 +24,14 @@ public abstract class Alocacao {
     protected VMM VMM; //vmm responsável por implementar a política de alocação
     protected List<CS_VirtualMac> VMsRejeitadas;    
     protected List<List> caminhoMaquina;
+    /**
+     * Posição de cada máquina física na lista de máquinas
+     */
+    private final IndiceEscravos indiceMaquinas = new IndiceEscravos();
+    /**
+     * Capacidade livre das máquinas físicas, refeita quando a lista muda
+     */
+    private IndiceCapacidade indiceCapacidade;
     
     //iniciar a alocação
     public abstract void iniciar();
@@ -91,6 +101,55 @@ public abstract class Alocacao {
     public Double getTempoAtualizar(){
         return null;
     }
-}
 
+    /**
+     * Obtém em tempo constante a posição da máquina na lista de máquinas
+     * físicas, que também é a sua posição em caminhoMaquina e infoMaquinas
+     *
+     * @return índice da máquina, ou -1 se não for gerenciada por esta alocação
+     */
+    public int getIndiceMaquina(CentroServico maquina) {
+        return indiceMaquinas.indiceDe(maquinasFisicas, maquina);
+    }
+
+    /**
+     * @return caminho até a máquina física de índice informado
+     */
+    @SuppressWarnings("unchecked")
+    public List<CentroServico> getCaminhoMaquina(int indice) {
+        return (List<CentroServico>) caminhoMaquina.get(indice);
+    }
+
+    /**
+     * @return índice da capacidade livre das máquinas físicas
+     */
+    protected IndiceCapacidade getIndiceCapacidade() {
+        if (indiceCapacidade == null || !indiceCapacidade.isIndiceDe(maquinasFisicas)) {
+            indiceCapacidade = new IndiceCapacidade(maquinasFisicas);
+        }
+        return indiceCapacidade;
+    }
 
+    /**
+     * Envia a VM para a máquina física de índice informado, reservando os
+     * recursos dela; se a máquina for um VMM a VM é apenas redirecionada
+     */
+    protected void alocarVM(CS_VirtualMac vm, int indice) {
+        CS_Processamento maq = maquinasFisicas.get(indice);
+        if (maq instanceof CS_MaquinaCloud) {
+            CS_MaquinaCloud hospedeira = (CS_MaquinaCloud) maq;
+            hospedeira.setMemoriaDisponivel(hospedeira.getMemoriaDisponivel() - vm.getMemoriaDisponivel());
+            hospedeira.setDiscoDisponivel(hospedeira.getDiscoDisponivel() - vm.getDiscoDisponivel());
+            hospedeira.setProcessadoresDisponiveis(hospedeira.getProcessadoresDisponiveis() - vm.getProcessadoresDisponiveis());
+            vm.setMaquinaHospedeira(hospedeira);
+            getIndiceCapacidade().atualizar(indice);
+        }
+        vm.setCaminho(escalonarRota(maq));
+        VMM.enviarVM(vm);
+    }
+
+    protected void rejeitarVM(CS_VirtualMac vm) {
+        vm.setStatus(CS_VirtualMac.REJEITADA);
+        VMsRejeitadas.add(vm);
+    }
+}
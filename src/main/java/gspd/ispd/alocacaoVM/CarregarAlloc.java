@@ -4,6 +4,7 @@
  */
 package gspd.ispd.alocacaoVM;
 
+import gspd.ispd.escalonador.CompiladorMemoria;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -30,6 +31,17 @@ public class CarregarAlloc {
      * @return Nova instancia do objeto Escalonador
      */
     public static Alocacao getNewAlocadorVM(String nome) {
+        //Políticas compiladas durante a execução são definidas a partir do bytecode em memória
+        Class<?> classe = CompiladorMemoria.getClasse(CAMINHO_CLASSE + nome);
+        if (classe != null) {
+            try {
+                Class<? extends Alocacao> compilada = classe.asSubclass(Alocacao.class);
+                return compilada.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException ex) {
+                Logger.getLogger(CarregarAlloc.class.getName()).log(Level.SEVERE, null, ex);
+            }
+            return null;
+        }
         if (loader == null) {
             File diretorio = new File(DIRETORIO);
             if (diretorio.exists()) {
@@ -44,19 +56,33 @@ public class CarregarAlloc {
             }
         }
         try {
-            Class cl = loader.loadClass(CAMINHO_CLASSE + nome);
-            Alocacao alocadorVM = (Alocacao) cl.newInstance();
+            Class<? extends Alocacao> cl = loader.loadClass(CAMINHO_CLASSE + nome).asSubclass(Alocacao.class);
+            Alocacao alocadorVM = cl.getDeclaredConstructor().newInstance();
             //Escalonador escalonador = (Escalonador) Class.forName("novoescalonador."+nome, true, loader).newInstance();
             return alocadorVM;
         } catch (RuntimeException ex) {
             Logger.getLogger(CarregarAlloc.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (InstantiationException ex) {
-            Logger.getLogger(CarregarAlloc.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (IllegalAccessException ex) {
-            Logger.getLogger(CarregarAlloc.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ClassNotFoundException ex) {
+        } catch (ReflectiveOperationException ex) {
             Logger.getLogger(CarregarAlloc.class.getName()).log(Level.SEVERE, null, ex);
         }
         return null;
     }
+
+    /**
+     * Compila em memória o código-fonte da política, que passa a ser
+     * carregada a partir do bytecode
+     *
+     * @param nome nome da política, que também é o nome da classe
+     * @return erros da compilação, ou null se compilou corretamente
+     */
+    public static String compilar(String nome, String fonte) {
+        return CompiladorMemoria.compilar(CAMINHO_CLASSE + nome, nome, fonte);
+    }
+
+    /**
+     * Grava as classes da política compilada em memória no diretório
+     */
+    public static boolean gravarClasses(String nome, File diretorio) {
+        return CompiladorMemoria.gravarClasses(CAMINHO_CLASSE + nome, diretorio);
+    }
 }
\ No newline at end of file
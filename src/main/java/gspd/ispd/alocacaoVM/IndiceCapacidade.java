@@ -0,0 +1,211 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.alocacaoVM;
+
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_MaquinaCloud;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_VMM;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_VirtualMac;
+import java.util.List;
+
+/**
+ * Índice da capacidade livre (processadores, memória e disco) das máquinas
+ * físicas de uma alocação, para que os alocadores não percorram a lista de
+ * máquinas a cada VM.
+ *
+ * É uma árvore de segmentos sobre as posições da lista: cada nó guarda o
+ * maior valor livre de cada dimensão e o maior e o menor volume
+ * (processadores x memória x disco) das máquinas abaixo dele. As consultas
+ * descem apenas pelos nós em que a VM pode caber, em O(log n) quando uma
+ * das dimensões é a que limita, e a atualização de uma máquina também custa
+ * O(log n).
+ *
+ * Um VMM da lista aceita qualquer VM, que é encaminhada a ele, e por isso
+ * tem capacidade infinita; nas consultas por volume ele não é considerado.
+ *
+ * @author denison
+ */
+public class IndiceCapacidade {
+
+    private final List<CS_Processamento> maquinas;
+    private final int tamanho;
+    /**
+     * Número de folhas, potência de dois
+     */
+    private final int folhas;
+    private final double[] processadores;
+    private final double[] memoria;
+    private final double[] disco;
+    private final double[] maiorVolume;
+    private final double[] menorVolume;
+
+    public IndiceCapacidade(List<CS_Processamento> maquinas) {
+        this.maquinas = maquinas;
+        this.tamanho = maquinas.size();
+        int n = 1;
+        while (n < tamanho) {
+            n *= 2;
+        }
+        this.folhas = n;
+        this.processadores = new double[2 * n];
+        this.memoria = new double[2 * n];
+        this.disco = new double[2 * n];
+        this.maiorVolume = new double[2 * n];
+        this.menorVolume = new double[2 * n];
+        for (int i = 0; i < n; i++) {
+            preencherFolha(i);
+        }
+        for (int no = n - 1; no >= 1; no--) {
+            combinar(no);
+        }
+    }
+
+    /**
+     * @return número de máquinas indexadas
+     */
+    public int size() {
+        return tamanho;
+    }
+
+    /**
+     * @return se o índice corresponde à lista, que não pode ter mudado de
+     * tamanho desde a construção
+     */
+    public boolean isIndiceDe(List<?> lista) {
+        return lista == maquinas && lista.size() == tamanho;
+    }
+
+    /**
+     * Relê a capacidade livre da máquina, após uma alocação
+     */
+    public void atualizar(int indice) {
+        preencherFolha(indice);
+        for (int no = (indice + folhas) / 2; no >= 1; no /= 2) {
+            combinar(no);
+        }
+    }
+
+    /**
+     * @return primeira máquina a partir de inicio em que a VM cabe, ou -1
+     */
+    public int primeiroQueCabe(CS_VirtualMac vm, int inicio) {
+        if (inicio >= tamanho) {
+            return -1;
+        }
+        return primeiro(1, 0, folhas - 1, Math.max(inicio, 0), vm.getProcessadoresDisponiveis(),
+                vm.getMemoriaDisponivel(), vm.getDiscoDisponivel());
+    }
+
+    /**
+     * @return máquina de maior volume livre em que a VM cabe, ou -1
+     */
+    public int maiorVolumeQueCabe(CS_VirtualMac vm) {
+        return melhor(vm, true);
+    }
+
+    /**
+     * @return máquina de menor volume livre em que a VM cabe (best fit), ou
+     * -1
+     */
+    public int menorVolumeQueCabe(CS_VirtualMac vm) {
+        return melhor(vm, false);
+    }
+
+    private int primeiro(int no, int esq, int dir, int inicio, double proc, double mem, double dsc) {
+        if (dir < inicio || !cabe(no, proc, mem, dsc)) {
+            return -1;
+        }
+        if (no >= folhas) {
+            return esq;
+        }
+        int meio = (esq + dir) / 2;
+        int achou = primeiro(2 * no, esq, meio, inicio, proc, mem, dsc);
+        if (achou != -1) {
+            return achou;
+        }
+        return primeiro(2 * no + 1, meio + 1, dir, inicio, proc, mem, dsc);
+    }
+
+    /**
+     * Busca com poda: desce primeiro pelo filho com o volume mais promissor e
+     * descarta os nós que não podem superar a melhor máquina já encontrada
+     */
+    private int melhor(CS_VirtualMac vm, boolean maior) {
+        double proc = vm.getProcessadoresDisponiveis();
+        double mem = vm.getMemoriaDisponivel();
+        double dsc = vm.getDiscoDisponivel();
+        int[] pilha = new int[64];
+        int topo = 0;
+        pilha[topo++] = 1;
+        int escolhida = -1;
+        double volumeEscolhida = maior ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        while (topo > 0) {
+            int no = pilha[--topo];
+            double limite = maior ? maiorVolume[no] : menorVolume[no];
+            if (!cabe(no, proc, mem, dsc) || Double.isInfinite(limite)
+                    || (maior ? limite <= volumeEscolhida : limite >= volumeEscolhida)) {
+                continue;
+            }
+            if (no >= folhas) {
+                escolhida = no - folhas;
+                volumeEscolhida = limite;
+                continue;
+            }
+            int esq = 2 * no;
+            int dir = 2 * no + 1;
+            boolean esqPrimeiro = maior ? maiorVolume[esq] >= maiorVolume[dir] : menorVolume[esq] <= menorVolume[dir];
+            //o último empilhado é visitado primeiro
+            if (esqPrimeiro) {
+                pilha[topo++] = dir;
+                pilha[topo++] = esq;
+            } else {
+                pilha[topo++] = esq;
+                pilha[topo++] = dir;
+            }
+        }
+        return escolhida;
+    }
+
+    private boolean cabe(int no, double proc, double mem, double dsc) {
+        return processadores[no] >= proc && memoria[no] >= mem && disco[no] >= dsc;
+    }
+
+    private void preencherFolha(int indice) {
+        int no = indice + folhas;
+        CS_Processamento maq = indice < tamanho ? maquinas.get(indice) : null;
+        if (maq instanceof CS_VMM) {
+            processadores[no] = Double.POSITIVE_INFINITY;
+            memoria[no] = Double.POSITIVE_INFINITY;
+            disco[no] = Double.POSITIVE_INFINITY;
+            maiorVolume[no] = Double.NEGATIVE_INFINITY;
+            menorVolume[no] = Double.POSITIVE_INFINITY;
+        } else if (maq instanceof CS_MaquinaCloud) {
+            CS_MaquinaCloud cloud = (CS_MaquinaCloud) maq;
+            processadores[no] = cloud.getProcessadoresDisponiveis();
+            memoria[no] = cloud.getMemoriaDisponivel();
+            disco[no] = cloud.getDiscoDisponivel();
+            double volume = processadores[no] * memoria[no] * disco[no];
+            maiorVolume[no] = volume;
+            menorVolume[no] = volume;
+        } else {
+            //posição vazia: nenhuma VM cabe
+            processadores[no] = Double.NEGATIVE_INFINITY;
+            memoria[no] = Double.NEGATIVE_INFINITY;
+            disco[no] = Double.NEGATIVE_INFINITY;
+            maiorVolume[no] = Double.NEGATIVE_INFINITY;
+            menorVolume[no] = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private void combinar(int no) {
+        int esq = 2 * no;
+        int dir = 2 * no + 1;
+        processadores[no] = Math.max(processadores[esq], processadores[dir]);
+        memoria[no] = Math.max(memoria[esq], memoria[dir]);
+        disco[no] = Math.max(disco[esq], disco[dir]);
+        maiorVolume[no] = Math.max(maiorVolume[esq], maiorVolume[dir]);
+        menorVolume[no] = Math.min(menorVolume[esq], menorVolume[dir]);
+    }
+}
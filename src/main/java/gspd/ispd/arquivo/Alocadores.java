@@ -4,9 +4,10 @@
  */
 package gspd.ispd.arquivo;
 
+import gspd.ispd.alocacaoVM.CarregarAlloc;
 import gspd.ispd.alocacaoVM.ManipularArquivosAlloc;
+import gspd.ispd.escalonador.CompiladorMemoria;
 import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -29,8 +30,6 @@ import java.util.logging.Logger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
-import javax.tools.JavaCompiler;
-import javax.tools.ToolProvider;
 
 /**
  * Esta classe realiza o gerenciamento dos arquivos de escalonamento do
@@ -200,37 +199,22 @@ public class Alocadores implements  ManipularArquivosAlloc{
      */
     @Override
     public String compilar(String escalonador) {
-        //Compilação
-        File arquivo = new File(diretorio, escalonador + ".java");
-        String errosStr;
-        JavaCompiler compilador = ToolProvider.getSystemJavaCompiler();
-        if (compilador == null) {
-            try {
-                Process processo = Runtime.getRuntime().exec("javac " + arquivo.getPath());
-                StringBuilder errosdoComando = new StringBuilder();
-                InputStream StreamErro = processo.getErrorStream();
-                InputStreamReader inpStrAux = new InputStreamReader(StreamErro);
-                BufferedReader SaidadoProcesso = new BufferedReader(inpStrAux);
-                String linha = SaidadoProcesso.readLine();
-                while (linha != null) {
-                    errosdoComando.append(linha).append("\n");
-                    linha = SaidadoProcesso.readLine();
-                }
-                SaidadoProcesso.close();
-                errosStr = errosdoComando.toString();
-            } catch (IOException ex) {
-                errosStr = "Não foi possível compilar";
-                Logger.getLogger(Alocadores.class.getName()).log(Level.SEVERE, null, ex);
+        if (CompiladorMemoria.disponivel()) {
+            //Compilação em memória; o bytecode é gravado apenas para que a política continue disponível nas próximas execuções
+            String fonte = ler(escalonador);
+            if (fonte == null) {
+                return "Não foi possível compilar";
             }
-        } else {
-            OutputStream erros = new ByteArrayOutputStream();
-            compilador.run(null, null, erros, arquivo.getPath());
-            errosStr = erros.toString();
+            String erros = CarregarAlloc.compilar(escalonador, fonte);
+            if (erros == null && CarregarAlloc.gravarClasses(escalonador, diretorio)) {
+                inserirLista(escalonador);
+            }
+            return erros;
         }
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException ex) {
-            Logger.getLogger(Alocadores.class.getName()).log(Level.SEVERE, null, ex);
+        File arquivo = new File(diretorio, escalonador + ".java");
+        String errosStr = compilarExterno(arquivo);
+        if (errosStr == null) {
+            errosStr = "Não foi possível compilar";
         }
         File test = new File(diretorio, escalonador + ".class");
         if (test.exists()) {
@@ -242,6 +226,35 @@ public class Alocadores implements  ManipularArquivosAlloc{
         return errosStr;
     }
 
+    /**
+     * Compila o arquivo com o javac externo, usado quando a máquina virtual
+     * não possui compilador, aguardando o término do processo
+     *
+     * @return saída de erros do javac, ou null se não foi possível executá-lo
+     */
+    private String compilarExterno(File arquivo) {
+        try {
+            Process processo = Runtime.getRuntime().exec("javac " + arquivo.getPath());
+            StringBuilder errosdoComando = new StringBuilder();
+            InputStream StreamErro = processo.getErrorStream();
+            InputStreamReader inpStrAux = new InputStreamReader(StreamErro);
+            BufferedReader SaidadoProcesso = new BufferedReader(inpStrAux);
+            String linha = SaidadoProcesso.readLine();
+            while (linha != null) {
+                errosdoComando.append(linha).append("\n");
+                linha = SaidadoProcesso.readLine();
+            }
+            SaidadoProcesso.close();
+            processo.waitFor();
+            return errosdoComando.toString();
+        } catch (IOException ex) {
+            Logger.getLogger(Alocadores.class.getName()).log(Level.SEVERE, null, ex);
+        } catch (InterruptedException ex) {
+            Logger.getLogger(Alocadores.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return null;
+    }
+
     /**
      * recebe nome do escalonar e remove ele da lista de escalonadores
      */
@@ -445,38 +458,17 @@ public class Alocadores implements  ManipularArquivosAlloc{
     public boolean importarAlocadoresJava(File nomeArquivoJava) {
         //streams
         File localDestino = new File(diretorio, nomeArquivoJava.getName());
-        String errosStr;
+        String nome = nomeArquivoJava.getName().substring(0, nomeArquivoJava.getName().length() - 5);
         //copiar para diretório
         copiarArquivo(nomeArquivoJava, localDestino);
         //Compilação
-        JavaCompiler compilador = ToolProvider.getSystemJavaCompiler();
-        if (compilador == null) {
-            try {
-                Process processo = Runtime.getRuntime().exec("javac " + localDestino.getPath());
-                StringBuilder errosdoComando = new StringBuilder();
-                InputStream StreamErro = processo.getErrorStream();
-                InputStreamReader inpStrAux = new InputStreamReader(StreamErro);
-                BufferedReader SaidadoProcesso = new BufferedReader(inpStrAux);
-                String linha = SaidadoProcesso.readLine();
-                while (linha != null) {
-                    errosdoComando.append(linha).append("\n");
-                    linha = SaidadoProcesso.readLine();
-                }
-                SaidadoProcesso.close();
-                errosStr = errosdoComando.toString();
-            } catch (IOException ex) {
-                return false;
-                //Logger.getLogger(GerenciaPacoteAlocadorJar.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        } else {
-            OutputStream erros = new ByteArrayOutputStream();
-            compilador.run(null, null, erros, localDestino.getPath());
-            errosStr = erros.toString();
+        if (CompiladorMemoria.disponivel()) {
+            return compilar(nome) == null;
         }
-        if (errosStr.length() != 0) {
+        String errosStr = compilarExterno(localDestino);
+        if (errosStr == null || errosStr.length() != 0) {
             return false;
         } else {
-            String nome = nomeArquivoJava.getName().substring(0, nomeArquivoJava.getName().length() - 5);
             File test = new File(diretorio, nome + ".class");
             if (!test.exists()) {
                 return false;
@@ -2,6 +2,7 @@ package gspd.ispd.arquivo;
 
 import gspd.ispd.GUI;
 import gspd.ispd.motor.metricas.Metricas;
+import gspd.ispd.motor.metricas.MetricasDAG;
 import gspd.ispd.motor.metricas.MetricasGlobais;
 import java.awt.image.BufferedImage;
 import java.io.File;
@@ -131,6 +132,15 @@ public class SalvarResultadosHTML {
                 + "<li>Queue average time: " + metricas.getTempoMedioFilaProcessamento() + " seconds.</li>\n"
                 + "<li>Processing average time: " + metricas.getTempoMedioProcessamento() + " seconds.</li>\n"
                 + "<li>System average time: " + tempoMedioSistemaProcessamento + " seconds.</li></ul></li></ul></li></ul>";
+        if (!metricas.getMetricasDAG().isEmpty()) {
+            this.tarefas += "<ul><li><h2>DAG Applications</h2><ul>\n";
+            for (MetricasDAG item : metricas.getMetricasDAG().values()) {
+                this.tarefas += "<li><strong>" + item.getAplicacao() + "</strong> (" + item.getInstancias() + " instances, " + item.getTarefas() + " tasks)<ul>\n"
+                        + "<li>Makespan average: " + item.getMakespanMedio() + " seconds.</li>\n"
+                        + "<li>Scheduling throughput: " + item.getDecisoesPorSegundo() + " decisions/s.</li></ul></li>\n";
+            }
+            this.tarefas += "</ul></li></ul>";
+        }
     }
 
     /**
@@ -0,0 +1,158 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.arquivo.interpretador.cargas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tarefas de um trace armazenadas em colunas de tipos primitivos. Os usuários
+ * são guardados uma única vez e referenciados por índice.
+ *
+ * @author Diogo Tavares
+ */
+public class ColunasTrace {
+
+    private int tamanho;
+    private int[] ids;
+    private double[] chegadas;
+    private double[] temposExecucao;
+    private double[] temposRequisitados;
+    private double[] comunicacoes;
+    private boolean[] canceladas;
+    private int[] usuarios;
+    private List<String> nomesUsuarios;
+    private Map<String, Integer> indiceUsuarios;
+
+    public ColunasTrace(int capacidade) {
+        capacidade = Math.max(capacidade, 16);
+        this.tamanho = 0;
+        this.ids = new int[capacidade];
+        this.chegadas = new double[capacidade];
+        this.temposExecucao = new double[capacidade];
+        this.temposRequisitados = new double[capacidade];
+        this.comunicacoes = new double[capacidade];
+        this.canceladas = new boolean[capacidade];
+        this.usuarios = new int[capacidade];
+        this.nomesUsuarios = new ArrayList<String>();
+        this.indiceUsuarios = new HashMap<String, Integer>();
+    }
+
+    /**
+     * Adiciona ao fim das colunas a tarefa descrita pelo registro
+     */
+    public void add(RegistroTrace registro) {
+        add(registro.id, registro.chegada, registro.tempoExecucao, registro.tempoRequisitado, registro.comunicacao, registro.cancelada, registro.usuario);
+    }
+
+    /**
+     * Adiciona uma tarefa sem tempo requisitado
+     */
+    public void add(int id, double chegada, double tempoExecucao, double comunicacao, boolean cancelada, String usuario) {
+        add(id, chegada, tempoExecucao, -1, comunicacao, cancelada, usuario);
+    }
+
+    public void add(int id, double chegada, double tempoExecucao, double tempoRequisitado, double comunicacao, boolean cancelada, String usuario) {
+        if (tamanho == ids.length) {
+            int capacidade = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacidade);
+            chegadas = Arrays.copyOf(chegadas, capacidade);
+            temposExecucao = Arrays.copyOf(temposExecucao, capacidade);
+            temposRequisitados = Arrays.copyOf(temposRequisitados, capacidade);
+            comunicacoes = Arrays.copyOf(comunicacoes, capacidade);
+            canceladas = Arrays.copyOf(canceladas, capacidade);
+            usuarios = Arrays.copyOf(usuarios, capacidade);
+        }
+        ids[tamanho] = id;
+        chegadas[tamanho] = chegada;
+        temposExecucao[tamanho] = tempoExecucao;
+        temposRequisitados[tamanho] = tempoRequisitado;
+        comunicacoes[tamanho] = comunicacao;
+        canceladas[tamanho] = cancelada;
+        usuarios[tamanho] = indiceUsuario(usuario);
+        tamanho++;
+    }
+
+    private int indiceUsuario(String usuario) {
+        Integer indice = indiceUsuarios.get(usuario);
+        if (indice == null) {
+            indice = nomesUsuarios.size();
+            nomesUsuarios.add(usuario);
+            indiceUsuarios.put(usuario, indice);
+        }
+        return indice;
+    }
+
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    public int getId(int i) {
+        return ids[i];
+    }
+
+    public double getChegada(int i) {
+        return chegadas[i];
+    }
+
+    public double getTempoExecucao(int i) {
+        return temposExecucao[i];
+    }
+
+    /**
+     * @return tempo de execução requisitado, ou -1 se ausente
+     */
+    public double getTempoRequisitado(int i) {
+        return temposRequisitados[i];
+    }
+
+    public double getComunicacao(int i) {
+        return comunicacoes[i];
+    }
+
+    public boolean isCancelada(int i) {
+        return canceladas[i];
+    }
+
+    public String getUsuario(int i) {
+        return nomesUsuarios.get(usuarios[i]);
+    }
+
+    public int getIndiceUsuario(int i) {
+        return usuarios[i];
+    }
+
+    /**
+     * @return usuários distintos, na ordem em que aparecem no trace
+     */
+    public List<String> getUsuarios() {
+        return nomesUsuarios;
+    }
+
+    /**
+     * Concatena, em ordem, as colunas lidas de partes consecutivas de um trace
+     *
+     * @param partes colunas de cada parte do arquivo
+     * @param maximo número máximo de tarefas mantidas
+     * @return colunas com as tarefas de todas as partes
+     */
+    public static ColunasTrace juntar(List<ColunasTrace> partes, int maximo) {
+        int total = 0;
+        for (ColunasTrace parte : partes) {
+            total += parte.tamanho;
+        }
+        ColunasTrace todas = new ColunasTrace(Math.min(total, maximo));
+        for (ColunasTrace parte : partes) {
+            for (int i = 0; i < parte.tamanho && todas.tamanho < maximo; i++) {
+                todas.add(parte.ids[i], parte.chegadas[i], parte.temposExecucao[i], parte.temposRequisitados[i],
+                        parte.comunicacoes[i], parte.canceladas[i], parte.getUsuario(i));
+            }
+        }
+        return todas;
+    }
+}
@@ -106,7 +106,8 @@ public class Interpretador {
                     + "\" sts=\"" + campos[10]
                     + "\" cpsz =\"" + campos[3]
                     + "\" cmsz=\"" + campos[20]
-                    + "\" usr=\"" + campos[11]);
+                    + "\" usr=\"" + campos[11]
+                    + "\" req=\"" + campos[8]);
             out.write("\" />");
         }
     }
@@ -121,7 +122,8 @@ public class Interpretador {
                 + "\" sts=\"" + campos[10]
                 + "\" cpsz =\"" + campos[3]
                 + "\" cmsz=\"-1"
-                + "\" usr=\"" + "user" + campos[11]);
+                + "\" usr=\"" + "user" + campos[11]
+                + "\" req=\"" + campos[8]);
         out.write("\" />");
     }
 
@@ -0,0 +1,545 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.arquivo.interpretador.cargas;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Lê diretamente arquivos de trace nos formatos Standard Workload Format (SWF)
+ * e Grid Workloads Format (GWF), sem a conversão intermediária para .wmsx
+ * feita por {@link gspd.ispd.arquivo.xml.TraceXML}.
+ *
+ * O arquivo é mapeado em memória em janelas e os campos de cada linha são
+ * interpretados diretamente dos bytes, sem expressões regulares e sem criar
+ * Strings por campo. Os campos utilizados e as regras de conversão são as
+ * mesmas do TraceXML: tarefas do GWF com tempo de execução -1 são ignoradas e
+ * suas chegadas são relativas à primeira linha do arquivo. Além deles é lido
+ * o tempo requisitado (9º campo), usado como estimativa de execução pelos
+ * escalonadores com backfilling.
+ *
+ * @author Diogo Tavares
+ */
+public class LeitorTrace implements Closeable {
+
+    public static final String SWF = "SWF";
+    public static final String GWF = "GWF";
+    /**
+     * Tamanho máximo de cada trecho do arquivo mapeado em memória
+     */
+    private static final long JANELA = 64L * 1024 * 1024;
+    private static final int CAMPO_ID = 0;
+    private static final int CAMPO_CHEGADA = 1;
+    private static final int CAMPO_TEMPO_EXECUCAO = 3;
+    private static final int CAMPO_TEMPO_REQUISITADO = 8;
+    private static final int CAMPO_STATUS = 10;
+    private static final int CAMPO_USUARIO = 11;
+    private static final int CAMPO_COMUNICACAO = 20;
+    private static final double[] POTENCIAS = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final boolean gwf;
+    private final RandomAccessFile arquivo;
+    private final FileChannel canal;
+    private final long inicioRegiao;
+    private final long fimRegiao;
+    private MappedByteBuffer buffer;
+    private long inicioBuffer;
+    private int cursor;
+    private int linhaInicio;
+    private int linhaFim;
+    private double primeiraChegada;
+    private boolean possuiPrimeiraChegada;
+    private final RegistroTrace descarte;
+    private final Map<Long, String> usuariosNumericos;
+    private final Map<String, String> usuariosTexto;
+
+    /**
+     * Lê o arquivo inteiro, do início ao fim
+     *
+     * @param arquivo trace no formato indicado
+     * @param formato {@link #SWF} ou {@link #GWF}
+     */
+    public LeitorTrace(File arquivo, String formato) throws IOException {
+        this(arquivo, formato, 0, arquivo.length());
+    }
+
+    /**
+     * Lê somente o trecho [inicio, fim) do arquivo. O trecho deve começar no
+     * início de uma linha.
+     */
+    private LeitorTrace(File arquivo, String formato, long inicio, long fim) throws IOException {
+        if (!SWF.equals(formato) && !GWF.equals(formato)) {
+            throw new IllegalArgumentException("Trace format not supported: " + formato);
+        }
+        this.gwf = GWF.equals(formato);
+        this.arquivo = new RandomAccessFile(arquivo, "r");
+        this.canal = this.arquivo.getChannel();
+        this.inicioRegiao = inicio;
+        this.fimRegiao = Math.min(fim, canal.size());
+        this.descarte = new RegistroTrace();
+        this.usuariosNumericos = new HashMap<Long, String>();
+        this.usuariosTexto = new HashMap<String, String>();
+    }
+
+    /**
+     * Verifica se o formato pode ser lido diretamente por esta classe
+     */
+    public static boolean formatoSuportado(String formato) {
+        return SWF.equals(formato) || GWF.equals(formato);
+    }
+
+    /**
+     * Lê a próxima tarefa do trace
+     *
+     * @param registro recebe os campos da tarefa lida
+     * @return false quando não há mais tarefas
+     */
+    public boolean proximo(RegistroTrace registro) throws IOException {
+        while (proximaLinha()) {
+            if (interpretarLinha(registro)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Avança sobre as próximas tarefas do trace sem mantê-las
+     *
+     * @return número de tarefas efetivamente puladas
+     */
+    public int pular(int tarefas) throws IOException {
+        int puladas = 0;
+        while (puladas < tarefas && proximo(descarte)) {
+            puladas++;
+        }
+        return puladas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        arquivo.close();
+    }
+
+    /**
+     * Lê até maximo tarefas dividindo o arquivo em partes interpretadas em
+     * paralelo. O resultado mantém a ordem das linhas do arquivo.
+     *
+     * @param arquivo trace no formato indicado
+     * @param formato {@link #SWF} ou {@link #GWF}
+     * @param maximo número máximo de tarefas lidas
+     * @param partes número de partes lidas simultaneamente
+     * @return tarefas lidas, em colunas
+     */
+    public static ColunasTrace lerColunas(final File arquivo, final String formato, final int maximo, int partes) throws IOException {
+        long tamanho = arquivo.length();
+        //partes pequenas não compensam o custo das threads
+        partes = (int) Math.max(1, Math.min(partes, tamanho / (1024 * 1024)));
+        final long[] limites = limites(arquivo, partes);
+        final double primeiraChegada = primeiraChegada(arquivo, formato);
+        if (limites.length == 2) {
+            return lerTrecho(arquivo, formato, limites[0], limites[1], primeiraChegada, maximo);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(limites.length - 1);
+        try {
+            List<Future<ColunasTrace>> futuros = new ArrayList<Future<ColunasTrace>>();
+            for (int i = 0; i + 1 < limites.length; i++) {
+                final long inicio = limites[i];
+                final long fim = limites[i + 1];
+                futuros.add(executor.submit(new Callable<ColunasTrace>() {
+                    @Override
+                    public ColunasTrace call() throws IOException {
+                        return lerTrecho(arquivo, formato, inicio, fim, primeiraChegada, maximo);
+                    }
+                }));
+            }
+            List<ColunasTrace> colunas = new ArrayList<ColunasTrace>();
+            for (Future<ColunasTrace> futuro : futuros) {
+                colunas.add(futuro.get());
+            }
+            return ColunasTrace.juntar(colunas, maximo);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IOException(ex.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Lê as tarefas de um arquivo .wmsx já convertido, com os mesmos campos
+     * usados pelo CargaTrace. Nos formatos SWF e GWF os campos sts 0 e 5
+     * indicam tarefas canceladas.
+     *
+     * @param origem arquivo .wmsx
+     * @param formato formato das tarefas do trace (SWF, GWF ou iSPD)
+     * @param maximo número máximo de tarefas lidas
+     */
+    public static ColunasTrace lerWmsx(File origem, String formato, int maximo) throws IOException {
+        ColunasTrace colunas = new ColunasTrace((int) Math.min(maximo, origem.length() / 80));
+        BufferedReader in = new BufferedReader(new FileReader(origem));
+        try {
+            String aux;
+            while (colunas.getTamanho() < maximo && (aux = in.readLine()) != null) {
+                if (!aux.startsWith("<task ")) {
+                    continue;
+                }
+                String[] campos = aux.split("\"");
+                boolean cancelada = !formato.equals("iSPD") && (campos[5].contains("0") || campos[5].contains("5"));
+                colunas.add(Integer.parseInt(campos[1]), Double.parseDouble(campos[3]), Double.parseDouble(campos[7]),
+                        getTempoRequisitadoWmsx(campos), Double.parseDouble(campos[9]), cancelada, campos[11]);
+            }
+        } finally {
+            in.close();
+        }
+        return colunas;
+    }
+
+    /**
+     * @param campos linha de tarefa de um arquivo .wmsx dividida nas aspas
+     * @return tempo requisitado (atributo req), ou -1 em arquivos
+     * convertidos sem ele
+     */
+    public static double getTempoRequisitadoWmsx(String[] campos) {
+        return campos.length > 13 ? Double.parseDouble(campos[13]) : -1;
+    }
+
+    private static ColunasTrace lerTrecho(File arquivo, String formato, long inicio, long fim, double primeiraChegada, int maximo) throws IOException {
+        LeitorTrace leitor = new LeitorTrace(arquivo, formato, inicio, fim);
+        try {
+            leitor.primeiraChegada = primeiraChegada;
+            leitor.possuiPrimeiraChegada = true;
+            ColunasTrace colunas = new ColunasTrace((int) Math.min(maximo, (fim - inicio) / 64));
+            RegistroTrace registro = new RegistroTrace();
+            while (colunas.getTamanho() < maximo && leitor.proximo(registro)) {
+                colunas.add(registro);
+            }
+            return colunas;
+        } finally {
+            leitor.close();
+        }
+    }
+
+    /**
+     * Divide o arquivo em partes de tamanho aproximado, ajustando cada limite
+     * para o início da linha seguinte
+     */
+    private static long[] limites(File arquivo, int partes) throws IOException {
+        RandomAccessFile entrada = new RandomAccessFile(arquivo, "r");
+        try {
+            FileChannel canal = entrada.getChannel();
+            long tamanho = canal.size();
+            List<Long> limites = new ArrayList<Long>();
+            limites.add(0L);
+            ByteBuffer bytes = ByteBuffer.allocate(4096);
+            for (int i = 1; i < partes; i++) {
+                long posicao = Math.max(tamanho * i / partes, limites.get(limites.size() - 1));
+                long limite = tamanho;
+                //procura a quebra de linha a partir do byte anterior
+                long leitura = Math.max(posicao - 1, 0);
+                while (limite == tamanho && leitura < tamanho) {
+                    bytes.clear();
+                    int lidos = canal.read(bytes, leitura);
+                    if (lidos <= 0) {
+                        break;
+                    }
+                    for (int j = 0; j < lidos; j++) {
+                        if (bytes.get(j) == '\n') {
+                            limite = leitura + j + 1;
+                            break;
+                        }
+                    }
+                    leitura += lidos;
+                }
+                if (limite > limites.get(limites.size() - 1) && limite < tamanho) {
+                    limites.add(limite);
+                }
+            }
+            limites.add(tamanho);
+            long[] resultado = new long[limites.size()];
+            for (int i = 0; i < resultado.length; i++) {
+                resultado[i] = limites.get(i);
+            }
+            return resultado;
+        } finally {
+            entrada.close();
+        }
+    }
+
+    /**
+     * Obtém o instante de chegada da primeira linha de dados, usado como
+     * origem dos tempos no formato GWF
+     */
+    private static double primeiraChegada(File arquivo, String formato) throws IOException {
+        if (!GWF.equals(formato)) {
+            return 0;
+        }
+        LeitorTrace leitor = new LeitorTrace(arquivo, formato);
+        try {
+            while (leitor.proximaLinha()) {
+                if (leitor.linhaDeDados()) {
+                    return leitor.campoNumerico(CAMPO_CHEGADA);
+                }
+            }
+            return 0;
+        } finally {
+            leitor.close();
+        }
+    }
+
+    /**
+     * Delimita a próxima linha do trecho em [linhaInicio, linhaFim) do buffer,
+     * mapeando uma nova janela quando a linha ultrapassa a atual
+     */
+    private boolean proximaLinha() throws IOException {
+        while (true) {
+            if (buffer != null) {
+                int limite = buffer.limit();
+                for (int i = cursor; i < limite; i++) {
+                    if (buffer.get(i) == '\n') {
+                        linhaInicio = cursor;
+                        linhaFim = i;
+                        cursor = i + 1;
+                        return true;
+                    }
+                }
+                if (inicioBuffer + limite >= fimRegiao) {
+                    //última linha, sem quebra de linha
+                    if (cursor < limite) {
+                        linhaInicio = cursor;
+                        linhaFim = limite;
+                        cursor = limite;
+                        return true;
+                    }
+                    return false;
+                }
+                if (cursor == 0) {
+                    throw new IOException("Trace line longer than " + JANELA + " bytes");
+                }
+            }
+            long proximo = buffer == null ? inicioRegiao : inicioBuffer + cursor;
+            if (proximo >= fimRegiao) {
+                return false;
+            }
+            buffer = canal.map(FileChannel.MapMode.READ_ONLY, proximo, Math.min(JANELA, fimRegiao - proximo));
+            inicioBuffer = proximo;
+            cursor = 0;
+        }
+    }
+
+    private static boolean espaco(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /**
+     * Linhas em branco e comentários (';' ou '#') não descrevem tarefas
+     */
+    private boolean linhaDeDados() {
+        int i = linhaInicio;
+        while (i < linhaFim && espaco(buffer.get(i))) {
+            i++;
+        }
+        return i < linhaFim && buffer.get(i) != ';' && buffer.get(i) != '#';
+    }
+
+    /**
+     * Interpreta a linha atual como uma tarefa
+     *
+     * @return false se a linha não descreve uma tarefa
+     */
+    private boolean interpretarLinha(RegistroTrace registro) {
+        if (!linhaDeDados()) {
+            return false;
+        }
+        if (gwf && !possuiPrimeiraChegada) {
+            primeiraChegada = campoNumerico(CAMPO_CHEGADA);
+            possuiPrimeiraChegada = true;
+        }
+        registro.comunicacao = -1;
+        registro.tempoRequisitado = -1;
+        registro.cancelada = false;
+        int campo = 0;
+        int i = linhaInicio;
+        while (i < linhaFim) {
+            while (i < linhaFim && espaco(buffer.get(i))) {
+                i++;
+            }
+            if (i == linhaFim) {
+                break;
+            }
+            int inicio = i;
+            while (i < linhaFim && !espaco(buffer.get(i))) {
+                i++;
+            }
+            switch (campo) {
+                case CAMPO_ID:
+                    registro.id = (int) lerNumero(inicio, i);
+                    break;
+                case CAMPO_CHEGADA:
+                    registro.chegada = lerNumero(inicio, i) - (gwf ? primeiraChegada : 0);
+                    break;
+                case CAMPO_TEMPO_EXECUCAO:
+                    if (gwf && i - inicio == 2 && buffer.get(inicio) == '-' && buffer.get(inicio + 1) == '1') {
+                        return false;
+                    }
+                    registro.tempoExecucao = lerNumero(inicio, i);
+                    break;
+                case CAMPO_TEMPO_REQUISITADO:
+                    //-1 indica campo ausente nos dois formatos
+                    registro.tempoRequisitado = lerNumero(inicio, i);
+                    break;
+                case CAMPO_STATUS:
+                    //mesma regra aplicada aos campos sts do .wmsx
+                    for (int j = inicio; j < i; j++) {
+                        if (buffer.get(j) == '0' || buffer.get(j) == '5') {
+                            registro.cancelada = true;
+                        }
+                    }
+                    break;
+                case CAMPO_USUARIO:
+                    registro.usuario = lerUsuario(inicio, i);
+                    break;
+                case CAMPO_COMUNICACAO:
+                    if (gwf) {
+                        registro.comunicacao = lerNumero(inicio, i);
+                    }
+                    break;
+            }
+            campo++;
+        }
+        return campo > CAMPO_USUARIO;
+    }
+
+    private double campoNumerico(int indice) {
+        int campo = 0;
+        int i = linhaInicio;
+        while (i < linhaFim) {
+            while (i < linhaFim && espaco(buffer.get(i))) {
+                i++;
+            }
+            int inicio = i;
+            while (i < linhaFim && !espaco(buffer.get(i))) {
+                i++;
+            }
+            if (campo == indice && inicio < i) {
+                return lerNumero(inicio, i);
+            }
+            campo++;
+        }
+        return 0;
+    }
+
+    /**
+     * Converte o número escrito nos bytes [inicio, fim) do buffer. Valores
+     * com mais de 18 dígitos ou em formato inesperado são convertidos por
+     * {@link Double#parseDouble(String)}.
+     */
+    private double lerNumero(int inicio, int fim) {
+        int i = inicio;
+        boolean negativo = false;
+        if (i < fim && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negativo = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digitos = 0;
+        int expoente = 0;
+        boolean valido = false;
+        for (; i < fim && buffer.get(i) >= '0' && buffer.get(i) <= '9'; i++) {
+            mantissa = mantissa * 10 + (buffer.get(i) - '0');
+            digitos++;
+            valido = true;
+        }
+        if (i < fim && buffer.get(i) == '.') {
+            for (i++; i < fim && buffer.get(i) >= '0' && buffer.get(i) <= '9'; i++) {
+                mantissa = mantissa * 10 + (buffer.get(i) - '0');
+                digitos++;
+                expoente--;
+                valido = true;
+            }
+        }
+        if (valido && i < fim && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+            i++;
+            boolean expoenteNegativo = false;
+            if (i < fim && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                expoenteNegativo = buffer.get(i) == '-';
+                i++;
+            }
+            int valor = 0;
+            for (; i < fim && buffer.get(i) >= '0' && buffer.get(i) <= '9' && valor < 1000; i++) {
+                valor = valor * 10 + (buffer.get(i) - '0');
+            }
+            expoente += expoenteNegativo ? -valor : valor;
+        }
+        if (!valido || i != fim || digitos > 18 || Math.abs(expoente) >= POTENCIAS.length) {
+            return Double.parseDouble(texto(inicio, fim));
+        }
+        double resultado = expoente >= 0 ? mantissa * POTENCIAS[expoente] : mantissa / POTENCIAS[-expoente];
+        return negativo ? -resultado : resultado;
+    }
+
+    /**
+     * Obtém o nome do usuário, criando a String apenas na primeira vez em que
+     * cada usuário aparece
+     */
+    private String lerUsuario(int inicio, int fim) {
+        //zeros à esquerda distinguem usuários com o mesmo valor numérico
+        boolean numerico = fim - inicio <= 18 && (fim - inicio == 1 || buffer.get(inicio) != '0');
+        long valor = 0;
+        for (int i = inicio; i < fim && numerico; i++) {
+            byte b = buffer.get(i);
+            numerico = b >= '0' && b <= '9';
+            valor = valor * 10 + (b - '0');
+        }
+        if (numerico) {
+            String usuario = usuariosNumericos.get(valor);
+            if (usuario == null) {
+                usuario = gwf ? texto(inicio, fim) : "user" + texto(inicio, fim);
+                usuariosNumericos.put(valor, usuario);
+            }
+            return usuario;
+        }
+        String usuario = gwf ? texto(inicio, fim) : "user" + texto(inicio, fim);
+        String existente = usuariosTexto.get(usuario);
+        if (existente == null) {
+            usuariosTexto.put(usuario, usuario);
+            return usuario;
+        }
+        return existente;
+    }
+
+    private String texto(int inicio, int fim) {
+        byte[] bytes = new byte[fim - inicio];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(inicio + i);
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
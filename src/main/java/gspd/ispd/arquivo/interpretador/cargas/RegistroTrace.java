@@ -0,0 +1,66 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.arquivo.interpretador.cargas;
+
+/**
+ * Campos de uma tarefa lida de um trace. Um mesmo registro é reaproveitado a
+ * cada linha lida, evitando a criação de objetos por tarefa.
+ *
+ * @author Diogo Tavares
+ */
+public class RegistroTrace {
+
+    int id;
+    double chegada;
+    double tempoExecucao;
+    double tempoRequisitado;
+    double comunicacao;
+    boolean cancelada;
+    String usuario;
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return instante de submissão da tarefa, em segundos
+     */
+    public double getChegada() {
+        return chegada;
+    }
+
+    /**
+     * @return tempo de execução registrado no trace, em segundos
+     */
+    public double getTempoExecucao() {
+        return tempoExecucao;
+    }
+
+    /**
+     * @return tempo de execução requisitado pelo usuário na submissão, em
+     * segundos, ou -1 se ausente
+     */
+    public double getTempoRequisitado() {
+        return tempoRequisitado;
+    }
+
+    /**
+     * @return tamanho de comunicação registrado no trace, ou -1 se ausente
+     */
+    public double getComunicacao() {
+        return comunicacao;
+    }
+
+    /**
+     * @return se a tarefa falhou ou foi cancelada no sistema original
+     */
+    public boolean isCancelada() {
+        return cancelada;
+    }
+
+    public String getUsuario() {
+        return usuario;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.arquivo.interpretador.cargas;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Formato binário em colunas para cargas de trabalho (.wmsb), gerado uma
+ * única vez a partir de um trace SWF, GWF ou .wmsx.
+ *
+ * O arquivo possui um cabeçalho com a tabela de usuários e um índice de
+ * blocos com o menor e o maior instante de chegada de cada bloco de tarefas,
+ * seguido das colunas id, chegada, tamanho, comunicação, usuário,
+ * cancelamento e tempo requisitado. A coluna de tempo requisitado foi
+ * acrescentada na versão 2 e fica no fim, de modo que arquivos da versão 1
+ * continuam sendo lidos, sem estimativa de execução. As colunas são mapeadas em memória e acessadas diretamente
+ * pela posição da tarefa, sem percorrer o arquivo, o que permite dividir as
+ * tarefas entre os mestres e selecionar janelas de tempo com custo
+ * proporcional apenas ao que é lido.
+ *
+ * @author Diogo Tavares
+ */
+public class TraceBinario implements Closeable {
+
+    public static final String EXTENSAO = ".wmsb";
+    private static final int ASSINATURA = 0x69535044;
+    private static final int VERSAO = 2;
+    /**
+     * Quantidade de tarefas descritas por cada entrada do índice de blocos
+     */
+    public static final int TAMANHO_BLOCO = 4096;
+
+    private final RandomAccessFile arquivo;
+    private final int numTarefas;
+    private final int tamanhoBloco;
+    private final List<String> usuarios;
+    private final int[] primeiraTarefaUsuario;
+    private final double[] menorChegadaBloco;
+    private final double[] maiorChegadaBloco;
+    private final MappedByteBuffer ids;
+    private final MappedByteBuffer chegadas;
+    private final MappedByteBuffer tamanhos;
+    private final MappedByteBuffer comunicacoes;
+    private final MappedByteBuffer indicesUsuarios;
+    private final MappedByteBuffer canceladas;
+    /**
+     * Ausente em arquivos da versão 1
+     */
+    private final MappedByteBuffer requisitados;
+
+    /**
+     * Abre um arquivo .wmsb, lendo apenas o cabeçalho e mapeando as colunas
+     */
+    public TraceBinario(File arquivo) throws IOException {
+        long posicao;
+        int versao;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(arquivo)));
+        try {
+            if (in.readInt() != ASSINATURA) {
+                throw new IOException("Not a binary workload file: " + arquivo);
+            }
+            versao = in.readInt();
+            if (versao < 1 || versao > VERSAO) {
+                throw new IOException("Unsupported binary workload version " + versao + ": " + arquivo);
+            }
+            //as colunas começam logo após o cabeçalho
+            posicao = 12L + in.readInt();
+            numTarefas = in.readInt();
+            tamanhoBloco = in.readInt();
+            int numBlocos = in.readInt();
+            int numUsuarios = in.readInt();
+            usuarios = new ArrayList<String>(numUsuarios);
+            primeiraTarefaUsuario = new int[numUsuarios];
+            for (int i = 0; i < numUsuarios; i++) {
+                primeiraTarefaUsuario[i] = in.readInt();
+                usuarios.add(in.readUTF());
+            }
+            menorChegadaBloco = new double[numBlocos];
+            maiorChegadaBloco = new double[numBlocos];
+            for (int i = 0; i < numBlocos; i++) {
+                menorChegadaBloco[i] = in.readDouble();
+                maiorChegadaBloco[i] = in.readDouble();
+            }
+        } finally {
+            in.close();
+        }
+        if (8L * numTarefas > Integer.MAX_VALUE) {
+            throw new IOException("Too many tasks in binary workload file: " + numTarefas);
+        }
+        this.arquivo = new RandomAccessFile(arquivo, "r");
+        FileChannel canal = this.arquivo.getChannel();
+        ids = canal.map(FileChannel.MapMode.READ_ONLY, posicao, 4L * numTarefas);
+        posicao += 4L * numTarefas;
+        chegadas = canal.map(FileChannel.MapMode.READ_ONLY, posicao, 8L * numTarefas);
+        posicao += 8L * numTarefas;
+        tamanhos = canal.map(FileChannel.MapMode.READ_ONLY, posicao, 8L * numTarefas);
+        posicao += 8L * numTarefas;
+        comunicacoes = canal.map(FileChannel.MapMode.READ_ONLY, posicao, 8L * numTarefas);
+        posicao += 8L * numTarefas;
+        indicesUsuarios = canal.map(FileChannel.MapMode.READ_ONLY, posicao, 4L * numTarefas);
+        posicao += 4L * numTarefas;
+        canceladas = canal.map(FileChannel.MapMode.READ_ONLY, posicao, numTarefas);
+        posicao += numTarefas;
+        if (versao >= 2) {
+            requisitados = canal.map(FileChannel.MapMode.READ_ONLY, posicao, 8L * numTarefas);
+        } else {
+            requisitados = null;
+        }
+    }
+
+    public int getNumTarefas() {
+        return numTarefas;
+    }
+
+    public int getId(int i) {
+        return ids.getInt(4 * i);
+    }
+
+    public double getChegada(int i) {
+        return chegadas.getDouble(8 * i);
+    }
+
+    /**
+     * @return tempo de execução (SWF e GWF) ou tamanho de processamento
+     * (iSPD) registrado no trace
+     */
+    public double getTamanho(int i) {
+        return tamanhos.getDouble(8 * i);
+    }
+
+    public double getComunicacao(int i) {
+        return comunicacoes.getDouble(8 * i);
+    }
+
+    public boolean isCancelada(int i) {
+        return canceladas.get(i) != 0;
+    }
+
+    /**
+     * @return tempo de execução requisitado, ou -1 se ausente
+     */
+    public double getTempoRequisitado(int i) {
+        return requisitados == null ? -1 : requisitados.getDouble(8 * i);
+    }
+
+    public String getUsuario(int i) {
+        return usuarios.get(indicesUsuarios.getInt(4 * i));
+    }
+
+    /**
+     * Usuários que aparecem entre as primeiras tarefas do trace, na ordem em
+     * que aparecem, obtidos apenas do cabeçalho
+     *
+     * @param tarefas número de tarefas consideradas
+     */
+    public List<String> getUsuarios(int tarefas) {
+        List<String> lista = new ArrayList<String>();
+        for (int i = 0; i < usuarios.size() && primeiraTarefaUsuario[i] < tarefas; i++) {
+            lista.add(usuarios.get(i));
+        }
+        return lista;
+    }
+
+    /**
+     * Obtém o trecho de tarefas de um mestre, com a mesma divisão usada pelo
+     * CargaTrace: cada mestre recebe um bloco contínuo de tarefas/mestres
+     * tarefas e o resto da divisão fica com o primeiro mestre, em um trecho
+     * identificado pelo índice igual ao número de mestres.
+     *
+     * @param mestre índice do mestre, ou numMestres para o resto da divisão
+     * @param numMestres número de mestres do modelo
+     * @param tarefas número de tarefas da carga
+     * @return posição inicial e final (exclusiva) do trecho
+     */
+    public int[] particao(int mestre, int numMestres, int tarefas) {
+        int quantidadePorMestre = tarefas / numMestres;
+        int inicio = mestre * quantidadePorMestre;
+        int fim = mestre < numMestres ? inicio + quantidadePorMestre : tarefas;
+        return new int[]{Math.min(inicio, numTarefas), Math.min(fim, numTarefas)};
+    }
+
+    /**
+     * Seleciona as tarefas que chegam no intervalo [inicio, fim), lendo
+     * apenas os blocos cujo índice indica chegadas nesse intervalo
+     */
+    public ColunasTrace janela(double inicio, double fim) {
+        ColunasTrace colunas = new ColunasTrace(0);
+        for (int bloco = 0; bloco < menorChegadaBloco.length; bloco++) {
+            if (maiorChegadaBloco[bloco] < inicio || menorChegadaBloco[bloco] >= fim) {
+                continue;
+            }
+            int ultima = Math.min(numTarefas, (bloco + 1) * tamanhoBloco);
+            for (int i = bloco * tamanhoBloco; i < ultima; i++) {
+                double chegada = getChegada(i);
+                if (chegada >= inicio && chegada < fim) {
+                    colunas.add(getId(i), chegada, getTamanho(i), getTempoRequisitado(i), getComunicacao(i), isCancelada(i), getUsuario(i));
+                }
+            }
+        }
+        return colunas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        arquivo.close();
+    }
+
+    /**
+     * Grava as colunas no formato binário
+     */
+    public static void escrever(ColunasTrace colunas, File destino) throws IOException {
+        int n = colunas.getTamanho();
+        int numBlocos = (n + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+        List<String> nomes = colunas.getUsuarios();
+        int[] primeiraTarefa = new int[nomes.size()];
+        Arrays.fill(primeiraTarefa, Integer.MAX_VALUE);
+        for (int i = n - 1; i >= 0; i--) {
+            primeiraTarefa[colunas.getIndiceUsuario(i)] = i;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream cabecalho = new DataOutputStream(bytes);
+        cabecalho.writeInt(n);
+        cabecalho.writeInt(TAMANHO_BLOCO);
+        cabecalho.writeInt(numBlocos);
+        cabecalho.writeInt(nomes.size());
+        for (int u = 0; u < nomes.size(); u++) {
+            cabecalho.writeInt(primeiraTarefa[u]);
+            cabecalho.writeUTF(nomes.get(u));
+        }
+        for (int bloco = 0; bloco < numBlocos; bloco++) {
+            double menor = Double.POSITIVE_INFINITY;
+            double maior = Double.NEGATIVE_INFINITY;
+            for (int i = bloco * TAMANHO_BLOCO; i < Math.min(n, (bloco + 1) * TAMANHO_BLOCO); i++) {
+                menor = Math.min(menor, colunas.getChegada(i));
+                maior = Math.max(maior, colunas.getChegada(i));
+            }
+            cabecalho.writeDouble(menor);
+            cabecalho.writeDouble(maior);
+        }
+        cabecalho.close();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(destino), 1 << 16));
+        try {
+            out.writeInt(ASSINATURA);
+            out.writeInt(VERSAO);
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+            for (int i = 0; i < n; i++) {
+                out.writeInt(colunas.getId(i));
+            }
+            for (int i = 0; i < n; i++) {
+                out.writeDouble(colunas.getChegada(i));
+            }
+            for (int i = 0; i < n; i++) {
+                out.writeDouble(colunas.getTempoExecucao(i));
+            }
+            for (int i = 0; i < n; i++) {
+                out.writeDouble(colunas.getComunicacao(i));
+            }
+            for (int i = 0; i < n; i++) {
+                out.writeInt(colunas.getIndiceUsuario(i));
+            }
+            for (int i = 0; i < n; i++) {
+                out.writeByte(colunas.isCancelada(i) ? 1 : 0);
+            }
+            for (int i = 0; i < n; i++) {
+                out.writeDouble(colunas.getTempoRequisitado(i));
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Converte um trace para o formato binário
+     *
+     * @param origem arquivo SWF, GWF ou .wmsx
+     * @param formato formato das tarefas do trace (SWF, GWF ou iSPD)
+     * @param destino arquivo .wmsb gerado
+     */
+    public static void converter(File origem, String formato, File destino) throws IOException {
+        ColunasTrace colunas;
+        if (origem.getName().toLowerCase().endsWith(".wmsx")) {
+            colunas = LeitorTrace.lerWmsx(origem, formato, Integer.MAX_VALUE);
+        } else {
+            colunas = LeitorTrace.lerColunas(origem, formato, Integer.MAX_VALUE, Runtime.getRuntime().availableProcessors());
+        }
+        escrever(colunas, destino);
+    }
+}
@@ -13,10 +13,14 @@ class Interpretador implements InterpretadorConstants {
     private boolean dinamico = false;
     private boolean tarefaCrescente = true;
     private boolean recursoCrescente = true;
+    //expressoes que dependem do estado da simulacao exigem a busca linear
+    private boolean tarefaDinamica = false;
+    private boolean recursoDinamico = false;
     //dados para costruir classe
     private String arquivoNome;
     private String pacote = "package gspd.ispd.externo;\u005cn\u005cn";
     private String imports = "import gspd.ispd.escalonador.Escalonador;\u005cn"
+            + "import gspd.ispd.escalonador.FilaFIFO;\u005cn"
             + "import gspd.ispd.motor.filas.Tarefa;\u005cn"
             + "import gspd.ispd.motor.filas.servidores.CS_Processamento;\u005cn"
             + "import gspd.ispd.motor.filas.servidores.CentroServico;\u005cn"
@@ -58,7 +62,7 @@ class Interpretador implements InterpretadorConstants {
     private String getTempoAtualizar = "";
     private String rota = "@Override\u005cn"
             + "public List<CentroServico> escalonarRota(CentroServico destino) {\u005cn"
-            + "    int index = escravos.indexOf(destino);\u005cn"
+            + "    int index = getIndiceEscravo(destino);\u005cn"
             + "    return new ArrayList<CentroServico>((List<CentroServico>) caminhoEscravo.get(index));\u005cn"
             + "}\u005cn\u005cn";
     private String metodosPrivate = "";
@@ -96,7 +100,7 @@ class Interpretador implements InterpretadorConstants {
         arquivoNome = text;
         declaracao = "public class " + text + " extends Escalonador{\u005cn\u005cn";
         construtor = "public " + text + "() {\u005cn"
-                + "    this.tarefas = new ArrayList<Tarefa>();\u005cn"
+                + "    this.tarefas = new FilaFIFO<Tarefa>();\u005cn"
                 + "    this.escravos = new ArrayList<CS_Processamento>();\u005cn"
                 + "}\u005cn\u005cn";
     }
@@ -158,6 +162,33 @@ class Interpretador implements InterpretadorConstants {
                     + "      return tarefas.remove(0);\u005cn"
                     + "  }\u005cn"
                     + "  return null;\u005cn";
+        } else if ("formula".equals(valor) && !tarefaDinamica) {
+            //a prioridade de cada tarefa nao muda: fila de prioridades em vez da busca linear
+            importarHeap();
+            if (!metodosPrivate.contains("private double prioridadeTarefa(Tarefa tarefa)")) {
+                metodosPrivate += "private double prioridadeTarefa(Tarefa tarefa) {\u005cn"
+                        + declararVariaveisTarefa.replace("tarefas.get(0)", "tarefa")
+                        + "    return " + tarefaExpressao + ";\u005cn"
+                        + "}\u005cn\u005cn";
+            }
+            if (!variavel.contains("private HeapIndexado<Tarefa> ordemTarefas")) {
+                variavel += "private HeapIndexado<Tarefa> ordemTarefas = new HeapIndexado<Tarefa>(new Comparator<Tarefa>() {\u005cn"
+                        + "    @Override\u005cn"
+                        + "    public int compare(Tarefa o1, Tarefa o2) {\u005cn"
+                        + (tarefaCrescente
+                        ? "        return Double.compare(prioridadeTarefa(o1), prioridadeTarefa(o2));\u005cn"
+                        : "        return Double.compare(prioridadeTarefa(o2), prioridadeTarefa(o1));\u005cn")
+                        + "    }\u005cn"
+                        + "});\u005cn";
+            }
+            tarefa = "  Tarefa tar = ordemTarefas.poll();\u005cn"
+                    + "  while (tar != null && !tarefas.contains(tar)) {\u005cn"
+                    + "      tar = ordemTarefas.poll();\u005cn"
+                    + "  }\u005cn"
+                    + "  if (tar != null) {\u005cn"
+                    + "      tarefas.remove(tar);\u005cn"
+                    + "  }\u005cn"
+                    + "  return tar;\u005cn";
         } else if ("formula".equals(valor)) {
             String ordenac = " < ";
             if (tarefaCrescente) {
@@ -210,6 +241,30 @@ class Interpretador implements InterpretadorConstants {
                     + "      }\u005cn"
                     + "  }\u005cn"
                     + "  return null;\u005cn";
+        } else if ("formula".equals(valor) && !recursoDinamico) {
+            //a prioridade de cada escravo nao muda: o melhor fica no topo do heap
+            importarHeap();
+            if (!metodosPrivate.contains("private double prioridadeRecurso(CS_Processamento escravo)")) {
+                metodosPrivate += "private double prioridadeRecurso(CS_Processamento escravo) {\u005cn"
+                        + declararVariaveisRecurso.replace("escravos.get(0)", "escravo")
+                        + "    return " + recursoExpressao + ";\u005cn"
+                        + "}\u005cn\u005cn";
+            }
+            if (!variavel.contains("private HeapIndexado<CS_Processamento> ordemRecursos;")) {
+                variavel += "private HeapIndexado<CS_Processamento> ordemRecursos;\u005cn";
+            }
+            if (!iniciar.contains("ordemRecursos = ")) {
+                iniciar += "    ordemRecursos = new HeapIndexado<CS_Processamento>(new Comparator<CS_Processamento>() {\u005cn"
+                        + "        @Override\u005cn"
+                        + "        public int compare(CS_Processamento o1, CS_Processamento o2) {\u005cn"
+                        + (recursoCrescente
+                        ? "            return Double.compare(prioridadeRecurso(o1), prioridadeRecurso(o2));\u005cn"
+                        : "            return Double.compare(prioridadeRecurso(o2), prioridadeRecurso(o1));\u005cn")
+                        + "        }\u005cn"
+                        + "    });\u005cn"
+                        + "    ordemRecursos.addAll(escravos);\u005cn";
+            }
+            recurso = "  return ordemRecursos.peek();\u005cn";
         } else if ("formula".equals(valor)) {
             String ordenac = " < ";
             if (recursoCrescente) {
@@ -233,6 +288,13 @@ class Interpretador implements InterpretadorConstants {
         }
     }
 
+    private void importarHeap() {
+        if (!imports.contains("import gspd.ispd.escalonador.HeapIndexado;")) {
+            imports = "import gspd.ispd.escalonador.HeapIndexado;\u005cn"
+                    + "import java.util.Comparator;\u005cn" + imports;
+        }
+    }
+
     public void addConstanteTarefa(String valor) {
         tarefaExpressao += valor;
     }
@@ -269,7 +331,7 @@ class Interpretador implements InterpretadorConstants {
             if (!metodosPrivate.contains("private void addTarefasEnviadas(){")) {
                 metodosPrivate += "private void addTarefasEnviadas(){\u005cn"
                         + "    if(tarefaSelecionada != null){\u005cn"
-                        + "        int index = escravos.indexOf(tarefaSelecionada.getLocalProcessamento());\u005cn"
+                        + "        int index = getIndiceEscravo(tarefaSelecionada.getLocalProcessamento());\u005cn"
                         + "        tarExecRec.get(index).add(tarefaSelecionada);\u005cn"
                         + "    }\u005cn"
                         + "}\u005cn\u005cn";
@@ -359,6 +421,7 @@ class Interpretador implements InterpretadorConstants {
                 break;
             case tNumTarSub:
                 tarefaExpressao += "tNumTarSub";
+                tarefaDinamica = true;
                 if (!declararVariaveisTarefa.contains("tNumTarSub")) {
                     if (dinamico) {
                         declararVariaveisTarefa += "int tNumTarSub = mestre.getSimulacao().getRedeDeFilas().getMetricasUsuarios().getSizeTarefasSubmetidas(tarefas.get(0).getProprietario());\u005cn";
@@ -376,6 +439,7 @@ class Interpretador implements InterpretadorConstants {
                 break;
             case tNumTarConc:
                 tarefaExpressao += "tNumTarConc";
+                tarefaDinamica = true;
                 if (!declararVariaveisTarefa.contains("tNumTarConc")) {
                     if (dinamico) {
                         declararVariaveisTarefa += "int tNumTarConc = mestre.getSimulacao().getRedeDeFilas().getMetricasUsuarios().getSizeTarefasConcluidas(tarefas.get(0).getProprietario());\u005cn";
@@ -393,6 +457,7 @@ class Interpretador implements InterpretadorConstants {
                 break;
             case tPoderUser:
                 tarefaExpressao += "tPoderUser";
+                tarefaDinamica = true;
                 if (!declararVariaveisTarefa.contains("tPoderUser")) {
                     declararVariaveisTarefa += "double tPoderUser = metricaUsuarios.getPoderComputacional(tarefas.get(0).getProprietario());\u005cn";
                 }
@@ -466,18 +531,21 @@ class Interpretador implements InterpretadorConstants {
                 break;
             case rtamCompTar:
                 recursoExpressao += "rtamCompTar";
+                recursoDinamico = true;
                 if (!declararVariaveisRecurso.contains("rtamCompTar")) {
                     declararVariaveisRecurso += "double rtamCompTar = tarefaSelecionada.getTamProcessamento();\u005cn";
                 }
                 break;
             case rtamComuTar:
                 recursoExpressao += "rtamComuTar";
+                recursoDinamico = true;
                 if (!declararVariaveisRecurso.contains("rtamComuTar")) {
                     declararVariaveisRecurso += "double rtamComuTar = tarefaSelecionada.getTamComunicacao();\u005cn";
                 }
                 break;
             case numTarExec:
                 recursoExpressao += "numTarExec";
+                recursoDinamico = true;
                 if (!variavel.contains("numTarExecRec")) {
                     variavel += "private List<Integer> numTarExecRec;\u005cn";
                 }
@@ -487,7 +555,7 @@ class Interpretador implements InterpretadorConstants {
                 if (!metodosPrivate.contains("private void addTarefasEnviadasNum(){")) {
                     metodosPrivate += "private void addTarefasEnviadasNum(){\u005cn"
                             + "    if(tarefaSelecionada != null){\u005cn"
-                            + "        int index = escravos.indexOf(tarefaSelecionada.getLocalProcessamento());\u005cn"
+                            + "        int index = getIndiceEscravo(tarefaSelecionada.getLocalProcessamento());\u005cn"
                             + "        numTarExecRec.set(index,numTarExecRec.get(index)+1);\u005cn"
                             + "    }\u005cn"
                             + "}\u005cn\u005cn";
@@ -495,7 +563,7 @@ class Interpretador implements InterpretadorConstants {
                 if (!metodosPrivate.contains("private void addTarefasEnviadas(){")) {
                     metodosPrivate += "private void addTarefasEnviadas(){\u005cn"
                             + "    if(tarefaSelecionada != null){\u005cn"
-                            + "        int index = escravos.indexOf(tarefaSelecionada.getLocalProcessamento());\u005cn"
+                            + "        int index = getIndiceEscravo(tarefaSelecionada.getLocalProcessamento());\u005cn"
                             + "        tarExecRec.get(index).add(tarefaSelecionada);\u005cn"
                             + "    }\u005cn"
                             + "}\u005cn\u005cn";
@@ -525,7 +593,7 @@ class Interpretador implements InterpretadorConstants {
                     decAddTarefaConcluida = "@Override\u005cn"
                             + "public void addTarefaConcluida(Tarefa tarefa) {\u005cn"
                             + "    super.addTarefaConcluida(tarefa);\u005cn";
-                    addTarefaConcluida = "    int index = escravos.indexOf(tarefa.getLocalProcessamento());\u005cn"
+                    addTarefaConcluida = "    int index = getIndiceEscravo(tarefa.getLocalProcessamento());\u005cn"
                             + "    if(index != -1){\u005cn"
                             + "        numTarExecRec.set(index, numTarExecRec.get(index) - 1);\u005cn"
                             + "    } else {\u005cn"
@@ -555,6 +623,7 @@ class Interpretador implements InterpretadorConstants {
                 break;
             case mflopProce:
                 recursoExpressao += "mflopProce";
+                recursoDinamico = true;
                 if (!variavel.contains("mflopProceRec")) {
                     variavel += "private List<Double> mflopProceRec;\u005cn";
                 }
@@ -582,7 +651,7 @@ class Interpretador implements InterpretadorConstants {
                 if (!metodosPrivate.contains("private void addTarefasEnviadasMflop(){")) {
                     metodosPrivate += "private void addTarefasEnviadasMflop(){\u005cn"
                             + "    if(tarefaSelecionada != null){\u005cn"
-                            + "        int index = escravos.indexOf(tarefaSelecionada.getLocalProcessamento());\u005cn"
+                            + "        int index = getIndiceEscravo(tarefaSelecionada.getLocalProcessamento());\u005cn"
                             + "        mflopProceRec.set(index,mflopProceRec.get(index)+tarefaSelecionada.getTamProcessamento());\u005cn"
                             + "    }\u005cn"
                             + "}\u005cn\u005cn";
@@ -590,7 +659,7 @@ class Interpretador implements InterpretadorConstants {
                 if (!metodosPrivate.contains("private void addTarefasEnviadas(){")) {
                     metodosPrivate += "private void addTarefasEnviadas(){\u005cn"
                             + "    if(tarefaSelecionada != null){\u005cn"
-                            + "        int index = escravos.indexOf(tarefaSelecionada.getLocalProcessamento());\u005cn"
+                            + "        int index = getIndiceEscravo(tarefaSelecionada.getLocalProcessamento());\u005cn"
                             + "        tarExecRec.get(index).add(tarefaSelecionada);\u005cn"
                             + "    }\u005cn"
                             + "}\u005cn\u005cn";
@@ -599,7 +668,7 @@ class Interpretador implements InterpretadorConstants {
                     decAddTarefaConcluida = "@Override\u005cn"
                             + "public void addTarefaConcluida(Tarefa tarefa) {\u005cn"
                             + "    super.addTarefaConcluida(tarefa);\u005cn";
-                    addTarefaConcluida = "    int index2 = escravos.indexOf(tarefa.getLocalProcessamento());\u005cn"
+                    addTarefaConcluida = "    int index2 = getIndiceEscravo(tarefa.getLocalProcessamento());\u005cn"
                             + "    if(index2 != -1){\u005cn"
                             + "        mflopProceRec.set(index2, mflopProceRec.get(index2) - tarefa.getTamProcessamento());\u005cn"
                             + "    } else {\u005cn"
@@ -652,6 +721,16 @@ class Interpretador implements InterpretadorConstants {
         if (!"".equals(tarefaExpressao)) {
             formulaTarefa("formula");
         }
+        if (variavel.contains("private HeapIndexado<Tarefa> ordemTarefas") && !adicionarTarefa.contains("ordemTarefas.add(tarefa);")) {
+            if ("".equals(adicionarTarefa)) {
+                adicionarTarefa = "@Override\u005cn"
+                        + "public void adicionarTarefa(Tarefa tarefa){\u005cn"
+                        + "    super.adicionarTarefa(tarefa);\u005cn"
+                        + "}\u005cn\u005cn";
+            }
+            adicionarTarefa = adicionarTarefa.replace("    super.adicionarTarefa(tarefa);\u005cn",
+                    "    super.adicionarTarefa(tarefa);\u005cn    ordemTarefas.add(tarefa);\u005cn");
+        }
         String txt = pacote
                 + imports
                 + declaracao
@@ -53,9 +53,8 @@ import gspd.ispd.gui.iconico.dag.Receive;
 import gspd.ispd.gui.iconico.dag.Send;
 import gspd.ispd.gui.iconico.dag.Task;
 import gspd.ispd.motor.filas.Tarefa;
-import gspd.ispd.motor.filas.dag.AppDAG;
-import gspd.ispd.motor.filas.dag.LinhaExecucao;
-import gspd.ispd.motor.filas.dag.TarefaDAG;
+import gspd.ispd.motor.filas.dag.BlocoRepeticao;
+import gspd.ispd.motor.filas.dag.ProgramaDAG;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import java.io.File;
 import java.io.IOException;
@@ -277,166 +276,123 @@ public class DAGXML {
     }
 
     public static ArrayList<Tarefa> getTarefasDAG(File arquivo, int inicioIdentificadorTarefa, CS_Processamento mestre, String aplicacao, String proprietario) throws Exception {
+        return compilar(arquivo).instanciar(inicioIdentificadorTarefa, mestre, aplicacao, proprietario);
+    }
+
+    /**
+     * Lê o arquivo da aplicação DAG uma única vez, gerando o programa que é
+     * compartilhado por todas as instâncias da aplicação
+     *
+     * @param arquivo arquivo xml com a aplicação DAG
+     * @return programa compilado
+     * @throws Exception
+     */
+    public static ProgramaDAG compilar(File arquivo) throws Exception {
         Document modelo = ler(arquivo);
         NodeList dagTasks = modelo.getElementsByTagName("task");
         if (dagTasks.getLength() == 0) {
             throw new Exception("There are no tasks in the model!");
         }
-        HashMap<String, Object> idTask = new HashMap<String, Object>();
-        ArrayList<Tarefa> tasks = new ArrayList<Tarefa>();
-        AppDAG aplicacaoDAG = new AppDAG(aplicacao);
+        String usuario = "";
+        for (int i = 0; i < dagTasks.getLength() && "".equals(usuario); i++) {
+            usuario = ((Element) dagTasks.item(i)).getAttribute("usr");
+        }
+        ProgramaDAG programa = new ProgramaDAG(usuario);
+        HashMap<String, Object> elementos = new HashMap<String, Object>();
         //Preenche o hashmap com todas as tarefas presentes no modelo
         for (int i = 0; i < dagTasks.getLength(); i++) {
-            //cria tarefa
             Element task = (Element) dagTasks.item(i);
-            Double comunicacao = Double.valueOf(task.getAttribute("cmsz"));
-            Double computacao = Double.valueOf(task.getAttribute("cpsz"));
-            Double criacao = Double.valueOf(task.getAttribute("arr"));
-            if (proprietario == null || "".equals(proprietario)) {
-                proprietario = task.getAttribute("usr");
-            }
             Integer rank = Integer.valueOf(task.getAttribute("id"));
-            if (!task.hasChildNodes()) {
-                Tarefa tar = new Tarefa(
-                        inicioIdentificadorTarefa + i,
-                        proprietario,
-                        aplicacao,
-                        mestre,
-                        comunicacao,
-                        0.0009765625 /*arquivo recebimento*/,
-                        computacao,
-                        criacao /* criação */);
-                //adiciona para nas listas
-                tasks.add(tar);
-            } else {
-                //cria a tarefa ainda não possui valor de processamento...
-                TarefaDAG tar = new TarefaDAG(
-                        inicioIdentificadorTarefa + i,
-                        rank,
-                        proprietario,
-                        aplicacaoDAG,
-                        mestre,
-                        comunicacao,
-                        0.0009765625 /*arquivo recebimento*/,
-                        computacao,
-                        criacao /* criação */);
-                //adiciona para nas listas
-                aplicacaoDAG.addTarefa(tar);
-                idTask.put(rank.toString(), tar);
-                tasks.add(tar);
+            BlocoRepeticao corpo = programa.addTarefa(
+                    rank,
+                    Double.valueOf(task.getAttribute("cmsz")),
+                    Double.valueOf(task.getAttribute("cpsz")),
+                    Double.valueOf(task.getAttribute("arr")),
+                    task.hasChildNodes());
+            if (corpo != null) {
+                elementos.put(rank.toString(), rank);
             }
         }
         //cria blocos de instruções
         for (int i = 0; i < dagTasks.getLength(); i++) {
-            System.out.println("----------------------------Iniciando nova tarefa");
             Element task = (Element) dagTasks.item(i);
-            String id = task.getAttribute("id");
-            System.out.println("Tarefa " + id);
-            TarefaDAG tarefa = (TarefaDAG) idTask.get(id);
+            Integer rank = Integer.valueOf(task.getAttribute("id"));
+            BlocoRepeticao corpo = programa.getPrograma(rank);
             NodeList dagList = task.getElementsByTagName("dag");
             NodeList threadList = task.getElementsByTagName("thread");
             if (dagList.getLength() == 1) {
                 NodeList receives = ((Element) dagList.item(0)).getElementsByTagName("receive");
                 //cria relação de dependencia inicial...
                 for (int j = 0; j < receives.getLength(); j++) {
-                    addBlock(id, (Element) receives.item(j), idTask);
+                    addBlock(rank, corpo, (Element) receives.item(j), elementos, programa);
                 }
-
-                Double size = tarefa.getTamProcessamento();
-                gspd.ispd.motor.filas.dag.Process bloco = new gspd.ispd.motor.filas.dag.Process(size);
-                tarefa.getThread().addBlock(bloco);
-
+                corpo.addBlock(new gspd.ispd.motor.filas.dag.Process(Double.valueOf(task.getAttribute("cpsz"))));
                 NodeList sends = ((Element) dagList.item(0)).getElementsByTagName("send");
                 //cria relação de dependencia final...
                 for (int j = 0; j < sends.getLength(); j++) {
-                    addBlock(id, (Element) sends.item(j), idTask);
+                    addBlock(rank, corpo, (Element) sends.item(j), elementos, programa);
                 }
-
             } else if (threadList.getLength() == 1) {
                 Element thread = (Element) threadList.item(0);
                 //busca cada elemento e relaciona com a tarefa
                 for (int j = 0; j < thread.getChildNodes().getLength(); j++) {
-                    try {
-                        Element item = (Element) thread.getChildNodes().item(j);
-                        addBlock(id, item, idTask);
-                    } catch (java.lang.ClassCastException e) {
+                    if (thread.getChildNodes().item(j) instanceof Element) {
+                        addBlock(rank, corpo, (Element) thread.getChildNodes().item(j), elementos, programa);
                     }
                 }
-
-            } else if (tarefa != null) {
-                Double size = tarefa.getTamProcessamento();
-                gspd.ispd.motor.filas.dag.Process bloco = new gspd.ispd.motor.filas.dag.Process(size);
-                tarefa.getThread().addBlock(bloco);
+            } else if (corpo != null) {
+                corpo.addBlock(new gspd.ispd.motor.filas.dag.Process(Double.valueOf(task.getAttribute("cpsz"))));
             }
         }
-        System.out.println("--------------------------------Finalizar tarefa");
-        return tasks;
+        return programa;
     }
 
     /**
-     * Adiciona um bloco de instrução a uma tarefa
+     * Adiciona um bloco de instrução ao programa de uma tarefa
      *
-     * @param id Identificador do elemento que receberá o bloco
+     * @param rank tarefa que executa o bloco, ou null para blocos de loops
+     * @param linha corpo da tarefa ou do loop que receberá o bloco
      * @param block bloco de instrução que será adicionado
-     * @param elementos lista de elementos identificaveis
+     * @param elementos tarefas, receives e loops identificados no arquivo
+     * @param programa programa em compilação
      */
-    public static void addBlock(String id, Element block, HashMap<String, Object> elementos) {
+    private static void addBlock(Integer rank, BlocoRepeticao linha, Element block, HashMap<String, Object> elementos, ProgramaDAG programa) {
         String tipo = block.getNodeName();
-        TarefaDAG task = null;
-        LinhaExecucao linha = null;
-        if (elementos.get(id) instanceof TarefaDAG) {
-            task = (TarefaDAG) elementos.get(id);
-            linha = task.getThread();
-        } else if (elementos.get(id) instanceof LinhaExecucao) {
-            linha = (LinhaExecucao) elementos.get(id);
-        } else {
-            throw new IllegalArgumentException("Não implementado ainda");
-        }
-
         if ("process".equals(tipo)) {
             Double size = Double.valueOf(block.getAttribute("size_max"));
-            System.out.println("tar " + id + " process " + size);
             linha.addBlock(new gspd.ispd.motor.filas.dag.Process(size));
-
         } else if ("receive".equals(tipo)) {
             String tarId = block.getAttribute("from");
-            String recId = block.getAttribute("id");
-            System.out.println("tar " + id + " recebe de " + tarId);
+            Object origem = elementos.get(tarId);
             gspd.ispd.motor.filas.dag.Receive receive;
-            if (tarId.equals("ANY")) {
-                receive = new gspd.ispd.motor.filas.dag.Receive(tarId);
+            if (!tarId.equals("ANY") && origem instanceof Integer) {
+                receive = programa.novoReceive((Integer) origem);
+                if (rank != null) {
+                    programa.addDependencia(rank, (Integer) origem);
+                }
             } else {
-                receive = new gspd.ispd.motor.filas.dag.Receive(elementos.get(tarId));
+                receive = programa.novoReceive(null);
             }
             linha.addBlock(receive);
-            elementos.put(recId, receive);
-            if (elementos.get(tarId) instanceof TarefaDAG && task != null) {
-                task.getDepende().add((TarefaDAG) elementos.get(tarId));
-            }
-
+            elementos.put(block.getAttribute("id"), receive);
         } else if ("send".equals(tipo)) {
-            String tempId = block.getAttribute("to");
-            System.out.println("tar " + id + " envia para " + tempId);
+            Object destino = elementos.get(block.getAttribute("to"));
             Double comunicacao = Double.valueOf(block.getAttribute("size"));
-            linha.addBlock(new gspd.ispd.motor.filas.dag.Send(elementos.get(tempId), comunicacao));
-            if (elementos.get(tempId) instanceof TarefaDAG && task != null) {
-                task.getLibera().add((TarefaDAG) elementos.get(tempId));
+            linha.addBlock(new gspd.ispd.motor.filas.dag.Send(destino, comunicacao));
+            if (destino instanceof Integer && rank != null) {
+                programa.addLiberacao(rank, (Integer) destino, comunicacao);
             }
-
         } else if ("loop".equals(tipo)) {
-            String loopId = block.getAttribute("id");
-            System.out.println("tar " + id + " add loop " + loopId);
             Integer start = Integer.valueOf(block.getAttribute("start"));
             Integer iteration = Integer.valueOf(block.getAttribute("iteration"));
-            LinhaExecucao loop = new LinhaExecucao(start, iteration, linha.getAppDAG());
-            elementos.put(loopId, loop);
+            BlocoRepeticao loop = programa.novoLoop(start, iteration);
+            elementos.put(block.getAttribute("id"), loop);
             linha.addBlock(loop);
             NodeList loopLista = block.getChildNodes();
             for (int j = 0; j < loopLista.getLength(); j++) {
-                try {
-                    Element element = (Element) loopLista.item(j);
-                    addBlock(loopId, element, elementos);
-                } catch (java.lang.ClassCastException e) {
+                if (loopLista.item(j) instanceof Element) {
+                    //blocos dentro de loops não geram dependências entre as tarefas
+                    addBlock(null, loop, (Element) loopLista.item(j), elementos, programa);
                 }
             }
         }
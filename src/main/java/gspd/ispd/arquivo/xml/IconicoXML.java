@@ -16,10 +16,19 @@ import gspd.ispd.gui.iconico.grade.Link;
 import gspd.ispd.gui.iconico.grade.Machine;
 import gspd.ispd.gui.iconico.grade.VirtualMachine;
 import gspd.ispd.imsx.*;
+import gspd.ispd.model.workload.IterativeExpansion;
+import gspd.ispd.model.workload.ParallelExpansion;
+import gspd.ispd.model.workload.RecursiveExpansion;
+import gspd.ispd.model.workload.RecursivePoint;
+import gspd.ispd.model.workload.TaskModel;
+import gspd.ispd.model.workload.Workflow;
+import gspd.ispd.model.workload.Workload;
+import gspd.ispd.model.workload.WorkloadModel;
 import gspd.ispd.motor.carga.CargaList;
 import gspd.ispd.motor.carga.CargaRandom;
 import gspd.ispd.motor.carga.CargaForNode;
 import gspd.ispd.motor.carga.CargaTrace;
+import gspd.ispd.motor.carga.CargaWorkload;
 import gspd.ispd.motor.carga.GerarCarga;
 import gspd.ispd.motor.filas.RedeDeFilas;
 import gspd.ispd.motor.filas.RedeDeFilasCloud;
@@ -752,10 +761,66 @@ public class IconicoXML {
                     cargasConfiguracao = new CargaTrace(filepath, num_tarefas, formato);
                 }
             }
+            cargas = cargaAux.getElementsByTagName("workflow");
+            if (cargas.getLength() != 0) {
+                Workload workload = new Workload();
+                for (int i = 0; i < cargas.getLength(); i++) {
+                    Element carga = (Element) cargas.item(i);
+                    String escalonador = carga.getAttribute("id_master");
+                    Workflow fluxo = new Workflow(carga.getAttribute("owner"), escalonador.isEmpty() ? null : escalonador);
+                    fluxo.setArrivalTime(Double.parseDouble(carga.getAttribute("arrival")));
+                    fluxo.setInterval(Double.parseDouble(carga.getAttribute("interval")));
+                    for (Element filho : getFilhos(carga)) {
+                        fluxo.addModel(newWorkloadModel(filho));
+                    }
+                    workload.addWorkflow(fluxo);
+                }
+                cargasConfiguracao = new CargaWorkload(workload, cargaAux);
+            }
         }
         return cargasConfiguracao;
     }
 
+    /**
+     * Lê um nó da árvore de expansões de um fluxo de trabalho. Os filhos de
+     * uma expansão formam a sequência expandida, na qual estão os pontos de
+     * chamada de uma expansão recursiva.
+     */
+    private static WorkloadModel newWorkloadModel(Element elemento) {
+        if (elemento.getTagName().equals("workflow_task")) {
+            return new TaskModel(elemento.getAttribute("application"),
+                    Double.parseDouble(elemento.getAttribute("computing")),
+                    Double.parseDouble(elemento.getAttribute("communication")),
+                    Double.parseDouble(elemento.getAttribute("receive")));
+        }
+        Workflow sequencia = new Workflow();
+        for (Element filho : getFilhos(elemento)) {
+            sequencia.addModel(newWorkloadModel(filho));
+        }
+        int numero = Integer.parseInt(elemento.getAttribute("number"));
+        if (elemento.getTagName().equals("workflow_iterative")) {
+            return new IterativeExpansion(sequencia, numero).expandModel();
+        } else if (elemento.getTagName().equals("workflow_parallel")) {
+            return new ParallelExpansion(sequencia, numero).expandModel();
+        }
+        for (String ponto : elemento.getAttribute("points").trim().split("\\s+")) {
+            if (!ponto.isEmpty()) {
+                sequencia.addRecursivePoint(new RecursivePoint(Integer.parseInt(ponto)));
+            }
+        }
+        return new RecursiveExpansion(sequencia, numero).expandModel();
+    }
+
+    private static List<Element> getFilhos(Element elemento) {
+        List<Element> filhos = new ArrayList<Element>();
+        for (Node filho = elemento.getFirstChild(); filho != null; filho = filho.getNextSibling()) {
+            if (filho.getNodeType() == Node.ELEMENT_NODE) {
+                filhos.add((Element) filho);
+            }
+        }
+        return filhos;
+    }
+
     public static GerarCarga newWorkloadGeneratorAdapter(Document document) {
         WorkloadGenerator generator = getWorkloadGenerator(document);
         return new WorkloadGeneratorAdapter(generator);
@@ -1305,6 +1370,23 @@ public class IconicoXML {
         load.appendChild(xmlTrace);
     }
 
+    /**
+     * Copia para o modelo os fluxos de trabalho de uma carga lida de outro
+     * modelo
+     *
+     * @param carga elemento load que contém os fluxos
+     */
+    public void addLoadWorkflows(Element carga) {
+        if (load == null) {
+            load = descricao.createElement("load");
+            system.appendChild(load);
+        }
+        NodeList fluxos = carga.getElementsByTagName("workflow");
+        for (int i = 0; i < fluxos.getLength(); i++) {
+            load.appendChild(descricao.importNode(fluxos.item(i), true));
+        }
+    }
+
     public Document getDescricao() {
         return descricao;
     }
@@ -140,7 +140,8 @@ public class TraceXML {
                     + "\" sts=\"" + campos[10]
                     + "\" cpsz =\"" + campos[3]
                     + "\" cmsz=\"" + campos[20]
-                    + "\" usr=\"" + campos[11]);
+                    + "\" usr=\"" + campos[11]
+                    + "\" req=\"" + campos[8]);
             out.write("\" />");
         }
     }
@@ -155,7 +156,8 @@ public class TraceXML {
                 + "\" sts=\"" + campos[10]
                 + "\" cpsz =\"" + campos[3]
                 + "\" cmsz=\"-1"
-                + "\" usr=\"" + "user" + campos[11]);
+                + "\" usr=\"" + "user" + campos[11]
+                + "\" req=\"" + campos[8]);
         out.write("\" />");
     }
 
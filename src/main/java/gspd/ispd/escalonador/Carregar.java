@@ -30,6 +30,17 @@ public class Carregar {
      * @return Nova instancia do objeto Escalonador
      */
     public static Escalonador getNewEscalonador(String nome) {
+        //Políticas compiladas durante a execução são definidas a partir do bytecode em memória
+        Class<?> classe = CompiladorMemoria.getClasse(CAMINHO_CLASSE + nome);
+        if (classe != null) {
+            try {
+                Class<? extends Escalonador> compilada = classe.asSubclass(Escalonador.class);
+                return compilada.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException ex) {
+                Logger.getLogger(Carregar.class.getName()).log(Level.SEVERE, null, ex);
+            }
+            return null;
+        }
         if (loader == null) {
             File diretorio = new File(DIRETORIO);
             if (diretorio.exists()) {
@@ -44,19 +55,33 @@ public class Carregar {
             }
         }
         try {
-            Class cl = loader.loadClass(CAMINHO_CLASSE + nome);
-            Escalonador escalonador = (Escalonador) cl.newInstance();
+            Class<? extends Escalonador> cl = loader.loadClass(CAMINHO_CLASSE + nome).asSubclass(Escalonador.class);
+            Escalonador escalonador = cl.getDeclaredConstructor().newInstance();
             //Escalonador escalonador = (Escalonador) Class.forName("novoescalonador."+nome, true, loader).newInstance();
             return escalonador;
         } catch (RuntimeException ex) {
             Logger.getLogger(Carregar.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (InstantiationException ex) {
-            Logger.getLogger(Carregar.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (IllegalAccessException ex) {
-            Logger.getLogger(Carregar.class.getName()).log(Level.SEVERE, null, ex);
-        } catch (ClassNotFoundException ex) {
+        } catch (ReflectiveOperationException ex) {
             Logger.getLogger(Carregar.class.getName()).log(Level.SEVERE, null, ex);
         }
         return null;
     }
+
+    /**
+     * Compila em memória o código-fonte da política, que passa a ser
+     * carregada a partir do bytecode
+     *
+     * @param nome nome da política, que também é o nome da classe
+     * @return erros da compilação, ou null se compilou corretamente
+     */
+    public static String compilar(String nome, String fonte) {
+        return CompiladorMemoria.compilar(CAMINHO_CLASSE + nome, nome, fonte);
+    }
+
+    /**
+     * Grava as classes da política compilada em memória no diretório
+     */
+    public static boolean gravarClasses(String nome, File diretorio) {
+        return CompiladorMemoria.gravarClasses(CAMINHO_CLASSE + nome, diretorio);
+    }
 }
\ No newline at end of file
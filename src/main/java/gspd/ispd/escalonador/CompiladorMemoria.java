@@ -0,0 +1,290 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.escalonador;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compila o código-fonte das políticas (escalonadores e alocadores) em
+ * memória e define as classes a partir do bytecode, sem arquivos
+ * intermediários e sem esperar pelo compilador externo.
+ *
+ * O resultado de cada compilação fica guardado pelo hash do código-fonte:
+ * compilar novamente o mesmo código não chama o compilador, e cada política
+ * registrada tem a sua classe definida uma única vez, de modo que instanciar a
+ * política para vários mestres custa apenas a criação do objeto.
+ *
+ * @author denison
+ */
+public class CompiladorMemoria {
+
+    /**
+     * Compilações já realizadas, pelo hash do código-fonte
+     */
+    private static final Map<String, Compilacao> compilacoes = new ConcurrentHashMap<String, Compilacao>();
+    /**
+     * Última compilação bem sucedida de cada política, pelo nome usado para
+     * carregá-la
+     */
+    private static final Map<String, Compilacao> registradas = new ConcurrentHashMap<String, Compilacao>();
+
+    /**
+     * @return se há um compilador disponível na máquina virtual, o que não
+     * ocorre quando o simulador é executado por um JRE
+     */
+    public static boolean disponivel() {
+        return ToolProvider.getSystemJavaCompiler() != null;
+    }
+
+    /**
+     * Compila o código-fonte e, se não houver erros, registra a classe para
+     * ser obtida por {@link #getClasse(String)}
+     *
+     * @param chave nome pelo qual a classe será carregada
+     * @param nomeClasse nome da classe pública declarada no código-fonte
+     * @param fonte código-fonte
+     * @return erros da compilação, ou null se compilou corretamente
+     */
+    public static String compilar(String chave, String nomeClasse, String fonte) {
+        String hash = hash(nomeClasse, fonte);
+        Compilacao compilacao = compilacoes.get(hash);
+        if (compilacao == null) {
+            compilacao = executarCompilador(nomeClasse, fonte);
+            compilacoes.put(hash, compilacao);
+        }
+        if (compilacao.erros != null) {
+            return compilacao.erros;
+        }
+        registradas.put(chave, compilacao);
+        return null;
+    }
+
+    /**
+     * @return classe registrada com a chave, ou null se nenhuma política foi
+     * compilada com este nome durante a execução
+     */
+    public static Class<?> getClasse(String chave) {
+        Compilacao compilacao = registradas.get(chave);
+        return compilacao == null ? null : compilacao.getClasse();
+    }
+
+    /**
+     * Grava o bytecode registrado com a chave no diretório, para que a
+     * política continue disponível nas próximas execuções do simulador
+     *
+     * @return se havia bytecode registrado e ele foi gravado
+     */
+    public static boolean gravarClasses(String chave, File diretorio) {
+        Compilacao compilacao = registradas.get(chave);
+        if (compilacao == null) {
+            return false;
+        }
+        for (Map.Entry<String, byte[]> classe : compilacao.bytecode.entrySet()) {
+            String nome = classe.getKey().substring(classe.getKey().lastIndexOf('.') + 1);
+            try {
+                OutputStream saida = new FileOutputStream(new File(diretorio, nome + ".class"));
+                try {
+                    saida.write(classe.getValue());
+                } finally {
+                    saida.close();
+                }
+            } catch (IOException ex) {
+                Logger.getLogger(CompiladorMemoria.class.getName()).log(Level.SEVERE, null, ex);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Compilacao executarCompilador(String nomeClasse, String fonte) {
+        JavaCompiler compilador = ToolProvider.getSystemJavaCompiler();
+        if (compilador == null) {
+            return new Compilacao(null, null, "Não foi possível compilar");
+        }
+        StringWriter erros = new StringWriter();
+        GerenciadorMemoria gerenciador = new GerenciadorMemoria(compilador.getStandardFileManager(null, null, StandardCharsets.UTF_8));
+        //Classes do simulador, do classpath ou extraídas do jar para o diretório de trabalho
+        List<String> opcoes = Arrays.asList("-classpath", System.getProperty("java.class.path") + File.pathSeparator + ".");
+        List<JavaFileObject> unidades = Collections.<JavaFileObject>singletonList(new FonteMemoria(nomeClasse, fonte));
+        boolean sucesso = compilador.getTask(erros, gerenciador, null, opcoes, null, unidades).call();
+        try {
+            gerenciador.close();
+        } catch (IOException ex) {
+            Logger.getLogger(CompiladorMemoria.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        if (!sucesso || gerenciador.saidas.isEmpty()) {
+            String mensagem = erros.toString();
+            return new Compilacao(null, null, mensagem.isEmpty() ? "Não foi possível compilar" : mensagem);
+        }
+        Map<String, byte[]> bytecode = new LinkedHashMap<String, byte[]>();
+        String principal = null;
+        for (Map.Entry<String, ByteArrayOutputStream> saida : gerenciador.saidas.entrySet()) {
+            bytecode.put(saida.getKey(), saida.getValue().toByteArray());
+            //Classe pública com o nome da política; as demais são internas ou auxiliares
+            if (principal == null || saida.getKey().equals(nomeClasse) || saida.getKey().endsWith("." + nomeClasse)) {
+                principal = saida.getKey();
+            }
+        }
+        return new Compilacao(bytecode, principal, null);
+    }
+
+    private static String hash(String nomeClasse, String fonte) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(nomeClasse.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            byte[] resumo = digest.digest(fonte.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(2 * resumo.length);
+            for (byte b : resumo) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            //SHA-256 faz parte de toda máquina virtual, o próprio código serve de chave
+            return nomeClasse + '\0' + fonte;
+        }
+    }
+
+    /**
+     * Resultado de uma compilação: o bytecode de cada classe gerada, pelo
+     * nome binário, ou os erros do compilador
+     */
+    private static class Compilacao {
+
+        private final Map<String, byte[]> bytecode;
+        private final String principal;
+        private final String erros;
+        private Class<?> classe;
+
+        private Compilacao(Map<String, byte[]> bytecode, String principal, String erros) {
+            this.bytecode = bytecode;
+            this.principal = principal;
+            this.erros = erros;
+        }
+
+        /**
+         * Define a classe principal na primeira consulta. Cada compilação tem
+         * o seu carregador, permitindo carregar uma nova versão da política
+         * com o mesmo nome
+         */
+        private synchronized Class<?> getClasse() {
+            if (classe == null) {
+                try {
+                    classe = new CarregadorBytes(bytecode).loadClass(principal);
+                } catch (ClassNotFoundException ex) {
+                    Logger.getLogger(CompiladorMemoria.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            }
+            return classe;
+        }
+    }
+
+    /**
+     * Define as classes compiladas antes de consultar o carregador do
+     * simulador, para que uma política com o nome de uma classe já existente
+     * use o código compilado
+     */
+    private static class CarregadorBytes extends ClassLoader {
+
+        private final Map<String, byte[]> bytecode;
+
+        private CarregadorBytes(Map<String, byte[]> bytecode) {
+            super(CompiladorMemoria.class.getClassLoader());
+            this.bytecode = bytecode;
+        }
+
+        @Override
+        protected Class<?> loadClass(String nome, boolean resolver) throws ClassNotFoundException {
+            if (!bytecode.containsKey(nome)) {
+                return super.loadClass(nome, resolver);
+            }
+            synchronized (getClassLoadingLock(nome)) {
+                Class<?> classe = findLoadedClass(nome);
+                if (classe == null) {
+                    classe = findClass(nome);
+                }
+                if (resolver) {
+                    resolveClass(classe);
+                }
+                return classe;
+            }
+        }
+
+        @Override
+        protected Class<?> findClass(String nome) throws ClassNotFoundException {
+            byte[] classe = bytecode.get(nome);
+            if (classe == null) {
+                throw new ClassNotFoundException(nome);
+            }
+            return defineClass(nome, classe, 0, classe.length);
+        }
+    }
+
+    /**
+     * Código-fonte mantido em uma String
+     */
+    private static class FonteMemoria extends SimpleJavaFileObject {
+
+        private final String fonte;
+
+        private FonteMemoria(String nomeClasse, String fonte) {
+            super(URI.create("string:///" + nomeClasse + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE);
+            this.fonte = fonte;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignorarErros) {
+            return fonte;
+        }
+    }
+
+    /**
+     * Gerenciador de arquivos que guarda as classes geradas em memória
+     */
+    private static class GerenciadorMemoria extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, ByteArrayOutputStream> saidas = new LinkedHashMap<String, ByteArrayOutputStream>();
+
+        private GerenciadorMemoria(StandardJavaFileManager gerenciador) {
+            super(gerenciador);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location local, final String nome, JavaFileObject.Kind tipo, FileObject origem) {
+            return new SimpleJavaFileObject(URI.create("mem:///" + nome.replace('.', '/') + tipo.extension), tipo) {
+                @Override
+                public OutputStream openOutputStream() {
+                    ByteArrayOutputStream saida = new ByteArrayOutputStream();
+                    saidas.put(nome, saida);
+                    return saida;
+                }
+            };
+        }
+    }
+}
@@ -46,6 +46,10 @@ public abstract class Escalonador {
      * Armazena os caminhos possiveis para alcançar cada escravo
      */
     protected List<List> caminhoEscravo;
+    /**
+     * Posição de cada escravo na lista de escravos
+     */
+    private final IndiceEscravos indiceEscravos = new IndiceEscravos();
 
     //Métodos
 
@@ -59,6 +63,29 @@ public abstract class Escalonador {
 
     public abstract void escalonar();
 
+    /**
+     * Atribui até limite tarefas em uma única rodada de escalonamento. É
+     * chamado pelo mestre no lugar de escalonar() quando o tamanho do lote é
+     * maior que 1. A implementação padrão repete escalonar() enquanto a fila de
+     * tarefas diminui; políticas podem sobrescrever para decidir o lote de uma
+     * só vez.
+     *
+     * @param limite número máximo de tarefas atribuídas na rodada
+     * @return número de tarefas retiradas da fila
+     */
+    public int escalonarLote(int limite) {
+        int atribuidas = 0;
+        while (atribuidas < limite && !tarefas.isEmpty()) {
+            int tamanho = tarefas.size();
+            escalonar();
+            if (tarefas.size() >= tamanho) {
+                break;
+            }
+            atribuidas += tamanho - tarefas.size();
+        }
+        return atribuidas;
+    }
+
     public void adicionarTarefa(Tarefa tarefa){
         if(tarefa.getOrigem().equals(mestre)){
             this.metricaUsuarios.incTarefasSubmetidas(tarefa);
@@ -116,7 +143,38 @@ public abstract class Escalonador {
     }
 
     public void resultadoAtualizar(Mensagem mensagem) {
-        int index = escravos.indexOf(mensagem.getOrigem());
+        int index = getIndiceEscravo(mensagem.getOrigem());
         filaEscravo.set(index, mensagem.getFilaEscravo());
     }
+
+    /**
+     * Obtém em tempo constante a posição do escravo na lista de escravos,
+     * que também é a sua posição em caminhoEscravo e filaEscravo
+     *
+     * @return índice do escravo, ou -1 se não for escravo deste escalonador
+     */
+    public int getIndiceEscravo(CentroServico escravo) {
+        return indiceEscravos.indiceDe(escravos, escravo);
+    }
+
+    public CS_Processamento getEscravo(int indice) {
+        return escravos.get(indice);
+    }
+
+    /**
+     * @return caminho até o escravo de índice informado
+     */
+    @SuppressWarnings("unchecked")
+    public List<CentroServico> getCaminhoEscravo(int indice) {
+        return (List<CentroServico>) caminhoEscravo.get(indice);
+    }
+
+    /**
+     * @return última fila do escravo de índice informado recebida na
+     * atualização
+     */
+    @SuppressWarnings("unchecked")
+    public List<Tarefa> getFilaEscravo(int indice) {
+        return filaEscravo.get(indice);
+    }
 }
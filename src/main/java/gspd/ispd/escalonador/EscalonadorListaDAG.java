@@ -0,0 +1,430 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.escalonador;
+
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.dag.AppDAG;
+import gspd.ispd.motor.filas.dag.ProgramaDAG;
+import gspd.ispd.motor.filas.dag.RanksDAG;
+import gspd.ispd.motor.filas.dag.TarefaDAG;
+import gspd.ispd.motor.filas.servidores.CS_Comunicacao;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.CentroServico;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Base dos escalonadores de lista para aplicações DAG (HEFT, CPOP). Os ranks
+ * de cada DAG compilado são calculados uma única vez, com o custo médio dos
+ * escravos, e compartilhados pelas instâncias. Cada instância tem contadores
+ * de predecessores ainda não atribuídos; uma tarefa entra no conjunto de
+ * prontas, ordenado pela prioridade, quando o contador chega a zero, e é
+ * atribuída ao escravo em que terminaria mais cedo segundo o plano mantido
+ * em vetores por escravo.
+ *
+ * Uma tarefa é liberada quando os predecessores são atribuídos, e não quando
+ * terminam: o send de uma TarefaDAG precisa do local de processamento do
+ * destino, e o receive já bloqueia a tarefa no escravo até a mensagem
+ * chegar. Assim uma instância inteira é atribuída em uma rodada, na ordem de
+ * prioridade. Tarefas que não fazem parte de um DAG compilado são
+ * independentes, com prioridade igual ao próprio custo médio.
+ *
+ * O makespan de cada instância e a vazão de decisões gastas nela ficam em
+ * {@link #getResultadosDAG()}, de onde são somados nas métricas da simulação
+ * por aplicação.
+ * @author denison
+ */
+public abstract class EscalonadorListaDAG extends Escalonador {
+
+    private HeapIndexado<Tarefa> prontas;
+    private Map<Tarefa, Double> prioridades;
+    private Map<ProgramaDAG, RanksDAG> ranks;
+    private Map<AppDAG, InstanciaDAG> instancias;
+    /**
+     * Tempo médio para processar um Mflop e para transmitir um Mbit
+     */
+    private double tempoMflop;
+    private double tempoMbit;
+    /**
+     * Tempo por Mbit e latência do caminho do mestre até cada escravo
+     */
+    private double[] tempoMbitEscravo;
+    private double[] latenciaEscravo;
+    /**
+     * Instante em que cada núcleo de cada escravo termina o que foi atribuído
+     */
+    private double[][] nucleos;
+    private List<ResultadoDAG> resultados;
+
+    public EscalonadorListaDAG() {
+        this.tarefas = new FilaFIFO<Tarefa>();
+        this.escravos = new ArrayList<CS_Processamento>();
+    }
+
+    /**
+     * @param ranks ranks do DAG da tarefa
+     * @param indice índice da tarefa no DAG
+     * @return prioridade da tarefa no conjunto de prontas, maior primeiro
+     */
+    protected abstract double prioridade(RanksDAG ranks, int indice);
+
+    @Override
+    public void iniciar() {
+        prioridades = new HashMap<Tarefa, Double>();
+        prontas = new HeapIndexado<Tarefa>(new Comparator<Tarefa>() {
+            @Override
+            public int compare(Tarefa o1, Tarefa o2) {
+                int comp = Double.compare(prioridades.get(o2), prioridades.get(o1));
+                if (comp == 0) {
+                    return o1.getIdentificador() - o2.getIdentificador();
+                }
+                return comp;
+            }
+        });
+        ranks = new HashMap<ProgramaDAG, RanksDAG>();
+        instancias = new HashMap<AppDAG, InstanciaDAG>();
+        resultados = new ArrayList<ResultadoDAG>();
+        int n = escravos.size();
+        tempoMbitEscravo = new double[n];
+        latenciaEscravo = new double[n];
+        nucleos = new double[n][];
+        tempoMflop = 0;
+        tempoMbit = 0;
+        for (int s = 0; s < n; s++) {
+            CS_Processamento escravo = escravos.get(s);
+            nucleos[s] = new double[Math.max(1, escravo.getNumeroProcessadores())];
+            tempoMflop += escravo.tempoProcessar(1);
+            if (caminhoEscravo != null && s < caminhoEscravo.size()) {
+                for (CentroServico item : getCaminhoEscravo(s)) {
+                    if (item instanceof CS_Comunicacao) {
+                        CS_Comunicacao link = (CS_Comunicacao) item;
+                        latenciaEscravo[s] += link.tempoTransmitir(0);
+                        tempoMbitEscravo[s] += link.tempoTransmitir(1) - link.tempoTransmitir(0);
+                    }
+                }
+            }
+            tempoMbit += tempoMbitEscravo[s];
+        }
+        if (n > 0) {
+            tempoMflop /= n;
+            //entre dois escravos a mensagem passa em média por dois caminhos
+            tempoMbit = 2 * tempoMbit / n;
+        }
+    }
+
+    /**
+     * @return tarefa pronta de maior prioridade
+     */
+    @Override
+    public Tarefa escalonarTarefa() {
+        return prontas.peek();
+    }
+
+    /**
+     * @return escravo escolhido para a tarefa pronta de maior prioridade
+     */
+    @Override
+    public CS_Processamento escalonarRecurso() {
+        Tarefa tarefa = prontas.peek();
+        if (tarefa == null) {
+            return null;
+        }
+        InstanciaDAG instancia = instancia(tarefa);
+        int indice = instancia == null ? -1 : instancia.indice(tarefa);
+        return escravos.get(escolherEscravo(tarefa, instancia == null ? null : instancia.ranks, indice));
+    }
+
+    @Override
+    public List<CentroServico> escalonarRota(CentroServico destino) {
+        return new ArrayList<CentroServico>(getCaminhoEscravo(getIndiceEscravo(destino)));
+    }
+
+    @Override
+    public void escalonar() {
+        escalonarLote(1);
+    }
+
+    /**
+     * Atribui as tarefas prontas por ordem de prioridade; os sucessores
+     * liberados entram na mesma rodada
+     */
+    @Override
+    public int escalonarLote(int limite) {
+        int enviadas = 0;
+        while (enviadas < limite && !prontas.isEmpty()) {
+            long inicio = System.nanoTime();
+            Tarefa tarefa = prontas.poll();
+            prioridades.remove(tarefa);
+            InstanciaDAG instancia = instancia(tarefa);
+            int indice = instancia == null ? -1 : instancia.indice(tarefa);
+            int s = escolherEscravo(tarefa, instancia == null ? null : instancia.ranks, indice);
+            double fim = fimEstimado(tarefa, instancia, indice, s);
+            double[] nucleosEscravo = nucleos[s];
+            nucleosEscravo[menorNucleo(nucleosEscravo)] = fim;
+            if (instancia != null && instancia.escravo[indice] < 0) {
+                instancia.escravo[indice] = s;
+                instancia.fim[indice] = fim;
+                for (int j : instancia.ranks.getSucessores(indice)) {
+                    if (--instancia.pendentes[j] == 0 && instancia.tarefas[j] != null) {
+                        tornarPronta(instancia.tarefas[j], instancia.ranks, j);
+                    }
+                }
+            }
+            tarefas.remove(tarefa);
+            CS_Processamento escravo = escravos.get(s);
+            tarefa.setLocalProcessamento(escravo);
+            tarefa.setCaminho(escalonarRota(escravo));
+            mestre.enviarTarefa(tarefa);
+            enviadas++;
+            if (instancia != null) {
+                instancia.atribuidas++;
+                instancia.nanos += System.nanoTime() - inicio;
+            }
+        }
+        return enviadas;
+    }
+
+    /**
+     * Escolhe o escravo de uma tarefa pronta. A implementação padrão é o
+     * escravo em que a tarefa terminaria mais cedo.
+     *
+     * @param ranks ranks do DAG da tarefa, ou null para tarefas independentes
+     * @param indice índice da tarefa no DAG
+     * @return índice do escravo
+     */
+    protected int escolherEscravo(Tarefa tarefa, RanksDAG ranks, int indice) {
+        return escravoMaisCedo(tarefa);
+    }
+
+    /**
+     * @return índice do escravo em que a tarefa terminaria mais cedo
+     */
+    protected int escravoMaisCedo(Tarefa tarefa) {
+        InstanciaDAG instancia = instancia(tarefa);
+        int indice = instancia == null ? -1 : instancia.indice(tarefa);
+        int melhor = 0;
+        double menorFim = Double.POSITIVE_INFINITY;
+        for (int s = 0; s < escravos.size(); s++) {
+            double fim = fimEstimado(tarefa, instancia, indice, s);
+            if (fim < menorFim) {
+                menorFim = fim;
+                melhor = s;
+            }
+        }
+        return melhor;
+    }
+
+    /**
+     * Fim da tarefa no escravo s: começa depois que o arquivo chega, que as
+     * mensagens dos predecessores chegam e que um núcleo fica livre
+     */
+    private double fimEstimado(Tarefa tarefa, InstanciaDAG instancia, int indice, int s) {
+        CS_Processamento escravo = escravos.get(s);
+        double pronto = mestre.getSimulacao().getTime(this) + latenciaEscravo[s] + tarefa.getTamComunicacao() * tempoMbitEscravo[s];
+        if (instancia != null) {
+            int[] predecessores = instancia.ranks.getPredecessores(indice);
+            double[] comunicacoes = instancia.ranks.getComunicacoesPredecessores(indice);
+            for (int k = 0; k < predecessores.length; k++) {
+                int i = predecessores[k];
+                if (instancia.escravo[i] == s) {
+                    pronto = Math.max(pronto, instancia.fim[i]);
+                } else if (instancia.escravo[i] >= 0) {
+                    pronto = Math.max(pronto, instancia.fim[i] + comunicacoes[k] * tempoMbit);
+                }
+            }
+        }
+        double[] nucleosEscravo = nucleos[s];
+        double inicio = Math.max(pronto, nucleosEscravo[menorNucleo(nucleosEscravo)]);
+        return inicio + escravo.tempoProcessar(tarefa.getTamProcessamento());
+    }
+
+    private static int menorNucleo(double[] nucleos) {
+        int menor = 0;
+        for (int n = 1; n < nucleos.length; n++) {
+            if (nucleos[n] < nucleos[menor]) {
+                menor = n;
+            }
+        }
+        return menor;
+    }
+
+    private void tornarPronta(Tarefa tarefa, RanksDAG ranksDAG, int indice) {
+        if (ranksDAG == null) {
+            prioridades.put(tarefa, tarefa.getTamProcessamento() * tempoMflop);
+        } else {
+            prioridades.put(tarefa, prioridade(ranksDAG, indice));
+        }
+        prontas.add(tarefa);
+    }
+
+    /**
+     * @return instância do DAG compilado da tarefa, ou null para tarefas
+     * independentes
+     */
+    private InstanciaDAG instancia(Tarefa tarefa) {
+        if (!(tarefa instanceof TarefaDAG)) {
+            return null;
+        }
+        return instancias.get(((TarefaDAG) tarefa).getThread().getAppDAG());
+    }
+
+    /**
+     * @return ranks do DAG, calculados na primeira instância
+     */
+    protected RanksDAG getRanks(ProgramaDAG programa) {
+        RanksDAG ranksDAG = ranks.get(programa);
+        if (ranksDAG == null) {
+            ranksDAG = new RanksDAG(programa, tempoMflop, tempoMbit);
+            ranks.put(programa, ranksDAG);
+        }
+        return ranksDAG;
+    }
+
+    /**
+     * @return makespan e vazão de decisões de cada instância de DAG
+     * concluída, na ordem de conclusão
+     */
+    public List<ResultadoDAG> getResultadosDAG() {
+        return Collections.unmodifiableList(resultados);
+    }
+
+    @Override
+    public void adicionarTarefa(Tarefa tarefa) {
+        super.adicionarTarefa(tarefa);
+        if (prontas.contains(tarefa)) {
+            return;
+        }
+        InstanciaDAG instancia = null;
+        if (tarefa instanceof TarefaDAG) {
+            AppDAG app = ((TarefaDAG) tarefa).getThread().getAppDAG();
+            instancia = instancias.get(app);
+            if (instancia == null && app.getPrograma() != null) {
+                instancia = new InstanciaDAG(app.getNome(), getRanks(app.getPrograma()), mestre.getSimulacao().getTime(this));
+                instancias.put(app, instancia);
+            }
+        }
+        if (instancia == null) {
+            tornarPronta(tarefa, null, -1);
+        } else {
+            int indice = instancia.indice(tarefa);
+            instancia.tarefas[indice] = tarefa;
+            if (instancia.pendentes[indice] > 0) {
+                return;
+            }
+            tornarPronta(tarefa, instancia.ranks, indice);
+        }
+        mestre.executarEscalonamento();
+    }
+
+    @Override
+    public void addTarefaConcluida(Tarefa tarefa) {
+        super.addTarefaConcluida(tarefa);
+        InstanciaDAG instancia = instancia(tarefa);
+        if (instancia != null && ++instancia.concluidas == instancia.ranks.getNumTarefasDAG()) {
+            instancias.remove(((TarefaDAG) tarefa).getThread().getAppDAG());
+            resultados.add(new ResultadoDAG(instancia.nome, instancia.atribuidas,
+                    instancia.chegada, mestre.getSimulacao().getTime(this), instancia.nanos));
+        }
+    }
+
+    /**
+     * Estado de uma instância de DAG compilado, em vetores pelo índice das
+     * tarefas no ProgramaDAG
+     */
+    private static class InstanciaDAG {
+
+        private final String nome;
+        private final RanksDAG ranks;
+        private final double chegada;
+        private final Tarefa[] tarefas;
+        /**
+         * Predecessores ainda não atribuídos
+         */
+        private final int[] pendentes;
+        private final int[] escravo;
+        private final double[] fim;
+        private int atribuidas;
+        private int concluidas;
+        private long nanos;
+
+        private InstanciaDAG(String nome, RanksDAG ranks, double chegada) {
+            this.nome = nome;
+            this.ranks = ranks;
+            this.chegada = chegada;
+            int n = ranks.getNumTarefas();
+            tarefas = new Tarefa[n];
+            pendentes = new int[n];
+            for (int i = 0; i < n; i++) {
+                pendentes[i] = ranks.getPredecessores(i).length;
+            }
+            escravo = new int[n];
+            Arrays.fill(escravo, -1);
+            fim = new double[n];
+        }
+
+        private int indice(Tarefa tarefa) {
+            return ranks.getIndice(((TarefaDAG) tarefa).getRank());
+        }
+    }
+
+    /**
+     * Medidas de uma instância de DAG concluída
+     */
+    public static class ResultadoDAG {
+
+        private final String aplicacao;
+        private final int tarefas;
+        private final double chegada;
+        private final double fim;
+        private final long nanos;
+
+        private ResultadoDAG(String aplicacao, int tarefas, double chegada, double fim, long nanos) {
+            this.aplicacao = aplicacao;
+            this.tarefas = tarefas;
+            this.chegada = chegada;
+            this.fim = fim;
+            this.nanos = nanos;
+        }
+
+        public String getAplicacao() {
+            return aplicacao;
+        }
+
+        public int getTarefas() {
+            return tarefas;
+        }
+
+        /**
+         * @return tempo simulado da chegada da primeira tarefa até a
+         * conclusão da última
+         */
+        public double getMakespan() {
+            return fim - chegada;
+        }
+
+        /**
+         * @return tempo real gasto atribuindo as tarefas, em nanossegundos
+         */
+        public long getDuracaoEscalonamento() {
+            return nanos;
+        }
+
+        public double getDecisoesPorSegundo() {
+            return nanos == 0 ? 0 : tarefas * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: %d tarefas, makespan %.3f, %.0f decisões/s",
+                    aplicacao, tarefas, getMakespan(), getDecisoesPorSegundo());
+        }
+    }
+}
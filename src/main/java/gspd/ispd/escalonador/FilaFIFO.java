@@ -0,0 +1,355 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.escalonador;
+
+import java.util.AbstractList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Fila duplamente encadeada para tarefas e escravos, usada no lugar de um
+ * ArrayList quando os elementos são retirados do início.
+ *
+ * Inserção e remoção nas extremidades, remoção de um elemento (remove(Object)
+ * ou pelo nó devolvido na inserção) e contains são feitos em tempo constante.
+ * O acesso por posição guarda o último nó visitado, de modo que percorrer a
+ * fila com get(i) e remover durante o percurso também custa tempo constante
+ * por passo. Os elementos são comparados por identidade, como as tarefas e os
+ * centros de serviço.
+ *
+ * @author denison
+ */
+public class FilaFIFO<E> extends AbstractList<E> {
+
+    /**
+     * Posição de um elemento na fila
+     */
+    public static final class No<E> {
+
+        private final E valor;
+        private No<E> anterior;
+        private No<E> proximo;
+        private boolean removido;
+
+        private No(E valor) {
+            this.valor = valor;
+        }
+
+        public E getValor() {
+            return valor;
+        }
+
+        /**
+         * @return se o elemento já saiu da fila
+         */
+        public boolean isRemovido() {
+            return removido;
+        }
+    }
+
+    /**
+     * Sentinela: cabeca.proximo é o primeiro nó e cabeca.anterior o último
+     */
+    private final No<E> cabeca = new No<E>(null);
+    /**
+     * Um dos nós de cada elemento presente
+     */
+    private final Map<Object, No<E>> nos = new IdentityHashMap<Object, No<E>>();
+    private int tamanho;
+    /**
+     * Quantidade de nós de elementos repetidos, que não estão no mapa
+     */
+    private int repetidos;
+    private No<E> cursor;
+    private int indiceCursor = -1;
+
+    public FilaFIFO() {
+        cabeca.anterior = cabeca;
+        cabeca.proximo = cabeca;
+    }
+
+    public FilaFIFO(Iterable<? extends E> elementos) {
+        this();
+        for (E elemento : elementos) {
+            adicionar(elemento);
+        }
+    }
+
+    /**
+     * Insere no fim da fila
+     *
+     * @return nó que permite remover o elemento em tempo constante
+     */
+    public No<E> adicionar(E elemento) {
+        return inserirAntes(cabeca, elemento);
+    }
+
+    /**
+     * Insere o elemento imediatamente antes de um nó da fila
+     */
+    public No<E> adicionarAntes(No<E> no, E elemento) {
+        if (no.removido) {
+            throw new IllegalArgumentException("Node is not in the queue");
+        }
+        cursor = null;
+        return inserirAntes(no, elemento);
+    }
+
+    /**
+     * Insere no início da fila
+     */
+    public No<E> adicionarPrimeiro(E elemento) {
+        if (cursor != null) {
+            indiceCursor++;
+        }
+        return inserirAntes(cabeca.proximo, elemento);
+    }
+
+    /**
+     * Remove o elemento do nó
+     *
+     * @return elemento removido
+     */
+    public E remover(No<E> no) {
+        if (no.removido) {
+            return null;
+        }
+        if (no == cabeca.proximo) {
+            return removerPrimeiro();
+        }
+        cursor = null;
+        desligar(no);
+        return no.valor;
+    }
+
+    /**
+     * @return primeiro elemento ou null se a fila estiver vazia
+     */
+    public E primeiro() {
+        return cabeca.proximo.valor;
+    }
+
+    /**
+     * @return último elemento ou null se a fila estiver vazia
+     */
+    public E ultimo() {
+        return cabeca.anterior.valor;
+    }
+
+    /**
+     * Retira o primeiro elemento
+     *
+     * @return elemento retirado ou null se a fila estiver vazia
+     */
+    public E removerPrimeiro() {
+        No<E> no = cabeca.proximo;
+        if (no == cabeca) {
+            return null;
+        }
+        if (cursor == no) {
+            cursor = no.proximo == cabeca ? null : no.proximo;
+        } else if (cursor != null) {
+            indiceCursor--;
+        }
+        desligar(no);
+        return no.valor;
+    }
+
+    /**
+     * @return elemento que vem depois do nó, ou null se ele for o último ou
+     * já tiver saído da fila
+     */
+    public E seguinte(No<E> no) {
+        return no.removido ? null : no.proximo.valor;
+    }
+
+    /**
+     * @return um nó do elemento, ou null se ele não estiver na fila
+     */
+    public No<E> getNo(Object elemento) {
+        return nos.get(elemento);
+    }
+
+    @Override
+    public int size() {
+        return tamanho;
+    }
+
+    @Override
+    public boolean contains(Object elemento) {
+        return nos.containsKey(elemento);
+    }
+
+    @Override
+    public boolean add(E elemento) {
+        adicionar(elemento);
+        return true;
+    }
+
+    @Override
+    public void add(int indice, E elemento) {
+        if (indice == tamanho) {
+            adicionar(elemento);
+            return;
+        }
+        No<E> no = noEm(indice);
+        //o novo nó ocupa a posição do cursor
+        inserirAntes(no, elemento);
+        indiceCursor++;
+    }
+
+    @Override
+    public E get(int indice) {
+        return noEm(indice).valor;
+    }
+
+    @Override
+    public E set(int indice, E elemento) {
+        No<E> antigo = noEm(indice);
+        No<E> novo = inserirAntes(antigo, elemento);
+        desligar(antigo);
+        cursor = novo;
+        return antigo.valor;
+    }
+
+    @Override
+    public E remove(int indice) {
+        if (indice == 0) {
+            if (tamanho == 0) {
+                throw new IndexOutOfBoundsException("Index: 0, Size: 0");
+            }
+            return removerPrimeiro();
+        }
+        No<E> no = noEm(indice);
+        //o cursor passa para o nó seguinte, que assume a mesma posição
+        cursor = no.proximo == cabeca ? null : no.proximo;
+        desligar(no);
+        return no.valor;
+    }
+
+    @Override
+    public boolean remove(Object elemento) {
+        No<E> no = nos.get(elemento);
+        if (no == null) {
+            return false;
+        }
+        if (repetidos > 0) {
+            //a primeira ocorrência pode não ser a que está no mapa
+            no = primeiraOcorrencia(elemento);
+        }
+        remover(no);
+        return true;
+    }
+
+    @Override
+    public int indexOf(Object elemento) {
+        if (!nos.containsKey(elemento)) {
+            return -1;
+        }
+        int i = 0;
+        for (No<E> no = cabeca.proximo; no != cabeca; no = no.proximo, i++) {
+            if (no.valor == elemento) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void clear() {
+        for (No<E> no = cabeca.proximo; no != cabeca; no = no.proximo) {
+            no.removido = true;
+        }
+        cabeca.proximo = cabeca;
+        cabeca.anterior = cabeca;
+        nos.clear();
+        tamanho = 0;
+        repetidos = 0;
+        cursor = null;
+        modCount++;
+    }
+
+    private No<E> inserirAntes(No<E> seguinte, E elemento) {
+        No<E> no = new No<E>(elemento);
+        no.proximo = seguinte;
+        no.anterior = seguinte.anterior;
+        seguinte.anterior.proximo = no;
+        seguinte.anterior = no;
+        if (nos.containsKey(elemento)) {
+            repetidos++;
+        } else {
+            nos.put(elemento, no);
+        }
+        tamanho++;
+        modCount++;
+        return no;
+    }
+
+    private void desligar(No<E> no) {
+        no.anterior.proximo = no.proximo;
+        no.proximo.anterior = no.anterior;
+        no.removido = true;
+        tamanho--;
+        modCount++;
+        if (nos.get(no.valor) == no) {
+            nos.remove(no.valor);
+            if (repetidos > 0) {
+                No<E> outro = primeiraOcorrencia(no.valor);
+                if (outro != null) {
+                    nos.put(no.valor, outro);
+                    repetidos--;
+                }
+            }
+        } else {
+            repetidos--;
+        }
+    }
+
+    private No<E> primeiraOcorrencia(Object elemento) {
+        for (No<E> no = cabeca.proximo; no != cabeca; no = no.proximo) {
+            if (no.valor == elemento) {
+                return no;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Localiza o nó de uma posição partindo do ponto mais próximo entre o
+     * início, o fim e o último nó visitado
+     */
+    private No<E> noEm(int indice) {
+        if (indice < 0 || indice >= tamanho) {
+            throw new IndexOutOfBoundsException("Index: " + indice + ", Size: " + tamanho);
+        }
+        No<E> no;
+        int posicao;
+        if (cursor != null && Math.abs(indice - indiceCursor) < Math.min(indice, tamanho - 1 - indice)) {
+            no = cursor;
+            posicao = indiceCursor;
+        } else if (indice <= tamanho - 1 - indice) {
+            no = cabeca.proximo;
+            posicao = 0;
+        } else {
+            no = cabeca.anterior;
+            posicao = tamanho - 1;
+        }
+        while (posicao < indice) {
+            no = no.proximo;
+            posicao++;
+        }
+        while (posicao > indice) {
+            no = no.anterior;
+            posicao--;
+        }
+        if (no == cabeca) {
+            throw new NoSuchElementException();
+        }
+        cursor = no;
+        indiceCursor = indice;
+        return no;
+    }
+}
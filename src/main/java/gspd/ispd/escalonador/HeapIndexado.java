@@ -0,0 +1,235 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.escalonador;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Heap binário que guarda a posição de cada elemento, permitindo remover um
+ * elemento qualquer ou reposicioná-lo após a mudança da sua prioridade em
+ * O(log n) e consultar se ele está no heap em tempo constante.
+ *
+ * Elementos de mesma prioridade saem na ordem em que foram inseridos, como
+ * nas buscas lineares que o heap substitui. Os elementos são comparados por
+ * identidade e cada um pode estar no heap apenas uma vez.
+ *
+ * @author denison
+ */
+public class HeapIndexado<E> extends AbstractQueue<E> {
+
+    private final Comparator<? super E> comparador;
+    private Object[] elementos = new Object[16];
+    private long[] ordens = new long[16];
+    private final Map<Object, Integer> posicoes = new IdentityHashMap<Object, Integer>();
+    private int tamanho;
+    private long proximaOrdem;
+
+    /**
+     * @param comparador ordem dos elementos, o menor sai primeiro
+     */
+    public HeapIndexado(Comparator<? super E> comparador) {
+        this.comparador = comparador;
+    }
+
+    /**
+     * Insere o elemento
+     *
+     * @return false se o elemento já estava no heap
+     */
+    @Override
+    public boolean offer(E elemento) {
+        if (elemento == null) {
+            throw new NullPointerException();
+        }
+        if (posicoes.containsKey(elemento)) {
+            return false;
+        }
+        if (tamanho == elementos.length) {
+            elementos = Arrays.copyOf(elementos, 2 * tamanho);
+            ordens = Arrays.copyOf(ordens, 2 * tamanho);
+        }
+        elementos[tamanho] = elemento;
+        ordens[tamanho] = proximaOrdem++;
+        posicoes.put(elemento, tamanho);
+        tamanho++;
+        subir(tamanho - 1);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        if (tamanho == 0) {
+            return null;
+        }
+        E primeiro = elemento(0);
+        removerEm(0);
+        return primeiro;
+    }
+
+    @Override
+    public E peek() {
+        return tamanho == 0 ? null : elemento(0);
+    }
+
+    @Override
+    public int size() {
+        return tamanho;
+    }
+
+    @Override
+    public boolean contains(Object elemento) {
+        return posicoes.containsKey(elemento);
+    }
+
+    @Override
+    public boolean remove(Object elemento) {
+        Integer posicao = posicoes.get(elemento);
+        if (posicao == null) {
+            return false;
+        }
+        removerEm(posicao);
+        return true;
+    }
+
+    /**
+     * Reposiciona o elemento após uma mudança na sua prioridade. O elemento
+     * mantém a ordem de inserção original para o desempate.
+     *
+     * @return false se o elemento não está no heap
+     */
+    public boolean atualizar(E elemento) {
+        Integer posicao = posicoes.get(elemento);
+        if (posicao == null) {
+            return false;
+        }
+        if (!subir(posicao)) {
+            descer(posicao);
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(elementos, 0, tamanho, null);
+        posicoes.clear();
+        tamanho = 0;
+    }
+
+    /**
+     * Percorre uma cópia dos elementos, sem ordem definida. Remover pelo
+     * iterador remove o elemento do heap.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        final Object[] copia = Arrays.copyOf(elementos, tamanho);
+        return new Iterator<E>() {
+            private int proximo = 0;
+            private Object ultimo;
+
+            @Override
+            public boolean hasNext() {
+                return proximo < copia.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (proximo >= copia.length) {
+                    throw new NoSuchElementException();
+                }
+                ultimo = copia[proximo++];
+                return (E) ultimo;
+            }
+
+            @Override
+            public void remove() {
+                if (ultimo == null) {
+                    throw new IllegalStateException();
+                }
+                HeapIndexado.this.remove(ultimo);
+                ultimo = null;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elemento(int i) {
+        return (E) elementos[i];
+    }
+
+    private void removerEm(int posicao) {
+        posicoes.remove(elementos[posicao]);
+        tamanho--;
+        if (posicao != tamanho) {
+            mover(tamanho, posicao);
+            elementos[tamanho] = null;
+            if (!subir(posicao)) {
+                descer(posicao);
+            }
+        } else {
+            elementos[tamanho] = null;
+        }
+    }
+
+    private boolean antes(int a, int b) {
+        int comparacao = comparador.compare(elemento(a), elemento(b));
+        return comparacao < 0 || (comparacao == 0 && ordens[a] < ordens[b]);
+    }
+
+    /**
+     * @return se o elemento mudou de posição
+     */
+    private boolean subir(int i) {
+        int inicio = i;
+        while (i > 0) {
+            int pai = (i - 1) / 2;
+            if (!antes(i, pai)) {
+                break;
+            }
+            trocar(i, pai);
+            i = pai;
+        }
+        return i != inicio;
+    }
+
+    private void descer(int i) {
+        while (true) {
+            int menor = i;
+            int esquerdo = 2 * i + 1;
+            if (esquerdo < tamanho && antes(esquerdo, menor)) {
+                menor = esquerdo;
+            }
+            if (esquerdo + 1 < tamanho && antes(esquerdo + 1, menor)) {
+                menor = esquerdo + 1;
+            }
+            if (menor == i) {
+                return;
+            }
+            trocar(i, menor);
+            i = menor;
+        }
+    }
+
+    private void trocar(int a, int b) {
+        Object elemento = elementos[a];
+        long ordem = ordens[a];
+        mover(b, a);
+        elementos[b] = elemento;
+        ordens[b] = ordem;
+        posicoes.put(elemento, b);
+    }
+
+    private void mover(int de, int para) {
+        elementos[para] = elementos[de];
+        ordens[para] = ordens[de];
+        posicoes.put(elementos[para], para);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.escalonador;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Associa cada escravo de uma lista à sua posição, substituindo o
+ * lista.indexOf(escravo) linear por uma consulta em tempo constante.
+ *
+ * A lista continua sendo a dos escalonadores, que podem adicioná-la,
+ * reordená-la ou substituí-la livremente: quando a posição guardada não
+ * corresponde mais ao escravo consultado, o índice é reconstruído a partir da
+ * lista.
+ *
+ * @author denison
+ */
+public class IndiceEscravos {
+
+    private final Map<Object, Integer> posicoes = new IdentityHashMap<Object, Integer>();
+    private List<?> lista;
+
+    /**
+     * @param lista lista atual de escravos
+     * @param escravo escravo procurado
+     * @return posição do escravo na lista, ou -1 se não estiver na lista
+     */
+    public int indiceDe(List<?> lista, Object escravo) {
+        if (lista == null) {
+            return -1;
+        }
+        if (lista == this.lista) {
+            Integer indice = posicoes.get(escravo);
+            if (indice != null && indice < lista.size() && lista.get(indice) == escravo) {
+                return indice;
+            }
+        }
+        reconstruir(lista);
+        Integer indice = posicoes.get(escravo);
+        return indice == null ? -1 : indice;
+    }
+
+    private void reconstruir(List<?> lista) {
+        this.lista = lista;
+        posicoes.clear();
+        for (int i = lista.size() - 1; i >= 0; i--) {
+            //a primeira ocorrência prevalece, como em indexOf
+            posicoes.put(lista.get(i), i);
+        }
+    }
+}
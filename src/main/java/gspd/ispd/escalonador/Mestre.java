@@ -19,6 +19,8 @@ public interface Mestre {
     public static final int ENQUANTO_HOUVER_TAREFAS = 1;
     public static final int QUANDO_RECEBE_RESULTADO = 2;
     public static final int AMBOS = 3;
+    //Tamanho do lote: todas as tarefas que o escalonador conseguir atribuir na rodada
+    public static final int LOTE_COMPLETO = Integer.MAX_VALUE;
     //Métodos que geram eventos
     public void enviarTarefa(Tarefa tarefa);
     public void processarTarefa(Tarefa tarefa);
@@ -29,6 +31,8 @@ public interface Mestre {
     public void setSimulacao(Simulation simulacao);
     public int getTipoEscalonamento();
     public void setTipoEscalonamento(int tipo);
+    public int getTamanhoLote();
+    public void setTamanhoLote(int tamanho);
 
     public Tarefa criarCopia(Tarefa get);
     public Simulation getSimulacao();
@@ -0,0 +1,186 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.escalonador;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Mapa ordenado que associa várias entradas a uma mesma chave, usado para
+ * manter tarefas ou escravos ordenados por um critério (tamanho, tempo de
+ * término) sem a inserção ordenada linear em uma lista.
+ *
+ * Inserção, consulta e remoção custam O(log n). Valores de mesma chave ficam
+ * em uma {@link FilaFIFO}, na ordem em que foram inseridos, ou à frente dos já
+ * existentes quando inseridos com {@link #adicionarPrimeiro}. Como na fila, os
+ * valores são comparados por identidade.
+ *
+ * @author denison
+ */
+public class MultimapaOrdenado<K, V> implements Iterable<V> {
+
+    private final TreeMap<K, FilaFIFO<V>> mapa;
+    private int tamanho;
+
+    /**
+     * Chaves em ordem natural
+     */
+    public MultimapaOrdenado() {
+        this.mapa = new TreeMap<K, FilaFIFO<V>>();
+    }
+
+    public MultimapaOrdenado(Comparator<? super K> comparador) {
+        this.mapa = new TreeMap<K, FilaFIFO<V>>(comparador);
+    }
+
+    /**
+     * Insere o valor depois dos valores que já possuem a mesma chave
+     */
+    public void adicionar(K chave, V valor) {
+        valores(chave).adicionar(valor);
+        tamanho++;
+    }
+
+    /**
+     * Insere o valor antes dos valores que já possuem a mesma chave
+     */
+    public void adicionarPrimeiro(K chave, V valor) {
+        valores(chave).adicionarPrimeiro(valor);
+        tamanho++;
+    }
+
+    /**
+     * Remove uma ocorrência do valor associado à chave
+     *
+     * @return false se o valor não estava associado à chave
+     */
+    public boolean remover(K chave, V valor) {
+        FilaFIFO<V> valores = mapa.get(chave);
+        if (valores == null || !valores.remove(valor)) {
+            return false;
+        }
+        if (valores.isEmpty()) {
+            mapa.remove(chave);
+        }
+        tamanho--;
+        return true;
+    }
+
+    /**
+     * @return valor de menor chave, ou null se estiver vazio
+     */
+    public V primeiro() {
+        Map.Entry<K, FilaFIFO<V>> entrada = mapa.firstEntry();
+        return entrada == null ? null : entrada.getValue().primeiro();
+    }
+
+    /**
+     * @return menor chave, ou null se estiver vazio
+     */
+    public K primeiraChave() {
+        return mapa.isEmpty() ? null : mapa.firstKey();
+    }
+
+    /**
+     * Retira o valor de menor chave
+     *
+     * @return valor retirado, ou null se estiver vazio
+     */
+    public V removerPrimeiro() {
+        Map.Entry<K, FilaFIFO<V>> entrada = mapa.firstEntry();
+        if (entrada == null) {
+            return null;
+        }
+        V valor = entrada.getValue().removerPrimeiro();
+        if (entrada.getValue().isEmpty()) {
+            mapa.remove(entrada.getKey());
+        }
+        tamanho--;
+        return valor;
+    }
+
+    /**
+     * Valor que vem logo depois de um valor presente, na ordem do mapa
+     *
+     * @return valor seguinte, ou null se o valor for o último ou não estiver
+     * associado à chave
+     */
+    public V sucessor(K chave, V valor) {
+        FilaFIFO<V> valores = mapa.get(chave);
+        FilaFIFO.No<V> no = valores == null ? null : valores.getNo(valor);
+        if (no == null) {
+            return null;
+        }
+        V proximo = valores.seguinte(no);
+        if (proximo != null) {
+            return proximo;
+        }
+        Map.Entry<K, FilaFIFO<V>> seguinte = mapa.higherEntry(chave);
+        return seguinte == null ? null : seguinte.getValue().primeiro();
+    }
+
+    /**
+     * @return valores associados à chave, na ordem em que estão no mapa
+     */
+    public List<V> get(K chave) {
+        FilaFIFO<V> valores = mapa.get(chave);
+        return valores == null ? new ArrayList<V>() : new ArrayList<V>(valores);
+    }
+
+    public int size() {
+        return tamanho;
+    }
+
+    public boolean isEmpty() {
+        return tamanho == 0;
+    }
+
+    public void clear() {
+        mapa.clear();
+        tamanho = 0;
+    }
+
+    /**
+     * Percorre os valores em ordem de chave. Para remover use
+     * {@link #remover(Object, Object)}.
+     */
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private final Iterator<FilaFIFO<V>> chaves = mapa.values().iterator();
+            private Iterator<V> atual;
+
+            @Override
+            public boolean hasNext() {
+                while ((atual == null || !atual.hasNext()) && chaves.hasNext()) {
+                    atual = chaves.next().iterator();
+                }
+                return atual != null && atual.hasNext();
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return atual.next();
+            }
+        };
+    }
+
+    private FilaFIFO<V> valores(K chave) {
+        FilaFIFO<V> valores = mapa.get(chave);
+        if (valores == null) {
+            valores = new FilaFIFO<V>();
+            mapa.put(chave, valores);
+        }
+        return valores;
+    }
+}
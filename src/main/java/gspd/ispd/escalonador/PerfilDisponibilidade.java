@@ -0,0 +1,428 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.escalonador;
+
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Perfil de disponibilidade dos processadores dos escravos ao longo do tempo,
+ * usado pelos escalonadores com backfilling. Cada processador tem uma linha do
+ * tempo com as reservas feitas pelo escalonador, e os intervalos livres entre
+ * elas (lacunas) ficam em uma árvore balanceada (treap) por classe de
+ * processadores de mesma velocidade, ordenada pelo início e aumentada com o
+ * maior fim e o maior comprimento de cada subárvore. Assim, o início mais cedo
+ * em que uma tarefa cabe em algum processador da classe é encontrado em
+ * O(log n), e reservar ou liberar um intervalo também custa O(log n).
+ *
+ * O perfil é apenas o plano do escalonador: as durações são estimativas e cabe
+ * ao escalonador liberar a reserva quando a tarefa termina ou estendê-la quando
+ * a tarefa excede a estimativa.
+ *
+ * @author denison
+ */
+public class PerfilDisponibilidade {
+
+    /**
+     * Intervalo reservado em um processador
+     */
+    public static final class Reserva {
+
+        private final Nucleo nucleo;
+        private final double inicio;
+        private final double fim;
+
+        private Reserva(Nucleo nucleo, double inicio, double fim) {
+            this.nucleo = nucleo;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        public CS_Processamento getEscravo() {
+            return nucleo.escravo;
+        }
+
+        public double getInicio() {
+            return inicio;
+        }
+
+        /**
+         * @return fim estimado, infinito para tarefas que excederam a
+         * estimativa
+         */
+        public double getFim() {
+            return fim;
+        }
+    }
+
+    /**
+     * Classes da mais rápida para a mais lenta
+     */
+    private final List<Classe> classes = new ArrayList<Classe>();
+    private final Map<Double, Classe> classesPorVelocidade = new HashMap<Double, Classe>();
+    private final Random prioridades = new Random(0);
+    private int proximoNucleo;
+
+    /**
+     * Adiciona os processadores do escravo, livres a partir de inicio
+     */
+    public void addEscravo(CS_Processamento escravo, double inicio) {
+        //Tempo para processar 1 Mflop em um processador do escravo
+        double tempoMflop = escravo.tempoProcessar(1);
+        Classe classe = classesPorVelocidade.get(tempoMflop);
+        if (classe == null) {
+            classe = new Classe(tempoMflop);
+            int posicao = 0;
+            while (posicao < classes.size() && classes.get(posicao).tempoMflop < tempoMflop) {
+                posicao++;
+            }
+            classes.add(posicao, classe);
+            classesPorVelocidade.put(tempoMflop, classe);
+        }
+        for (int i = 0; i < escravo.getNumeroProcessadores(); i++) {
+            inserir(new Nucleo(proximoNucleo++, escravo, classe), inicio, Double.POSITIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Procura o intervalo em que a tarefa terminaria mais cedo, começando
+     * agora ou no futuro
+     *
+     * @param tamanho tamanho estimado da tarefa em Mflops
+     * @return reserva ainda não ocupada, ou null se não há processadores
+     */
+    public Reserva procurar(double agora, double tamanho) {
+        Reserva melhor = null;
+        for (Classe classe : classes) {
+            double duracao = classe.tempoMflop * tamanho;
+            //Nas classes seguintes, mais lentas, a tarefa não termina antes
+            if (melhor != null && agora + duracao >= melhor.fim) {
+                break;
+            }
+            double inicio = agora;
+            Lacuna lacuna = classe.primeiraAgora(agora, duracao);
+            if (lacuna == null) {
+                lacuna = classe.primeiraDepois(classe.raiz, agora, duracao);
+                if (lacuna == null) {
+                    continue;
+                }
+                inicio = lacuna.inicio;
+            }
+            if (melhor == null || inicio + duracao < melhor.fim) {
+                melhor = new Reserva(lacuna.nucleo, inicio, inicio + duracao);
+            }
+        }
+        return melhor;
+    }
+
+    /**
+     * Procura o intervalo em que a tarefa terminaria mais cedo entre os que
+     * começam agora, que é o da classe mais rápida com processador livre
+     *
+     * @return reserva ainda não ocupada, ou null se a tarefa não cabe agora em
+     * nenhum processador
+     */
+    public Reserva procurarAgora(double agora, double tamanho) {
+        for (Classe classe : classes) {
+            double duracao = classe.tempoMflop * tamanho;
+            Lacuna lacuna = classe.primeiraAgora(agora, duracao);
+            if (lacuna != null) {
+                return new Reserva(lacuna.nucleo, agora, agora + duracao);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return se algum processador está livre agora
+     */
+    public boolean livreAgora(double agora) {
+        for (Classe classe : classes) {
+            if (classe.primeiraAgora(agora, 0) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ocupa o intervalo da reserva, que deve estar livre
+     */
+    public void ocupar(Reserva reserva) {
+        Nucleo nucleo = reserva.nucleo;
+        Map.Entry<Double, Lacuna> entrada = nucleo.lacunas.floorEntry(reserva.inicio);
+        if (entrada == null || entrada.getValue().fim < reserva.fim) {
+            throw new IllegalArgumentException("Interval already reserved");
+        }
+        Lacuna lacuna = entrada.getValue();
+        remover(lacuna);
+        inserir(nucleo, lacuna.inicio, reserva.inicio);
+        inserir(nucleo, reserva.fim, lacuna.fim);
+    }
+
+    /**
+     * Libera a parte da reserva que ainda não passou, juntando-a às lacunas
+     * vizinhas
+     */
+    public void liberar(Reserva reserva, double agora) {
+        Nucleo nucleo = reserva.nucleo;
+        //Lacunas que já passaram não serão mais usadas
+        Iterator<Lacuna> passadas = nucleo.lacunas.values().iterator();
+        while (passadas.hasNext()) {
+            Lacuna lacuna = passadas.next();
+            if (lacuna.fim > agora) {
+                break;
+            }
+            passadas.remove();
+            nucleo.classe.raiz = nucleo.classe.remover(nucleo.classe.raiz, lacuna);
+        }
+        double inicio = Math.max(reserva.inicio, agora);
+        double fim = reserva.fim;
+        if (inicio >= fim) {
+            return;
+        }
+        Map.Entry<Double, Lacuna> anterior = nucleo.lacunas.floorEntry(inicio);
+        if (anterior != null && anterior.getValue().fim >= inicio) {
+            inicio = anterior.getValue().inicio;
+            fim = Math.max(fim, anterior.getValue().fim);
+            remover(anterior.getValue());
+        }
+        Map.Entry<Double, Lacuna> seguinte = nucleo.lacunas.ceilingEntry(inicio);
+        if (seguinte != null && seguinte.getValue().inicio <= fim) {
+            fim = Math.max(fim, seguinte.getValue().fim);
+            remover(seguinte.getValue());
+        }
+        inserir(nucleo, inicio, fim);
+    }
+
+    /**
+     * Mantém o processador ocupado pela tarefa até que ela termine, quando a
+     * tarefa excede a estimativa. Só é possível se não há outras reservas
+     * depois dela no processador.
+     *
+     * @return nova reserva, sem fim, ou null se há reservas depois dela
+     */
+    public Reserva estender(Reserva reserva, double agora) {
+        Nucleo nucleo = reserva.nucleo;
+        Map.Entry<Double, Lacuna> ultima = nucleo.lacunas.lastEntry();
+        if (ultima == null || ultima.getValue().inicio > Math.max(reserva.fim, agora)) {
+            return null;
+        }
+        remover(ultima.getValue());
+        return new Reserva(nucleo, reserva.inicio, Double.POSITIVE_INFINITY);
+    }
+
+    private void inserir(Nucleo nucleo, double inicio, double fim) {
+        if (inicio < fim) {
+            Lacuna lacuna = new Lacuna(nucleo, inicio, fim, prioridades.nextInt());
+            nucleo.lacunas.put(inicio, lacuna);
+            nucleo.classe.raiz = nucleo.classe.inserir(nucleo.classe.raiz, lacuna);
+        }
+    }
+
+    private void remover(Lacuna lacuna) {
+        lacuna.nucleo.lacunas.remove(lacuna.inicio);
+        lacuna.nucleo.classe.raiz = lacuna.nucleo.classe.remover(lacuna.nucleo.classe.raiz, lacuna);
+    }
+
+    /**
+     * Processador de um escravo, com as suas lacunas ordenadas pelo início
+     */
+    private static final class Nucleo {
+
+        private final int id;
+        private final CS_Processamento escravo;
+        private final Classe classe;
+        private final TreeMap<Double, Lacuna> lacunas = new TreeMap<Double, Lacuna>();
+
+        private Nucleo(int id, CS_Processamento escravo, Classe classe) {
+            this.id = id;
+            this.escravo = escravo;
+            this.classe = classe;
+        }
+    }
+
+    /**
+     * Intervalo livre de um processador, também nó da árvore da sua classe
+     */
+    private static final class Lacuna {
+
+        private final Nucleo nucleo;
+        private final double inicio;
+        private final double fim;
+        private final int prioridade;
+        private Lacuna esquerda;
+        private Lacuna direita;
+        private double maiorFim;
+        private double maiorComprimento;
+
+        private Lacuna(Nucleo nucleo, double inicio, double fim, int prioridade) {
+            this.nucleo = nucleo;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.prioridade = prioridade;
+            atualizar();
+        }
+
+        private int compareTo(Lacuna outra) {
+            int comparacao = Double.compare(inicio, outra.inicio);
+            return comparacao != 0 ? comparacao : Integer.compare(nucleo.id, outra.nucleo.id);
+        }
+
+        private void atualizar() {
+            maiorFim = fim;
+            maiorComprimento = fim - inicio;
+            if (esquerda != null) {
+                maiorFim = Math.max(maiorFim, esquerda.maiorFim);
+                maiorComprimento = Math.max(maiorComprimento, esquerda.maiorComprimento);
+            }
+            if (direita != null) {
+                maiorFim = Math.max(maiorFim, direita.maiorFim);
+                maiorComprimento = Math.max(maiorComprimento, direita.maiorComprimento);
+            }
+        }
+    }
+
+    /**
+     * Processadores de mesma velocidade e a árvore das suas lacunas
+     */
+    private static final class Classe {
+
+        private final double tempoMflop;
+        private Lacuna raiz;
+
+        private Classe(double tempoMflop) {
+            this.tempoMflop = tempoMflop;
+        }
+
+        /**
+         * Lacuna que já começou e dura pelo menos duracao a partir de agora
+         */
+        private Lacuna primeiraAgora(double agora, double duracao) {
+            //Uma tarefa sem duração ainda precisa de um processador livre agora
+            double limite = Math.max(agora + duracao, Math.nextUp(agora));
+            Lacuna no = raiz;
+            while (no != null && no.maiorFim >= limite) {
+                if (no.inicio > agora) {
+                    no = no.esquerda;
+                    continue;
+                }
+                //Toda a subárvore esquerda já começou
+                if (no.esquerda != null && no.esquerda.maiorFim >= limite) {
+                    return qualquer(no.esquerda, limite);
+                }
+                if (no.fim >= limite) {
+                    return no;
+                }
+                no = no.direita;
+            }
+            return null;
+        }
+
+        private static Lacuna qualquer(Lacuna no, double limite) {
+            while (no != null) {
+                if (no.esquerda != null && no.esquerda.maiorFim >= limite) {
+                    no = no.esquerda;
+                } else if (no.fim >= limite) {
+                    return no;
+                } else {
+                    no = no.direita;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Primeira lacuna que começa depois de agora com pelo menos duracao
+         */
+        private Lacuna primeiraDepois(Lacuna no, double agora, double duracao) {
+            if (no == null || no.maiorComprimento < duracao) {
+                return null;
+            }
+            if (no.inicio <= agora) {
+                return primeiraDepois(no.direita, agora, duracao);
+            }
+            Lacuna lacuna = primeiraDepois(no.esquerda, agora, duracao);
+            if (lacuna != null) {
+                return lacuna;
+            }
+            if (no.fim - no.inicio >= duracao) {
+                return no;
+            }
+            return primeiraDepois(no.direita, agora, duracao);
+        }
+
+        private Lacuna inserir(Lacuna no, Lacuna lacuna) {
+            if (no == null) {
+                return lacuna;
+            }
+            if (lacuna.compareTo(no) < 0) {
+                no.esquerda = inserir(no.esquerda, lacuna);
+                if (no.esquerda.prioridade > no.prioridade) {
+                    no = rotacionarDireita(no);
+                }
+            } else {
+                no.direita = inserir(no.direita, lacuna);
+                if (no.direita.prioridade > no.prioridade) {
+                    no = rotacionarEsquerda(no);
+                }
+            }
+            no.atualizar();
+            return no;
+        }
+
+        private Lacuna remover(Lacuna no, Lacuna lacuna) {
+            if (no == null) {
+                return null;
+            }
+            if (no == lacuna) {
+                if (no.esquerda == null) {
+                    return no.direita;
+                }
+                if (no.direita == null) {
+                    return no.esquerda;
+                }
+                //Desce o nó pelo filho de maior prioridade até ele virar folha
+                if (no.esquerda.prioridade > no.direita.prioridade) {
+                    no = rotacionarDireita(no);
+                    no.direita = remover(no.direita, lacuna);
+                } else {
+                    no = rotacionarEsquerda(no);
+                    no.esquerda = remover(no.esquerda, lacuna);
+                }
+            } else if (lacuna.compareTo(no) < 0) {
+                no.esquerda = remover(no.esquerda, lacuna);
+            } else {
+                no.direita = remover(no.direita, lacuna);
+            }
+            no.atualizar();
+            return no;
+        }
+
+        private static Lacuna rotacionarDireita(Lacuna no) {
+            Lacuna esquerda = no.esquerda;
+            no.esquerda = esquerda.direita;
+            esquerda.direita = no;
+            no.atualizar();
+            esquerda.atualizar();
+            return esquerda;
+        }
+
+        private static Lacuna rotacionarEsquerda(Lacuna no) {
+            Lacuna direita = no.direita;
+            no.direita = direita.esquerda;
+            direita.esquerda = no;
+            no.atualizar();
+            direita.atualizar();
+            return direita;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.escalonador;
+
+import gspd.ispd.motor.Mensagens;
+import gspd.ispd.motor.filas.Mensagem;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.CentroServico;
+import gspd.ispd.motor.metricas.MetricasUsuarios;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sequência das chamadas feitas pelo mestre ao escalonador durante uma
+ * simulação, com o instante de cada uma e o que o escalonador observou:
+ * tarefas recebidas e concluídas, rodadas de escalonamento e resultados de
+ * atualização dos escravos. É gravada pelo mestre quando recebe um rastro
+ * (CS_Mestre.setRastro) e pode ser reproduzida contra qualquer escalonador,
+ * fora do motor de simulação, por {@link ReprodutorDecisoes}.
+ *
+ * As tarefas são guardadas por referência; as listas recebidas nas
+ * atualizações são copiadas no momento da chamada, pois o mestre as atualiza
+ * durante a simulação.
+ *
+ * @author denison
+ */
+public class RastroDecisoes {
+
+    public static final int ADICIONAR_TAREFA = 0;
+    public static final int ESCALONAR = 1;
+    public static final int TAREFA_CONCLUIDA = 2;
+    public static final int RESULTADO_ATUALIZAR = 3;
+    public static final int NUMERO_CHAMADAS = 4;
+    public static final String[] NOMES = {"adicionarTarefa", "escalonar", "addTarefaConcluida", "resultadoAtualizar"};
+
+    private final Escalonador origem;
+    private int tamanho;
+    private byte[] chamadas = new byte[1024];
+    private double[] tempos = new double[1024];
+    /**
+     * Tarefa ou mensagem da chamada; nas rodadas de escalonamento, null
+     */
+    private Object[] argumentos = new Object[1024];
+    /**
+     * Tamanho do lote nas rodadas de escalonamento
+     */
+    private int[] lotes = new int[1024];
+    private List<CS_Processamento> escravos;
+    private List<List<CentroServico>> caminhoEscravo;
+
+    /**
+     * @param origem escalonador do mestre gravado, de onde são obtidos os
+     * escravos, os caminhos e os usuários para a reprodução
+     */
+    public RastroDecisoes(Escalonador origem) {
+        this.origem = origem;
+    }
+
+    public void adicionarTarefa(double tempo, Tarefa tarefa) {
+        gravar(ADICIONAR_TAREFA, tempo, tarefa, 0);
+    }
+
+    /**
+     * @param lote tamanho do lote da rodada, 1 quando o mestre chama
+     * escalonar()
+     */
+    public void escalonar(double tempo, int lote) {
+        gravar(ESCALONAR, tempo, null, lote);
+    }
+
+    public void tarefaConcluida(double tempo, Tarefa tarefa) {
+        gravar(TAREFA_CONCLUIDA, tempo, tarefa, 0);
+    }
+
+    public void resultadoAtualizar(double tempo, Mensagem mensagem) {
+        Mensagem copia = new Mensagem((CS_Processamento) mensagem.getOrigem(), mensagem.getTamComunicacao(), Mensagens.RESULTADO_ATUALIZAR);
+        if (mensagem.getFilaEscravo() != null) {
+            copia.setFilaEscravo(new ArrayList<Tarefa>(mensagem.getFilaEscravo()));
+        }
+        if (mensagem.getProcessadorEscravo() != null) {
+            copia.setProcessadorEscravo(new ArrayList<Tarefa>(mensagem.getProcessadorEscravo()));
+        }
+        gravar(RESULTADO_ATUALIZAR, tempo, copia, 0);
+    }
+
+    private void gravar(int chamada, double tempo, Object argumento, int lote) {
+        if (escravos == null) {
+            //Na primeira chamada os escravos e caminhos já estão definidos
+            escravos = new ArrayList<CS_Processamento>(origem.getEscravos());
+            caminhoEscravo = copiarCaminhos(origem);
+        }
+        if (tamanho == chamadas.length) {
+            int capacidade = 2 * tamanho;
+            chamadas = Arrays.copyOf(chamadas, capacidade);
+            tempos = Arrays.copyOf(tempos, capacidade);
+            argumentos = Arrays.copyOf(argumentos, capacidade);
+            lotes = Arrays.copyOf(lotes, capacidade);
+        }
+        chamadas[tamanho] = (byte) chamada;
+        tempos[tamanho] = tempo;
+        argumentos[tamanho] = argumento;
+        lotes[tamanho] = lote;
+        tamanho++;
+    }
+
+    public int size() {
+        return tamanho;
+    }
+
+    public int getChamada(int i) {
+        return chamadas[i];
+    }
+
+    public double getTempo(int i) {
+        return tempos[i];
+    }
+
+    public Tarefa getTarefa(int i) {
+        return (Tarefa) argumentos[i];
+    }
+
+    public Mensagem getMensagem(int i) {
+        return (Mensagem) argumentos[i];
+    }
+
+    public int getLote(int i) {
+        return lotes[i];
+    }
+
+    public List<CS_Processamento> getEscravos() {
+        return escravos == null ? origem.getEscravos() : escravos;
+    }
+
+    public List<List<CentroServico>> getCaminhoEscravo() {
+        return escravos == null ? copiarCaminhos(origem) : caminhoEscravo;
+    }
+
+    private static List<List<CentroServico>> copiarCaminhos(Escalonador escalonador) {
+        if (escalonador.getCaminhoEscravo() == null) {
+            return null;
+        }
+        int tamanho = escalonador.getCaminhoEscravo().size();
+        List<List<CentroServico>> caminhos = new ArrayList<List<CentroServico>>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            caminhos.add(escalonador.getCaminhoEscravo(i));
+        }
+        return caminhos;
+    }
+
+    public MetricasUsuarios getMetricaUsuarios() {
+        return origem.getMetricaUsuarios();
+    }
+}
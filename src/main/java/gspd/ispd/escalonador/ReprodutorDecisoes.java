@@ -0,0 +1,372 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.escalonador;
+
+import gspd.ispd.motor.EventoFuturo;
+import gspd.ispd.motor.Simulation;
+import gspd.ispd.motor.SimulationProgress;
+import gspd.ispd.motor.filas.Cliente;
+import gspd.ispd.motor.filas.RedeDeFilas;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.CentroServico;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reproduz um {@link RastroDecisoes} contra um escalonador, fora do motor de
+ * simulação: as chamadas são feitas na ordem gravada, em sequência, e o
+ * mestre apenas conta as decisões tomadas. Mede o tempo de cada chamada e a
+ * memória alocada, permitindo comparar implementações e perfilar os pontos
+ * críticos de uma política sem executar a simulação completa.
+ *
+ * As rodadas de escalonamento ocorrem onde ocorreram na gravação, e os
+ * pedidos de novas rodadas feitos pelo escalonador são ignorados; por isso o
+ * rastro é mais fiel quando reproduzido contra a política gravada ou outra
+ * implementação dela. Chamadas que lançam exceção são contadas como falhas e
+ * a reprodução continua. O relógio visto pelo escalonador é o instante gravado
+ * de cada chamada. As tarefas são os mesmos objetos da simulação gravada e
+ * mantêm o estado em que ela terminou.
+ *
+ * @author denison
+ */
+public class ReprodutorDecisoes {
+
+    private final RastroDecisoes rastro;
+
+    public ReprodutorDecisoes(RastroDecisoes rastro) {
+        this.rastro = rastro;
+    }
+
+    /**
+     * Reproduz o rastro contra o escalonador, que deve ser uma nova instância
+     * ainda não iniciada
+     */
+    public Resultado reproduzir(Escalonador escalonador) {
+        MestreReproducao mestre = new MestreReproducao();
+        escalonador.setMestre(mestre);
+        escalonador.setMetricaUsuarios(rastro.getMetricaUsuarios());
+        for (CS_Processamento escravo : rastro.getEscravos()) {
+            escalonador.addEscravo(escravo);
+        }
+        if (rastro.getCaminhoEscravo() != null) {
+            copiarCaminhos(rastro.getCaminhoEscravo(), escalonador);
+        }
+        escalonador.iniciar();
+        //O mestre só pede atualizações a escalonadores dinâmicos
+        boolean dinamico = escalonador.getTempoAtualizar() != null;
+        //Latências de cada tipo de chamada, em nanossegundos
+        int[] chamadas = new int[RastroDecisoes.NUMERO_CHAMADAS];
+        for (int i = 0; i < rastro.size(); i++) {
+            if (dinamico || rastro.getChamada(i) != RastroDecisoes.RESULTADO_ATUALIZAR) {
+                chamadas[rastro.getChamada(i)]++;
+            }
+        }
+        long[][] latencias = new long[RastroDecisoes.NUMERO_CHAMADAS][];
+        for (int c = 0; c < latencias.length; c++) {
+            latencias[c] = new long[chamadas[c]];
+        }
+        Arrays.fill(chamadas, 0);
+        int falhas = 0;
+        RuntimeException primeiraFalha = null;
+        long alocadosInicio = bytesAlocados();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < rastro.size(); i++) {
+            int chamada = rastro.getChamada(i);
+            if (!dinamico && chamada == RastroDecisoes.RESULTADO_ATUALIZAR) {
+                continue;
+            }
+            mestre.relogio.tempo = rastro.getTempo(i);
+            long t = System.nanoTime();
+            try {
+                reproduzir(escalonador, i, chamada);
+            } catch (RuntimeException ex) {
+                if (primeiraFalha == null) {
+                    primeiraFalha = ex;
+                }
+                falhas++;
+            }
+            latencias[chamada][chamadas[chamada]++] = System.nanoTime() - t;
+        }
+        long duracao = System.nanoTime() - inicio;
+        long alocadosFim = bytesAlocados();
+        long alocados = alocadosInicio < 0 || alocadosFim < 0 ? -1 : alocadosFim - alocadosInicio;
+        return new Resultado(escalonador.getClass().getSimpleName(), mestre.tarefasEnviadas, mestre.mensagensEnviadas, duracao, alocados, latencias, falhas, primeiraFalha);
+    }
+
+    private void reproduzir(Escalonador escalonador, int i, int chamada) {
+        switch (chamada) {
+            case RastroDecisoes.ADICIONAR_TAREFA:
+                escalonador.adicionarTarefa(rastro.getTarefa(i));
+                break;
+            case RastroDecisoes.ESCALONAR:
+                if (rastro.getLote(i) > 1) {
+                    escalonador.escalonarLote(rastro.getLote(i));
+                } else {
+                    escalonador.escalonar();
+                }
+                break;
+            case RastroDecisoes.TAREFA_CONCLUIDA:
+                escalonador.addTarefaConcluida(rastro.getTarefa(i));
+                break;
+            case RastroDecisoes.RESULTADO_ATUALIZAR:
+                escalonador.resultadoAtualizar(rastro.getMensagem(i));
+                break;
+        }
+    }
+
+    /**
+     * Entrega ao escalonador uma cópia de cada caminho gravado; o campo
+     * caminhoEscravo das políticas não tem tipo
+     */
+    @SuppressWarnings("rawtypes")
+    private static void copiarCaminhos(List<List<CentroServico>> gravados, Escalonador escalonador) {
+        List<List> caminhos = new ArrayList<List>(gravados.size());
+        for (List<CentroServico> caminho : gravados) {
+            caminhos.add(new ArrayList<CentroServico>(caminho));
+        }
+        escalonador.setCaminhoEscravo(caminhos);
+    }
+
+    /**
+     * @return bytes alocados pela thread atual até o momento, ou -1 se a
+     * máquina virtual não informa
+     */
+    private static long bytesAlocados() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Medidas de uma reprodução
+     */
+    public static class Resultado {
+
+        private final String escalonador;
+        private final int tarefasEnviadas;
+        private final int mensagensEnviadas;
+        private final long duracao;
+        private final long bytesAlocados;
+        private final long[][] latencias;
+        private final int falhas;
+        private final RuntimeException primeiraFalha;
+
+        private Resultado(String escalonador, int tarefasEnviadas, int mensagensEnviadas, long duracao, long bytesAlocados, long[][] latencias, int falhas, RuntimeException primeiraFalha) {
+            this.escalonador = escalonador;
+            this.tarefasEnviadas = tarefasEnviadas;
+            this.mensagensEnviadas = mensagensEnviadas;
+            this.duracao = duracao;
+            this.bytesAlocados = bytesAlocados;
+            this.latencias = latencias;
+            this.falhas = falhas;
+            this.primeiraFalha = primeiraFalha;
+            for (long[] l : latencias) {
+                Arrays.sort(l);
+            }
+        }
+
+        /**
+         * @return tarefas enviadas e mensagens (preempção, devolução) enviadas
+         * aos escravos
+         */
+        public int getDecisoes() {
+            return tarefasEnviadas + mensagensEnviadas;
+        }
+
+        public int getTarefasEnviadas() {
+            return tarefasEnviadas;
+        }
+
+        public int getMensagensEnviadas() {
+            return mensagensEnviadas;
+        }
+
+        /**
+         * @return tempo total da reprodução em nanossegundos
+         */
+        public long getDuracao() {
+            return duracao;
+        }
+
+        public double getDecisoesPorSegundo() {
+            return duracao == 0 ? 0 : getDecisoes() * 1e9 / duracao;
+        }
+
+        /**
+         * @return bytes alocados durante a reprodução, ou -1 se a máquina
+         * virtual não informa
+         */
+        public long getBytesAlocados() {
+            return bytesAlocados;
+        }
+
+        /**
+         * @return número de chamadas que lançaram exceção
+         */
+        public int getFalhas() {
+            return falhas;
+        }
+
+        /**
+         * @return exceção da primeira chamada que falhou, ou null
+         */
+        public RuntimeException getPrimeiraFalha() {
+            return primeiraFalha;
+        }
+
+        public int getChamadas(int chamada) {
+            return latencias[chamada].length;
+        }
+
+        /**
+         * @param chamada tipo de chamada, constante de RastroDecisoes
+         * @param percentil entre 0 e 100
+         * @return latência da chamada no percentil, em nanossegundos
+         */
+        public long getLatencia(int chamada, double percentil) {
+            long[] l = latencias[chamada];
+            if (l.length == 0) {
+                return 0;
+            }
+            int i = (int) Math.ceil(percentil / 100 * l.length) - 1;
+            return l[Math.max(0, Math.min(l.length - 1, i))];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder texto = new StringBuilder();
+            texto.append(String.format(Locale.ROOT, "%s: %d decisões (%d tarefas, %d mensagens) em %.3f ms, %.0f decisões/s",
+                    escalonador, getDecisoes(), tarefasEnviadas, mensagensEnviadas, duracao / 1e6, getDecisoesPorSegundo()));
+            if (bytesAlocados >= 0) {
+                texto.append(String.format(Locale.ROOT, ", %.1f KB alocados (%.0f B/decisão)",
+                        bytesAlocados / 1024.0, getDecisoes() == 0 ? 0.0 : (double) bytesAlocados / getDecisoes()));
+            }
+            if (falhas > 0) {
+                texto.append(String.format(Locale.ROOT, ", %d chamadas falharam (primeira: %s)", falhas, primeiraFalha));
+            }
+            texto.append('\n');
+            texto.append(String.format(Locale.ROOT, "  %-20s %8s %10s %10s %10s %10s%n", "chamada", "n", "p50 (us)", "p90 (us)", "p99 (us)", "max (us)"));
+            for (int c = 0; c < latencias.length; c++) {
+                texto.append(String.format(Locale.ROOT, "  %-20s %8d %10.2f %10.2f %10.2f %10.2f%n", RastroDecisoes.NOMES[c], getChamadas(c),
+                        getLatencia(c, 50) / 1e3, getLatencia(c, 90) / 1e3, getLatencia(c, 99) / 1e3, getLatencia(c, 100) / 1e3));
+            }
+            return texto.toString();
+        }
+    }
+
+    /**
+     * Mestre que apenas conta as decisões do escalonador
+     */
+    private static class MestreReproducao implements Mestre {
+
+        private final Relogio relogio = new Relogio();
+        private int tarefasEnviadas;
+        private int mensagensEnviadas;
+        private int tipoEscalonamento = ENQUANTO_HOUVER_TAREFAS;
+        private int tamanhoLote = 1;
+
+        @Override
+        public void enviarTarefa(Tarefa tarefa) {
+            tarefasEnviadas++;
+        }
+
+        @Override
+        public void processarTarefa(Tarefa tarefa) {
+            tarefasEnviadas++;
+        }
+
+        @Override
+        public void executarEscalonamento() {
+            //As rodadas seguem o rastro gravado
+        }
+
+        @Override
+        public void enviarMensagem(Tarefa tarefa, CS_Processamento escravo, int tipo) {
+            mensagensEnviadas++;
+        }
+
+        @Override
+        public void atualizar(CS_Processamento escravo) {
+        }
+
+        @Override
+        public void setSimulacao(Simulation simulacao) {
+        }
+
+        @Override
+        public int getTipoEscalonamento() {
+            return tipoEscalonamento;
+        }
+
+        @Override
+        public void setTipoEscalonamento(int tipo) {
+            this.tipoEscalonamento = tipo;
+        }
+
+        @Override
+        public int getTamanhoLote() {
+            return tamanhoLote;
+        }
+
+        @Override
+        public void setTamanhoLote(int tamanho) {
+            this.tamanhoLote = Math.max(1, tamanho);
+        }
+
+        @Override
+        public Tarefa criarCopia(Tarefa get) {
+            return new Tarefa(get);
+        }
+
+        @Override
+        public Simulation getSimulacao() {
+            return relogio;
+        }
+    }
+
+    /**
+     * Fornece ao escalonador o instante gravado da chamada em reprodução. Não
+     * há fila de eventos: o tempo só avança quando o reprodutor passa à
+     * próxima chamada do rastro, e os eventos agendados pelo escalonador são
+     * descartados, assim como os pedidos de novas rodadas.
+     */
+    private static class Relogio extends Simulation {
+
+        private double tempo;
+
+        private Relogio() {
+            super((SimulationProgress) null, (RedeDeFilas) null, (List<Tarefa>) null);
+        }
+
+        /**
+         * Não faz nada: a reprodução é conduzida pelo rastro em
+         * {@link ReprodutorDecisoes#reproduzir(Escalonador)}
+         */
+        @Override
+        public void simular() {
+        }
+
+        @Override
+        public double getTime(Object origem) {
+            return tempo;
+        }
+
+        @Override
+        public void addEventoFuturo(EventoFuturo ev) {
+        }
+
+        @Override
+        public boolean removeEventoFuturo(int tipoEv, CentroServico servidorEv, Cliente clienteEv) {
+            return false;
+        }
+    }
+}
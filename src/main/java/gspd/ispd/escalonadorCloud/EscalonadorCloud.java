@@ -5,6 +5,7 @@
  */
 package gspd.ispd.escalonadorCloud;
 
+import gspd.ispd.escalonador.IndiceEscravos;
 import gspd.ispd.motor.filas.Mensagem;
 import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
@@ -31,6 +32,10 @@ public abstract class EscalonadorCloud {
      */
     protected List<List> caminhoEscravo;
     protected List<List> caminhoMaquinas;
+    /**
+     * Posição de cada escravo na lista de escravos
+     */
+    private final IndiceEscravos indiceEscravos = new IndiceEscravos();
     
 
     //Métodos
@@ -134,7 +139,38 @@ public abstract class EscalonadorCloud {
     }
 
     public void resultadoAtualizar(Mensagem mensagem) {
-        int index = escravos.indexOf(mensagem.getOrigem());
+        int index = getIndiceEscravo(mensagem.getOrigem());
         filaEscravo.set(index, mensagem.getFilaEscravo());
     }
+
+    /**
+     * Obtém em tempo constante a posição do escravo na lista de escravos,
+     * que também é a sua posição em caminhoEscravo e filaEscravo
+     *
+     * @return índice do escravo, ou -1 se não for escravo deste escalonador
+     */
+    public int getIndiceEscravo(CentroServico escravo) {
+        return indiceEscravos.indiceDe(escravos, escravo);
+    }
+
+    public CS_Processamento getEscravo(int indice) {
+        return escravos.get(indice);
+    }
+
+    /**
+     * @return caminho até o escravo de índice informado
+     */
+    @SuppressWarnings("unchecked")
+    public List<CentroServico> getCaminhoEscravo(int indice) {
+        return (List<CentroServico>) caminhoEscravo.get(indice);
+    }
+
+    /**
+     * @return última fila do escravo de índice informado recebida na
+     * atualização
+     */
+    @SuppressWarnings("unchecked")
+    public List<Tarefa> getFilaEscravo(int indice) {
+        return filaEscravo.get(indice);
+    }
 }
@@ -0,0 +1,51 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.externo;
+
+import gspd.ispd.escalonador.EscalonadorListaDAG;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.dag.RanksDAG;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+
+/**
+ * Implementação do algoritmo de escalonamento CPOP (Critical Path On a
+ * Processor) para aplicações DAG. A prioridade de uma tarefa é a soma dos
+ * ranks superior e inferior; as tarefas do caminho crítico vão todas para o
+ * escravo que o processa mais rápido, e as demais para o escravo em que
+ * terminariam mais cedo.
+ * @author denison
+ */
+public class CPOP extends EscalonadorListaDAG {
+
+    /**
+     * Escravo do caminho crítico
+     */
+    private int escravoCritico;
+
+    @Override
+    public void iniciar() {
+        super.iniciar();
+        escravoCritico = 0;
+        for (int s = 1; s < escravos.size(); s++) {
+            CS_Processamento escravo = escravos.get(s);
+            if (escravo.tempoProcessar(1) < escravos.get(escravoCritico).tempoProcessar(1)) {
+                escravoCritico = s;
+            }
+        }
+    }
+
+    @Override
+    protected double prioridade(RanksDAG ranks, int indice) {
+        return ranks.getSuperior(indice) + ranks.getInferior(indice);
+    }
+
+    @Override
+    protected int escolherEscravo(Tarefa tarefa, RanksDAG ranks, int indice) {
+        if (ranks != null && ranks.isCritico(indice)) {
+            return escravoCritico;
+        }
+        return escravoMaisCedo(tarefa);
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.externo;
+
+import gspd.ispd.escalonador.Escalonador;
+import gspd.ispd.escalonador.FilaFIFO;
+import gspd.ispd.escalonador.HeapIndexado;
+import gspd.ispd.escalonador.PerfilDisponibilidade;
+import gspd.ispd.escalonador.PerfilDisponibilidade.Reserva;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.CentroServico;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementação do algoritmo de escalonamento conservative backfilling.
+ * Cada tarefa recebe na chegada uma reserva no processador em que terminaria
+ * mais cedo sem atrasar as reservas das tarefas que chegaram antes, e é
+ * enviada quando o início da reserva chega. Quando uma tarefa termina fora
+ * do fim estimado as reservas da fila são refeitas na ordem de chegada
+ * (compressão), e nenhuma começa depois do que estava reservado. As durações
+ * são estimadas pelo tamanho estimado das tarefas, que nos traces SWF e GWF
+ * vem do tempo requisitado.
+ * @author denison
+ */
+public class ConservativeBackfilling extends Escalonador {
+
+    private PerfilDisponibilidade perfil;
+    /**
+     * Reserva das tarefas da fila
+     */
+    private Map<Tarefa, Reserva> planejadas;
+    /**
+     * Reserva das tarefas enviadas e ainda não concluídas
+     */
+    private Map<Tarefa, Reserva> executando;
+    /**
+     * Tarefas da fila pelo início da reserva
+     */
+    private HeapIndexado<Tarefa> porInicio;
+    /**
+     * Tarefas em execução pelo fim estimado, para estender as que excedem a
+     * estimativa
+     */
+    private HeapIndexado<Tarefa> porFim;
+    /**
+     * Tarefas enviadas e não concluídas em cada escravo
+     */
+    private int[] ocupados;
+
+    public ConservativeBackfilling() {
+        this.tarefas = new FilaFIFO<Tarefa>();
+        this.escravos = new ArrayList<CS_Processamento>();
+    }
+
+    @Override
+    public void iniciar() {
+        perfil = new PerfilDisponibilidade();
+        for (CS_Processamento escravo : escravos) {
+            perfil.addEscravo(escravo, 0);
+        }
+        planejadas = new HashMap<Tarefa, Reserva>();
+        executando = new HashMap<Tarefa, Reserva>();
+        porInicio = new HeapIndexado<Tarefa>(new Comparator<Tarefa>() {
+            @Override
+            public int compare(Tarefa o1, Tarefa o2) {
+                return Double.compare(planejadas.get(o1).getInicio(), planejadas.get(o2).getInicio());
+            }
+        });
+        porFim = new HeapIndexado<Tarefa>(new Comparator<Tarefa>() {
+            @Override
+            public int compare(Tarefa o1, Tarefa o2) {
+                return Double.compare(executando.get(o1).getFim(), executando.get(o2).getFim());
+            }
+        });
+        ocupados = new int[escravos.size()];
+    }
+
+    /**
+     * @return tarefa com a reserva mais próxima
+     */
+    @Override
+    public Tarefa escalonarTarefa() {
+        return porInicio.peek();
+    }
+
+    /**
+     * @return escravo da reserva mais próxima
+     */
+    @Override
+    public CS_Processamento escalonarRecurso() {
+        Tarefa tarefa = porInicio.peek();
+        return tarefa == null ? null : planejadas.get(tarefa).getEscravo();
+    }
+
+    @Override
+    public List<CentroServico> escalonarRota(CentroServico destino) {
+        return new ArrayList<CentroServico>(getCaminhoEscravo(getIndiceEscravo(destino)));
+    }
+
+    @Override
+    public void escalonar() {
+        escalonarLote(1);
+    }
+
+    /**
+     * Envia as tarefas cujas reservas já começaram
+     */
+    @Override
+    public int escalonarLote(int limite) {
+        double agora = mestre.getSimulacao().getTime(this);
+        estenderAtrasadas(agora);
+        int enviadas = 0;
+        List<Tarefa> aguardando = new ArrayList<Tarefa>(0);
+        while (enviadas < limite && !porInicio.isEmpty() && planejadas.get(porInicio.peek()).getInicio() <= agora) {
+            Tarefa tarefa = porInicio.poll();
+            if (livre(planejadas.get(tarefa).getEscravo())) {
+                tarefas.remove(tarefa);
+                enviar(tarefa, planejadas.remove(tarefa));
+                enviadas++;
+            } else {
+                aguardando.add(tarefa);
+            }
+        }
+        porInicio.addAll(aguardando);
+        return enviadas;
+    }
+
+    /**
+     * Tarefas que passaram do fim estimado ocupam o processador até terminar;
+     * se havia reservas depois delas, a fila é replanejada
+     */
+    private void estenderAtrasadas(double agora) {
+        boolean replanejar = false;
+        while (!porFim.isEmpty() && executando.get(porFim.peek()).getFim() < agora) {
+            Tarefa tarefa = porFim.poll();
+            Reserva estendida = perfil.estender(executando.get(tarefa), agora);
+            if (estendida == null && !replanejar) {
+                liberarPlanejadas(agora);
+                replanejar = true;
+                estendida = perfil.estender(executando.get(tarefa), agora);
+            }
+            if (estendida != null) {
+                executando.put(tarefa, estendida);
+            }
+        }
+        if (replanejar) {
+            reservarPlanejadas(agora);
+        }
+    }
+
+    private void reservar(Tarefa tarefa, double agora) {
+        Reserva reserva = perfil.procurar(agora, tarefa.getTamEstimado());
+        if (reserva != null) {
+            perfil.ocupar(reserva);
+            planejadas.put(tarefa, reserva);
+            porInicio.add(tarefa);
+        }
+    }
+
+    private void liberarPlanejadas(double agora) {
+        porInicio.clear();
+        for (Tarefa tarefa : tarefas) {
+            Reserva reserva = planejadas.remove(tarefa);
+            if (reserva != null) {
+                perfil.liberar(reserva, agora);
+            }
+        }
+    }
+
+    /**
+     * Refaz as reservas da fila na ordem de chegada
+     */
+    private void reservarPlanejadas(double agora) {
+        for (Tarefa tarefa : tarefas) {
+            reservar(tarefa, agora);
+        }
+    }
+
+    private boolean livre(CS_Processamento escravo) {
+        return ocupados[getIndiceEscravo(escravo)] < escravo.getNumeroProcessadores();
+    }
+
+    private void enviar(Tarefa tarefa, Reserva reserva) {
+        CS_Processamento escravo = reserva.getEscravo();
+        executando.put(tarefa, reserva);
+        porFim.add(tarefa);
+        ocupados[getIndiceEscravo(escravo)]++;
+        tarefa.setLocalProcessamento(escravo);
+        tarefa.setCaminho(escalonarRota(escravo));
+        mestre.enviarTarefa(tarefa);
+    }
+
+    /**
+     * Libera o processador de uma tarefa concluída ou devolvida. Se ela não
+     * terminou no fim estimado, as reservas da fila são comprimidas.
+     *
+     * @return false se a tarefa não estava em execução
+     */
+    private boolean liberar(Tarefa tarefa, double agora) {
+        Reserva reserva = executando.get(tarefa);
+        if (reserva == null) {
+            return false;
+        }
+        porFim.remove(tarefa);
+        executando.remove(tarefa);
+        ocupados[getIndiceEscravo(reserva.getEscravo())]--;
+        perfil.liberar(reserva, agora);
+        if (reserva.getFim() != agora && !planejadas.isEmpty()) {
+            liberarPlanejadas(agora);
+            reservarPlanejadas(agora);
+        }
+        return true;
+    }
+
+    @Override
+    public void adicionarTarefa(Tarefa tarefa) {
+        double agora = mestre.getSimulacao().getTime(this);
+        //Tarefa devolvida pelo escravo volta para o fim da fila
+        liberar(tarefa, agora);
+        super.adicionarTarefa(tarefa);
+        reservar(tarefa, agora);
+        Reserva reserva = planejadas.get(tarefa);
+        if (reserva != null && reserva.getInicio() <= agora) {
+            mestre.executarEscalonamento();
+        }
+    }
+
+    @Override
+    public void addTarefaConcluida(Tarefa tarefa) {
+        super.addTarefaConcluida(tarefa);
+        if (liberar(tarefa, mestre.getSimulacao().getTime(this)) && !tarefas.isEmpty()) {
+            mestre.executarEscalonamento();
+        }
+    }
+}
@@ -5,12 +5,15 @@
 package gspd.ispd.externo;
 
 import gspd.ispd.escalonador.Escalonador;
+import gspd.ispd.escalonador.FilaFIFO;
+import gspd.ispd.escalonador.MultimapaOrdenado;
 import gspd.ispd.motor.Mensagens;
 import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.CentroServico;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_Maquina;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -21,12 +24,17 @@ public class DynamicFPLTF extends Escalonador {
 
     private List<Double> tempoTornaDisponivel;
     private Tarefa tarefaSelecionada;
+    /**
+     * Tarefas da fila indexadas pelo tamanho, da maior para a menor
+     */
+    private MultimapaOrdenado<Double, Tarefa> tarefasPorTamanho;
 
     public DynamicFPLTF() {
-        this.tarefas = new ArrayList<Tarefa>();
+        this.tarefas = new FilaFIFO<Tarefa>();
         this.escravos = new ArrayList<CS_Processamento>();
         this.filaEscravo = new ArrayList<List>();
         this.tarefaSelecionada = null;
+        this.tarefasPorTamanho = new MultimapaOrdenado<Double, Tarefa>(Collections.<Double>reverseOrder());
     }
 
     @Override
@@ -40,7 +48,9 @@ public class DynamicFPLTF extends Escalonador {
 
     @Override
     public Tarefa escalonarTarefa() {
-        return tarefas.remove(0);
+        Tarefa tarefa = tarefas.remove(0);
+        tarefasPorTamanho.remover(tarefa.getTamProcessamento(), tarefa);
+        return tarefa;
     }
 
     @Override
@@ -60,8 +70,8 @@ public class DynamicFPLTF extends Escalonador {
 
     @Override
     public List<CentroServico> escalonarRota(CentroServico destino) {
-        int index = escravos.indexOf(destino);
-        return new ArrayList<CentroServico>((List<CentroServico>) caminhoEscravo.get(index));
+        int index = getIndiceEscravo(destino);
+        return new ArrayList<CentroServico>(getCaminhoEscravo(index));
     }
 
     @Override
@@ -70,7 +80,7 @@ public class DynamicFPLTF extends Escalonador {
         tarefaSelecionada = trf;
         if (trf != null) {
             CS_Processamento rec = escalonarRecurso();
-            int index = escravos.indexOf(rec);
+            int index = getIndiceEscravo(rec);
             double custo = rec.tempoProcessar(trf.getTamProcessamento());
             tempoTornaDisponivel.set(index, tempoTornaDisponivel.get(index) + custo);
             trf.setLocalProcessamento(rec);
@@ -84,17 +94,26 @@ public class DynamicFPLTF extends Escalonador {
         if(tarefa.getOrigem().equals(mestre)){
             this.metricaUsuarios.incTarefasSubmetidas(tarefa);
         }
-        int k = 0;
-        while (k < tarefas.size() && tarefas.get(k).getTamProcessamento() > tarefa.getTamProcessamento()) {
-            k++;
+        FilaFIFO<Tarefa> fila = (FilaFIFO<Tarefa>) tarefas;
+        //a tarefa entra antes das de mesmo tamanho, como na inserção linear
+        tarefasPorTamanho.adicionarPrimeiro(tarefa.getTamProcessamento(), tarefa);
+        Tarefa seguinte = tarefasPorTamanho.sucessor(tarefa.getTamProcessamento(), tarefa);
+        //tarefas canceladas saem apenas da fila do escalonador
+        while (seguinte != null && !fila.contains(seguinte)) {
+            tarefasPorTamanho.remover(seguinte.getTamProcessamento(), seguinte);
+            seguinte = tarefasPorTamanho.sucessor(tarefa.getTamProcessamento(), tarefa);
+        }
+        if (seguinte == null) {
+            fila.adicionar(tarefa);
+        } else {
+            fila.adicionarAntes(fila.getNo(seguinte), tarefa);
         }
-        tarefas.add(k, tarefa);
     }
 
     @Override
     public void addTarefaConcluida(Tarefa tarefa) {
         super.addTarefaConcluida(tarefa);
-        int index = escravos.indexOf(tarefa.getLocalProcessamento());
+        int index = getIndiceEscravo(tarefa.getLocalProcessamento());
         if (index != -1) {
             double custo = escravos.get(index).tempoProcessar(tarefa.getTamProcessamento());
             if (tempoTornaDisponivel.get(index) - custo > 0) {
@@ -104,15 +123,16 @@ public class DynamicFPLTF extends Escalonador {
         for (int i = 0; i < escravos.size(); i++) {
             if (escravos.get(i) instanceof CS_Maquina) {
                 CS_Processamento escravo = escravos.get(i);
-                for (int j = 0; j < filaEscravo.get(i).size(); j++) {
-                    Tarefa trf = (Tarefa) filaEscravo.get(i).get(j);
+                List<Tarefa> fila = getFilaEscravo(i);
+                for (int j = 0; j < fila.size(); j++) {
+                    Tarefa trf = fila.get(j);
                     double custo = escravo.tempoProcessar(trf.getTamProcessamento());
                     if (tempoTornaDisponivel.get(i) - custo > 0) {
                         tempoTornaDisponivel.set(i, tempoTornaDisponivel.get(i) - custo);
                     }
                     mestre.enviarMensagem(trf, escravo, Mensagens.DEVOLVER);
                 }
-                filaEscravo.get(i).clear();
+                fila.clear();
             }
         }
     }
@@ -0,0 +1,210 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.externo;
+
+import gspd.ispd.escalonador.Escalonador;
+import gspd.ispd.escalonador.FilaFIFO;
+import gspd.ispd.escalonador.HeapIndexado;
+import gspd.ispd.escalonador.PerfilDisponibilidade;
+import gspd.ispd.escalonador.PerfilDisponibilidade.Reserva;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.CentroServico;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementação do algoritmo de escalonamento EASY backfilling.
+ * As tarefas são atendidas por ordem de chegada; quando a primeira da fila
+ * não pode começar, ela recebe uma reserva no processador em que terminaria
+ * mais cedo, e as tarefas seguintes começam antes dela (backfilling) nos
+ * processadores livres, desde que não atrasem essa reserva. As durações são
+ * estimadas pelo tamanho estimado das tarefas, que nos traces SWF e GWF vem
+ * do tempo requisitado.
+ * @author denison
+ */
+public class EASYBackfilling extends Escalonador {
+
+    private PerfilDisponibilidade perfil;
+    /**
+     * Reserva das tarefas enviadas e ainda não concluídas
+     */
+    private Map<Tarefa, Reserva> executando;
+    /**
+     * Tarefas em execução pelo fim estimado, para estender as que excedem a
+     * estimativa
+     */
+    private HeapIndexado<Tarefa> porFim;
+    /**
+     * Reserva da primeira tarefa da fila, refeita a cada rodada
+     */
+    private Reserva reservaPrimeira;
+    /**
+     * Tarefas enviadas e não concluídas em cada escravo
+     */
+    private int[] ocupados;
+
+    public EASYBackfilling() {
+        this.tarefas = new FilaFIFO<Tarefa>();
+        this.escravos = new ArrayList<CS_Processamento>();
+    }
+
+    @Override
+    public void iniciar() {
+        perfil = new PerfilDisponibilidade();
+        for (CS_Processamento escravo : escravos) {
+            perfil.addEscravo(escravo, 0);
+        }
+        executando = new HashMap<Tarefa, Reserva>();
+        porFim = new HeapIndexado<Tarefa>(new Comparator<Tarefa>() {
+            @Override
+            public int compare(Tarefa o1, Tarefa o2) {
+                return Double.compare(executando.get(o1).getFim(), executando.get(o2).getFim());
+            }
+        });
+        ocupados = new int[escravos.size()];
+    }
+
+    /**
+     * @return primeira tarefa da fila, que é atendida ou recebe a reserva
+     */
+    @Override
+    public Tarefa escalonarTarefa() {
+        if (tarefas.isEmpty()) {
+            return null;
+        }
+        return tarefas.get(0);
+    }
+
+    /**
+     * @return escravo em que a primeira tarefa da fila terminaria mais cedo
+     */
+    @Override
+    public CS_Processamento escalonarRecurso() {
+        Tarefa primeira = escalonarTarefa();
+        if (primeira == null) {
+            return null;
+        }
+        Reserva reserva = perfil.procurar(mestre.getSimulacao().getTime(this), primeira.getTamEstimado());
+        return reserva == null ? null : reserva.getEscravo();
+    }
+
+    @Override
+    public List<CentroServico> escalonarRota(CentroServico destino) {
+        return new ArrayList<CentroServico>(getCaminhoEscravo(getIndiceEscravo(destino)));
+    }
+
+    @Override
+    public void escalonar() {
+        escalonarLote(1);
+    }
+
+    @Override
+    public int escalonarLote(int limite) {
+        double agora = mestre.getSimulacao().getTime(this);
+        if (reservaPrimeira != null) {
+            perfil.liberar(reservaPrimeira, agora);
+            reservaPrimeira = null;
+        }
+        estenderAtrasadas(agora);
+        int enviadas = 0;
+        //Ordem de chegada enquanto a primeira tarefa pode começar
+        while (enviadas < limite && !tarefas.isEmpty()) {
+            Tarefa primeira = tarefas.get(0);
+            Reserva reserva = perfil.procurar(agora, primeira.getTamEstimado());
+            if (reserva == null) {
+                return enviadas;
+            }
+            if (reserva.getInicio() > agora || !livre(reserva.getEscravo())) {
+                perfil.ocupar(reserva);
+                reservaPrimeira = reserva;
+                break;
+            }
+            tarefas.remove(0);
+            enviar(primeira, reserva);
+            enviadas++;
+        }
+        //Backfilling: as demais começam agora se cabem antes da reserva
+        int i = 1;
+        while (enviadas < limite && i < tarefas.size() && perfil.livreAgora(agora)) {
+            Tarefa tarefa = tarefas.get(i);
+            Reserva reserva = perfil.procurarAgora(agora, tarefa.getTamEstimado());
+            if (reserva != null && livre(reserva.getEscravo())) {
+                tarefas.remove(i);
+                enviar(tarefa, reserva);
+                enviadas++;
+            } else {
+                i++;
+            }
+        }
+        return enviadas;
+    }
+
+    /**
+     * Tarefas que passaram do fim estimado ocupam o processador até terminar
+     */
+    private void estenderAtrasadas(double agora) {
+        while (!porFim.isEmpty() && executando.get(porFim.peek()).getFim() < agora) {
+            Tarefa tarefa = porFim.poll();
+            Reserva estendida = perfil.estender(executando.get(tarefa), agora);
+            if (estendida != null) {
+                executando.put(tarefa, estendida);
+            }
+        }
+    }
+
+    private boolean livre(CS_Processamento escravo) {
+        return ocupados[getIndiceEscravo(escravo)] < escravo.getNumeroProcessadores();
+    }
+
+    private void enviar(Tarefa tarefa, Reserva reserva) {
+        CS_Processamento escravo = reserva.getEscravo();
+        perfil.ocupar(reserva);
+        executando.put(tarefa, reserva);
+        porFim.add(tarefa);
+        ocupados[getIndiceEscravo(escravo)]++;
+        tarefa.setLocalProcessamento(escravo);
+        tarefa.setCaminho(escalonarRota(escravo));
+        mestre.enviarTarefa(tarefa);
+    }
+
+    /**
+     * Libera o processador de uma tarefa concluída ou devolvida
+     *
+     * @return false se a tarefa não estava em execução
+     */
+    private boolean liberar(Tarefa tarefa) {
+        Reserva reserva = executando.get(tarefa);
+        if (reserva == null) {
+            return false;
+        }
+        porFim.remove(tarefa);
+        executando.remove(tarefa);
+        ocupados[getIndiceEscravo(reserva.getEscravo())]--;
+        perfil.liberar(reserva, mestre.getSimulacao().getTime(this));
+        return true;
+    }
+
+    @Override
+    public void adicionarTarefa(Tarefa tarefa) {
+        //Tarefa devolvida pelo escravo volta para o fim da fila
+        liberar(tarefa);
+        super.adicionarTarefa(tarefa);
+        if (perfil.livreAgora(mestre.getSimulacao().getTime(this))) {
+            mestre.executarEscalonamento();
+        }
+    }
+
+    @Override
+    public void addTarefaConcluida(Tarefa tarefa) {
+        super.addTarefaConcluida(tarefa);
+        if (liberar(tarefa) && !tarefas.isEmpty()) {
+            mestre.executarEscalonamento();
+        }
+    }
+}
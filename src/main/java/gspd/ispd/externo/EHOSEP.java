@@ -6,6 +6,7 @@
 package gspd.ispd.externo;
 
 import gspd.ispd.escalonador.Escalonador;
+import gspd.ispd.escalonador.FilaFIFO;
 import gspd.ispd.escalonador.Mestre;
 import gspd.ispd.motor.Mensagens;
 import gspd.ispd.motor.filas.Mensagem;
@@ -30,7 +31,7 @@ public class EHOSEP extends Escalonador {
     Double poderTotal, consumoTotal;
 
     public EHOSEP() {
-        this.tarefas = new ArrayList<>();
+        this.tarefas = new FilaFIFO<Tarefa>();
         this.escravos = new ArrayList<>();
         this.controleEscravos = new ArrayList<>();
         this.esperaTarefas = new ArrayList<>();
@@ -256,7 +257,7 @@ public class EHOSEP extends Escalonador {
 
     @Override
     public List<CentroServico> escalonarRota(CentroServico destino) {
-        int index = escravos.indexOf(destino);
+        int index = getIndiceEscravo(destino);
         return new ArrayList<>((List<CentroServico>) caminhoEscravo.get(index));
     }
 
@@ -264,11 +265,11 @@ public class EHOSEP extends Escalonador {
     public void resultadoAtualizar(Mensagem mensagem) {
         //super.resultadoAtualizar(mensagem);
         //Localizar máquina que enviou estado atualizado
-        int index = escravos.indexOf(mensagem.getOrigem());
+        int index = getIndiceEscravo(mensagem.getOrigem());
         
         //Atualizar listas de espera e processamento da máquina
         controleEscravos.get(index).setProcessador((ArrayList<Tarefa>) mensagem.getProcessadorEscravo());
-        controleEscravos.get(index).setFila((ArrayList<Tarefa>) mensagem.getFilaEscravo());
+        controleEscravos.get(index).setFila(mensagem.getFilaEscravo());
 
         //Tanto alocação para recurso livre como a preempção levam dois ciclos de atualização para que a máquina possa ser considerada para esacalonamento novamente 
         
@@ -371,7 +372,7 @@ public class EHOSEP extends Escalonador {
 
         //Localizar informações sobre máquina que executou a tarefa e usuário proprietário da tarefa
         CS_Processamento maq = (CS_Processamento) tarefa.getLocalProcessamento();
-        int maqIndex = escravos.indexOf(maq);
+        int maqIndex = getIndiceEscravo(maq);
 
         if (controleEscravos.get(maqIndex).getStatus().equals("Ocupado")) {
 
@@ -683,10 +684,10 @@ public class EHOSEP extends Escalonador {
         private String status;//Estado da máquina
         private String ID;//Id da máquina escravo
         private int index;//Índice na lista de escravos
-        private ArrayList<Tarefa> fila;
+        private List<Tarefa> fila;
         private ArrayList<Tarefa> processador;
 
-        public ControleEscravos(String Ident, int ind, ArrayList<Tarefa> F, ArrayList<Tarefa> P) {
+        public ControleEscravos(String Ident, int ind, List<Tarefa> F, ArrayList<Tarefa> P) {
             this.status = "Livre";
             this.ID = Ident;
             this.index = ind;
@@ -702,7 +703,7 @@ public class EHOSEP extends Escalonador {
             return this.index;
         }
         
-        public ArrayList<Tarefa> GetFila(){
+        public List<Tarefa> GetFila(){
             return this.fila;
         }
         
@@ -714,7 +715,7 @@ public class EHOSEP extends Escalonador {
             return this.status;
         }
         
-        public void setFila(ArrayList<Tarefa> F){
+        public void setFila(List<Tarefa> F){
             this.fila = F;
         }
         
@@ -0,0 +1,25 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.externo;
+
+import gspd.ispd.escalonador.EscalonadorListaDAG;
+import gspd.ispd.motor.filas.dag.RanksDAG;
+
+/**
+ * Implementação do algoritmo de escalonamento HEFT (Heterogeneous Earliest
+ * Finish Time) para aplicações DAG. As tarefas prontas são atendidas pelo
+ * maior rank superior, que é o maior caminho até uma saída com custos
+ * médios, e cada uma vai para o escravo em que terminaria mais cedo. O plano
+ * não usa inserção em intervalos livres: a tarefa começa depois do que já
+ * foi atribuído ao núcleo.
+ * @author denison
+ */
+public class HEFT extends EscalonadorListaDAG {
+
+    @Override
+    protected double prioridade(RanksDAG ranks, int indice) {
+        return ranks.getSuperior(indice);
+    }
+}
@@ -40,15 +40,22 @@
 package gspd.ispd.externo;
 
 import gspd.ispd.escalonador.Escalonador;
+import gspd.ispd.escalonador.FilaFIFO;
+import gspd.ispd.escalonador.HeapIndexado;
 import gspd.ispd.escalonador.Mestre;
+import gspd.ispd.escalonador.MultimapaOrdenado;
 import gspd.ispd.motor.Mensagens;
 import gspd.ispd.motor.filas.Mensagem;
 import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.CentroServico;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 /**
  *
@@ -58,17 +65,25 @@ public class HOSEP extends Escalonador {
 
     ArrayList<StatusUser> status;
     List<ControleEscravos> controleEscravos;
-    List<Tarefa> esperaTarefas;
-    List<ControlePreempcao> controlePreempcao;
-    List<List> processadorEscravos;
-    
+    Map<String, Tarefa> esperaTarefas;
+    Map<String, ControlePreempcao> controlePreempcao;
+    List<List<Tarefa>> processadorEscravos;
+    //Estruturas atualizadas a cada mudança no desempenho atendido ou no estado das máquinas, para que o escalonamento não ordene os usuários nem percorra todas as tarefas e máquinas
+    private Map<String, StatusUser> statusUsuario;
+    private Map<String, MultimapaOrdenado<Double, Tarefa>> tarefasUsuario;//Tarefas de cada usuário da menor para a maior
+    private TreeSet<StatusUser> usuarios;//Todos os usuários em ordem crescente de penalidade
+    private TreeSet<StatusUser> usuariosComDemanda;//Usuários com tarefas em espera, na mesma ordem
+    private HeapIndexado<ControleEscravos> escravosLivres;//Máquinas livres, da mais para a menos poderosa
+    private Map<String, HeapIndexado<ControleEscravos>> escravosPreempcao;//Máquinas ocupadas, pelo proprietário da tarefa em execução
+    private Comparator<ControleEscravos> ordemPoder;
+
     public HOSEP() {
 
-        this.tarefas = new ArrayList<>();
+        this.tarefas = new FilaFIFO<Tarefa>();
         this.escravos = new ArrayList<>();
         this.controleEscravos = new ArrayList<>();
-        this.esperaTarefas = new ArrayList<>();
-        this.controlePreempcao = new ArrayList<>();
+        this.esperaTarefas = new HashMap<>();
+        this.controlePreempcao = new HashMap<>();
         this.filaEscravo = new ArrayList<>();
         this.processadorEscravos = new ArrayList<>();
         this.status = new ArrayList();
@@ -78,7 +93,11 @@ public class HOSEP extends Escalonador {
     public void iniciar() {
         //Escalonamento quando chegam tarefas e quando tarefas são concluídas
         this.mestre.setTipoEscalonamento(Mestre.AMBOS);
-        
+        statusUsuario = new HashMap<>();
+        tarefasUsuario = new HashMap<>();
+        usuarios = new TreeSet<>();
+        usuariosComDemanda = new TreeSet<>();
+
         //Objetos de controle de uso e cota para cada um dos usuários
         for (int i = 0; i < metricaUsuarios.getUsuarios().size(); i++) {
             //Calcular o poder computacional da porção de cada usuário
@@ -90,114 +109,105 @@ public class HOSEP extends Escalonador {
                     poderComp += escravos.get(j).getPoderComputacional();
                 }
             }
-            //Adiciona dados do usuário corrente à lista 
-            status.add(new StatusUser(metricaUsuarios.getUsuarios().get(i), i, poderComp));
+            //Adiciona dados do usuário corrente à lista
+            StatusUser usuario = new StatusUser(metricaUsuarios.getUsuarios().get(i), i, poderComp);
+            status.add(usuario);
+            if (!statusUsuario.containsKey(usuario.getNome())) {
+                statusUsuario.put(usuario.getNome(), usuario);
+                tarefasUsuario.put(usuario.getNome(), new MultimapaOrdenado<Double, Tarefa>());
+                usuarios.add(usuario);
+            }
         }
 
+        //Máquinas livres: maior poder computacional primeiro, a de menor índice em caso de empate
+        escravosLivres = new HeapIndexado<>(new Comparator<ControleEscravos>() {
+            @Override
+            public int compare(ControleEscravos o1, ControleEscravos o2) {
+                int comparacao = Double.compare(escravos.get(o2.GetIndex()).getPoderComputacional(), escravos.get(o1.GetIndex()).getPoderComputacional());
+                return comparacao != 0 ? comparacao : Integer.compare(o1.GetIndex(), o2.GetIndex());
+            }
+        });
+        //Máquinas para preempção: menor poder computacional primeiro, a de menor índice em caso de empate
+        ordemPoder = new Comparator<ControleEscravos>() {
+            @Override
+            public int compare(ControleEscravos o1, ControleEscravos o2) {
+                int comparacao = Double.compare(escravos.get(o1.GetIndex()).getPoderComputacional(), escravos.get(o2.GetIndex()).getPoderComputacional());
+                return comparacao != 0 ? comparacao : Integer.compare(o1.GetIndex(), o2.GetIndex());
+            }
+        };
+        escravosPreempcao = new HashMap<>();
+
         //Controle dos nós, com cópias das filas de cada um e da tarefa que executa em cada um
         for (int i = 0; i < escravos.size(); i++) {
             controleEscravos.add(new ControleEscravos(escravos.get(i).getId(),i,new ArrayList<Tarefa>(),new ArrayList<Tarefa>()));
+            indexarEscravo(controleEscravos.get(i));
         }
     }
 
-    private int buscarTarefa(StatusUser usuario) {
-
-        //Indice da tarefa na lista de tarefas
-        int trf = -1;
-        //Se o usuario tem demanda nao atendida e seu consumo nao chegou ao limite
-        if (usuario.getDemanda() > 0) {
-            //Procura pela menor tarefa nao atendida do usuario.
-            for (int j = 0; j < tarefas.size(); j++) {
-                if (tarefas.get(j).getProprietario().equals(usuario.getNome())) {
-                    if (trf == -1) {
-                        trf = j;
-                    } else if (tarefas.get(j).getTamProcessamento() < tarefas.get(trf).getTamProcessamento()) {//Escolher a tarefa de menor tamanho do usuario
-                        trf = j;
-                    }
-                }
-            }
+    private Tarefa buscarTarefa(StatusUser usuario) {
+
+        //Menor tarefa nao atendida do usuario; tarefas canceladas pelo mestre são descartadas aqui
+        MultimapaOrdenado<Double, Tarefa> tarefasEspera = tarefasUsuario.get(usuario.getNome());
+        while (!tarefasEspera.isEmpty() && !tarefas.contains(tarefasEspera.primeiro())) {
+            tarefasEspera.removerPrimeiro();
         }
-        return trf;
+        return tarefasEspera.primeiro();
     }
-    
-    private int buscarRecurso(StatusUser cliente) {
+
+    private ControleEscravos buscarRecurso(StatusUser cliente) {
 
         /*++++++++++++++++++Buscando recurso livres++++++++++++++++++*/
-        
-        //Índice da máquina escolhida, na lista de máquinas
-        int indexSelec = -1;
-        
-        for (int i = 0; i < escravos.size(); i++) {
-            
-            if (controleEscravos.get(i).getStatus().equals("Livre")) {
-                if (indexSelec == -1) {
-                    indexSelec = i;
-                } else if (escravos.get(i).getPoderComputacional() > escravos.get(indexSelec).getPoderComputacional()) {
-                    indexSelec = i;
-                }
-            }
-        }
 
-        if (indexSelec != -1) {
-            return indexSelec;
+        ControleEscravos selec = escravosLivres.peek();
+
+        if (selec != null) {
+            return selec;
         }
-        
+
         /*+++++++++++++++++Busca por usuário para preempção+++++++++++++++++*/
-        
-        if( status.get(status.size() -1).getServedPerf() > status.get(status.size() -1).getPerfShare() && cliente.getServedPerf() < cliente.getPerfShare() ){
-    
-            for (int i = 0; i < escravos.size(); i++) {
 
-                if (controleEscravos.get(i).getStatus().equals("Ocupado")) {
-                    if (controleEscravos.get(i).GetProcessador().get(0).getProprietario().equals(status.get(status.size() -1).getNome())) {
+        StatusUser maior = usuarios.last();
+        if( maior.getServedPerf() > maior.getPerfShare() && cliente.getServedPerf() < cliente.getPerfShare() ){
 
-                        if (indexSelec == -1) {
+            HeapIndexado<ControleEscravos> candidatos = escravosPreempcao.get(maior.getNome());
+            if (candidatos != null) {
+                selec = candidatos.peek();
+            }
 
-                            indexSelec = i;
+            if( selec != null ){
 
-                        } else {
-                            if (escravos.get(i).getPoderComputacional() < escravos.get(indexSelec).getPoderComputacional()) {
+                Double poder = escravos.get(selec.GetIndex()).getPoderComputacional();
+                Double penalidaUserEsperaPosterior = (cliente.getServedPerf() + poder - cliente.getPerfShare()) / cliente.getPerfShare();
+                Double penalidaUserEscravoPosterior = (maior.getServedPerf() - poder - maior.getPerfShare()) / maior.getPerfShare();
 
-                                indexSelec = i;
-                            }
-                        }
-                    }
-                }
-            }
-            
-            if( indexSelec != -1 ){
-                
-                Double penalidaUserEsperaPosterior = (cliente.getServedPerf() + escravos.get(indexSelec).getPoderComputacional() - cliente.getPerfShare()) / cliente.getPerfShare();
-                Double penalidaUserEscravoPosterior = (status.get(status.size() -1).getServedPerf() - escravos.get(indexSelec).getPoderComputacional() - status.get(status.size() -1).getPerfShare()) / status.get(status.size() -1).getPerfShare();
-  
                 if (penalidaUserEscravoPosterior >= penalidaUserEsperaPosterior || penalidaUserEscravoPosterior > 0) {
-                    return indexSelec;
+                    return selec;
                 } else {
-                    return -1;
+                    return null;
                 }
             }
         }
-        return indexSelec;
+        return null;
     }
-    
+
     @Override
     public List<CentroServico> escalonarRota(CentroServico destino) {
-        int index = escravos.indexOf(destino);
-        return new ArrayList<>((List<CentroServico>) caminhoEscravo.get(index));
+        int index = getIndiceEscravo(destino);
+        return new ArrayList<>(getCaminhoEscravo(index));
     }
 
     @Override
     public void resultadoAtualizar(Mensagem mensagem) {
         //super.resultadoAtualizar(mensagem);
         //Localizar máquina que enviou estado atualizado
-        int index = escravos.indexOf(mensagem.getOrigem());
-        
+        int index = getIndiceEscravo(mensagem.getOrigem());
+
         //Atualizar listas de espera e processamento da máquina
         controleEscravos.get(index).setProcessador((ArrayList<Tarefa>) mensagem.getProcessadorEscravo());
-        controleEscravos.get(index).setFila((ArrayList<Tarefa>) mensagem.getFilaEscravo());
+        controleEscravos.get(index).setFila(mensagem.getFilaEscravo());
+
+        //Tanto alocação para recurso livre como a preempção levam dois ciclos de atualização para que a máquina possa ser considerada para esacalonamento novamente
 
-        //Tanto alocação para recurso livre como a preempção levam dois ciclos de atualização para que a máquina possa ser considerada para esacalonamento novamente 
-        
         //Primeiro ciclo
         if (controleEscravos.get(index).getStatus().equals("Bloqueado")) {
             controleEscravos.get(index).setIncerto();
@@ -227,62 +237,74 @@ public class HOSEP extends Escalonador {
     @Override
     public void escalonar() {
 
-        int indexTarefa;
-        int indexEscravo;
+        Tarefa tarefa;
+        ControleEscravos escravo;
         StatusUser cliente;
 
-        //Ordenar os usuários em ordem crescente de Poder Remanescente
-        Collections.sort(status);
+        //Sem máquina livre, só é possível preemptar se o usuário de maior penalidade está acima da sua porção
+        boolean preempcao = escravosLivres.isEmpty();
+        if (preempcao && (usuarios.isEmpty() || !(usuarios.last().getServedPerf() > usuarios.last().getPerfShare()))) {
+            return;
+        }
+
+        //Usuários com demanda em ordem crescente de penalidade
+        Iterator<StatusUser> it = usuariosComDemanda.iterator();
+        while (it.hasNext()) {
+            cliente = it.next();
 
-        for (int i = 0; i < status.size(); i++) {
-            cliente = status.get(i);
+            //Na preempção o cliente deve estar abaixo da sua porção, o que não vale para os usuários seguintes
+            if (preempcao && !(cliente.getServedPerf() < cliente.getPerfShare())) {
+                return;
+            }
 
             //Buscar tarefa para execucao
-            indexTarefa = buscarTarefa(cliente);
-
-            if (indexTarefa != -1) {
-
-                //Buscar máquina para executar a tarefa definida
-                indexEscravo = buscarRecurso(cliente);
-                
-                if (indexEscravo != -1) {
-
-                    //Se não é caso de preempção, a tarefa é configurada e enviada
-                    if (controleEscravos.get(indexEscravo).getStatus().equals("Livre")) {
-
-                        Tarefa tar = tarefas.remove(indexTarefa);
-                        tar.setLocalProcessamento(escravos.get(indexEscravo));
-                        tar.setCaminho(escalonarRota(escravos.get(indexEscravo)));
-                        mestre.enviarTarefa(tar);
-
-                        //Atualização dos dados sobre o usuário
-                        cliente.rmDemanda();
-                        cliente.addServedPerf(escravos.get(indexEscravo).getPoderComputacional());
-                        
-                        //Controle das máquinas
-                        controleEscravos.get(indexEscravo).setBloqueado();
-                        return;
-                    }
-
-                    //Se é caso de preempção, a tarefa configurada e colocada em espera
-                    if (controleEscravos.get(indexEscravo).getStatus().equals("Ocupado")) {
-
-                        Tarefa tar = tarefas.remove(indexTarefa);
-                        tar.setLocalProcessamento(escravos.get(indexEscravo));
-                        tar.setCaminho(escalonarRota(escravos.get(indexEscravo)));
-
-                        //Controle de preempção para enviar a nova tarefa no momento certo
-                        String userPreemp = ((Tarefa) controleEscravos.get(indexEscravo).GetProcessador().get(0)).getProprietario();
-                        int idTarefaPreemp = ((Tarefa) controleEscravos.get(indexEscravo).GetProcessador().get(0)).getIdentificador();
-                        controlePreempcao.add(new ControlePreempcao(userPreemp, idTarefaPreemp, tar.getProprietario(), tar.getIdentificador()));
-                        esperaTarefas.add(tar);
-
-                        //Solicitação de retorno da tarefa em execução e atualização da demanda do usuário
-                        mestre.enviarMensagem((Tarefa) controleEscravos.get(indexEscravo).GetProcessador().get(0), escravos.get(indexEscravo), Mensagens.DEVOLVER_COM_PREEMPCAO);
-                        controleEscravos.get(indexEscravo).setBloqueado();
-                        cliente.rmDemanda();
-                        return;
-                    }
+            tarefa = buscarTarefa(cliente);
+
+            if (tarefa == null) {
+                it.remove();
+                continue;
+            }
+
+            //Buscar máquina para executar a tarefa definida
+            escravo = buscarRecurso(cliente);
+
+            if (escravo != null) {
+                CS_Processamento maq = escravos.get(escravo.GetIndex());
+
+                //Se não é caso de preempção, a tarefa é configurada e enviada
+                if (escravo.getStatus().equals("Livre")) {
+
+                    Tarefa tar = removerTarefa(tarefa);
+                    tar.setLocalProcessamento(maq);
+                    tar.setCaminho(escalonarRota(maq));
+                    mestre.enviarTarefa(tar);
+
+                    //Atualização dos dados sobre o usuário
+                    cliente.rmDemanda();
+                    cliente.addServedPerf(maq.getPoderComputacional());
+
+                    //Controle das máquinas
+                    escravo.setBloqueado();
+                    return;
+                }
+
+                //Se é caso de preempção, a tarefa configurada e colocada em espera
+                if (escravo.getStatus().equals("Ocupado")) {
+
+                    Tarefa tar = removerTarefa(tarefa);
+                    tar.setLocalProcessamento(maq);
+                    tar.setCaminho(escalonarRota(maq));
+
+                    //Controle de preempção para enviar a nova tarefa no momento certo
+                    Tarefa emExecucao = escravo.GetProcessador().get(0);
+                    controlePreempcao.put(chave(emExecucao.getProprietario(), emExecucao.getIdentificador()), new ControlePreempcao(emExecucao.getProprietario(), emExecucao.getIdentificador(), tar.getProprietario(), tar.getIdentificador()));
+                    esperaTarefas.put(chave(tar.getProprietario(), tar.getIdentificador()), tar);
+
+                    //Solicitação de retorno da tarefa em execução e atualização da demanda do usuário
+                    mestre.enviarMensagem(emExecucao, maq, Mensagens.DEVOLVER_COM_PREEMPCAO);
+                    escravo.setBloqueado();
+                    cliente.rmDemanda();
+                    return;
                 }
             }
         }
@@ -296,68 +318,23 @@ public class HOSEP extends Escalonador {
 
         //Localizar informações sobre máquina que executou a tarefa e usuário proprietário da tarefa
         CS_Processamento maq = (CS_Processamento) tarefa.getLocalProcessamento();
-        int maqIndex = escravos.indexOf(maq);
+        int maqIndex = getIndiceEscravo(maq);
 
         if (controleEscravos.get(maqIndex).getStatus().equals("Ocupado")) {
 
-            int statusIndex = -1;
-
-            for (int i = 0; i < status.size(); i++) {
-                if (status.get(i).getNome().equals(tarefa.getProprietario())) {
-                    statusIndex = i;
-                }
-            }
-
             //Atualização das informações de estado do proprietario da tarefa terminada.
-            status.get(statusIndex).rmServedPerf(maq.getPoderComputacional());
+            statusUsuario.get(tarefa.getProprietario()).rmServedPerf(maq.getPoderComputacional());
             controleEscravos.get(maqIndex).setLivre();
-            
-        } else if (controleEscravos.get(maqIndex).getStatus().equals("Bloqueado")) {
 
-            int indexControlePreemp = -1;
-            int indexStatusUserAlloc = -1;
-            int indexStatusUserPreemp = -1;
+        } else if (controleEscravos.get(maqIndex).getStatus().equals("Bloqueado")) {
 
-            for (int j = 0; j < controlePreempcao.size(); j++) {
-                if (controlePreempcao.get(j).getPreempID() == tarefa.getIdentificador() && controlePreempcao.get(j).getUsuarioPreemp().equals(tarefa.getProprietario())) {
-                    indexControlePreemp = j;
-                    break;
-                }
+            //Tarefa enviada a uma máquina livre que terminou antes da atualização da máquina
+            if (!controlePreempcao.containsKey(chave(tarefa.getProprietario(), tarefa.getIdentificador()))) {
+                statusUsuario.get(tarefa.getProprietario()).rmServedPerf(maq.getPoderComputacional());
+                return;
             }
 
-            for (int k = 0; k < status.size(); k++) {
-                if (status.get(k).getNome().equals(controlePreempcao.get(indexControlePreemp).getUsuarioAlloc())) {
-                    indexStatusUserAlloc = k;
-                    break;
-                }
-            }
-
-            for (int k = 0; k < status.size(); k++) {
-                if (status.get(k).getNome().equals(controlePreempcao.get(indexControlePreemp).getUsuarioPreemp())) {
-                    indexStatusUserPreemp = k;
-                    break;
-                }
-            }
-
-            //Localizar tarefa em espera designada para executar
-            for (int i = 0; i < esperaTarefas.size(); i++) {
-                if (esperaTarefas.get(i).getProprietario().equals(controlePreempcao.get(indexControlePreemp).getUsuarioAlloc()) && esperaTarefas.get(i).getIdentificador() == controlePreempcao.get(indexControlePreemp).getAllocID()) {
-
-                    //Enviar tarefa para execução
-                    mestre.enviarTarefa(esperaTarefas.remove(i));
-
-                    //Atualizar informações de estado do usuário cuja tarefa será executada
-                    status.get(indexStatusUserAlloc).addServedPerf(maq.getPoderComputacional());
-                    
-                    //Atualizar informações de estado do usuário cuja tarefa teve a execução interrompida
-                    status.get(indexStatusUserPreemp).rmServedPerf(maq.getPoderComputacional());
-                    
-                    //Com a preempção feita, os dados necessários para ela são eliminados
-                    controlePreempcao.remove(indexControlePreemp);
-                    //Encerrar laço
-                    break;
-                }
-            }
+            realizarPreempcao(tarefa, maq);
         }
     }
 
@@ -367,69 +344,89 @@ public class HOSEP extends Escalonador {
 
         //Método herdado, obrigatório executar para obter métricas ao final da slimuação
         super.adicionarTarefa(tarefa);
-        
+
         //Atualização da demanda do usuário proprietário da tarefa
-        for (int i = 0; i < status.size(); i++) {
-            if (status.get(i).getNome().equals(tarefa.getProprietario())) {
-                status.get(i).addDemanda();
-                break;
-            }
+        StatusUser usuario = statusUsuario.get(tarefa.getProprietario());
+        if (usuario != null) {
+            usuario.addDemanda();
+            tarefasUsuario.get(usuario.getNome()).adicionar(tarefa.getTamProcessamento(), tarefa);
+            usuariosComDemanda.add(usuario);
         }
 
         //Em caso de preempção
         if ((CS_Processamento) tarefa.getLocalProcessamento() != null) {
-            
+
             //Localizar informações de estado de máquina que executou a tarefa (se houver)
             CS_Processamento maq = (CS_Processamento) tarefa.getLocalProcessamento();
-            
-            //Localizar informações armazenadas sobre a preempção em particular
-
-            int indexControlePreemp = -1;
-            int indexStatusUserAlloc = -1;
-            int indexStatusUserPreemp = -1 ;
-            
-            for (int j = 0; j < controlePreempcao.size(); j++) {
-                if (controlePreempcao.get(j).getPreempID() == tarefa.getIdentificador() && controlePreempcao.get(j).getUsuarioPreemp().equals(tarefa.getProprietario())) {
-                    indexControlePreemp = j;
-                    break;
-                }
-            }
-            
-            for( int k = 0; k < status.size(); k++ ){
-                if(status.get(k).getNome().equals(controlePreempcao.get(indexControlePreemp).getUsuarioAlloc())){
-                    indexStatusUserAlloc = k;
-                    break;
-                }
-            }
-            
-            for( int k = 0; k < status.size(); k++ ){
-                if(status.get(k).getNome().equals(controlePreempcao.get(indexControlePreemp).getUsuarioPreemp())){
-                    indexStatusUserPreemp = k;
-                    break;
-                }
-            }
-            
-            //Localizar tarefa em espera deseignada para executar
-            for (int i = 0; i < esperaTarefas.size(); i++) {
-
-                if (esperaTarefas.get(i).getProprietario().equals(controlePreempcao.get(indexControlePreemp).getUsuarioAlloc()) && esperaTarefas.get(i).getIdentificador() == controlePreempcao.get(indexControlePreemp).getAllocID()) {
-
-                    //Enviar tarefa para execução
-                    mestre.enviarTarefa(esperaTarefas.remove(i));
-
-                    //Atualizar informações de estado do usuário cuja tarefa será executada
-                    status.get(indexStatusUserAlloc).addServedPerf(maq.getPoderComputacional());
-                    
-                    //Atualizar informações de estado do usuáro cuja tarefa foi interrompida
-                    status.get(indexStatusUserPreemp).rmServedPerf(maq.getPoderComputacional());
-                    
-                    //Com a preempção feita, os dados necessários para ela são eliminados
-                    controlePreempcao.remove(indexControlePreemp);
-                    //Encerrar laço
-                    break;
-                }
+
+            realizarPreempcao(tarefa, maq);
+        }
+    }
+
+    //Envia a tarefa em espera designada para a máquina da tarefa interrompida
+    private void realizarPreempcao(Tarefa tarefa, CS_Processamento maq) {
+
+        //Localizar informações armazenadas sobre a preempção em particular
+        String chavePreempcao = chave(tarefa.getProprietario(), tarefa.getIdentificador());
+        ControlePreempcao controle = controlePreempcao.get(chavePreempcao);
+        if (controle == null) {
+            return;
+        }
+
+        //Localizar tarefa em espera designada para executar
+        Tarefa espera = esperaTarefas.remove(chave(controle.getUsuarioAlloc(), controle.getAllocID()));
+        if (espera != null) {
+
+            //Enviar tarefa para execução
+            mestre.enviarTarefa(espera);
+
+            //Atualizar informações de estado do usuário cuja tarefa será executada
+            statusUsuario.get(controle.getUsuarioAlloc()).addServedPerf(maq.getPoderComputacional());
+
+            //Atualizar informações de estado do usuáro cuja tarefa foi interrompida
+            statusUsuario.get(controle.getUsuarioPreemp()).rmServedPerf(maq.getPoderComputacional());
+
+            //Com a preempção feita, os dados necessários para ela são eliminados
+            controlePreempcao.remove(chavePreempcao);
+        }
+    }
+
+    private Tarefa removerTarefa(Tarefa tarefa) {
+        tarefas.remove(tarefa);
+        MultimapaOrdenado<Double, Tarefa> tarefasEspera = tarefasUsuario.get(tarefa.getProprietario());
+        tarefasEspera.remover(tarefa.getTamProcessamento(), tarefa);
+        if (tarefasEspera.isEmpty()) {
+            usuariosComDemanda.remove(statusUsuario.get(tarefa.getProprietario()));
+        }
+        return tarefa;
+    }
+
+    //Recoloca a máquina nas estruturas de busca após mudança no seu estado ou na tarefa em execução
+    private void indexarEscravo(ControleEscravos controle) {
+        if (controle.getStatus().equals("Livre")) {
+            escravosLivres.offer(controle);
+        } else {
+            escravosLivres.remove(controle);
+        }
+        String usuario = null;
+        if (controle.getStatus().equals("Ocupado") && !controle.GetProcessador().isEmpty()) {
+            usuario = controle.GetProcessador().get(0).getProprietario();
+        }
+        if (controle.usuarioPreempcao != null && !controle.usuarioPreempcao.equals(usuario)) {
+            escravosPreempcao.get(controle.usuarioPreempcao).remove(controle);
+        }
+        if (usuario != null && !usuario.equals(controle.usuarioPreempcao)) {
+            if (!escravosPreempcao.containsKey(usuario)) {
+                escravosPreempcao.put(usuario, new HeapIndexado<>(ordemPoder));
             }
+            escravosPreempcao.get(usuario).offer(controle);
         }
+        controle.usuarioPreempcao = usuario;
+    }
+
+    //Tarefas em espera e preempções são identificadas pelo proprietário e identificador da tarefa
+    private static String chave(String usuario, int identificador) {
+        return usuario + "#" + identificador;
     }
 
     //Definir o intervalo de tempo, em segundos, em que as máquinas enviarão dados de atualização para o escalonador
@@ -506,11 +503,24 @@ public class HOSEP extends Escalonador {
         }
 
         public void addServedPerf(Double perf) {
-            this.servedPerf += perf;
+            reordenar(perf);
         }
 
         public void rmServedPerf(Double perf) {
-            this.servedPerf -= perf;
+            reordenar(-perf);
+        }
+
+        //Retira o usuário dos conjuntos ordenados antes de mudar sua penalidade e o recoloca depois
+        private void reordenar(double perf) {
+            boolean todos = usuarios.remove(this);
+            boolean comDemanda = usuariosComDemanda.remove(this);
+            this.servedPerf += perf;
+            if (todos) {
+                usuarios.add(this);
+            }
+            if (comDemanda) {
+                usuariosComDemanda.add(this);
+            }
         }
 
         public void addServedPower(Double power) {
@@ -565,20 +575,18 @@ public class HOSEP extends Escalonador {
         //    return this.eficienciaEnergeticaRelativa;
         //}
 
-        //Comparador para ordenação
+        //Comparador para ordenação: menor penalidade, maior porção e menor índice primeiro
         @Override
         public int compareTo(StatusUser o) {
-            if (((this.servedPerf - this.perfShare) / this.perfShare) < ((o.getServedPerf() - o.getPerfShare()) / o.getPerfShare())) {
-                return -1;
-            }
-            if (((this.servedPerf - this.perfShare) / this.perfShare) > ((o.getServedPerf() - o.getPerfShare()) / o.getPerfShare())) {
-                return 1;
+            int comparacao = Double.compare((this.servedPerf - this.perfShare) / this.perfShare, (o.getServedPerf() - o.getPerfShare()) / o.getPerfShare());
+            if (comparacao != 0) {
+                return comparacao;
             }
-            if (this.perfShare >= o.getPerfShare()) {
-                return -1;
-            } else {
-                return 1;
+            comparacao = Double.compare(o.getPerfShare(), this.perfShare);
+            if (comparacao != 0) {
+                return comparacao;
             }
+            return Integer.compare(this.indexUser, o.getIndexUser());
         }
     }
    
@@ -589,10 +597,11 @@ public class HOSEP extends Escalonador {
         private String status;//Estado da máquina
         private String ID;//Id da máquina escravo
         private int index;//Índice na lista de escravos
-        private ArrayList<Tarefa> fila;
+        private List<Tarefa> fila;
         private ArrayList<Tarefa> processador;
+        private String usuarioPreempcao;//Chave da máquina em escravosPreempcao
 
-        public ControleEscravos(String Ident, int ind, ArrayList<Tarefa> F, ArrayList<Tarefa> P) {
+        public ControleEscravos(String Ident, int ind, List<Tarefa> F, ArrayList<Tarefa> P) {
             this.status = "Livre";
             this.ID = Ident;
             this.index = ind;
@@ -608,7 +617,7 @@ public class HOSEP extends Escalonador {
             return index;
         }
         
-        public ArrayList<Tarefa> GetFila(){
+        public List<Tarefa> GetFila(){
             return fila;
         }
         
@@ -620,28 +629,33 @@ public class HOSEP extends Escalonador {
             return status;
         }
         
-        public void setFila(ArrayList<Tarefa> F){
+        public void setFila(List<Tarefa> F){
             this.fila = F;
         }
         
         public void setProcessador(ArrayList<Tarefa> P){
             this.processador = P;
+            indexarEscravo(this);
         }
 
         public void setOcupado() {
             this.status = "Ocupado";
+            indexarEscravo(this);
         }
 
         public void setLivre() {
             this.status = "Livre";
+            indexarEscravo(this);
         }
 
         public void setBloqueado() {
             this.status = "Bloqueado";
+            indexarEscravo(this);
         }
 
         public void setIncerto() {
             this.status = "Incerto";
+            indexarEscravo(this);
         }
     }
 
@@ -5,14 +5,22 @@
 package gspd.ispd.externo;
 
 import gspd.ispd.escalonador.Escalonador;
+import gspd.ispd.escalonador.FilaFIFO;
+import gspd.ispd.escalonador.HeapIndexado;
 import gspd.ispd.escalonador.Mestre;
+import gspd.ispd.escalonador.MultimapaOrdenado;
 import gspd.ispd.motor.Mensagens;
 import gspd.ispd.motor.filas.Mensagem;
 import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.CentroServico;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  *
@@ -23,23 +31,33 @@ public class M_OSEP extends Escalonador {
     Tarefa tarefaSelec;
     List<StatusUser> status;
     List<ControleEscravos> controleEscravos;
-    List<Tarefa> esperaTarefas;
-    List<ControlePreempcao> controlePreempcao;
+    Map<String, Tarefa> esperaTarefas;
+    Map<String, ControlePreempcao> controlePreempcao;
     int contadorEscravos = 0;
-    List<List> processadorEscravos;
+    List<List<Tarefa>> processadorEscravos;
     //int numEscravosLivres = 0;
     //int numEscravosPreemp = 0;
+    //Estruturas atualizadas a cada mudança de uso ou de estado dos escravos, para que as decisões não percorram todos os usuários, tarefas e escravos
+    private Map<String, StatusUser> statusUsuario;
+    private Map<String, MultimapaOrdenado<Double, Tarefa>> tarefasUsuario;//Tarefas de cada usuário da menor para a maior
+    private HeapIndexado<StatusUser> usuariosComDemanda;//Maior diferença entre posse e uso primeiro
+    private HeapIndexado<StatusUser> usuariosPorExcesso;//Maior diferença entre uso e posse primeiro
+    private Comparator<ControleEscravos> ordemEscravos;
+    private Comparator<ControleEscravos> ordemPoder;
+    private TreeMap<Double, HeapIndexado<ControleEscravos>> escravosLivres;//Escravos livres pelo poder computacional
+    private Map<String, HeapIndexado<ControleEscravos>> escravosPreempcao;//Escravos ocupados, pelo proprietário da tarefa em execução
+    private TreeSet<Integer> escravosIrregulares;//Escravos com fila ou executando mais de uma tarefa
 
     public M_OSEP() {
 
 
-        this.tarefas = new ArrayList<Tarefa>();
+        this.tarefas = new FilaFIFO<Tarefa>();
         this.escravos = new ArrayList<CS_Processamento>();
         this.controleEscravos = new ArrayList<ControleEscravos>();
-        this.esperaTarefas = new ArrayList<Tarefa>();
-        this.controlePreempcao = new ArrayList<ControlePreempcao>();
+        this.esperaTarefas = new HashMap<String, Tarefa>();
+        this.controlePreempcao = new HashMap<String, ControlePreempcao>();
         this.filaEscravo = new ArrayList<List>();
-        this.processadorEscravos = new ArrayList<List>();
+        this.processadorEscravos = new ArrayList<List<Tarefa>>();
 
     }
 
@@ -47,77 +65,70 @@ public class M_OSEP extends Escalonador {
     public void iniciar() {
         this.mestre.setTipoEscalonamento(Mestre.AMBOS);//Escalonamento quando chegam tarefas e quando tarefas são concluídas
         status = new ArrayList<StatusUser>();
+        statusUsuario = new HashMap<String, StatusUser>();
+        tarefasUsuario = new HashMap<String, MultimapaOrdenado<Double, Tarefa>>();
+        //Empates são resolvidos pela ordem dos usuários, como na busca linear
+        usuariosComDemanda = new HeapIndexado<StatusUser>(new Comparator<StatusUser>() {
+            @Override
+            public int compare(StatusUser o1, StatusUser o2) {
+                int comparacao = Double.compare(o2.GetCota() - o2.GetUso(), o1.GetCota() - o1.GetUso());
+                return comparacao != 0 ? comparacao : Integer.compare(o1.indice, o2.indice);
+            }
+        });
+        usuariosPorExcesso = new HeapIndexado<StatusUser>(new Comparator<StatusUser>() {
+            @Override
+            public int compare(StatusUser o1, StatusUser o2) {
+                int comparacao = Double.compare(o2.GetUso() - o2.GetCota(), o1.GetUso() - o1.GetCota());
+                return comparacao != 0 ? comparacao : Integer.compare(o1.indice, o2.indice);
+            }
+        });
 
         for (int i = 0; i < metricaUsuarios.getUsuarios().size(); i++) {//Objetos de controle de uso e cota para cada um dos usuários
-            status.add(new StatusUser(metricaUsuarios.getUsuarios().get(i), metricaUsuarios.getPoderComputacional(metricaUsuarios.getUsuarios().get(i))));
-
+            StatusUser usuario = new StatusUser(metricaUsuarios.getUsuarios().get(i), i, metricaUsuarios.getPoderComputacional(metricaUsuarios.getUsuarios().get(i)));
+            status.add(usuario);
+            if (!statusUsuario.containsKey(usuario.usuario)) {
+                statusUsuario.put(usuario.usuario, usuario);
+                tarefasUsuario.put(usuario.usuario, new MultimapaOrdenado<Double, Tarefa>());
+                usuariosPorExcesso.add(usuario);
+            }
         }
 
+        ordemEscravos = new Comparator<ControleEscravos>() {
+            @Override
+            public int compare(ControleEscravos o1, ControleEscravos o2) {
+                return Integer.compare(o1.indice, o2.indice);
+            }
+        };
+        ordemPoder = new Comparator<ControleEscravos>() {
+            @Override
+            public int compare(ControleEscravos o1, ControleEscravos o2) {
+                int comparacao = Double.compare(escravos.get(o1.indice).getPoderComputacional(), escravos.get(o2.indice).getPoderComputacional());
+                return comparacao != 0 ? comparacao : Integer.compare(o1.indice, o2.indice);
+            }
+        };
+        escravosLivres = new TreeMap<Double, HeapIndexado<ControleEscravos>>();
+        escravosPreempcao = new HashMap<String, HeapIndexado<ControleEscravos>>();
+        escravosIrregulares = new TreeSet<Integer>();
         for (int i = 0; i < escravos.size(); i++) {//Contadores para lidar com a dinamicidade dos dados
-            controleEscravos.add(new ControleEscravos());
+            controleEscravos.add(new ControleEscravos(i));
             filaEscravo.add(new ArrayList<Tarefa>());
             processadorEscravos.add(new ArrayList<Tarefa>());
+            indexarEscravo(i);
         }
     }
 
     @Override
     public Tarefa escalonarTarefa() {
         //Usuários com maior diferença entre uso e posse terão preferência
-        double difUsuarioMinimo = (double) -1;
-        int indexUsuarioMinimo = -1;
-        //Encontrar o usuário que está mais abaixo da sua propriedade 
-        for (int i = 0; i < metricaUsuarios.getUsuarios().size(); i++) {
-            //Verificar se existem tarefas do usuário corrente
-            boolean demanda = false;
-
-            for (int j = 0; j < tarefas.size(); j++) {
-                if (tarefas.get(j).getProprietario().equals(metricaUsuarios.getUsuarios().get(i))) {
-                    demanda = true;
-                    break;
-                }
-            }
-
-            //Caso existam tarefas do usuário corrente e ele esteja com uso menor que sua posse
-            if ((status.get(i).GetUso() < status.get(i).GetCota()) && demanda) {
-
-                if (difUsuarioMinimo == (double) -1) {
-                    difUsuarioMinimo = status.get(i).GetCota() - status.get(i).GetUso();
-                    indexUsuarioMinimo = i;
-                } else {
-                    if (difUsuarioMinimo < status.get(i).GetCota() - status.get(i).GetUso()) {
-                        difUsuarioMinimo = status.get(i).GetCota() - status.get(i).GetUso();
-                        indexUsuarioMinimo = i;
-                    }
-
-                }
-
-            }
-
-        }
-
-        if (indexUsuarioMinimo != -1) {
-            int indexTarefa = -1;
-
-            for (int i = 0; i < tarefas.size(); i++) {
-                if (tarefas.get(i).getProprietario().equals(metricaUsuarios.getUsuarios().get(indexUsuarioMinimo))) {
-                    if (indexTarefa == -1) {
-                        indexTarefa = i;
-                    } else {
-                        if (tarefas.get(indexTarefa).getTamProcessamento() > tarefas.get(i).getTamProcessamento()) {
-                            indexTarefa = i;
-                        }
-                    }
-                }
-            }
-
-            if (indexTarefa != -1) {
-                return tarefas.remove(indexTarefa);
-            }
+        StatusUser usuario = usuarioComDemanda();
 
+        //Caso existam tarefas do usuário e ele esteja com uso menor que sua posse, é escolhida a sua menor tarefa
+        if (usuario != null && usuario.GetUso() < usuario.GetCota()) {
+            return removerTarefa(tarefasUsuario.get(usuario.usuario).primeiro());
         }
 
         if (tarefas.size() > 0) {
-            return tarefas.remove(0);
+            return removerTarefa(tarefas.get(0));
         } else {
             return null;
         }
@@ -127,105 +138,48 @@ public class M_OSEP extends Escalonador {
     @Override
     public CS_Processamento escalonarRecurso() {
 
-        //Buscando recurso livre
-        CS_Processamento selec = null;
-
-        for (int i = 0; i < escravos.size(); i++) {
-
-            if (filaEscravo.get(i).isEmpty() && processadorEscravos.get(i).isEmpty() && controleEscravos.get(i).Livre()) {//Garantir que o escravo está de fato livre e que não há nenhuma tarefa em trânsito para o escravo
-                if (selec == null) {
-
-                    selec = escravos.get(i);
-
-                } else if (Math.abs(escravos.get(i).getPoderComputacional() - tarefaSelec.getTamProcessamento()) < Math.abs(selec.getPoderComputacional() - tarefaSelec.getTamProcessamento())) {//Best Fit
-
-                    selec = escravos.get(i);
-
-                }
-
-            }
-
-        }
+        //Buscando recurso livre, garantindo que não há nenhuma tarefa em trânsito para o escravo
+        ControleEscravos livre = melhorEncaixe(tarefaSelec.getTamProcessamento());
 
-        if (selec != null) {
+        if (livre != null) {
 
-            controleEscravos.get(escravos.indexOf(selec)).SetBloqueado();//Inidcar que uma tarefa será enviada e que , portanto , este escravo deve ser bloqueada até a próxima atualização
+            livre.SetBloqueado();//Inidcar que uma tarefa será enviada e que , portanto , este escravo deve ser bloqueada até a próxima atualização
+            indexarEscravo(livre.indice);
 
-            return selec;
+            return escravos.get(livre.indice);
 
         }
 
-        String usermax = null;
-        Double diff = (double) -1;
-
-        for (int i = 0; i < metricaUsuarios.getUsuarios().size(); i++) {
-
-            if (status.get(i).GetUso() > status.get(i).GetCota() && !metricaUsuarios.getUsuarios().get(i).equals(tarefaSelec.getProprietario())) {
-
-                if (diff == (double) -1) {
+        StatusUser usermax = usuarioAcimaCota(tarefaSelec.getProprietario());
 
-                    usermax = metricaUsuarios.getUsuarios().get(i);
-                    diff = status.get(i).GetUso() - status.get(i).GetCota();
-
-                } else {
-
-                    if (status.get(i).GetUso() - status.get(i).GetCota() > diff) {
-
-                        usermax = metricaUsuarios.getUsuarios().get(i);
-                        diff = status.get(i).GetUso() - status.get(i).GetCota();
-
-                    }
-
-                }
-
-            }
-
-        }
-
-        int index = -1;
-        if (usermax != null) {
-
-            for (int i = 0; i < escravos.size(); i++) {
-                if (processadorEscravos.get(i).size() == 1 && controleEscravos.get(i).Ocupado() && filaEscravo.get(i).isEmpty() && ((Tarefa) processadorEscravos.get(i).get(0)).getProprietario().equals(usermax)) {
-                    if (index == -1) {
-
-                        index = i;
-
-                    } else {
-
-                        if (escravos.get(i).getPoderComputacional() < escravos.get(index).getPoderComputacional()) {
-
-                            index = i;
-
-                        }
-                    }
-                }
-            }
+        ControleEscravos selecionado = null;
+        if (usermax != null && escravosPreempcao.containsKey(usermax.usuario)) {
+            //Escravo de menor poder computacional executando tarefa do usuário
+            selecionado = escravosPreempcao.get(usermax.usuario).peek();
         }
 
         //Fazer a preempção
-        if (index != -1) {
-            selec = escravos.get(index);
+        if (selecionado != null) {
+            CS_Processamento selec = escravos.get(selecionado.indice);
             //Verifica se vale apena fazer preempção
-            int index_selec = escravos.indexOf(selec);
-            Tarefa tar = (Tarefa) processadorEscravos.get(index_selec).get(0);
+            Tarefa tar = processadorEscravos.get(selecionado.indice).get(0);
 
-            int indexUserEscravo = metricaUsuarios.getUsuarios().indexOf(tar.getProprietario());
-            int indexUserEspera = metricaUsuarios.getUsuarios().indexOf(tarefaSelec.getProprietario());
+            StatusUser userEscravo = statusUsuario.get(tar.getProprietario());
+            StatusUser userEspera = statusUsuario.get(tarefaSelec.getProprietario());
 
             //Penalidade do usuário dono da tarefa em execução, caso a preempção seja feita
-            Double penalidaUserEscravoPosterior = (status.get(indexUserEscravo).GetUso() - selec.getPoderComputacional() - status.get(indexUserEscravo).GetCota()) / status.get(indexUserEscravo).Cota;
+            Double penalidaUserEscravoPosterior = (userEscravo.GetUso() - selec.getPoderComputacional() - userEscravo.GetCota()) / userEscravo.Cota;
 
             //Penalidade do usuário dono da tarefa slecionada para ser posta em execução, caso a preempção seja feita
-            Double penalidaUserEsperaPosterior = (status.get(indexUserEspera).GetUso() + selec.getPoderComputacional() - status.get(indexUserEspera).GetCota()) / status.get(indexUserEspera).Cota;
+            Double penalidaUserEsperaPosterior = (userEspera.GetUso() + selec.getPoderComputacional() - userEspera.GetCota()) / userEspera.Cota;
 
             //Caso o usuário em espera apresente menor penalidade e os donos das tarefas em execução e em espera não sejam a mesma pessoa , e , ainda, o escravo esteja executando apenas uma tarefa
             if (penalidaUserEscravoPosterior <= penalidaUserEsperaPosterior || (penalidaUserEscravoPosterior > 0 && penalidaUserEsperaPosterior < 0)) {
 
                 //System.out.println("Preempção: Tarefa " + ((Tarefa) selec.getInformacaoDinamicaProcessador().get(0)).getIdentificador() + " do user " + ((Tarefa) selec.getInformacaoDinamicaProcessador().get(0)).getProprietario() + " <=> " + tarefaSelec.getIdentificador() + " do user " + tarefaSelec.getProprietario());
-                index_selec = escravos.indexOf(selec);
-                controleEscravos.get(escravos.indexOf(selec)).setPreemp();
-                mestre.enviarMensagem((Tarefa) processadorEscravos.get(index_selec).get(0), selec, Mensagens.DEVOLVER_COM_PREEMPCAO);
+                selecionado.setPreemp();
+                indexarEscravo(selecionado.indice);
+                mestre.enviarMensagem(tar, selec, Mensagens.DEVOLVER_COM_PREEMPCAO);
                 return selec;
             }
         }
@@ -234,25 +188,18 @@ public class M_OSEP extends Escalonador {
 
     @Override
     public List<CentroServico> escalonarRota(CentroServico destino) {
-        int index = escravos.indexOf(destino);
-        return new ArrayList<CentroServico>((List<CentroServico>) caminhoEscravo.get(index));
+        int index = getIndiceEscravo(destino);
+        return new ArrayList<CentroServico>(getCaminhoEscravo(index));
     }
 
     @Override
     public void resultadoAtualizar(Mensagem mensagem) {
         super.resultadoAtualizar(mensagem);
-        int index = escravos.indexOf(mensagem.getOrigem());
+        int index = getIndiceEscravo(mensagem.getOrigem());
         processadorEscravos.set(index, mensagem.getProcessadorEscravo());
+        indexarEscravo(index);
         contadorEscravos++;
-        for (int i = 0; i < escravos.size(); i++) {
-            if (processadorEscravos.get(i).size() > 1) {
-                System.out.printf("Escravo %s executando %d\n", escravos.get(i).getId(), processadorEscravos.get(i).size());
-                System.out.println("PROBLEMA!");
-            }
-            if (filaEscravo.get(i).size() > 0) {
-                System.out.println("Tem Fila");
-            }
-        }
+        verificarEscravos("PROBLEMA!");
         if (contadorEscravos == escravos.size()) {
             boolean escalona = false;
             for (int i = 0; i < escravos.size(); i++) {
@@ -264,13 +211,14 @@ public class M_OSEP extends Escalonador {
                 } else if (controleEscravos.get(i).Preemp()) {
                     controleEscravos.get(i).SetBloqueado();
                 }
+                indexarEscravo(i);
             }
             contadorEscravos = 0;
             if (tarefas.size() > 0 && escalona) {
                 mestre.executarEscalonamento();
             }
         }
-       
+
 
     }
 
@@ -286,34 +234,27 @@ public class M_OSEP extends Escalonador {
                 trf.setLocalProcessamento(rec);
                 trf.setCaminho(escalonarRota(rec));
                 //Verifica se não é caso de preempção
-                if (!controleEscravos.get(escravos.indexOf(rec)).Preemp()) {
+                if (!controleEscravos.get(getIndiceEscravo(rec)).Preemp()) {
 //                    numEscravosLivres--;
-                    status.get(metricaUsuarios.getUsuarios().indexOf(trf.getProprietario())).AtualizaUso(rec.getPoderComputacional(), 1);
-                    //controleEscravos.get(escravos.indexOf(rec)).SetBloqueado();
+                    statusUsuario.get(trf.getProprietario()).AtualizaUso(rec.getPoderComputacional(), 1);
+                    //controleEscravos.get(getIndiceEscravo(rec)).SetBloqueado();
                     mestre.enviarTarefa(trf);
                 } else {
-                    int index_rec = escravos.indexOf(rec);
-                    esperaTarefas.add(trf);
-                    controlePreempcao.add(new ControlePreempcao(((Tarefa) processadorEscravos.get(index_rec).get(0)).getProprietario(), ((Tarefa) processadorEscravos.get(index_rec).get(0)).getIdentificador(), trf.getProprietario(), trf.getIdentificador()));
-                    int indexUser = metricaUsuarios.getUsuarios().indexOf(((Tarefa) processadorEscravos.get(index_rec).get(0)).getProprietario());
-                    status.get(indexUser).AtualizaUso(rec.getPoderComputacional(), 0);
+                    int index_rec = getIndiceEscravo(rec);
+                    Tarefa emExecucao = processadorEscravos.get(index_rec).get(0);
+                    esperaTarefas.put(chave(trf.getProprietario(), trf.getIdentificador()), trf);
+                    controlePreempcao.put(chave(emExecucao.getProprietario(), emExecucao.getIdentificador()), new ControlePreempcao(emExecucao.getProprietario(), emExecucao.getIdentificador(), trf.getProprietario(), trf.getIdentificador()));
+                    statusUsuario.get(emExecucao.getProprietario()).AtualizaUso(rec.getPoderComputacional(), 0);
                 }
-                
+
                 //System.out.println("Tarefa " + trf.getIdentificador() + " do user " + trf.getProprietario() + " foi escalonado" + mestre.getSimulacao().getTime());
                 //System.out.printf("Escravo %s executando %d\n", rec.getId(), rec.getInformacaoDinamicaProcessador().size());
-                for (int i = 0; i < escravos.size(); i++) {
-                    if (processadorEscravos.get(i).size() > 1) {
-                        System.out.printf("Escravo %s executando %d\n", escravos.get(i).getId(), processadorEscravos.get(i).size());
-                        System.out.println("PROBLEMA1");
-                    }
-                    if (filaEscravo.get(i).size() > 0) {
-                        System.out.println("Tem Fila");
-                    }
-                }
+                verificarEscravos("PROBLEMA1");
 
 
             } else {
                 tarefas.add(trf);
+                enfileirarTarefa(trf);
                 tarefaSelec = null;
             }
         }
@@ -321,15 +262,14 @@ public class M_OSEP extends Escalonador {
         //for (int i = 0; i < status.size(); i++) {
         //    System.out.printf("Usuário %s : %f de %f\n", status.get(i).usuario, status.get(i).GetUso(), status.get(i).GetCota());
         //}
-        
+
     }
 
     @Override
     public void addTarefaConcluida(Tarefa tarefa) {
         super.addTarefaConcluida(tarefa);
         CS_Processamento maq = (CS_Processamento) tarefa.getLocalProcessamento();
-        int indexUser = metricaUsuarios.getUsuarios().indexOf(tarefa.getProprietario());
-        status.get(indexUser).AtualizaUso(maq.getPoderComputacional(), 0);
+        statusUsuario.get(tarefa.getProprietario()).AtualizaUso(maq.getPoderComputacional(), 0);
 
         //System.out.println("Tarefa " + tarefa.getIdentificador() + " do user " + tarefa.getProprietario() + " concluida " + mestre.getSimulacao().getTime() + " O usuário perdeu " + maq.getPoderComputacional() + " MFLOPS");
     }
@@ -337,33 +277,24 @@ public class M_OSEP extends Escalonador {
     @Override
     public void adicionarTarefa(Tarefa tarefa) {
         super.adicionarTarefa(tarefa);
+        enfileirarTarefa(tarefa);
         CS_Processamento maq = (CS_Processamento) tarefa.getLocalProcessamento();
-        int indexUser;
         //Em caso de preempção, é procurada a tarefa correspondente para ser enviada ao escravo agora desocupado
         if (tarefa.getLocalProcessamento() != null) {
 
-            //contadores_escravos.get(escravos.indexOf(maq)).SetOcupado();
+            //contadores_escravos.get(getIndiceEscravo(maq)).SetOcupado();
             //System.out.printf("Tarefa %d do usuário %s sofreu preempção\n", tarefa.getIdentificador(), tarefa.getProprietario());
 
-            int j;
-            int indexControle = -1;
-            for (j = 0; j < controlePreempcao.size(); j++) {
-                if (controlePreempcao.get(j).getPreempID() == tarefa.getIdentificador() && controlePreempcao.get(j).getUsuarioPreemp().equals(tarefa.getProprietario())) {
-                    indexControle = j;
-                    break;
-                }
-            }
+            String chavePreempcao = chave(tarefa.getProprietario(), tarefa.getIdentificador());
+            ControlePreempcao controle = controlePreempcao.get(chavePreempcao);
 
-            for (int i = 0; i < esperaTarefas.size(); i++) {
-                if (esperaTarefas.get(i).getProprietario().equals(controlePreempcao.get(indexControle).getUsuarioAlloc()) && esperaTarefas.get(i).getIdentificador() == controlePreempcao.get(j).getAllocID()) {
-                    indexUser = metricaUsuarios.getUsuarios().indexOf(controlePreempcao.get(indexControle).getUsuarioAlloc());
-                    status.get(indexUser).AtualizaUso(maq.getPoderComputacional(), 1);
-                    mestre.enviarTarefa(esperaTarefas.get(i));
-                    int index = escravos.indexOf(esperaTarefas.get(i).getLocalProcessamento());
-                    //controleEscravos.get(index).SetBloqueado();
-                    esperaTarefas.remove(i);
-                    controlePreempcao.remove(j);
-                    break;
+            if (controle != null) {
+                Tarefa espera = esperaTarefas.remove(chave(controle.getUsuarioAlloc(), controle.getAllocID()));
+                if (espera != null) {
+                    statusUsuario.get(controle.getUsuarioAlloc()).AtualizaUso(maq.getPoderComputacional(), 1);
+                    mestre.enviarTarefa(espera);
+                    //controleEscravos.get(getIndiceEscravo(espera.getLocalProcessamento())).SetBloqueado();
+                    controlePreempcao.remove(chavePreempcao);
                 }
             }
 
@@ -382,16 +313,145 @@ public class M_OSEP extends Escalonador {
         return 15.0;
     }
 
+    //Usuário com tarefas em espera mais abaixo da sua posse; tarefas canceladas pelo mestre são descartadas aqui
+    private StatusUser usuarioComDemanda() {
+        StatusUser usuario = usuariosComDemanda.peek();
+        while (usuario != null) {
+            MultimapaOrdenado<Double, Tarefa> tarefasEspera = tarefasUsuario.get(usuario.usuario);
+            while (!tarefasEspera.isEmpty() && !tarefas.contains(tarefasEspera.primeiro())) {
+                tarefasEspera.removerPrimeiro();
+            }
+            if (!tarefasEspera.isEmpty()) {
+                return usuario;
+            }
+            usuariosComDemanda.remove(usuario);
+            usuario = usuariosComDemanda.peek();
+        }
+        return null;
+    }
+
+    //Usuário mais acima da sua posse, desconsiderando o proprietário da tarefa a ser escalonada
+    private StatusUser usuarioAcimaCota(String proprietario) {
+        StatusUser usuario = usuariosPorExcesso.peek();
+        if (usuario != null && usuario.usuario.equals(proprietario)) {
+            usuariosPorExcesso.poll();
+            StatusUser seguinte = usuariosPorExcesso.peek();
+            usuariosPorExcesso.offer(usuario);
+            usuario = seguinte;
+        }
+        if (usuario != null && usuario.GetUso() > usuario.GetCota()) {
+            return usuario;
+        }
+        return null;
+    }
+
+    //Best Fit: escravo livre com poder computacional mais próximo do tamanho da tarefa, o de menor índice em caso de empate
+    private ControleEscravos melhorEncaixe(double tamanho) {
+        Map.Entry<Double, HeapIndexado<ControleEscravos>> abaixo = escravosLivres.floorEntry(tamanho);
+        Map.Entry<Double, HeapIndexado<ControleEscravos>> acima = escravosLivres.higherEntry(tamanho);
+        if (abaixo == null) {
+            return acima == null ? null : acima.getValue().peek();
+        }
+        if (acima == null) {
+            return abaixo.getValue().peek();
+        }
+        double distanciaAbaixo = Math.abs(abaixo.getKey() - tamanho);
+        double distanciaAcima = Math.abs(acima.getKey() - tamanho);
+        if (distanciaAbaixo < distanciaAcima) {
+            return abaixo.getValue().peek();
+        }
+        if (distanciaAcima < distanciaAbaixo) {
+            return acima.getValue().peek();
+        }
+        ControleEscravos escravoAbaixo = abaixo.getValue().peek();
+        ControleEscravos escravoAcima = acima.getValue().peek();
+        return escravoAbaixo.indice < escravoAcima.indice ? escravoAbaixo : escravoAcima;
+    }
+
+    private void enfileirarTarefa(Tarefa tarefa) {
+        MultimapaOrdenado<Double, Tarefa> tarefasEspera = tarefasUsuario.get(tarefa.getProprietario());
+        if (tarefasEspera != null) {
+            tarefasEspera.adicionar(tarefa.getTamProcessamento(), tarefa);
+            usuariosComDemanda.offer(statusUsuario.get(tarefa.getProprietario()));
+        }
+    }
+
+    private Tarefa removerTarefa(Tarefa tarefa) {
+        tarefas.remove(tarefa);
+        MultimapaOrdenado<Double, Tarefa> tarefasEspera = tarefasUsuario.get(tarefa.getProprietario());
+        if (tarefasEspera != null) {
+            tarefasEspera.remover(tarefa.getTamProcessamento(), tarefa);
+            if (tarefasEspera.isEmpty()) {
+                usuariosComDemanda.remove(statusUsuario.get(tarefa.getProprietario()));
+            }
+        }
+        return tarefa;
+    }
+
+    //Recoloca o escravo nas estruturas de busca após mudança no seu estado, fila ou processador
+    private void indexarEscravo(int i) {
+        ControleEscravos controle = controleEscravos.get(i);
+        List<Tarefa> fila = getFilaEscravo(i);
+        List<Tarefa> processador = processadorEscravos.get(i);
+        Double poder = escravos.get(i).getPoderComputacional();
+        if (fila.isEmpty() && processador.isEmpty() && controle.Livre()) {
+            if (!escravosLivres.containsKey(poder)) {
+                escravosLivres.put(poder, new HeapIndexado<ControleEscravos>(ordemEscravos));
+            }
+            escravosLivres.get(poder).offer(controle);
+        } else if (escravosLivres.containsKey(poder) && escravosLivres.get(poder).remove(controle) && escravosLivres.get(poder).isEmpty()) {
+            escravosLivres.remove(poder);
+        }
+        String usuario = null;
+        if (processador.size() == 1 && controle.Ocupado() && fila.isEmpty()) {
+            usuario = processador.get(0).getProprietario();
+        }
+        if (controle.usuarioPreempcao != null && !controle.usuarioPreempcao.equals(usuario)) {
+            escravosPreempcao.get(controle.usuarioPreempcao).remove(controle);
+        }
+        if (usuario != null && !usuario.equals(controle.usuarioPreempcao)) {
+            if (!escravosPreempcao.containsKey(usuario)) {
+                escravosPreempcao.put(usuario, new HeapIndexado<ControleEscravos>(ordemPoder));
+            }
+            escravosPreempcao.get(usuario).offer(controle);
+        }
+        controle.usuarioPreempcao = usuario;
+        if (processador.size() > 1 || fila.size() > 0) {
+            escravosIrregulares.add(i);
+        } else {
+            escravosIrregulares.remove(i);
+        }
+    }
+
+    private void verificarEscravos(String problema) {
+        for (int i : escravosIrregulares) {
+            if (processadorEscravos.get(i).size() > 1) {
+                System.out.printf("Escravo %s executando %d\n", escravos.get(i).getId(), processadorEscravos.get(i).size());
+                System.out.println(problema);
+            }
+            if (filaEscravo.get(i).size() > 0) {
+                System.out.println("Tem Fila");
+            }
+        }
+    }
+
+    //Tarefas em espera e preempções são identificadas pelo proprietário e identificador da tarefa
+    private static String chave(String usuario, int identificador) {
+        return usuario + "#" + identificador;
+    }
+
     private class StatusUser {
 
         private String usuario;
+        private final int indice;
         private Double PoderEmUso;
         private Double Cota;
         private int numCota;
         private int numUso;
 
-        public StatusUser(String usuario, Double poder) {
+        public StatusUser(String usuario, int indice, Double poder) {
             this.usuario = usuario;
+            this.indice = indice;
             this.PoderEmUso = 0.0;
             this.Cota = poder;
             this.numCota = 0;
@@ -414,6 +474,8 @@ public class M_OSEP extends Escalonador {
                 this.PoderEmUso = this.PoderEmUso - poder;
                 this.numUso--;
             }
+            usuariosComDemanda.atualizar(this);
+            usuariosPorExcesso.atualizar(this);
         }
 
         public Double GetCota() {
@@ -436,9 +498,12 @@ public class M_OSEP extends Escalonador {
     private class ControleEscravos {
 
         private int contador;
+        private final int indice;
+        private String usuarioPreempcao;//Chave do escravo em escravosPreempcao
 
-        public ControleEscravos() {
+        public ControleEscravos(int indice) {
             this.contador = 0;
+            this.indice = indice;
         }
 
         public boolean Ocupado() {
@@ -5,6 +5,8 @@
 package gspd.ispd.externo;
 
 import gspd.ispd.escalonador.Escalonador;
+import gspd.ispd.escalonador.FilaFIFO;
+import gspd.ispd.escalonador.HeapIndexado;
 import gspd.ispd.escalonador.Mestre;
 import gspd.ispd.motor.Mensagens;
 import gspd.ispd.motor.filas.Mensagem;
@@ -12,7 +14,11 @@ import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.CentroServico;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 /**
  *
@@ -23,19 +29,28 @@ public class OSEP extends Escalonador {
     Tarefa tarefaSelec;
     List<StatusUser> status;
     List<ControleEscravos> controleEscravos;
-    List<Tarefa> esperaTarefas;
-    List<ControlePreempcao> controlePreempcao;
+    Map<String, Tarefa> esperaTarefas;
+    Map<String, ControlePreempcao> controlePreempcao;
     int contadorEscravos;
-    List<List> processadorEscravos;
-    
+    List<List<Tarefa>> processadorEscravos;
+    //Estruturas atualizadas a cada mudança de uso ou de estado dos escravos, para que as decisões não percorram todos os usuários, tarefas e escravos
+    private Map<String, StatusUser> statusUsuario;
+    private Map<String, FilaFIFO<Tarefa>> tarefasUsuario;
+    private HeapIndexado<StatusUser> usuariosComDemanda;//Maior diferença entre posse e uso primeiro
+    private HeapIndexado<StatusUser> usuariosPorExcesso;//Maior diferença entre uso e posse primeiro
+    private Comparator<ControleEscravos> ordemEscravos;
+    private HeapIndexado<ControleEscravos> escravosLivres;
+    private Map<String, HeapIndexado<ControleEscravos>> escravosPreempcao;//Escravos ocupados, pelo proprietário da tarefa em execução
+    private TreeSet<Integer> escravosIrregulares;//Escravos com fila ou executando mais de uma tarefa
+
     public OSEP() {
-        this.tarefas = new ArrayList<Tarefa>();
+        this.tarefas = new FilaFIFO<Tarefa>();
         this.escravos = new ArrayList<CS_Processamento>();
         this.controleEscravos = new ArrayList<ControleEscravos>();
-        this.esperaTarefas = new ArrayList<Tarefa>();
-        this.controlePreempcao = new ArrayList<ControlePreempcao>();
+        this.esperaTarefas = new HashMap<String, Tarefa>();
+        this.controlePreempcao = new HashMap<String, ControlePreempcao>();
         this.filaEscravo = new ArrayList<List>();
-        this.processadorEscravos = new ArrayList<List>();
+        this.processadorEscravos = new ArrayList<List<Tarefa>>();
         this.contadorEscravos = 0;
     }
 
@@ -43,73 +58,63 @@ public class OSEP extends Escalonador {
     public void iniciar() {
         this.mestre.setTipoEscalonamento(Mestre.AMBOS);//Escalonamento quando chegam tarefas e quando tarefas são concluídas
         status = new ArrayList<StatusUser>();
+        statusUsuario = new HashMap<String, StatusUser>();
+        tarefasUsuario = new HashMap<String, FilaFIFO<Tarefa>>();
+        //Empates são resolvidos pela ordem dos usuários, como na busca linear
+        usuariosComDemanda = new HeapIndexado<StatusUser>(new Comparator<StatusUser>() {
+            @Override
+            public int compare(StatusUser o1, StatusUser o2) {
+                int comparacao = Integer.compare(o2.GetNumCota() - o2.GetNumUso(), o1.GetNumCota() - o1.GetNumUso());
+                return comparacao != 0 ? comparacao : Integer.compare(o1.indice, o2.indice);
+            }
+        });
+        usuariosPorExcesso = new HeapIndexado<StatusUser>(new Comparator<StatusUser>() {
+            @Override
+            public int compare(StatusUser o1, StatusUser o2) {
+                int comparacao = Integer.compare(o2.GetNumUso() - o2.GetNumCota(), o1.GetNumUso() - o1.GetNumCota());
+                return comparacao != 0 ? comparacao : Integer.compare(o1.indice, o2.indice);
+            }
+        });
 
         for (int i = 0; i < metricaUsuarios.getUsuarios().size(); i++) {//Objetos de controle de uso e cota para cada um dos usuários
-            status.add(new StatusUser(metricaUsuarios.getUsuarios().get(i), metricaUsuarios.getPoderComputacional(metricaUsuarios.getUsuarios().get(i))));
+            StatusUser usuario = new StatusUser(metricaUsuarios.getUsuarios().get(i), i, metricaUsuarios.getPoderComputacional(metricaUsuarios.getUsuarios().get(i)));
+            status.add(usuario);
+            if (!statusUsuario.containsKey(usuario.usuario)) {
+                statusUsuario.put(usuario.usuario, usuario);
+                tarefasUsuario.put(usuario.usuario, new FilaFIFO<Tarefa>());
+                usuariosPorExcesso.add(usuario);
+            }
         }
 
+        ordemEscravos = new Comparator<ControleEscravos>() {
+            @Override
+            public int compare(ControleEscravos o1, ControleEscravos o2) {
+                return Integer.compare(o1.indice, o2.indice);
+            }
+        };
+        escravosLivres = new HeapIndexado<ControleEscravos>(ordemEscravos);
+        escravosPreempcao = new HashMap<String, HeapIndexado<ControleEscravos>>();
+        escravosIrregulares = new TreeSet<Integer>();
         for (int i = 0; i < escravos.size(); i++) {//Contadores para lidar com a dinamicidade dos dados
-            controleEscravos.add(new ControleEscravos());
+            controleEscravos.add(new ControleEscravos(i));
             filaEscravo.add(new ArrayList<Tarefa>());
             processadorEscravos.add(new ArrayList<Tarefa>());
+            indexarEscravo(i);
         }
     }
 
     @Override
     public Tarefa escalonarTarefa() {
         //Usuários com maior diferença entre uso e posse terão preferência
-        int difUsuarioMinimo =  -1;
-        int indexUsuarioMinimo = -1;
-        //Encontrar o usuário que está mais abaixo da sua propriedade 
-        for (int i = 0; i < metricaUsuarios.getUsuarios().size(); i++) {
-            //Verificar se existem tarefas do usuário corrente
-            boolean demanda = false;
-
-            for (int j = 0; j < tarefas.size(); j++) {
-                if (tarefas.get(j).getProprietario().equals(metricaUsuarios.getUsuarios().get(i))) {
-                    demanda = true;
-                    break;
-                }
-            }
-
-            //Caso existam tarefas do usuário corrente e ele esteja com uso menor que sua posse
-            if ((status.get(i).GetNumUso() < status.get(i).GetNumCota()) && demanda) {
-
-                if (difUsuarioMinimo == -1) {
-                    difUsuarioMinimo = status.get(i).GetNumCota() - status.get(i).GetNumUso();
-                    indexUsuarioMinimo = i;
-                } else {
-                    if (difUsuarioMinimo < status.get(i).GetNumCota() - status.get(i).GetNumUso()) {
-                        difUsuarioMinimo = status.get(i).GetNumCota() - status.get(i).GetNumUso();
-                        indexUsuarioMinimo = i;
-                    }
-
-                }
-
-            }
-
-        }
-
-        if (indexUsuarioMinimo != -1) {
-            int indexTarefa = -1;
-
-            for (int i = 0; i < tarefas.size(); i++) {
-                if (tarefas.get(i).getProprietario().equals(metricaUsuarios.getUsuarios().get(indexUsuarioMinimo))) {
-                    if (indexTarefa == -1) {
-                        indexTarefa = i;
-                        break;
-                    } 
-                }
-            }
-
-            if (indexTarefa != -1) {
-                return tarefas.remove(indexTarefa);
-            }
+        StatusUser usuario = usuarioComDemanda();
 
+        //Caso existam tarefas do usuário e ele esteja com uso menor que sua posse
+        if (usuario != null && usuario.GetNumUso() < usuario.GetNumCota()) {
+            return removerTarefa(tarefasUsuario.get(usuario.usuario).primeiro());
         }
 
         if (tarefas.size() > 0) {
-            return tarefas.remove(0);
+            return removerTarefa(tarefas.get(0));
         } else {
             return null;
         }
@@ -119,77 +124,31 @@ public class OSEP extends Escalonador {
     @Override
     public CS_Processamento escalonarRecurso() {
 
-        //Buscando recurso livre
-        CS_Processamento selec = null;
-
-        for (int i = 0; i < escravos.size(); i++) {
+        //Buscando recurso livre, garantindo que não há nenhuma tarefa em trânsito para o escravo
+        ControleEscravos livre = escravosLivres.peek();
 
-            if (filaEscravo.get(i).isEmpty() && processadorEscravos.get(i).isEmpty() && controleEscravos.get(i).Livre()) {//Garantir que o escravo está de fato livre e que não há nenhuma tarefa em trânsito para o escravo
-                if (selec == null) {
+        if (livre != null) {
 
-                    selec = escravos.get(i);
-                    break;
+            livre.SetBloqueado();//Inidcar que uma tarefa será enviada e que , portanto , este escravo deve ser bloqueada até a próxima atualização
+            indexarEscravo(livre.indice);
 
-                }
-
-            }
+            return escravos.get(livre.indice);
 
         }
 
-        if (selec != null) {
-
-            controleEscravos.get(escravos.indexOf(selec)).SetBloqueado();//Inidcar que uma tarefa será enviada e que , portanto , este escravo deve ser bloqueada até a próxima atualização
-
-            return selec;
-
-        }
-
-        String usermax = null;
-        int diff = -1;
-
-        for (int i = 0; i < metricaUsuarios.getUsuarios().size(); i++) {
-
-            if (status.get(i).GetNumUso() > status.get(i).GetNumCota() && !metricaUsuarios.getUsuarios().get(i).equals(tarefaSelec.getProprietario())) {
-
-                if (diff == -1) {
-
-                    usermax = metricaUsuarios.getUsuarios().get(i);
-                    diff = status.get(i).GetNumUso() - status.get(i).GetNumCota();
-
-                } else {
-
-                    if (status.get(i).GetNumUso() - status.get(i).GetNumCota() > diff) {
-
-                        usermax = metricaUsuarios.getUsuarios().get(i);
-                        diff = status.get(i).GetNumUso() - status.get(i).GetNumCota();
-
-                    }
-
-                }
-
-            }
-
-        }
-
-        int index = -1;
-        if (usermax != null) {
-
-            for (int i = 0; i < escravos.size(); i++) {
-                if (processadorEscravos.get(i).size() == 1 && controleEscravos.get(i).Ocupado() && filaEscravo.get(i).isEmpty() && ((Tarefa) processadorEscravos.get(i).get(0)).getProprietario().equals(usermax)) {
-                        index = i;
-                        break;
-                }
-
-            }
+        StatusUser usermax = usuarioAcimaCota(tarefaSelec.getProprietario());
 
+        ControleEscravos selecionado = null;
+        if (usermax != null && escravosPreempcao.containsKey(usermax.usuario)) {
+            selecionado = escravosPreempcao.get(usermax.usuario).peek();
         }
 
         //Fazer a preempção
-        if (index != -1) {
-            selec = escravos.get(index);
-            int index_selec = escravos.indexOf(selec);
-            controleEscravos.get(escravos.indexOf(selec)).setPreemp();
-            mestre.enviarMensagem((Tarefa) processadorEscravos.get(index_selec).get(0), selec, Mensagens.DEVOLVER_COM_PREEMPCAO);
+        if (selecionado != null) {
+            CS_Processamento selec = escravos.get(selecionado.indice);
+            selecionado.setPreemp();
+            indexarEscravo(selecionado.indice);
+            mestre.enviarMensagem(processadorEscravos.get(selecionado.indice).get(0), selec, Mensagens.DEVOLVER_COM_PREEMPCAO);
             return selec;
         }
         return null;
@@ -197,25 +156,18 @@ public class OSEP extends Escalonador {
 
     @Override
     public List<CentroServico> escalonarRota(CentroServico destino) {
-        int index = escravos.indexOf(destino);
-        return new ArrayList<CentroServico>((List<CentroServico>) caminhoEscravo.get(index));
+        int index = getIndiceEscravo(destino);
+        return new ArrayList<CentroServico>(getCaminhoEscravo(index));
     }
 
     @Override
     public void resultadoAtualizar(Mensagem mensagem) {
         super.resultadoAtualizar(mensagem);
-        int index = escravos.indexOf(mensagem.getOrigem());
+        int index = getIndiceEscravo(mensagem.getOrigem());
         processadorEscravos.set(index, mensagem.getProcessadorEscravo());
+        indexarEscravo(index);
         contadorEscravos++;
-        for (int i = 0; i < escravos.size(); i++) {
-            if (processadorEscravos.get(i).size() > 1) {
-                System.out.printf("Escravo %s executando %d\n", escravos.get(i).getId(), processadorEscravos.get(i).size());
-                System.out.println("PROBLEMA!");
-            }
-            if (filaEscravo.get(i).size() > 0) {
-                System.out.println("Tem Fila");
-            }
-        }
+        verificarEscravos("PROBLEMA!");
         if (contadorEscravos == escravos.size()) {
             boolean escalona = false;
             for (int i = 0; i < escravos.size(); i++) {
@@ -227,6 +179,7 @@ public class OSEP extends Escalonador {
                 } else if (controleEscravos.get(i).Preemp()) {
                     controleEscravos.get(i).SetBloqueado();
                 }
+                indexarEscravo(i);
             }
             contadorEscravos = 0;
             if (tarefas.size() > 0 && escalona) {
@@ -249,34 +202,27 @@ public class OSEP extends Escalonador {
                 trf.setLocalProcessamento(rec);
                 trf.setCaminho(escalonarRota(rec));
                 //Verifica se não é caso de preempção
-                if (!controleEscravos.get(escravos.indexOf(rec)).Preemp()) {
+                if (!controleEscravos.get(getIndiceEscravo(rec)).Preemp()) {
 //                    numEscravosLivres--;
-                    status.get(metricaUsuarios.getUsuarios().indexOf(trf.getProprietario())).AtualizaUso(rec.getPoderComputacional(), 1);
-                    //controleEscravos.get(escravos.indexOf(rec)).SetBloqueado();
+                    statusUsuario.get(trf.getProprietario()).AtualizaUso(rec.getPoderComputacional(), 1);
+                    //controleEscravos.get(getIndiceEscravo(rec)).SetBloqueado();
                     mestre.enviarTarefa(trf);
                 } else {
-                    int index_rec = escravos.indexOf(rec);
-                    esperaTarefas.add(trf);
-                    controlePreempcao.add(new ControlePreempcao(((Tarefa) processadorEscravos.get(index_rec).get(0)).getProprietario(), ((Tarefa) processadorEscravos.get(index_rec).get(0)).getIdentificador(), trf.getProprietario(), trf.getIdentificador()));
-                    int indexUser = metricaUsuarios.getUsuarios().indexOf(((Tarefa) processadorEscravos.get(index_rec).get(0)).getProprietario());
-                    status.get(indexUser).AtualizaUso(rec.getPoderComputacional(), 0);
+                    int index_rec = getIndiceEscravo(rec);
+                    Tarefa emExecucao = processadorEscravos.get(index_rec).get(0);
+                    esperaTarefas.put(chave(trf.getProprietario(), trf.getIdentificador()), trf);
+                    controlePreempcao.put(chave(emExecucao.getProprietario(), emExecucao.getIdentificador()), new ControlePreempcao(emExecucao.getProprietario(), emExecucao.getIdentificador(), trf.getProprietario(), trf.getIdentificador()));
+                    statusUsuario.get(emExecucao.getProprietario()).AtualizaUso(rec.getPoderComputacional(), 0);
                 }
 
                 //System.out.println("Tarefa " + trf.getIdentificador() + " do user " + trf.getProprietario() + " foi escalonado" + mestre.getSimulacao().getTime());
                 //System.out.printf("Escravo %s executando %d\n", rec.getId(), rec.getInformacaoDinamicaProcessador().size());
-                for (int i = 0; i < escravos.size(); i++) {
-                    if (processadorEscravos.get(i).size() > 1) {
-                        System.out.printf("Escravo %s executando %d\n", escravos.get(i).getId(), processadorEscravos.get(i).size());
-                        System.out.println("PROBLEMA1");
-                    }
-                    if (filaEscravo.get(i).size() > 0) {
-                        System.out.println("Tem Fila");
-                    }
-                }
+                verificarEscravos("PROBLEMA1");
 
 
             } else {
                 tarefas.add(trf);
+                enfileirarTarefa(trf);
                 tarefaSelec = null;
             }
         }
@@ -291,8 +237,7 @@ public class OSEP extends Escalonador {
     public void addTarefaConcluida(Tarefa tarefa) {
         super.addTarefaConcluida(tarefa);
         CS_Processamento maq = (CS_Processamento) tarefa.getLocalProcessamento();
-        int indexUser = metricaUsuarios.getUsuarios().indexOf(tarefa.getProprietario());
-        status.get(indexUser).AtualizaUso(maq.getPoderComputacional(), 0);
+        statusUsuario.get(tarefa.getProprietario()).AtualizaUso(maq.getPoderComputacional(), 0);
 
         //System.out.println("Tarefa " + tarefa.getIdentificador() + " do user " + tarefa.getProprietario() + " concluida " + mestre.getSimulacao().getTime() + " O usuário perdeu " + maq.getPoderComputacional() + " MFLOPS");
     }
@@ -300,33 +245,24 @@ public class OSEP extends Escalonador {
     @Override
     public void adicionarTarefa(Tarefa tarefa) {
         super.adicionarTarefa(tarefa);
+        enfileirarTarefa(tarefa);
         CS_Processamento maq = (CS_Processamento) tarefa.getLocalProcessamento();
-        int indexUser;
         //Em caso de preempção, é procurada a tarefa correspondente para ser enviada ao escravo agora desocupado
         if (tarefa.getLocalProcessamento() != null) {
 
-            //contadores_escravos.get(escravos.indexOf(maq)).SetOcupado();
+            //contadores_escravos.get(getIndiceEscravo(maq)).SetOcupado();
             //System.out.printf("Tarefa %d do usuário %s sofreu preempção\n", tarefa.getIdentificador(), tarefa.getProprietario());
 
-            int j;
-            int indexControle = -1;
-            for (j = 0; j < controlePreempcao.size(); j++) {
-                if (controlePreempcao.get(j).getPreempID() == tarefa.getIdentificador() && controlePreempcao.get(j).getUsuarioPreemp().equals(tarefa.getProprietario())) {
-                    indexControle = j;
-                    break;
-                }
-            }
+            String chavePreempcao = chave(tarefa.getProprietario(), tarefa.getIdentificador());
+            ControlePreempcao controle = controlePreempcao.get(chavePreempcao);
 
-            for (int i = 0; i < esperaTarefas.size(); i++) {
-                if (esperaTarefas.get(i).getProprietario().equals(controlePreempcao.get(indexControle).getUsuarioAlloc()) && esperaTarefas.get(i).getIdentificador() == controlePreempcao.get(j).getAllocID()) {
-                    indexUser = metricaUsuarios.getUsuarios().indexOf(controlePreempcao.get(indexControle).getUsuarioAlloc());
-                    status.get(indexUser).AtualizaUso(maq.getPoderComputacional(), 1);
-                    mestre.enviarTarefa(esperaTarefas.get(i));
-                    int index = escravos.indexOf(esperaTarefas.get(i).getLocalProcessamento());
-                    //controleEscravos.get(index).SetBloqueado();
-                    esperaTarefas.remove(i);
-                    controlePreempcao.remove(j);
-                    break;
+            if (controle != null) {
+                Tarefa espera = esperaTarefas.remove(chave(controle.getUsuarioAlloc(), controle.getAllocID()));
+                if (espera != null) {
+                    statusUsuario.get(controle.getUsuarioAlloc()).AtualizaUso(maq.getPoderComputacional(), 1);
+                    mestre.enviarTarefa(espera);
+                    //controleEscravos.get(getIndiceEscravo(espera.getLocalProcessamento())).SetBloqueado();
+                    controlePreempcao.remove(chavePreempcao);
                 }
             }
 
@@ -346,16 +282,118 @@ public class OSEP extends Escalonador {
         return 15.0;
     }
 
+    //Usuário com tarefas em espera mais abaixo da sua posse; tarefas canceladas pelo mestre são descartadas aqui
+    private StatusUser usuarioComDemanda() {
+        StatusUser usuario = usuariosComDemanda.peek();
+        while (usuario != null) {
+            FilaFIFO<Tarefa> fila = tarefasUsuario.get(usuario.usuario);
+            while (!fila.isEmpty() && !tarefas.contains(fila.primeiro())) {
+                fila.removerPrimeiro();
+            }
+            if (!fila.isEmpty()) {
+                return usuario;
+            }
+            usuariosComDemanda.remove(usuario);
+            usuario = usuariosComDemanda.peek();
+        }
+        return null;
+    }
+
+    //Usuário mais acima da sua posse, desconsiderando o proprietário da tarefa a ser escalonada
+    private StatusUser usuarioAcimaCota(String proprietario) {
+        StatusUser usuario = usuariosPorExcesso.peek();
+        if (usuario != null && usuario.usuario.equals(proprietario)) {
+            usuariosPorExcesso.poll();
+            StatusUser seguinte = usuariosPorExcesso.peek();
+            usuariosPorExcesso.offer(usuario);
+            usuario = seguinte;
+        }
+        if (usuario != null && usuario.GetNumUso() > usuario.GetNumCota()) {
+            return usuario;
+        }
+        return null;
+    }
+
+    private void enfileirarTarefa(Tarefa tarefa) {
+        FilaFIFO<Tarefa> fila = tarefasUsuario.get(tarefa.getProprietario());
+        if (fila != null) {
+            fila.add(tarefa);
+            usuariosComDemanda.offer(statusUsuario.get(tarefa.getProprietario()));
+        }
+    }
+
+    private Tarefa removerTarefa(Tarefa tarefa) {
+        tarefas.remove(tarefa);
+        FilaFIFO<Tarefa> fila = tarefasUsuario.get(tarefa.getProprietario());
+        if (fila != null) {
+            fila.remove(tarefa);
+            if (fila.isEmpty()) {
+                usuariosComDemanda.remove(statusUsuario.get(tarefa.getProprietario()));
+            }
+        }
+        return tarefa;
+    }
+
+    //Recoloca o escravo nas estruturas de busca após mudança no seu estado, fila ou processador
+    private void indexarEscravo(int i) {
+        ControleEscravos controle = controleEscravos.get(i);
+        List<Tarefa> fila = getFilaEscravo(i);
+        List<Tarefa> processador = processadorEscravos.get(i);
+        if (fila.isEmpty() && processador.isEmpty() && controle.Livre()) {
+            escravosLivres.offer(controle);
+        } else {
+            escravosLivres.remove(controle);
+        }
+        String usuario = null;
+        if (processador.size() == 1 && controle.Ocupado() && fila.isEmpty()) {
+            usuario = processador.get(0).getProprietario();
+        }
+        if (controle.usuarioPreempcao != null && !controle.usuarioPreempcao.equals(usuario)) {
+            escravosPreempcao.get(controle.usuarioPreempcao).remove(controle);
+        }
+        if (usuario != null && !usuario.equals(controle.usuarioPreempcao)) {
+            if (!escravosPreempcao.containsKey(usuario)) {
+                escravosPreempcao.put(usuario, new HeapIndexado<ControleEscravos>(ordemEscravos));
+            }
+            escravosPreempcao.get(usuario).offer(controle);
+        }
+        controle.usuarioPreempcao = usuario;
+        if (processador.size() > 1 || fila.size() > 0) {
+            escravosIrregulares.add(i);
+        } else {
+            escravosIrregulares.remove(i);
+        }
+    }
+
+    private void verificarEscravos(String problema) {
+        for (int i : escravosIrregulares) {
+            if (processadorEscravos.get(i).size() > 1) {
+                System.out.printf("Escravo %s executando %d\n", escravos.get(i).getId(), processadorEscravos.get(i).size());
+                System.out.println(problema);
+            }
+            if (filaEscravo.get(i).size() > 0) {
+                System.out.println("Tem Fila");
+            }
+        }
+    }
+
+    //Tarefas em espera e preempções são identificadas pelo proprietário e identificador da tarefa
+    private static String chave(String usuario, int identificador) {
+        return usuario + "#" + identificador;
+    }
+
     private class StatusUser {
 
         private String usuario;
+        private final int indice;
         private Double PoderEmUso;
         private Double Cota;
         private int numCota;
         private int numUso;
 
-        public StatusUser(String usuario, Double poder) {
+        public StatusUser(String usuario, int indice, Double poder) {
             this.usuario = usuario;
+            this.indice = indice;
             this.PoderEmUso = 0.0;
             this.Cota = poder;
             this.numCota = 0;
@@ -378,6 +416,8 @@ public class OSEP extends Escalonador {
                 this.PoderEmUso = this.PoderEmUso - poder;
                 this.numUso--;
             }
+            usuariosComDemanda.atualizar(this);
+            usuariosPorExcesso.atualizar(this);
         }
 
         public Double GetCota() {
@@ -400,9 +440,12 @@ public class OSEP extends Escalonador {
     private class ControleEscravos {
 
         private int contador;
+        private final int indice;
+        private String usuarioPreempcao;//Chave do escravo em escravosPreempcao
 
-        public ControleEscravos() {
+        public ControleEscravos(int indice) {
             this.contador = 0;
+            this.indice = indice;
         }
 
         public boolean Ocupado() {
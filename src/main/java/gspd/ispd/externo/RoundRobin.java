@@ -6,6 +6,7 @@
 package gspd.ispd.externo;
 
 import gspd.ispd.escalonador.Escalonador;
+import gspd.ispd.escalonador.FilaFIFO;
 import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.CentroServico;
@@ -24,7 +25,7 @@ public class RoundRobin extends Escalonador{
     private ListIterator<CS_Processamento> recursos;
     
     public RoundRobin(){
-        this.tarefas = new ArrayList<Tarefa>();
+        this.tarefas = new FilaFIFO<Tarefa>();
         this.escravos = new LinkedList<CS_Processamento>();
     }
 
@@ -59,7 +60,7 @@ public class RoundRobin extends Escalonador{
 
     @Override
     public List<CentroServico> escalonarRota(CentroServico destino) {
-        int index = escravos.indexOf(destino);
+        int index = getIndiceEscravo(destino);
         return new ArrayList<CentroServico>((List<CentroServico>) caminhoEscravo.get(index));
     }
 }
@@ -5,6 +5,7 @@
 package gspd.ispd.externo;
 
 import gspd.ispd.escalonador.Escalonador;
+import gspd.ispd.escalonador.FilaFIFO;
 import gspd.ispd.motor.Mensagens;
 import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
@@ -25,7 +26,7 @@ public class WQR extends Escalonador {
     private int cont;
     
     public WQR() {
-        this.tarefas = new ArrayList<Tarefa>();
+        this.tarefas = new FilaFIFO<Tarefa>();
         this.escravos = new ArrayList<CS_Processamento>();
         this.ultimaTarefaConcluida = null;
         this.servidoresOcupados = 0;
@@ -86,7 +87,7 @@ public class WQR extends Escalonador {
 
     @Override
     public List<CentroServico> escalonarRota(CentroServico destino) {
-        int index = escravos.indexOf(destino);
+        int index = getIndiceEscravo(destino);
         return new ArrayList<CentroServico>((List<CentroServico>) caminhoEscravo.get(index));
     }
 
@@ -97,12 +98,12 @@ public class WQR extends Escalonador {
         if(rec != null){
             Tarefa trf = escalonarTarefa();
             if(trf != null){
-                if(tarefaEnviada.get(escravos.indexOf(rec)) != null){
-                    mestre.enviarMensagem(tarefaEnviada.get(escravos.indexOf(rec)), rec, Mensagens.CANCELAR);
+                if(tarefaEnviada.get(getIndiceEscravo(rec)) != null){
+                    mestre.enviarMensagem(tarefaEnviada.get(getIndiceEscravo(rec)), rec, Mensagens.CANCELAR);
                 }else{
                     servidoresOcupados++;
                 }
-                tarefaEnviada.set(escravos.indexOf(rec), trf);
+                tarefaEnviada.set(getIndiceEscravo(rec), trf);
                 ultimaTarefaConcluida = null;
                 trf.setLocalProcessamento(rec);
                 trf.setCaminho(escalonarRota(rec));
@@ -5,12 +5,17 @@
 package gspd.ispd.externo;
 
 import gspd.ispd.escalonador.Escalonador;
+import gspd.ispd.escalonador.FilaFIFO;
+import gspd.ispd.escalonador.HeapIndexado;
 import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.CentroServico;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementação do algoritmo de escalonamento Workqueue
@@ -22,9 +27,17 @@ public class Workqueue extends Escalonador {
 
     private LinkedList<Tarefa> ultimaTarefaConcluida;
     private List<Tarefa> tarefaEnviada;
+    /**
+     * Posição em tarefaEnviada de cada tarefa enviada, no lugar de indexOf
+     */
+    private Map<Tarefa, Integer> indiceEnviada;
+    /**
+     * Escravos sem tarefa enviada, do menor para o maior índice
+     */
+    private HeapIndexado<CS_Processamento> escravosLivres;
 
     public Workqueue() {
-        this.tarefas = new ArrayList<Tarefa>();
+        this.tarefas = new FilaFIFO<Tarefa>();
         this.escravos = new ArrayList<CS_Processamento>();
         this.ultimaTarefaConcluida = new LinkedList<Tarefa>();
     }
@@ -32,8 +45,16 @@ public class Workqueue extends Escalonador {
     @Override
     public void iniciar() {
         tarefaEnviada = new ArrayList<Tarefa>(escravos.size());
+        indiceEnviada = new IdentityHashMap<Tarefa, Integer>();
+        escravosLivres = new HeapIndexado<CS_Processamento>(new Comparator<CS_Processamento>() {
+            @Override
+            public int compare(CS_Processamento o1, CS_Processamento o2) {
+                return Integer.compare(getIndiceEscravo(o1), getIndiceEscravo(o2));
+            }
+        });
         for (int i = 0; i < escravos.size(); i++) {
             tarefaEnviada.add(null);
+            escravosLivres.add(escravos.get(i));
         }
     }
 
@@ -48,21 +69,16 @@ public class Workqueue extends Escalonador {
     @Override
     public CS_Processamento escalonarRecurso() {
         if (!ultimaTarefaConcluida.isEmpty() && !ultimaTarefaConcluida.getLast().isCopy()) {
-            int index = tarefaEnviada.indexOf(ultimaTarefaConcluida.getLast());
+            int index = indiceEnviada.get(ultimaTarefaConcluida.getLast());
             return this.escravos.get(index);
         } else {
-            for (int i = 0; i < tarefaEnviada.size(); i++) {
-                if (tarefaEnviada.get(i) == null) {
-                    return this.escravos.get(i);
-                }
-            }
+            return escravosLivres.peek();
         }
-        return null;
     }
 
     @Override
     public List<CentroServico> escalonarRota(CentroServico destino) {
-        int index = escravos.indexOf(destino);
+        int index = getIndiceEscravo(destino);
         return new ArrayList<CentroServico>((List<CentroServico>) caminhoEscravo.get(index));
     }
 
@@ -72,7 +88,13 @@ public class Workqueue extends Escalonador {
         if (rec != null) {
             Tarefa trf = escalonarTarefa();
             if (trf != null) {
-                tarefaEnviada.set(escravos.indexOf(rec), trf);
+                int index = getIndiceEscravo(rec);
+                Tarefa anterior = tarefaEnviada.set(index, trf);
+                if (anterior != null) {
+                    indiceEnviada.remove(anterior);
+                }
+                indiceEnviada.put(trf, index);
+                escravosLivres.remove(rec);
                 if(!ultimaTarefaConcluida.isEmpty()){
                     ultimaTarefaConcluida.removeLast();
                 }
@@ -86,9 +108,10 @@ public class Workqueue extends Escalonador {
     @Override
     public void adicionarTarefa(Tarefa tarefa){
         super.adicionarTarefa(tarefa);
-        if(tarefaEnviada.contains(tarefa)){
-            int index = tarefaEnviada.indexOf(tarefa);
+        Integer index = indiceEnviada.remove(tarefa);
+        if(index != null){
             tarefaEnviada.set(index, null);
+            escravosLivres.add(escravos.get(index));
             mestre.executarEscalonamento();
         }
     }
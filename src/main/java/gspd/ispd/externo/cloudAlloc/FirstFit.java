@@ -8,21 +8,18 @@ package gspd.ispd.externo.cloudAlloc;
 import gspd.ispd.alocacaoVM.Alocacao;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.CentroServico;
-import gspd.ispd.motor.filas.servidores.implementacao.CS_MaquinaCloud;
-import gspd.ispd.motor.filas.servidores.implementacao.CS_VMM;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_VirtualMac;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * Cada VM vai para a primeira máquina física da lista em que cabe, procurada
+ * no índice de capacidade
  *
  * @author Diogo Tavares
  */
 public class FirstFit extends Alocacao {
 
-    private boolean fit;
-    private int maqIndex;
-
     public FirstFit() {
         this.maquinasVirtuais = new ArrayList<CS_VirtualMac>();
         this.maquinasFisicas = new ArrayList<CS_Processamento>();
@@ -32,9 +29,6 @@ public class FirstFit extends Alocacao {
 
     @Override
     public void iniciar() {
-        fit = true;
-        maqIndex = 0;
-
         if (!maquinasFisicas.isEmpty() && !maquinasVirtuais.isEmpty()) {
             escalonar();
         }
@@ -45,84 +39,36 @@ public class FirstFit extends Alocacao {
         return maquinasVirtuais.remove(0);
     }
 
+    /**
+     * @return máquina da próxima VM, ou null se ela não cabe em nenhuma
+     */
     @Override
     public CS_Processamento escalonarRecurso() {
-        if (fit) {
-            return maquinasFisicas.get(0);
-        } else {
-            return maquinasFisicas.get(maqIndex);
+        if (maquinasVirtuais.isEmpty()) {
+            return null;
         }
+        int indice = getIndiceCapacidade().primeiroQueCabe(maquinasVirtuais.get(0), 0);
+        return indice == -1 ? null : maquinasFisicas.get(indice);
     }
 
     @Override
     public List<CentroServico> escalonarRota(CentroServico destino) {
-        int index = maquinasFisicas.indexOf(destino);
+        int index = getIndiceMaquina(destino);
         return new ArrayList<CentroServico>((List<CentroServico>) caminhoMaquina.get(index));
     }
 
     @Override
     public void escalonar() {
-
-        while (!(maquinasVirtuais.isEmpty())) {
-            int num_escravos;
-            num_escravos = maquinasFisicas.size();
-
-            CS_VirtualMac auxVM = escalonarVM();
-
-            while (num_escravos >= 0) {
-                if (num_escravos > 0) { //caso existam máquinas livres
-                    CS_Processamento auxMaq = escalonarRecurso(); //escalona o recurso
-                    maqIndex++;
-
-                    if (auxMaq instanceof CS_VMM) {
-
-                        System.out.println(auxMaq.getId() + " é um VMM, a VM será redirecionada");
-                        auxVM.setCaminho(escalonarRota(auxMaq));
-                        //salvando uma lista de VMMs intermediarios no caminho da vm e seus respectivos caminhos
-                        //CS_VMM maq = (CS_VMM) auxMaq;
-                        //auxVM.addIntermediario(maq);
-                        //List<CS_VMM> inter = auxVM.getVMMsIntermediarios();
-                        //int index = inter.indexOf((CS_VMM) auxMaq);
-                        //ArrayList<CentroServico> caminhoInter = new ArrayList<CentroServico>(escalonarRota(auxMaq));
-                        //auxVM.addCaminhoIntermediario(index, caminhoInter);
-                        System.out.println(auxVM.getId() + " enviada para " + auxMaq.getId());
-                        VMM.enviarVM(auxVM);
-                        System.out.println("---------------------------------------");
-                        break;
-                    } else {
-                        CS_MaquinaCloud maq = (CS_MaquinaCloud) auxMaq;
-                        double memoriaMaq = maq.getMemoriaDisponivel();
-                        double memoriaNecessaria = auxVM.getMemoriaDisponivel();
-                        double discoMaq = maq.getDiscoDisponivel();
-                        double discoNecessario = auxVM.getDiscoDisponivel();
-                        int maqProc = maq.getProcessadoresDisponiveis();
-                        int procVM = auxVM.getProcessadoresDisponiveis();
-
-                        if ((memoriaNecessaria <= memoriaMaq && discoNecessario <= discoMaq && procVM <= maqProc)) {
-                            maq.setMemoriaDisponivel(memoriaMaq - memoriaNecessaria);
-                            maq.setDiscoDisponivel(discoMaq - discoNecessario);
-                            maq.setProcessadoresDisponiveis(maqProc - procVM);
-                            auxVM.setMaquinaHospedeira((CS_MaquinaCloud) auxMaq);
-                            auxVM.setCaminho(escalonarRota(auxMaq));
-                            VMM.enviarVM(auxVM);
-                            maqIndex = 0;
-                            fit = true;
-                            break;
-                        } else {
-                            num_escravos--;
-                            fit = false;
-                        }
-                    }
-                } else {
-                    auxVM.setStatus(CS_VirtualMac.REJEITADA);
-                    VMsRejeitadas.add(auxVM);
-                    maqIndex = 0;
-                    num_escravos--;
-                }
-
+        List<CS_VirtualMac> pendentes = new ArrayList<CS_VirtualMac>(maquinasVirtuais);
+        maquinasVirtuais.clear();
+        for (CS_VirtualMac auxVM : pendentes) {
+            int indice = getIndiceCapacidade().primeiroQueCabe(auxVM, 0);
+            if (indice == -1) {
+                rejeitarVM(auxVM);
+            } else {
+                alocarVM(auxVM, indice);
             }
         }
-
     }
 
     @Override
@@ -8,48 +8,34 @@ package gspd.ispd.externo.cloudAlloc;
 import gspd.ispd.alocacaoVM.Alocacao;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.CentroServico;
-import gspd.ispd.motor.filas.servidores.implementacao.CS_MaquinaCloud;
-import gspd.ispd.motor.filas.servidores.implementacao.CS_VMM;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_VirtualMac;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 
 /**
+ * Cada VM vai para a primeira máquina física em que cabe a partir da máquina
+ * seguinte à última usada, voltando ao início da lista
  *
  * @author Diogo Tavares
  */
 public class RoundRobin extends Alocacao {
 
-    private ListIterator<CS_Processamento> maqFisica;
-   
+    /**
+     * Posição em que começa a procura pela máquina da próxima VM
+     */
+    private int proximaMaquina;
+
 
     public RoundRobin() {
-        
         this.maquinasVirtuais = new ArrayList<CS_VirtualMac>();
-        this.maquinasFisicas = new LinkedList<CS_Processamento>();
+        this.maquinasFisicas = new ArrayList<CS_Processamento>();
         this.VMsRejeitadas = new ArrayList<CS_VirtualMac>();
     }
 
     @Override
     public void iniciar() {
-         System.out.println("---------------------------------------");
-        System.out.println("Alocador RR iniciado");
-
-        //trecho de teste.. excluir depois
-        if (maquinasVirtuais.isEmpty()) {
-            System.out.println("sem vms setadas");
-        }
-        System.out.println("Lista de VMs");
-        for (CS_VirtualMac aux : maquinasVirtuais) {
-            System.out.println(aux.getId());
-        }
-
-        //fim do trecho de teste
-        maqFisica = maquinasFisicas.listIterator(0);
-        if (!maquinasVirtuais.isEmpty()) {
-
+        proximaMaquina = 0;
+        if (!maquinasFisicas.isEmpty() && !maquinasVirtuais.isEmpty()) {
             escalonar();
         }
     }
@@ -59,102 +45,46 @@ public class RoundRobin extends Alocacao {
         return maquinasVirtuais.remove(0);
     }
 
+    /**
+     * @return máquina da próxima VM, ou null se ela não cabe em nenhuma
+     */
     @Override
     public CS_Processamento escalonarRecurso() {
-        if (maqFisica.hasNext()) {
-            return maqFisica.next();
-        } else {
-            maqFisica = maquinasFisicas.listIterator(0);
-            return maqFisica.next();
+        if (maquinasVirtuais.isEmpty()) {
+            return null;
         }
+        int indice = escolherMaquina(maquinasVirtuais.get(0));
+        return indice == -1 ? null : maquinasFisicas.get(indice);
     }
 
     @Override
     public List<CentroServico> escalonarRota(CentroServico destino) {
-        //System.out.println("Escalonando rota da vm para hospedeiro");
-        int index = maquinasFisicas.indexOf(destino);
-        //System.out.println("indice da maquina é:" + index);
+        int index = getIndiceMaquina(destino);
         return new ArrayList<CentroServico>((List<CentroServico>) caminhoMaquina.get(index));
     }
 
     @Override
     public void escalonar() {
-        
-
-        while (!(maquinasVirtuais.isEmpty())) {
-            System.out.println("------------------------------------------");
-            int num_escravos;
-            num_escravos = maquinasFisicas.size();
-            
-
-            CS_VirtualMac auxVM = escalonarVM();
-
-            while (num_escravos >= 0) {
-                if (num_escravos > 0) {//caso existam máquinas livres
-                    CS_Processamento auxMaq = escalonarRecurso(); //escalona o recurso
-                    if (auxMaq instanceof CS_VMM) {
-                        
-                        System.out.println(auxMaq.getId() + " é um VMM, a VM será redirecionada");
-                        auxVM.setCaminho(escalonarRota(auxMaq));
-                        //salvando uma lista de VMMs intermediarios no caminho da vm e seus respectivos caminhos
-                        //CS_VMM maq = (CS_VMM) auxMaq;
-                        //auxVM.addIntermediario(maq);
-                        //List<CS_VMM> inter = auxVM.getVMMsIntermediarios();
-                        //int index = inter.indexOf((CS_VMM) auxMaq);
-                        //ArrayList<CentroServico> caminhoInter = new ArrayList<CentroServico>(escalonarRota(auxMaq));
-                        //auxVM.addCaminhoIntermediario(index, caminhoInter);
-                        System.out.println( auxVM.getId() + " enviada para " + auxMaq.getId());
-                        VMM.enviarVM(auxVM);
-                        System.out.println("---------------------------------------");
-                        break;
-                    } else {
-                        System.out.println("Checagem de recursos:");
-                        CS_MaquinaCloud maq = (CS_MaquinaCloud) auxMaq;
-                        double memoriaMaq = maq.getMemoriaDisponivel();
-                        System.out.println("memoriaMaq: " + memoriaMaq);
-                        double memoriaNecessaria = auxVM.getMemoriaDisponivel();
-                        System.out.println("memorianecessaria: " + memoriaNecessaria);
-                        double discoMaq = maq.getDiscoDisponivel();
-                        System.out.println("discoMaq: " + discoMaq);
-                        double discoNecessario = auxVM.getDiscoDisponivel();
-                        System.out.println("disconecessario: " + discoNecessario);
-                        int maqProc = maq.getProcessadoresDisponiveis();
-                        System.out.println("ProcMaq: " + maqProc);
-                        int procVM = auxVM.getProcessadoresDisponiveis();
-                        System.out.println("ProcVM: " + procVM);
-                        //System.out.println("---------------------------------------");
-
-                        if ((memoriaNecessaria <= memoriaMaq && discoNecessario <= discoMaq && procVM <= maqProc)) {
-                            maq.setMemoriaDisponivel(memoriaMaq - memoriaNecessaria);
-                             System.out.println("Realizando o controle de recurso:");
-                            System.out.println("memoria atual da maq: " + (memoriaMaq - memoriaNecessaria));
-                            maq.setDiscoDisponivel(discoMaq - discoNecessario);
-                            System.out.println("disco atual maq: " + (discoMaq - discoNecessario));
-                            maq.setProcessadoresDisponiveis(maqProc - procVM);
-                            System.out.println("proc atual: " + (maqProc - procVM));
-                            auxVM.setMaquinaHospedeira((CS_MaquinaCloud) auxMaq);
-                            auxVM.setCaminho(escalonarRota(auxMaq));
-                            System.out.println( auxVM.getId() + " enviada para " + auxMaq.getId());
-                            VMM.enviarVM(auxVM);
-                             System.out.println("---------------------------------------");
-
-                            break;
-
-                        } else {
-                            num_escravos--;
-                        }
-                    }
-                } else {
-                    System.out.println(auxVM.getId() + " foi rejeitada");
-                    auxVM.setStatus(CS_VirtualMac.REJEITADA);
-                    VMsRejeitadas.add(auxVM);
-                    System.out.println("Adicionada na lista de rejeitadas");
-                    num_escravos--;
-                     System.out.println("---------------------------------------");
-                }
+        List<CS_VirtualMac> pendentes = new ArrayList<CS_VirtualMac>(maquinasVirtuais);
+        maquinasVirtuais.clear();
+        for (CS_VirtualMac auxVM : pendentes) {
+            int indice = escolherMaquina(auxVM);
+            if (indice == -1) {
+                rejeitarVM(auxVM);
+            } else {
+                proximaMaquina = (indice + 1) % maquinasFisicas.size();
+                alocarVM(auxVM, indice);
             }
         }
+    }
 
+    private int escolherMaquina(CS_VirtualMac vm) {
+        int indice = getIndiceCapacidade().primeiroQueCabe(vm, proximaMaquina);
+        if (indice == -1) {
+            //nenhuma cabe até o fim da lista: recomeça do início
+            indice = getIndiceCapacidade().primeiroQueCabe(vm, 0);
+        }
+        return indice;
     }
 
     @Override
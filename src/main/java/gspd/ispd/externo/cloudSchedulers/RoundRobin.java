@@ -5,6 +5,7 @@
 
 package gspd.ispd.externo.cloudSchedulers;
 
+import gspd.ispd.escalonador.FilaFIFO;
 import gspd.ispd.escalonadorCloud.EscalonadorCloud;
 import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
@@ -27,7 +28,7 @@ public class RoundRobin extends EscalonadorCloud{
     private String usuario;
     
     public RoundRobin(){
-        this.tarefas = new ArrayList<Tarefa>();
+        this.tarefas = new FilaFIFO<Tarefa>();
         this.escravos = new LinkedList<CS_Processamento>();
         
     }
@@ -78,7 +79,7 @@ public class RoundRobin extends EscalonadorCloud{
     @Override
     public List<CentroServico> escalonarRota(CentroServico destino) {
         CS_VirtualMac auxVM = (CS_VirtualMac) destino;
-        int index = escravos.indexOf(auxVM);
+        int index = getIndiceEscravo(auxVM);
         
         System.out.println("traçando rota para a VM: "+ auxVM.getId());
         return new ArrayList<CentroServico>((List<CentroServico>) caminhoEscravo.get(index));
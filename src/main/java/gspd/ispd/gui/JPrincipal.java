@@ -433,6 +433,7 @@ public class JPrincipal extends javax.swing.JFrame implements KeyListener {
         jMenuItemGerar = new javax.swing.JMenuItem();
         jMenuItemGerenciarCloud = new javax.swing.JMenuItem();
         jMenuItemGerenciarAllocation = new javax.swing.JMenuItem();
+        jCheckBoxMenuItemParalelo = new javax.swing.JCheckBoxMenuItem();
         jMenuAjuda = new javax.swing.JMenu();
         jMenuItemAjuda = new javax.swing.JMenuItem();
         javax.swing.JPopupMenu.Separator jSeparator3 = new javax.swing.JPopupMenu.Separator();
@@ -916,6 +917,10 @@ public class JPrincipal extends javax.swing.JFrame implements KeyListener {
             });
             jMenuFerramentas.add(jMenuItemGerenciarAllocation);
 
+            jCheckBoxMenuItemParalelo.setText("Parallel IaaS Simulation");
+            jCheckBoxMenuItemParalelo.setToolTipText("Simulates each VMM of IaaS models in its own thread. Simultaneous events from different VMMs may be handled in another order than in the sequential simulation");
+            jMenuFerramentas.add(jCheckBoxMenuItemParalelo);
+
             jMenuBar.add(jMenuFerramentas);
 
             jMenuAjuda.setText(palavras.getString("Help")); // NOI18N
@@ -1108,6 +1113,7 @@ public class JPrincipal extends javax.swing.JFrame implements KeyListener {
     private void jButtonSimularActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButtonSimularActionPerformed
         // TODO add your handling code here:
         JSimulacao janelaSimulacao = new JSimulacao(this, true, aDesenho.getGrade(), aDesenho.toString(), palavras, tipoModelo);
+        janelaSimulacao.setParalelo(jCheckBoxMenuItemParalelo.isSelected());
         janelaSimulacao.iniciarSimulacao();
         janelaSimulacao.setLocationRelativeTo(this);
         janelaSimulacao.setVisible(true);
@@ -1762,6 +1768,7 @@ public class JPrincipal extends javax.swing.JFrame implements KeyListener {
     private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemConectado;
     private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemEscalonavel;
     private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemGrade;
+    private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemParalelo;
     private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemIndireto;
     private javax.swing.JCheckBoxMenuItem jCheckBoxMenuItemRegua;
     private javax.swing.JFileChooser jFileChooser;
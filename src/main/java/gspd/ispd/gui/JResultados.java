@@ -22,6 +22,7 @@ import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_Mestre;
 import gspd.ispd.motor.metricas.Metricas;
 import gspd.ispd.motor.metricas.MetricasComunicacao;
+import gspd.ispd.motor.metricas.MetricasDAG;
 import gspd.ispd.motor.metricas.MetricasGlobais;
 import gspd.ispd.motor.metricas.MetricasProcessamento;
 import gspd.ispd.motor.metricas.MetricasUsuarios;
@@ -36,7 +37,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
@@ -628,6 +628,14 @@ public class JResultados extends javax.swing.JDialog {
             texto += String.format("    Number: %d \n", metrica.getNumTarefasCanceladas());
             texto += String.format("    Wasted Processing: %g Mflops", metrica.getMflopsDesperdicio());
         }
+        if (!metrica.getMetricasDAG().isEmpty()) {
+            texto += "\n DAG Applications \n";
+            for (MetricasDAG item : metrica.getMetricasDAG().values()) {
+                texto += String.format("    %s: %d instances, %d tasks\n", item.getAplicacao(), item.getInstancias(), item.getTarefas());
+                texto += String.format("        Makespan average: %g seconds.\n", item.getMakespanMedio());
+                texto += String.format("        Scheduling throughput: %g decisions/s.\n", item.getDecisoesPorSegundo());
+            }
+        }
         return texto;
     }
 
@@ -946,25 +954,16 @@ public class JResultados extends javax.swing.JDialog {
             for (int i = 0; i < metricasUsuarios.getUsuarios().size(); i++) {
                 String userName = metricasUsuarios.getUsuarios().get(i);
                 texto += "\n\n\t\tUser " + userName + "\n";
-                HashSet set = metricasUsuarios.getTarefasConcluidas(userName);
-                texto += "\nNumber of task: " + set.size() + "\n";
+                int numTarefas = metricasUsuarios.getSizeTarefasConcluidas(userName);
+                texto += "\nNumber of task: " + numTarefas + "\n";
                 //Applications:
                 //Name: Number of task: Mflops:
-                double tempoMedioFilaComunicacao = 0;
-                double tempoMedioComunicacao = 0;
+                double tempoMedioFilaComunicacao = metricasUsuarios.getTempoEsperaComunicacao(userName);
+                double tempoMedioComunicacao = metricasUsuarios.getTempoComunicacao(userName);
                 double tempoMedioSistemaComunicacao;
-                double tempoMedioFilaProcessamento = 0;
-                double tempoMedioProcessamento = 0;
+                double tempoMedioFilaProcessamento = metricasUsuarios.getTempoEsperaProcessamento(userName);
+                double tempoMedioProcessamento = metricasUsuarios.getTempoProcessamento(userName);
                 double tempoMedioSistemaProcessamento;
-                int numTarefasCanceladas = 0;
-                int numTarefas = 0;
-                for (Tarefa no : metricasUsuarios.getTarefasConcluidas(userName)) {
-                    tempoMedioFilaComunicacao += no.getMetricas().getTempoEsperaComu();
-                    tempoMedioComunicacao += no.getMetricas().getTempoComunicacao();
-                    tempoMedioFilaProcessamento = no.getMetricas().getTempoEsperaProc();
-                    tempoMedioProcessamento = no.getMetricas().getTempoProcessamento();
-                    numTarefas++;
-                }
                 tempoMedioFilaComunicacao = tempoMedioFilaComunicacao / numTarefas;
                 tempoMedioComunicacao = tempoMedioComunicacao / numTarefas;
                 tempoMedioFilaProcessamento = tempoMedioFilaProcessamento / numTarefas;
@@ -38,7 +38,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
@@ -1081,25 +1080,16 @@ public class JResultadosCloud extends javax.swing.JDialog {
             for (int i = 0; i < metricasUsuarios.getUsuarios().size(); i++) {
                 String userName = metricasUsuarios.getUsuarios().get(i);
                 texto += "\n\n\t\tUser " + userName + "\n";
-                HashSet set = metricasUsuarios.getTarefasConcluidas(userName);
-                texto += "\nNumber of task: " + set.size() + "\n";
+                int numTarefas = metricasUsuarios.getSizeTarefasConcluidas(userName);
+                texto += "\nNumber of task: " + numTarefas + "\n";
                 //Applications:
                 //Name: Number of task: Mflops:
-                double tempoMedioFilaComunicacao = 0;
-                double tempoMedioComunicacao = 0;
+                double tempoMedioFilaComunicacao = metricasUsuarios.getTempoEsperaComunicacao(userName);
+                double tempoMedioComunicacao = metricasUsuarios.getTempoComunicacao(userName);
                 double tempoMedioSistemaComunicacao;
-                double tempoMedioFilaProcessamento = 0;
-                double tempoMedioProcessamento = 0;
+                double tempoMedioFilaProcessamento = metricasUsuarios.getTempoEsperaProcessamento(userName);
+                double tempoMedioProcessamento = metricasUsuarios.getTempoProcessamento(userName);
                 double tempoMedioSistemaProcessamento;
-                int numTarefasCanceladas = 0;
-                int numTarefas = 0;
-                for (Tarefa no : metricasUsuarios.getTarefasConcluidas(userName)) {
-                    tempoMedioFilaComunicacao += no.getMetricas().getTempoEsperaComu();
-                    tempoMedioComunicacao += no.getMetricas().getTempoComunicacao();
-                    tempoMedioFilaProcessamento = no.getMetricas().getTempoEsperaProc();
-                    tempoMedioProcessamento = no.getMetricas().getTempoProcessamento();
-                    numTarefas++;
-                }
                 tempoMedioFilaComunicacao = tempoMedioFilaComunicacao / numTarefas;
                 tempoMedioComunicacao = tempoMedioComunicacao / numTarefas;
                 tempoMedioFilaProcessamento = tempoMedioFilaProcessamento / numTarefas;
@@ -4,7 +4,9 @@ import gspd.ispd.arquivo.xml.IconicoXML;
 import gspd.ispd.motor.SimulationProgress;
 import gspd.ispd.motor.Simulation;
 import gspd.ispd.motor.SequentialSimulation;
+import gspd.ispd.motor.SimulacaoParalelaCloud;
 import gspd.ispd.motor.SimulacaoSequencialCloud;
+import gspd.ispd.motor.carga.GerarCarga;
 import gspd.ispd.motor.filas.RedeDeFilas;
 import gspd.ispd.motor.filas.RedeDeFilasCloud;
 import gspd.ispd.motor.filas.Tarefa;
@@ -44,6 +46,7 @@ public class JSimulacao extends javax.swing.JDialog implements Runnable {
     private double porcentagem = 0; //% da execução da simulação
     private SimulationProgress progrSim;
     private int tipoModelo; //define se o modelo simulado é de grid, cloud iaas ou cloud paas (de acordo com {@link EscolherClasse})
+    private boolean paralelo; //simula cada VMM de modelos IaaS em uma thread
 
     /**
      * Creates new form AguardaSimulacao
@@ -114,6 +117,16 @@ public class JSimulacao extends javax.swing.JDialog implements Runnable {
         this.tarefas = tarefas;
     }
 
+    /**
+     * Define se modelos IaaS com mais de um VMM são simulados pelo motor
+     * paralelo. Eventos simultâneos de VMMs diferentes podem ser tratados em
+     * outra ordem que no motor sequencial, por isso o motor paralelo só é
+     * usado quando pedido.
+     */
+    public void setParalelo(boolean paralelo) {
+        this.paralelo = paralelo;
+    }
+
     public List<Tarefa> getTarefas() {
         return tarefas;
     }
@@ -159,11 +172,21 @@ public class JSimulacao extends javax.swing.JDialog implements Runnable {
                 progrSim.print("Creating tasks.");
                 progrSim.print(" -> ");
                 // this.tarefas = IconicoXML.newGerarCarga(modelo).toTarefaList(redeDeFilas);
-                this.tarefas = IconicoXML.getWorkloadGenerator(modelo).generateTaskList();
+                GerarCarga carga = IconicoXML.newGerarCarga(modelo);
+                boolean sobDemanda = carga != null && carga.getTipo() == GerarCarga.TRACE;
+                if (!sobDemanda) {
+                    this.tarefas = IconicoXML.getWorkloadGenerator(modelo).generateTaskList();
+                }
                 incProgresso(10);//[10%] --> 45%
                 progrSim.println("OK", Color.green);
-                //Verifica recursos do modelo e define roteamento
-                Simulation sim = new SequentialSimulation(progrSim, redeDeFilas, tarefas);//[10%] --> 55 %
+                //Verifica recursos do modelo e define roteamento; traces são
+                //lidos durante a simulação, sem carregar todas as tarefas
+                Simulation sim;
+                if (sobDemanda) {
+                    sim = new SequentialSimulation(progrSim, redeDeFilas, carga);//[10%] --> 55 %
+                } else {
+                    sim = new SequentialSimulation(progrSim, redeDeFilas, tarefas);//[10%] --> 55 %
+                }
                 //Realiza asimulação
                 progrSim.println("Simulating.");
                 //recebe instante de tempo em milissegundos ao iniciar a simulação
@@ -177,6 +200,10 @@ public class JSimulacao extends javax.swing.JDialog implements Runnable {
                 double tempototal = (t2 - t1) / 1000;
                 //Obter Resultados
                 Metricas metrica = sim.getMetricas();
+                if (sobDemanda) {
+                    //as tarefas finalizadas já foram contabilizadas e descartadas
+                    this.tarefas = sim.getTarefas();
+                }
                 //[5%] --> 90%
                 //Apresentar resultados
                 progrSim.print("Showing results.");
@@ -201,8 +228,15 @@ public class JSimulacao extends javax.swing.JDialog implements Runnable {
                 this.tarefas = generator.generateTaskList();
                 incProgresso(10);//[10%] --> 45%
                 progrSim.println("OK", Color.green);
-                //Verifica recursos do modelo e define roteamento
-                Simulation sim = new SimulacaoSequencialCloud(progrSim, redeDeFilasCloud, tarefas);//[10%] --> 55 %
+                //Verifica recursos do modelo e define roteamento; se pedido, com mais
+                //de um VMM cada um simula o seu domínio em paralelo
+                int nucleos = Runtime.getRuntime().availableProcessors();
+                Simulation sim;
+                if (paralelo && nucleos > 1 && redeDeFilasCloud.getMestres().size() > 1) {
+                    sim = new SimulacaoParalelaCloud(progrSim, redeDeFilasCloud, tarefas, nucleos);//[10%] --> 55 %
+                } else {
+                    sim = new SimulacaoSequencialCloud(progrSim, redeDeFilasCloud, tarefas);//[10%] --> 55 %
+                }
                 //Realiza asimulação
                 progrSim.println("Simulating.");
                 //recebe instante de tempo em milissegundos ao iniciar a simulação
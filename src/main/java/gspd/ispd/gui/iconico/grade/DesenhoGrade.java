@@ -18,6 +18,7 @@ import gspd.ispd.motor.carga.CargaList;
 import gspd.ispd.motor.carga.CargaRandom;
 import gspd.ispd.motor.carga.CargaForNode;
 import gspd.ispd.motor.carga.CargaTrace;
+import gspd.ispd.motor.carga.CargaWorkload;
 import gspd.ispd.motor.carga.GerarCarga;
 import java.awt.Color;
 import java.awt.Cursor;
@@ -386,6 +387,9 @@ public class DesenhoGrade extends AreaDesenho {
                 case GerarCarga.TRACE:
                     saida.append(" TRACE\n").append(cargasConfiguracao.toString()).append("\n");
                     break;
+                case GerarCarga.WORKLOAD:
+                    saida.append(" WORKFLOW\n").append(cargasConfiguracao.toString()).append("\n");
+                    break;
             }
         }
         return saida.toString();
@@ -538,6 +542,11 @@ public class DesenhoGrade extends AreaDesenho {
             } else if (cargasConfiguracao.getTipo() == GerarCarga.TRACE) {
                 CargaTrace trace = (CargaTrace) cargasConfiguracao;
                 xml.setLoadTrace(trace.getFile().toString(), trace.getNumberTasks().toString(), trace.getTraceType().toString());
+            } else if (cargasConfiguracao.getTipo() == GerarCarga.WORKLOAD) {
+                CargaWorkload workload = (CargaWorkload) cargasConfiguracao;
+                if (workload.getDescricao() != null) {
+                    xml.addLoadWorkflows(workload.getDescricao());
+                }
             }
         }
         // configurar workload
@@ -1,5 +1,6 @@
 package gspd.ispd.model.data;
 
+import gspd.ispd.model.workload.TaskModel;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 
@@ -17,6 +18,7 @@ public class Job {
     private IntegerProperty state = new SimpleIntegerProperty();
     private IntegerProperty dependencies = new SimpleIntegerProperty();
     private List<Job> triggers;
+    private TaskModel model;
 
     public int getId() {
         return id.get();
@@ -53,4 +55,15 @@ public class Job {
     public void setDependencies(int dependencies) {
         this.dependencies.set(dependencies);
     }
+
+    /**
+     * The task model this job is an instance of
+     */
+    public TaskModel getModel() {
+        return model;
+    }
+
+    public void setModel(TaskModel model) {
+        this.model = model;
+    }
 }
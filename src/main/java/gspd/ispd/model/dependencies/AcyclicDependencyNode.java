@@ -1,24 +1,57 @@
 package gspd.ispd.model.dependencies;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Subclass of simple dependency. This class, besides garantees
  * that the dependency graph is simples, it also always check
  * for acyclicness to validate additions
- * 
+ * <p>
+ * Acyclicness is kept with the Pearce-Kelly incremental topological order:
+ * every node has an order, smaller than the order of its dependents. An
+ * addition that already follows the order is accepted right away. Otherwise
+ * only the nodes between the two orders are searched, forward from the new
+ * dependent and backward from the dependency, and reordered. The searches
+ * are iterative, so long chains do not overflow the stack.
+ *
  * @author luisbaldissera
  */
 public class AcyclicDependencyNode extends SimpleDependencyNode {
 
     /**
-     * Used in the algorithm for identifying cycles
+     * Initial order of new nodes, placing each one after all the existing
+     */
+    private static final AtomicInteger NEXT_ORDER = new AtomicInteger();
+    /**
+     * Identifies each search, so visited marks never need to be cleared
+     */
+    private static final AtomicInteger NEXT_SEARCH = new AtomicInteger();
+    private static final Comparator<AcyclicDependencyNode> BY_ORDER = new Comparator<AcyclicDependencyNode>() {
+        @Override
+        public int compare(AcyclicDependencyNode o1, AcyclicDependencyNode o2) {
+            return Integer.compare(o1.order, o2.order);
+        }
+    };
+
+    /**
+     * The nodes this depends on, used by the backward search
+     */
+    private final List<AcyclicDependencyNode> dependencies;
+    /**
+     * Position of this node in the topological order
      */
-    private boolean flag;
+    private int order;
     /**
-     * Used in the algorithm for identifying cycles, optmizing redundant
-     * verifications. This counter increases at each redundant verification, so does
-     * not need re-verifying.
+     * Last search that visited this node
      */
-    private int counter;
+    private int visited;
 
     /**
      * Acyclic dependency node constructor
@@ -26,8 +59,8 @@ public class AcyclicDependencyNode extends SimpleDependencyNode {
      */
     public AcyclicDependencyNode(Object reference) {
         super(reference);
-        flag = false;
-        counter = 0;
+        dependencies = new ArrayList<>();
+        order = NEXT_ORDER.getAndIncrement();
     }
 
     /**
@@ -37,109 +70,122 @@ public class AcyclicDependencyNode extends SimpleDependencyNode {
         this(null);
     }
 
+    @Override
+    public boolean addDependent(DependencyNode dependent) {
+        if (super.addDependent(dependent)) {
+            ((AcyclicDependencyNode) dependent).dependencies.add(this);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected void removeDependent(int index) {
+        AcyclicDependencyNode dependent = (AcyclicDependencyNode) dependents.get(index);
+        super.removeDependent(index);
+        dependent.dependencies.remove(this);
+    }
+
     @Override
     protected boolean validateNewDependency(DependencyNode dependencyNode) {
         return ((AcyclicDependencyNode) dependencyNode).validateNewDependent(this);
     }
 
+    /**
+     * Accepts the dependent if it does not close a cycle, reordering the
+     * affected nodes so the new dependent comes after this
+     */
     @Override
     protected boolean validateNewDependent(DependencyNode dependent) {
-        boolean valid = true;
         // chacks first if it is a simple dependency
-        if (super.validateNewDependent(dependent)) {
-            // then if it is, check is it has cycles
-            flagUp();
-            ((AcyclicDependencyNode) dependent).inCycle();
-            if (isFlagDown()) {
-                valid = false;
-            }
-            flagDown();
-        } else {
-            // if the graph is not simple, invalidate it
-            valid = false;
+        if (!super.validateNewDependent(dependent)) {
+            return false;
+        }
+        AcyclicDependencyNode node = (AcyclicDependencyNode) dependent;
+        if (order < node.order) {
+            // already in topological order
+            return true;
+        }
+        int search = NEXT_SEARCH.incrementAndGet();
+        List<AcyclicDependencyNode> forward = searchForward(node, search);
+        if (forward == null) {
+            // this is reachable from the dependent
+            return false;
         }
-        return valid;
+        List<AcyclicDependencyNode> backward = searchBackward(node.order, search);
+        reorder(backward, forward);
+        return true;
     }
 
-    private boolean inCycle() {
-        boolean cycleDetected = false;
-        if (isFlagUp()) {
-            // *** CYCLE FOUND ***
-            // found a cycle. Lies telling it does
-            // not found it and flag down to the lie be
-            // indentified later
-            flagDown();
-            // ATTEINTION: it's a lie
-            cycleDetected = false;
-        } else if (alreadyChecked()) {
-            // *** REDUNDANT VERIFICATION ***
-            // this node was already checked, and so it is
-            // not in a cycle.
-            incrementCounter();
-            cycleDetected = false;
-        } else if (isTheLast()) {
-            // *** LAST NODE ***
-            // this node is the last, then can't be part of
-            // a cycle
-            incrementCounter();
-            cycleDetected = false;
-        } else {
-            // *** MAY HAVE A CYCLE ***
-            // verification of the childs are needded.
-            // Flag up to denote it may be in a cycle
-            flagUp();
-            for (DependencyNode dependent : dependents) {
-                AcyclicDependencyNode aDependent = (AcyclicDependencyNode) dependent;
-                if (aDependent.inCycle()) {
-                    // *** CYCLE DETECTED IN DEPENDENT ***
-                    // if the dependent is in a cycle, then the
-                    // cycle was already detected
-                    cycleDetected = true;
-                    break;
+    /**
+     * Nodes reachable from start with order smaller than this
+     * @return the nodes, or null if this is reachable
+     */
+    private List<AcyclicDependencyNode> searchForward(AcyclicDependencyNode start, int search) {
+        List<AcyclicDependencyNode> found = new ArrayList<>();
+        Deque<AcyclicDependencyNode> stack = new ArrayDeque<>();
+        start.visited = search;
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            AcyclicDependencyNode node = stack.pop();
+            found.add(node);
+            for (DependencyNode dependent : node.dependents) {
+                AcyclicDependencyNode next = (AcyclicDependencyNode) dependent;
+                if (next == this) {
+                    return null;
+                }
+                if (next.visited != search && next.order < order) {
+                    next.visited = search;
+                    stack.push(next);
                 }
             }
-            if (isFlagDown()) {
-                // *** LIE DETECTED ***
-                // lie detected, there was a cycle here
-                cycleDetected = true;
-            } else {
-                incrementCounter();
-            }
-            flagDown();
         }
-        return cycleDetected;
-    }
-
-    private void flagUp() {
-        flag = true;
-    }
-
-    private void flagDown() {
-        flag = false;
-    }
-
-    private boolean isFlagUp() {
-        return flag;
-    }
-
-    private boolean isFlagDown() {
-        return !flag;
-    }
-
-    private void incrementCounter() {
-        if (dependenciesCount != 0)
-            counter = (counter + 1) % dependenciesCount;
-    }
-
-    private boolean alreadyChecked() {
-        return counter > 0;
+        return found;
     }
 
-    private boolean isTheLast() {
-        return dependents.size() == 0;
+    /**
+     * Nodes that reach this with order greater than lowerBound
+     */
+    private List<AcyclicDependencyNode> searchBackward(int lowerBound, int search) {
+        List<AcyclicDependencyNode> found = new ArrayList<>();
+        Deque<AcyclicDependencyNode> stack = new ArrayDeque<>();
+        visited = search;
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            AcyclicDependencyNode node = stack.pop();
+            found.add(node);
+            for (AcyclicDependencyNode previous : node.dependencies) {
+                if (previous.visited != search && previous.order > lowerBound) {
+                    previous.visited = search;
+                    stack.push(previous);
+                }
+            }
+        }
+        return found;
     }
 
-    private void resetCounter() {
-        counter = 0;
+    /**
+     * Reuses the orders of the affected nodes, placing the backward ones
+     * before the forward ones and keeping the relative order inside each
+     */
+    private static void reorder(List<AcyclicDependencyNode> backward, List<AcyclicDependencyNode> forward) {
+        Collections.sort(backward, BY_ORDER);
+        Collections.sort(forward, BY_ORDER);
+        int[] orders = new int[backward.size() + forward.size()];
+        int i = 0;
+        for (AcyclicDependencyNode node : backward) {
+            orders[i++] = node.order;
+        }
+        for (AcyclicDependencyNode node : forward) {
+            orders[i++] = node.order;
+        }
+        Arrays.sort(orders);
+        i = 0;
+        for (AcyclicDependencyNode node : backward) {
+            node.order = orders[i++];
+        }
+        for (AcyclicDependencyNode node : forward) {
+            node.order = orders[i++];
+        }
     }
 }
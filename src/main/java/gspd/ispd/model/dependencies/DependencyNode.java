@@ -83,17 +83,18 @@ public class DependencyNode {
      * @param dependent the dependent to remove
      */
     public void removeDependent(DependencyNode dependent) {
-        if (dependents.remove(dependent)) {
-            dependent.dependenciesCount--;
+        int index = dependents.indexOf(dependent);
+        if (index >= 0) {
+            removeDependent(index);
         }
-
     }
 
     /**
-     * Removes the dependent by index in the dependents list
+     * Removes the dependent by index in the dependents list. Every removal
+     * goes through here, so subclasses can keep their own links in sync.
      * @param index the index of the dependency to remove
      */
-    private void removeDependent(int index) {
+    protected void removeDependent(int index) {
         DependencyNode removed = dependents.remove(index);
         if (removed != null) {
             removed.dependenciesCount--;
@@ -104,7 +105,7 @@ public class DependencyNode {
      * Unlock all dependencies those depends on this
      */
     public void disconectDependents() {
-        for (int i = 0; i < dependents.size(); i++) {
+        for (int i = dependents.size() - 1; i >= 0; i--) {
             removeDependent(i);
         }
     }
@@ -2,38 +2,70 @@ package gspd.ispd.model.workload;
 
 import gspd.ispd.model.data.Job;
 
+/**
+ * Repeats the stream of the inside model a number of times, rewinding it at
+ * the end of each iteration
+ */
 public class IterativeExpansion extends Expansion {
 
+    private int iterations;
+
+    public IterativeExpansion(WorkloadModel wrappedModel, int iterations) {
+        super(wrappedModel);
+        this.iterations = iterations;
+    }
+
+    public IterativeExpansion() {
+        this(null, 1);
+    }
+
     public int getNumberOfIterations() {
-        return 0;
+        return iterations;
+    }
+
+    public void setNumberOfIterations(int iterations) {
+        this.iterations = iterations;
     }
 
     @Override
     public WorkloadModel expandModel() {
+        return expand(inside(), getNumberOfIterations());
+    }
+
+    private static WorkloadModel expand(final WorkloadModel inside, final int iterations) {
         return new WorkloadModel() {
-            private final int iterations = getNumberOfIterations();
             private int i = 1;
+            private boolean started;
 
             @Override
             public void rewind() {
-                inside().rewind();
+                started = true;
+                if (inside != null) {
+                    inside.rewind();
+                }
                 i = 1;
             }
 
             @Override
             public Job getNextTask() {
-                try {
-                    Job job = inside().getNextTask();
-                    if (job == null && i < iterations) {
-                        i++;
-                        inside().rewind();
-                        job = inside().getNextTask();
-                    }
-                    return job;
-                } catch (NullPointerException e) {
-                    // TODO: error, NULL POINTER EXCEPTION OCCURRED
+                if (inside == null || iterations < 1) {
                     return null;
                 }
+                if (!started) {
+                    rewind();
+                }
+                Job job = inside.getNextTask();
+                if (job == null && i < iterations) {
+                    i++;
+                    inside.rewind();
+                    job = inside.getNextTask();
+                }
+                return job;
+            }
+
+            @Override
+            protected WorkloadModel copyModel() {
+                return expand(inside == null ? null : inside.copy(), iterations);
             }
         };
     }
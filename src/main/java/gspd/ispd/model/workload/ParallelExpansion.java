@@ -2,39 +2,77 @@ package gspd.ispd.model.workload;
 
 import gspd.ispd.model.data.Job;
 
+/**
+ * Replicates each job of the inside model, producing the copies one after
+ * the other
+ */
 public class ParallelExpansion extends Expansion {
 
-    private int getNumberOfParallel() {
-        return 0;
+    private int parallels;
+
+    public ParallelExpansion(WorkloadModel wrappedModel, int parallels) {
+        super(wrappedModel);
+        this.parallels = parallels;
+    }
+
+    public ParallelExpansion() {
+        this(null, 1);
+    }
+
+    public int getNumberOfParallel() {
+        return parallels;
+    }
+
+    public void setNumberOfParallel(int parallels) {
+        this.parallels = parallels;
     }
 
     @Override
     public WorkloadModel expandModel() {
+        return expand(inside(), getNumberOfParallel());
+    }
+
+    private static WorkloadModel expand(final WorkloadModel inside, final int parallels) {
         return new WorkloadModel() {
 
-            private final int parallels = getNumberOfParallel();
             private int j = 0;
             private Job job;
+            private boolean started;
 
             @Override
             public Job getNextTask() {
-                try {
-                    if (j == 0) {
-                        job = inside().getNextTask();
-                    } else {
-                        j = (j + 1) % parallels;
-                    }
-                    return job;
-                } catch (NullPointerException e) {
-
+                if (inside == null || parallels < 1) {
                     return null;
                 }
+                if (!started) {
+                    rewind();
+                }
+                if (j == 0) {
+                    job = inside.getNextTask();
+                    if (job == null) {
+                        return null;
+                    }
+                }
+                j = (j + 1) % parallels;
+                // each copy is a distinct job of the same model
+                Job copy = new Job();
+                copy.setModel(job.getModel());
+                return copy;
             }
 
             @Override
             public void rewind() {
-                inside().rewind();
+                started = true;
+                if (inside != null) {
+                    inside.rewind();
+                }
                 j = 0;
+                job = null;
+            }
+
+            @Override
+            protected WorkloadModel copyModel() {
+                return expand(inside == null ? null : inside.copy(), parallels);
             }
         };
     }
@@ -2,23 +2,105 @@ package gspd.ispd.model.workload;
 
 import gspd.ispd.model.data.Job;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Expands the inside model into itself at each of its recursive points,
+ * until the recursive depth is reached.
+ *
+ * The expansion is streamed with a single cursor over the inside model: when
+ * a nested call ends, the cursor is rewound and moved to the position where
+ * the caller stopped. Only one position per level is kept, so the memory does
+ * not depend on the number of jobs produced.
+ */
 public class RecursiveExpansion extends Expansion {
 
-    private int getRecursiveDepth() {
-        return 0;
+    private int depth;
+
+    public RecursiveExpansion(WorkloadModel wrappedModel, int depth) {
+        super(wrappedModel);
+        this.depth = depth;
+    }
+
+    public RecursiveExpansion() {
+        this(null, 1);
+    }
+
+    /**
+     * @return the number of levels of the expansion, 1 meaning the inside
+     * model without any recursive call
+     */
+    public int getRecursiveDepth() {
+        return depth;
+    }
+
+    public void setRecursiveDepth(int depth) {
+        this.depth = depth;
     }
 
     @Override
     public WorkloadModel expandModel() {
+        return expand(inside(), getRecursiveDepth());
+    }
+
+    private static WorkloadModel expand(final WorkloadModel inside, final int depth) {
         return new WorkloadModel() {
+
+            /**
+             * For each open level: the jobs already produced and the next
+             * recursive point
+             */
+            private final Deque<int[]> levels = new ArrayDeque<>();
+            private boolean started;
+
             @Override
             public Job getNextTask() {
+                if (inside == null || depth < 1) {
+                    return null;
+                }
+                if (!started) {
+                    rewind();
+                }
+                List<RecursivePoint> points = inside.getRecursivePoints();
+                while (!levels.isEmpty()) {
+                    int[] level = levels.peek();
+                    if (levels.size() < depth && level[1] < points.size()
+                            && points.get(level[1]).getPosition() <= level[0]) {
+                        level[1]++;
+                        levels.push(new int[]{0, 0});
+                        inside.rewind();
+                        continue;
+                    }
+                    Job job = inside.getNextTask();
+                    if (job != null) {
+                        level[0]++;
+                        return job;
+                    }
+                    levels.pop();
+                    if (!levels.isEmpty()) {
+                        // back to the caller, where it stopped
+                        inside.rewind();
+                        inside.skip(levels.peek()[0]);
+                    }
+                }
                 return null;
             }
 
             @Override
             public void rewind() {
+                levels.clear();
+                if (inside != null) {
+                    inside.rewind();
+                }
+                levels.push(new int[]{0, 0});
+                started = true;
+            }
 
+            @Override
+            protected WorkloadModel copyModel() {
+                return expand(inside == null ? null : inside.copy(), depth);
             }
         };
     }
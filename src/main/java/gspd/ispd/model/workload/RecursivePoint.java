@@ -1,4 +1,20 @@
 package gspd.ispd.model.workload;
 
+/**
+ * A point in the stream of a model where the model calls itself
+ */
 public class RecursivePoint {
+
+    private final int position;
+
+    /**
+     * @param position number of jobs of the model produced before the call
+     */
+    public RecursivePoint(int position) {
+        this.position = position;
+    }
+
+    public int getPosition() {
+        return position;
+    }
 }
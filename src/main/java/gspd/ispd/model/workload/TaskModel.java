@@ -1,5 +1,80 @@
 package gspd.ispd.model.workload;
 
-public class TaskModel {
+import gspd.ispd.model.data.Job;
 
-}
\ No newline at end of file
+/**
+ * The leaf of the expansion tree: a single task, produced once per pass over
+ * the stream
+ */
+public class TaskModel extends WorkloadModel {
+
+    private String application;
+    private double processingSize;
+    private double sendFile;
+    private double receiveFile;
+    private boolean produced;
+
+    public TaskModel(String application, double processingSize, double sendFile, double receiveFile) {
+        this.application = application;
+        this.processingSize = processingSize;
+        this.sendFile = sendFile;
+        this.receiveFile = receiveFile;
+    }
+
+    public TaskModel(double processingSize, double sendFile) {
+        this(null, processingSize, sendFile, 0);
+    }
+
+    @Override
+    public Job getNextTask() {
+        if (produced) {
+            return null;
+        }
+        produced = true;
+        Job job = new Job();
+        job.setModel(this);
+        return job;
+    }
+
+    @Override
+    public void rewind() {
+        produced = false;
+    }
+
+    @Override
+    protected WorkloadModel copyModel() {
+        return new TaskModel(application, processingSize, sendFile, receiveFile);
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public void setApplication(String application) {
+        this.application = application;
+    }
+
+    public double getProcessingSize() {
+        return processingSize;
+    }
+
+    public void setProcessingSize(double processingSize) {
+        this.processingSize = processingSize;
+    }
+
+    public double getSendFile() {
+        return sendFile;
+    }
+
+    public void setSendFile(double sendFile) {
+        this.sendFile = sendFile;
+    }
+
+    public double getReceiveFile() {
+        return receiveFile;
+    }
+
+    public void setReceiveFile(double receiveFile) {
+        this.receiveFile = receiveFile;
+    }
+}
@@ -1,5 +1,118 @@
 package gspd.ispd.model.workload;
 
-public class Workflow {
+import gspd.ispd.model.data.Job;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sequence of workload models submitted by one user to one scheduler. The
+ * jobs of the models are streamed in order, numbered from zero, the first
+ * one arriving at the arrival time and each of the next ones after the
+ * interval.
+ */
+public class Workflow extends WorkloadModel {
+
+    private final List<WorkloadModel> models = new ArrayList<>();
+    private String owner;
+    private String scheduler;
+    private double arrivalTime;
+    private double interval;
+    private int current;
+    private int produced;
+    private boolean started;
+
+    public Workflow(String owner, String scheduler) {
+        this.owner = owner;
+        this.scheduler = scheduler;
+    }
+
+    public Workflow() {
+        this(null, null);
+    }
+
+    public void addModel(WorkloadModel model) {
+        models.add(model);
+    }
+
+    public List<WorkloadModel> getModels() {
+        return models;
+    }
+
+    @Override
+    public Job getNextTask() {
+        if (!started) {
+            rewind();
+        }
+        while (current < models.size()) {
+            Job job = models.get(current).getNextTask();
+            if (job != null) {
+                job.setId(produced++);
+                return job;
+            }
+            current++;
+        }
+        return null;
+    }
+
+    @Override
+    public void rewind() {
+        started = true;
+        for (WorkloadModel model : models) {
+            model.rewind();
+        }
+        current = 0;
+        produced = 0;
+    }
+
+    @Override
+    protected WorkloadModel copyModel() {
+        Workflow copy = new Workflow(owner, scheduler);
+        copy.arrivalTime = arrivalTime;
+        copy.interval = interval;
+        for (WorkloadModel model : models) {
+            copy.addModel(model.copy());
+        }
+        return copy;
+    }
+
+    /**
+     * @param id the number of the job in this workflow
+     * @return the instant the job is submitted to the scheduler
+     */
+    public double getArrivalTime(int id) {
+        return arrivalTime + id * interval;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public String getScheduler() {
+        return scheduler;
+    }
+
+    public void setScheduler(String scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    public double getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public void setArrivalTime(double arrivalTime) {
+        this.arrivalTime = arrivalTime;
+    }
+
+    public double getInterval() {
+        return interval;
+    }
+
+    public void setInterval(double interval) {
+        this.interval = interval;
+    }
 }
@@ -1,8 +1,29 @@
 package gspd.ispd.model.workload;
 
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 public class Workload {
 
-    private Set<Workflow> workflows;
+    private Set<Workflow> workflows = new LinkedHashSet<>();
+
+    public Set<Workflow> getWorkflows() {
+        return workflows;
+    }
+
+    public void addWorkflow(Workflow workflow) {
+        workflows.add(workflow);
+    }
+
+    /**
+     * @return a workload with a copy of each workflow, whose streams can be
+     * pulled without moving the cursors of this one
+     */
+    public Workload copy() {
+        Workload copy = new Workload();
+        for (Workflow workflow : workflows) {
+            copy.addWorkflow((Workflow) workflow.copy());
+        }
+        return copy;
+    }
 }
@@ -2,12 +2,73 @@ package gspd.ispd.model.workload;
 
 import gspd.ispd.model.data.Job;
 
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * A lazy stream of jobs. The simulation pulls the jobs one at a time with
+ * {@link #getNextTask()}, so a model built from expansions is never
+ * materialized: only the cursor of each node of the expansion tree is kept
+ * in memory.
+ */
 public abstract class WorkloadModel {
 
-    public List<RecursivePoint> getRecursivePoints() { return null; }
+    private final List<RecursivePoint> recursivePoints = new ArrayList<>();
 
+    /**
+     * The points of this model where a {@link RecursiveExpansion} calls the
+     * model again, in increasing order of position
+     */
+    public List<RecursivePoint> getRecursivePoints() {
+        return recursivePoints;
+    }
+
+    public void addRecursivePoint(RecursivePoint point) {
+        int i = recursivePoints.size();
+        while (i > 0 && recursivePoints.get(i - 1).getPosition() > point.getPosition()) {
+            i--;
+        }
+        recursivePoints.add(i, point);
+    }
+
+    /**
+     * Gets the next job of the stream
+     * @return the next job, or null if the stream is over
+     */
     public abstract Job getNextTask();
+
+    /**
+     * Moves the cursor back to the first job of the stream
+     */
     public abstract void rewind();
+
+    /**
+     * Creates a stream of the same jobs with its own cursor, so that the copy
+     * and this model can be pulled independently, even by different threads
+     * @return the copy, at the first job of the stream
+     */
+    public WorkloadModel copy() {
+        WorkloadModel copy = copyModel();
+        copy.recursivePoints.addAll(recursivePoints);
+        return copy;
+    }
+
+    /**
+     * Creates a model producing the same jobs as this one. The recursive
+     * points are copied by {@link #copy()}.
+     */
+    protected abstract WorkloadModel copyModel();
+
+    /**
+     * Skips the next jobs of the stream, without keeping them
+     * @param jobs the number of jobs to skip
+     * @return the number of jobs actually skipped
+     */
+    public int skip(int jobs) {
+        int skipped = 0;
+        while (skipped < jobs && getNextTask() != null) {
+            skipped++;
+        }
+        return skipped;
+    }
 }
@@ -0,0 +1,250 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.motor;
+
+import gspd.ispd.motor.filas.RedeDeFilas;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.metricas.MetricasGlobais;
+import java.util.Arrays;
+import org.apache.commons.math3.distribution.TDistribution;
+
+/**
+ * Controla a duração de uma simulação com carga aberta: em vez de simular até
+ * a lista de eventos ficar vazia, a simulação é encerrada quando o tempo de
+ * resposta das tarefas e a utilização das máquinas atingem a precisão
+ * relativa desejada.
+ *
+ * O início de cada série de observações é descartado pelo critério MSER-5
+ * (aquecimento) e a precisão é medida pelo intervalo de confiança das médias
+ * em lotes do restante da série.
+ *
+ * @author denison
+ */
+public class ControleDuracao {
+
+    /**
+     * Número de lotes usados no intervalo de confiança
+     */
+    public static final int NUM_LOTES = 20;
+    /**
+     * Tamanho dos lotes usados pelo MSER-5
+     */
+    private static final int LOTE_MSER = 5;
+    /**
+     * Observações mínimas por lote após o aquecimento
+     */
+    private static final int MINIMO_POR_LOTE = 5;
+    /**
+     * Tarefas concluídas em cada observação da utilização
+     */
+    private static final int TAREFAS_POR_AMOSTRA = 10;
+
+    private final double precisao;
+    private final double confianca;
+    private RedeDeFilas redeDeFilas;
+    private int numProcessadores;
+    private Serie respostas;
+    private Serie utilizacoes;
+    private double inicioAmostra;
+    private double processadoInicioAmostra;
+    private int tarefasAmostra;
+    private int proximaVerificacao;
+    private boolean atingida;
+    private double tempoAquecimento;
+    private double[] resposta;
+    private double[] utilizacao;
+
+    /**
+     * @param precisao metade da largura do intervalo de confiança desejada,
+     * relativa à média (0.05 para 5%)
+     * @param confianca nível de confiança, como 0.95
+     */
+    public ControleDuracao(double precisao, double confianca) {
+        this.precisao = precisao;
+        this.confianca = confianca;
+    }
+
+    public ControleDuracao(double precisao) {
+        this(precisao, 0.95);
+    }
+
+    /**
+     * Chamado pela simulação antes do primeiro evento
+     */
+    void iniciar(RedeDeFilas redeDeFilas) {
+        this.redeDeFilas = redeDeFilas;
+        this.numProcessadores = 0;
+        for (CS_Processamento maquina : redeDeFilas.getMaquinas()) {
+            numProcessadores += maquina.getNumeroProcessadores();
+        }
+        this.respostas = new Serie();
+        this.utilizacoes = new Serie();
+        this.inicioAmostra = 0;
+        this.processadoInicioAmostra = 0;
+        this.tarefasAmostra = 0;
+        this.proximaVerificacao = NUM_LOTES * MINIMO_POR_LOTE;
+        this.atingida = false;
+        this.tempoAquecimento = Double.NaN;
+        this.resposta = new double[]{Double.NaN, Double.NaN};
+        this.utilizacao = new double[]{Double.NaN, Double.NaN};
+    }
+
+    /**
+     * Registra uma tarefa que retornou concluída ao seu mestre
+     *
+     * @param tempo instante atual da simulação
+     * @param criacao instante de criação da tarefa
+     */
+    void addTarefaConcluida(double tempo, double criacao) {
+        respostas.add(tempo - criacao, tempo);
+        tarefasAmostra++;
+        if (tarefasAmostra == TAREFAS_POR_AMOSTRA && tempo > inicioAmostra && numProcessadores > 0) {
+            double processado = segundosProcessados();
+            utilizacoes.add((processado - processadoInicioAmostra) / ((tempo - inicioAmostra) * numProcessadores), tempo);
+            inicioAmostra = tempo;
+            processadoInicioAmostra = processado;
+            tarefasAmostra = 0;
+        }
+        if (respostas.tamanho >= proximaVerificacao) {
+            proximaVerificacao = respostas.tamanho + Math.max(NUM_LOTES * MINIMO_POR_LOTE, respostas.tamanho / 10);
+            verificar();
+        }
+    }
+
+    private double segundosProcessados() {
+        double total = 0;
+        for (CS_Processamento maquina : redeDeFilas.getMaquinas()) {
+            total += maquina.getMetrica().getSegundosDeProcessamento();
+        }
+        return total;
+    }
+
+    private void verificar() {
+        int aquecimentoResposta = mser(respostas);
+        int aquecimentoUtilizacao = mser(utilizacoes);
+        resposta = lotes(respostas, aquecimentoResposta, MINIMO_POR_LOTE);
+        //cada observação da utilização já é a média de várias tarefas
+        utilizacao = lotes(utilizacoes, aquecimentoUtilizacao, 1);
+        if (aquecimentoResposta < 0) {
+            tempoAquecimento = Double.NaN;
+        } else {
+            //instante da última observação descartada
+            tempoAquecimento = aquecimentoResposta == 0 ? 0 : respostas.tempos[aquecimentoResposta - 1];
+        }
+        atingida = resposta[1] <= precisao && utilizacao[1] <= precisao;
+    }
+
+    /**
+     * Ponto de truncamento pelo MSER-5: as observações são agrupadas em lotes
+     * de 5 e é escolhido o descarte d que minimiza a variância da média das
+     * observações restantes, sum((y - média)^2) / (n - d)^2.
+     *
+     * @return número de observações descartadas, ou -1 se o mínimo está na
+     * segunda metade da série (o aquecimento ainda não terminou)
+     */
+    private static int mser(Serie serie) {
+        int n = serie.tamanho / LOTE_MSER;
+        if (n < 2) {
+            return -1;
+        }
+        double[] medias = new double[n];
+        for (int i = 0; i < n * LOTE_MSER; i++) {
+            medias[i / LOTE_MSER] += serie.valores[i] / LOTE_MSER;
+        }
+        //somas dos sufixos permitem avaliar cada descarte em tempo constante
+        double soma = 0;
+        double quadrados = 0;
+        double melhor = Double.POSITIVE_INFINITY;
+        int descarte = 0;
+        for (int d = n - 1; d >= 0; d--) {
+            soma += medias[d];
+            quadrados += medias[d] * medias[d];
+            int restantes = n - d;
+            double estatistica = (quadrados - soma * soma / restantes) / ((double) restantes * restantes);
+            if (restantes > 1 && estatistica <= melhor) {
+                melhor = estatistica;
+                descarte = d;
+            }
+        }
+        return descarte > n / 2 ? -1 : descarte * LOTE_MSER;
+    }
+
+    /**
+     * Médias em lotes das observações após o aquecimento
+     *
+     * @param minimoPorLote menor tamanho de lote aceito
+     * @return média e metade da largura relativa do intervalo de confiança,
+     * infinita se ainda não houver observações suficientes
+     */
+    private double[] lotes(Serie serie, int aquecimento, int minimoPorLote) {
+        int restantes = aquecimento < 0 ? 0 : serie.tamanho - aquecimento;
+        int tamanhoLote = restantes / NUM_LOTES;
+        if (tamanhoLote < minimoPorLote) {
+            return new double[]{Double.NaN, Double.POSITIVE_INFINITY};
+        }
+        double[] medias = new double[NUM_LOTES];
+        //os primeiros restantes % NUM_LOTES valores após o aquecimento ficam de fora
+        int inicio = serie.tamanho - NUM_LOTES * tamanhoLote;
+        double media = 0;
+        for (int i = 0; i < NUM_LOTES * tamanhoLote; i++) {
+            medias[i / tamanhoLote] += serie.valores[inicio + i] / tamanhoLote;
+        }
+        for (double valor : medias) {
+            media += valor / NUM_LOTES;
+        }
+        double variancia = 0;
+        for (double valor : medias) {
+            variancia += (valor - media) * (valor - media) / (NUM_LOTES - 1);
+        }
+        double meiaLargura = new TDistribution(NUM_LOTES - 1).inverseCumulativeProbability(0.5 + confianca / 2) * Math.sqrt(variancia / NUM_LOTES);
+        return new double[]{media, media == 0 ? Double.POSITIVE_INFINITY : meiaLargura / Math.abs(media)};
+    }
+
+    /**
+     * @return se a precisão desejada foi atingida e a simulação pode parar
+     */
+    public boolean isAtingida() {
+        return atingida;
+    }
+
+    public double getPrecisao() {
+        return precisao;
+    }
+
+    /**
+     * Registra nas métricas globais as médias estimadas e a precisão
+     * alcançada
+     */
+    public void preencher(MetricasGlobais global) {
+        if (!atingida) {
+            verificar();
+        }
+        global.setTempoAquecimento(tempoAquecimento);
+        global.setTempoRespostaMedio(resposta[0]);
+        global.setPrecisaoTempoResposta(resposta[1]);
+        global.setUtilizacaoMedia(utilizacao[0]);
+        global.setPrecisaoUtilizacao(utilizacao[1]);
+    }
+
+    /**
+     * Série de observações com o instante em que cada uma foi feita
+     */
+    private static class Serie {
+
+        private double[] valores = new double[1024];
+        private double[] tempos = new double[1024];
+        private int tamanho;
+
+        private void add(double valor, double tempo) {
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, 2 * tamanho);
+                tempos = Arrays.copyOf(tempos, 2 * tamanho);
+            }
+            valores[tamanho] = valor;
+            tempos[tamanho] = tempo;
+            tamanho++;
+        }
+    }
+}
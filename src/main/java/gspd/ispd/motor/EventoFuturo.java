@@ -30,6 +30,8 @@ public class EventoFuturo implements Comparable<EventoFuturo> {
     private CentroServico recurso;
     // Cliente referente ao evento
     private Cliente cliente;
+    // ordem de inserção na fila, desempata eventos simultâneos
+    private long ordem;
 
     /**
      * Criacao de novo evento
@@ -73,14 +75,28 @@ public class EventoFuturo implements Comparable<EventoFuturo> {
         return tempoOcorrencia;
     }
 
+    /**
+     * Define a ordem do evento entre os eventos simultâneos. Motores que não a
+     * definem deixam o desempate a cargo da fila.
+     * @param ordem posição do evento na ordem de inserção na fila
+     */
+    public void setOrdem(long ordem) {
+        this.ordem = ordem;
+    }
+
     /**
      * Comparação necessaria para utilizar PriorityQueue
      * @param o evento que será comparado
      * @return 0 se valores iguais, um menor que 0 se "o" inferior, e maior que 0 se "o" for maior.
+     * Eventos simultâneos são ordenados pela ordem de inserção, quando definida.
      */
     @Override
     public int compareTo(EventoFuturo o) {
-        return tempoOcorrencia.compareTo(o.tempoOcorrencia);
+        int comparacao = tempoOcorrencia.compareTo(o.tempoOcorrencia);
+        if (comparacao == 0) {
+            return ordem < o.ordem ? -1 : (ordem == o.ordem ? 0 : 1);
+        }
+        return comparacao;
     }
 
     @Override
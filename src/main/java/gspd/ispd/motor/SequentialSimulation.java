@@ -5,6 +5,8 @@
 package gspd.ispd.motor;
 
 import gspd.ispd.escalonador.Mestre;
+import gspd.ispd.motor.carga.FonteDeTarefas;
+import gspd.ispd.motor.carga.GerarCarga;
 import gspd.ispd.motor.filas.Cliente;
 import gspd.ispd.motor.filas.Mensagem;
 import gspd.ispd.motor.filas.RedeDeFilas;
@@ -31,7 +33,31 @@ public class SequentialSimulation extends Simulation {
         super(janela, redeDeFilas,tarefas);
         this.time = 0;
         this.eventos = new PriorityQueue<EventoFuturo>();
+        validarModelo(janela, redeDeFilas);
+        // modelo precisa ter tarefas
+        if (tarefas == null || tarefas.isEmpty()) {
+            throw new IllegalArgumentException("One or more workloads have not been configured.");
+        }
+        criarRoteamento(janela, redeDeFilas);
+    }
 
+    /**
+     * Cria uma simulação que injeta as tarefas da carga à medida que chegam,
+     * em vez de agendar todas as chegadas no início
+     */
+    public SequentialSimulation(SimulationProgress janela, RedeDeFilas redeDeFilas, GerarCarga carga) throws IllegalArgumentException {
+        super(janela, redeDeFilas, carga);
+        this.time = 0;
+        this.eventos = new PriorityQueue<EventoFuturo>();
+        validarModelo(janela, redeDeFilas);
+        // modelo precisa ter tarefas
+        if (getFontes().isEmpty()) {
+            throw new IllegalArgumentException("One or more workloads have not been configured.");
+        }
+        criarRoteamento(janela, redeDeFilas);
+    }
+
+    private void validarModelo(SimulationProgress janela, RedeDeFilas redeDeFilas) throws IllegalArgumentException {
         // modelo não existe
         if (redeDeFilas == null) {
             throw new IllegalArgumentException("The model has no icons.");
@@ -42,10 +68,9 @@ public class SequentialSimulation extends Simulation {
         } else if (redeDeFilas.getLinks() == null || redeDeFilas.getLinks().isEmpty()) {
             janela.println("The model has no Networks.", Color.orange);
         }
-        // modelo precisa ter tarefas
-        if (tarefas == null || tarefas.isEmpty()) {
-            throw new IllegalArgumentException("One or more workloads have not been configured.");
-        }
+    }
+
+    private void criarRoteamento(SimulationProgress janela, RedeDeFilas redeDeFilas) {
         janela.print("Creating routing.");
         janela.print(" -> ");
         /**
@@ -79,13 +104,20 @@ public class SequentialSimulation extends Simulation {
         //inicia os escalonadores
         iniciarEscalonadores();
         //adiciona chegada das tarefas na lista de eventos futuros
-        addEventos(getTarefas());
+        if (isCargaSobDemanda()) {
+            addPrimeirasChegadas();
+        } else {
+            addEventos(getTarefas());
+        }
         if (atualizarEscalonadores()) {
             realizarSimulacaoAtualizaTime();
         } else {
             realizarSimulacao();
         }
         getJanela().incProgresso(30);
+        if (isDuracaoAtingida()) {
+            getJanela().println("Steady-state precision reached at time " + time + ".", Color.green);
+        }
         getJanela().println("Simulation completed.", Color.green);
         //Centralizando métricas de usuários
         //for (CS_Processamento mestre : redeDeFilas.getMestres()) {
@@ -104,6 +136,40 @@ public class SequentialSimulation extends Simulation {
         }
     }
 
+    /**
+     * Agenda apenas a primeira chegada de cada fonte de tarefas
+     */
+    private void addPrimeirasChegadas() {
+        for (FonteDeTarefas fonte : getFontes()) {
+            Tarefa tarefa = proximaTarefa(fonte);
+            if (tarefa != null) {
+                eventos.add(new EventoFuturo(tarefa.getTimeCriacao(), EventoFuturo.CHEGADA, tarefa.getOrigem(), tarefa));
+            }
+        }
+    }
+
+    /**
+     * Quando uma tarefa lida de uma fonte chega ao seu mestre, agenda a
+     * chegada da próxima tarefa da mesma fonte
+     *
+     * @param tarefa tarefa que acabou de chegar
+     */
+    private void agendarProximaChegada(Tarefa tarefa) {
+        FonteDeTarefas fonte = removerChegadaPendente(tarefa);
+        if (fonte == null) {
+            return;
+        }
+        //tarefas canceladas na carga não geram outros eventos
+        if (tarefa.getEstado() == Tarefa.CANCELADO) {
+            liberarTarefa(tarefa);
+        }
+        Tarefa proxima = proximaTarefa(fonte);
+        if (proxima != null) {
+            //fontes devem estar ordenadas, uma chegada nunca é agendada no passado
+            eventos.add(new EventoFuturo(Math.max(time, proxima.getTimeCriacao()), EventoFuturo.CHEGADA, proxima.getOrigem(), proxima));
+        }
+    }
+
     @Override
     public void addEventoFuturo(EventoFuturo ev) {
         eventos.offer(ev);
@@ -143,7 +209,7 @@ public class SequentialSimulation extends Simulation {
 
     
     private void realizarSimulacao() {
-        while (!eventos.isEmpty()) {
+        while (!eventos.isEmpty() && !isDuracaoAtingida()) {
         //recupera o próximo evento e o executa.
             //executa estes eventos de acordo com sua ordem de chegada
             //de forma a evitar a execução de um evento antes de outro
@@ -153,6 +219,9 @@ public class SequentialSimulation extends Simulation {
             switch (eventoAtual.getTipo()) {
                 case EventoFuturo.CHEGADA:
                     eventoAtual.getServidor().chegadaDeCliente(this, (Tarefa) eventoAtual.getCliente());
+                    if (isCargaSobDemanda()) {
+                        agendarProximaChegada((Tarefa) eventoAtual.getCliente());
+                    }
                     break;
                 case EventoFuturo.ATENDIMENTO:
                     eventoAtual.getServidor().atendimento(this, (Tarefa) eventoAtual.getCliente());
@@ -186,7 +255,7 @@ public class SequentialSimulation extends Simulation {
                 Arrayatualizar.add(item);
             }
         }
-        while (!eventos.isEmpty()) {
+        while (!eventos.isEmpty() && !isDuracaoAtingida()) {
             //recupera o próximo evento e o executa.
             //executa estes eventos de acordo com sua ordem de chegada
             //de forma a evitar a execução de um evento antes de outro
@@ -205,6 +274,9 @@ public class SequentialSimulation extends Simulation {
             switch (eventoAtual.getTipo()) {
                 case EventoFuturo.CHEGADA:
                     eventoAtual.getServidor().chegadaDeCliente(this, (Tarefa) eventoAtual.getCliente());
+                    if (isCargaSobDemanda()) {
+                        agendarProximaChegada((Tarefa) eventoAtual.getCliente());
+                    }
                     break;
                 case EventoFuturo.ATENDIMENTO:
                     eventoAtual.getServidor().atendimento(this, (Tarefa) eventoAtual.getCliente());
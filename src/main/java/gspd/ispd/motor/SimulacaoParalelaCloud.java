@@ -0,0 +1,603 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.motor;
+
+import gspd.ispd.alocacaoVM.VMM;
+import gspd.ispd.escalonadorCloud.MestreCloud;
+import gspd.ispd.motor.filas.Cliente;
+import gspd.ispd.motor.filas.Mensagem;
+import gspd.ispd.motor.filas.RedeDeFilasCloud;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.TarefaDAG;
+import gspd.ispd.motor.filas.servidores.CS_Comunicacao;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.CentroServico;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_MaquinaCloud;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_VMM;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_VirtualMac;
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Simulação conservadora de modelos IaaS em paralelo. O modelo é dividido em
+ * domínios: cada VMM forma um domínio com suas máquinas físicas, suas VMs e os
+ * centros de comunicação que elas alimentam diretamente, e cada domínio tem
+ * sua própria fila de eventos e seu próprio relógio.
+ *
+ * Eventos só passam de um domínio para outro na saída de um centro de
+ * comunicação, que leva ao menos a sua latência para atender um cliente. A
+ * simulação avança em janelas: a janela de cada domínio termina no menor
+ * instante em que um domínio ligado a ele ainda pode lhe enviar um evento,
+ * e até lá os domínios atendem seus eventos simultaneamente. Os eventos
+ * trocados são entregues ao fim da janela, sempre na mesma ordem, de forma que
+ * o resultado não depende do número de threads.
+ *
+ * @author denison
+ */
+public class SimulacaoParalelaCloud extends Simulation {
+
+    private int numThreads;
+    private ExecutorService threadPool;
+    private List<Dominio> dominios;
+    private Map<CentroServico, Dominio> dominioServidor;
+    /**
+     * Centros de comunicação cuja saída alcança outro domínio
+     */
+    private Set<CentroServico> fronteira;
+    /**
+     * Domínio atendido pela thread, ou null fora das janelas
+     */
+    private final ThreadLocal<Dominio> dominioAtual = new ThreadLocal<Dominio>();
+
+    public SimulacaoParalelaCloud(SimulationProgress janela, RedeDeFilasCloud redeDeFilas, List<Tarefa> tarefas, int numThreads) throws IllegalArgumentException {
+        super(janela, redeDeFilas, tarefas);
+        this.numThreads = Math.max(1, numThreads);
+        // verifica possíveis erros no modelo
+        if (redeDeFilas == null) {
+            throw new IllegalArgumentException("The model has no icons.");
+        } else if (redeDeFilas.getMestres() == null || redeDeFilas.getMestres().isEmpty()) {
+            throw new IllegalArgumentException("The model has no Masters.");
+        } else if (redeDeFilas.getLinks() == null || redeDeFilas.getLinks().isEmpty()) {
+            janela.println("The model has no Networks.", Color.orange);
+        } else if (redeDeFilas.getVMs() == null || redeDeFilas.getVMs().isEmpty()) {
+            janela.println("The model has no virtual machines configured.", Color.orange);
+        }
+        if (tarefas == null || tarefas.isEmpty()) {
+            throw new IllegalArgumentException("One or more workloads have not been configured.");
+        }
+        janela.println("Creating routing [master -> slaves]", Color.cyan);
+        for (CS_Processamento mst : redeDeFilas.getMestres()) {
+            //Cede acesso ao mestre a fila de eventos futuros
+            ((MestreCloud) mst).setSimulacao(this);
+            ((VMM) mst).setSimulacaoAlloc(this);
+            //Encontra menor caminho entre o mestre e seus escravos
+            mst.determinarCaminhos();
+        }
+        janela.incProgresso(5);
+        janela.println("OK [master -> slaves]", Color.green);
+        if (redeDeFilas.getMaquinasCloud() == null || redeDeFilas.getMaquinasCloud().isEmpty()) {
+            janela.println("The model has no phisical machines.", Color.orange);
+        } else {
+            janela.println("Creating rounting [slaves -> master]", Color.cyan);
+            //cada máquina encontra os caminhos para seus mestres de forma independente
+            List<Callable<Object>> caminhos = new ArrayList<Callable<Object>>();
+            for (final CS_MaquinaCloud maq : redeDeFilas.getMaquinasCloud()) {
+                maq.setStatus(CS_MaquinaCloud.LIGADO);
+                caminhos.add(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        maq.determinarCaminhos();
+                        return null;
+                    }
+                });
+            }
+            threadPool = Executors.newFixedThreadPool(this.numThreads);
+            try {
+                executar(caminhos);
+            } finally {
+                threadPool.shutdown();
+            }
+            janela.println("OK [slaves -> master]", Color.green);
+        }
+        criarDominios();
+        janela.println("Domains: " + dominios.size(), Color.cyan);
+        janela.incProgresso(5);
+        janela.println("Simulation constructed", Color.pink);
+    }
+
+    @Override
+    public void simular() {
+        threadPool = Executors.newFixedThreadPool(numThreads);
+        try {
+            iniciarEscalonadoresCloud();
+            iniciarAlocadoresCloud();
+            addEventos(getTarefas());
+            getJanela().println("Simulation started: " + dominios.size() + " domains, " + numThreads + " threads", Color.blue);
+            realizarSimulacao();
+        } finally {
+            threadPool.shutdown();
+        }
+        desligarMaquinas();
+        getJanela().incProgresso(30);
+        getJanela().println("Simulation completed.", Color.pink);
+    }
+
+    public void addEventos(List<Tarefa> tarefas) {
+        for (Tarefa tarefa : tarefas) {
+            addEventoFuturo(new EventoFuturo(tarefa.getTimeCriacao(), EventoFuturo.CHEGADA, tarefa.getOrigem(), tarefa));
+        }
+    }
+
+    /**
+     * Eventos do próprio domínio entram direto na sua fila; os destinados a
+     * outro domínio aguardam o fim da janela
+     */
+    @Override
+    public void addEventoFuturo(EventoFuturo ev) {
+        Dominio destino = dominioServidor.get(ev.getServidor());
+        Dominio atual = dominioAtual.get();
+        if (atual == null || atual == destino) {
+            destino.adicionar(ev);
+        } else if (ev.getTempoOcorrencia() < destino.fimJanela) {
+            throw new IllegalStateException("Event " + ev + " reaches another domain before the end of its window (" + destino.fimJanela + ")");
+        } else {
+            atual.enviados.add(ev);
+        }
+    }
+
+    @Override
+    public boolean removeEventoFuturo(int tipoEv, CentroServico servidorEv, Cliente clienteEv) {
+        //remover evento de saida do cliente do servidor
+        Dominio dominio = dominioServidor.get(servidorEv);
+        java.util.Iterator<EventoFuturo> interator = dominio.eventos.iterator();
+        while (interator.hasNext()) {
+            EventoFuturo ev = interator.next();
+            if (ev.getTipo() == tipoEv
+                    && ev.getServidor().equals(servidorEv)
+                    && ev.getCliente().equals(clienteEv)) {
+                interator.remove();
+                dominio.saidasFronteira.remove(ev);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return relógio do domínio atendido pela thread ou, fora das janelas,
+     * o maior relógio entre os domínios
+     */
+    @Override
+    public double getTime(Object origem) {
+        Dominio atual = dominioAtual.get();
+        if (atual != null) {
+            return atual.relogio;
+        }
+        double val = 0;
+        for (Dominio dominio : dominios) {
+            if (dominio.relogio > val) {
+                val = dominio.relogio;
+            }
+        }
+        return val;
+    }
+
+    @Override
+    public synchronized void addTarefa(Tarefa tarefa) {
+        super.addTarefa(tarefa);
+    }
+
+    /**
+     * @return número de domínios em que o modelo foi dividido
+     */
+    public int getNumDominios() {
+        return dominios.size();
+    }
+
+    private void realizarSimulacao() {
+        while (true) {
+            //primeiro instante em que cada domínio pode enviar um evento
+            boolean pendentes = false;
+            LinkedList<Dominio> alterados = new LinkedList<Dominio>();
+            for (Dominio dominio : dominios) {
+                if (dominio.eventos.isEmpty()) {
+                    dominio.emissao = Double.POSITIVE_INFINITY;
+                } else {
+                    pendentes = true;
+                    dominio.emissao = dominio.limiteEnvio();
+                    alterados.add(dominio);
+                }
+            }
+            if (!pendentes) {
+                break;
+            }
+            //um evento recebido só pode ser repassado após o lookahead de quem o recebe
+            while (!alterados.isEmpty()) {
+                Dominio dominio = alterados.poll();
+                for (Dominio receptor : dominio.receptores) {
+                    double emissao = dominio.emissao + receptor.lookahead;
+                    if (emissao < receptor.emissao) {
+                        receptor.emissao = emissao;
+                        alterados.add(receptor);
+                    }
+                }
+            }
+            //a janela de cada domínio termina no primeiro evento que pode receber
+            for (Dominio dominio : dominios) {
+                dominio.fimJanela = Double.POSITIVE_INFINITY;
+            }
+            for (Dominio dominio : dominios) {
+                for (Dominio receptor : dominio.receptores) {
+                    receptor.fimJanela = Math.min(receptor.fimJanela, dominio.emissao);
+                }
+            }
+            List<Dominio> ativos = new ArrayList<Dominio>();
+            for (Dominio dominio : dominios) {
+                if (!dominio.eventos.isEmpty() && dominio.eventos.peek().getTempoOcorrencia() <= dominio.fimJanela) {
+                    ativos.add(dominio);
+                }
+            }
+            if (ativos.size() == 1 || numThreads == 1) {
+                for (Dominio dominio : ativos) {
+                    dominio.call();
+                }
+            } else {
+                executar(ativos);
+            }
+            //entrega os eventos trocados na ordem dos domínios
+            for (Dominio dominio : dominios) {
+                for (EventoFuturo ev : dominio.enviados) {
+                    dominioServidor.get(ev.getServidor()).adicionar(ev);
+                }
+                dominio.enviados.clear();
+            }
+        }
+    }
+
+    /**
+     * Executa as tarefas no pool de threads, relançando o erro da primeira que
+     * falhar
+     */
+    private void executar(List<? extends Callable<Object>> tarefas) {
+        try {
+            for (Future<Object> futuro : threadPool.invokeAll(tarefas)) {
+                futuro.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            } else if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private void executarEvento(EventoFuturo eventoAtual) {
+        switch (eventoAtual.getTipo()) {
+            case EventoFuturo.CHEGADA:
+                eventoAtual.getServidor().chegadaDeCliente(this, (Tarefa) eventoAtual.getCliente());
+                break;
+            case EventoFuturo.ATENDIMENTO:
+                eventoAtual.getServidor().atendimento(this, (Tarefa) eventoAtual.getCliente());
+                break;
+            case EventoFuturo.SAIDA:
+                eventoAtual.getServidor().saidaDeCliente(this, (Tarefa) eventoAtual.getCliente());
+                break;
+            case EventoFuturo.ESCALONAR:
+                eventoAtual.getServidor().requisicao(this, null, EventoFuturo.ESCALONAR);
+                break;
+            case EventoFuturo.ALOCAR_VMS:
+                eventoAtual.getServidor().requisicao(this, null, EventoFuturo.ALOCAR_VMS);
+                break;
+            default:
+                eventoAtual.getServidor().requisicao(this, (Mensagem) eventoAtual.getCliente(), eventoAtual.getTipo());
+                break;
+        }
+    }
+
+    private void desligarMaquinas() {
+        getJanela().println("Turning machines off", Color.blue);
+        for (CS_MaquinaCloud aux : getRedeDeFilasCloud().getMaquinasCloud()) {
+            aux.desligar(this);
+        }
+        getJanela().println("OK (machines off)", Color.green);
+    }
+
+    /**
+     * Agrupa os centros de serviço que trocam eventos sem atraso: o VMM com
+     * suas máquinas físicas, que podem ser outros VMMs, e suas VMs; cada
+     * recurso de processamento com os centros de comunicação em que entrega
+     * clientes; e as origens das tarefas de um mesmo DAG. Os centros de
+     * comunicação que sobram ficam no domínio que os alimenta, quando é um só.
+     */
+    private void criarDominios() {
+        RedeDeFilasCloud rdf = getRedeDeFilasCloud();
+        List<CentroServico> servidores = new ArrayList<CentroServico>();
+        servidores.addAll(rdf.getMestres());
+        servidores.addAll(rdf.getMaquinasCloud());
+        servidores.addAll(rdf.getLinks());
+        servidores.addAll(rdf.getInternets());
+        //inclui os centros alcançáveis que não estão nas listas do modelo
+        Set<CentroServico> conhecidos = new HashSet<CentroServico>(servidores);
+        for (int i = 0; i < servidores.size(); i++) {
+            for (CentroServico saida : getSaidas(servidores.get(i))) {
+                if (conhecidos.add(saida)) {
+                    servidores.add(saida);
+                }
+            }
+        }
+        Map<CentroServico, CentroServico> pai = new HashMap<CentroServico, CentroServico>();
+        for (CentroServico cs : servidores) {
+            pai.put(cs, cs);
+        }
+        for (CS_VirtualMac vm : rdf.getVMs()) {
+            pai.put(vm, vm);
+            if (vm.getVmmResponsavel() != null) {
+                unir(pai, vm, vm.getVmmResponsavel());
+            }
+        }
+        for (CS_Processamento mst : rdf.getMestres()) {
+            for (CS_Processamento maq : ((CS_VMM) mst).getAlocadorVM().getMaquinasFisicas()) {
+                unir(pai, mst, maq);
+            }
+        }
+        for (CS_MaquinaCloud maq : rdf.getMaquinasCloud()) {
+            for (CS_Processamento mst : maq.getMestres()) {
+                unir(pai, maq, mst);
+            }
+        }
+        for (CentroServico cs : servidores) {
+            if (cs instanceof CS_Processamento) {
+                for (CentroServico saida : getSaidas(cs)) {
+                    unir(pai, cs, saida);
+                }
+            }
+        }
+        for (Tarefa tarefa : getTarefas()) {
+            if (tarefa instanceof TarefaDAG) {
+                TarefaDAG dag = (TarefaDAG) tarefa;
+                List<TarefaDAG> ligadas = new ArrayList<TarefaDAG>(dag.getSuccessors());
+                ligadas.addAll(dag.getSuffixes());
+                ligadas.addAll(dag.getCatches());
+                for (TarefaDAG outra : ligadas) {
+                    unir(pai, dag.getOrigem(), outra.getOrigem());
+                }
+            }
+        }
+        //centros de comunicação sem recurso de processamento na entrada
+        Map<CentroServico, List<CentroServico>> entradas = new HashMap<CentroServico, List<CentroServico>>();
+        for (CentroServico cs : servidores) {
+            for (CentroServico saida : getSaidas(cs)) {
+                List<CentroServico> lista = entradas.get(saida);
+                if (lista == null) {
+                    lista = new ArrayList<CentroServico>();
+                    entradas.put(saida, lista);
+                }
+                lista.add(cs);
+            }
+        }
+        Set<CentroServico> processamento = new HashSet<CentroServico>();
+        for (CentroServico cs : pai.keySet()) {
+            if (cs instanceof CS_Processamento) {
+                processamento.add(encontrar(pai, cs));
+            }
+        }
+        boolean alterou = true;
+        while (alterou) {
+            alterou = false;
+            for (CentroServico cs : servidores) {
+                if (encontrar(pai, cs) != cs || processamento.contains(cs) || !entradas.containsKey(cs)) {
+                    continue;
+                }
+                CentroServico raiz = null;
+                for (CentroServico entrada : entradas.get(cs)) {
+                    CentroServico outra = encontrar(pai, entrada);
+                    if (raiz == null) {
+                        raiz = outra;
+                    } else if (raiz != outra) {
+                        raiz = cs;
+                        break;
+                    }
+                }
+                if (raiz != cs) {
+                    unir(pai, cs, raiz);
+                    alterou = true;
+                }
+            }
+        }
+        //cria um domínio por grupo, na ordem em que os grupos aparecem
+        Map<CentroServico, Dominio> grupos = new LinkedHashMap<CentroServico, Dominio>();
+        dominioServidor = new HashMap<CentroServico, Dominio>();
+        List<CentroServico> todos = new ArrayList<CentroServico>(servidores);
+        todos.addAll(rdf.getVMs());
+        dominios = new ArrayList<Dominio>();
+        for (CentroServico cs : todos) {
+            CentroServico raiz = encontrar(pai, cs);
+            if (grupos.get(raiz) == null) {
+                Dominio dominio = new Dominio();
+                dominios.add(dominio);
+                grupos.put(raiz, dominio);
+            }
+        }
+        for (CentroServico cs : todos) {
+            dominioServidor.put(cs, grupos.get(encontrar(pai, cs)));
+        }
+        //a latência das saídas para outros domínios é o lookahead do domínio
+        fronteira = new HashSet<CentroServico>();
+        for (CentroServico cs : servidores) {
+            if (!(cs instanceof CS_Comunicacao)) {
+                continue;
+            }
+            Dominio dominio = dominioServidor.get(cs);
+            for (CentroServico saida : getSaidas(cs)) {
+                Dominio receptor = dominioServidor.get(saida);
+                if (receptor != dominio) {
+                    if (!dominio.receptores.contains(receptor)) {
+                        dominio.receptores.add(receptor);
+                    }
+                    fronteira.add(cs);
+                    dominio.lookahead = Math.min(dominio.lookahead, ((CS_Comunicacao) cs).getLatencia());
+                }
+            }
+        }
+        //VMMs que atualizam o estado dos escravos periodicamente
+        for (CS_Processamento mst : rdf.getMestres()) {
+            CS_VMM mestre = (CS_VMM) mst;
+            if (mestre.getEscalonador().getTempoAtualizar() != null) {
+                Object[] item = new Object[3];
+                item[0] = mestre;
+                item[1] = mestre.getEscalonador().getTempoAtualizar();
+                item[2] = mestre.getEscalonador().getTempoAtualizar();
+                dominioServidor.get(mestre).atualizacoes.add(item);
+            }
+        }
+    }
+
+    private static List<CentroServico> getSaidas(CentroServico cs) {
+        List<CentroServico> saidas = new ArrayList<CentroServico>();
+        if (cs instanceof CS_VirtualMac) {
+            return saidas;
+        }
+        Object conexoes = cs.getConexoesSaida();
+        if (conexoes instanceof CentroServico) {
+            saidas.add((CentroServico) conexoes);
+        } else if (conexoes instanceof List) {
+            for (Object saida : (List) conexoes) {
+                saidas.add((CentroServico) saida);
+            }
+        }
+        return saidas;
+    }
+
+    private static CentroServico encontrar(Map<CentroServico, CentroServico> pai, CentroServico cs) {
+        CentroServico raiz = cs;
+        while (pai.get(raiz) != raiz) {
+            raiz = pai.get(raiz);
+        }
+        while (pai.get(cs) != raiz) {
+            CentroServico proximo = pai.get(cs);
+            pai.put(cs, raiz);
+            cs = proximo;
+        }
+        return raiz;
+    }
+
+    private static void unir(Map<CentroServico, CentroServico> pai, CentroServico a, CentroServico b) {
+        if (!pai.containsKey(a)) {
+            pai.put(a, a);
+        }
+        if (!pai.containsKey(b)) {
+            pai.put(b, b);
+        }
+        pai.put(encontrar(pai, a), encontrar(pai, b));
+    }
+
+    /**
+     * Processo lógico da simulação: fila de eventos e relógio de um grupo de
+     * centros de serviço
+     */
+    private class Dominio implements Callable<Object> {
+
+        private final PriorityQueue<EventoFuturo> eventos = new PriorityQueue<EventoFuturo>();
+        /**
+         * Saídas já agendadas nos centros da fronteira: criam chegadas em
+         * outro domínio no mesmo instante
+         */
+        private final PriorityQueue<EventoFuturo> saidasFronteira = new PriorityQueue<EventoFuturo>();
+        /**
+         * Eventos para outros domínios criados durante a janela
+         */
+        private final List<EventoFuturo> enviados = new LinkedList<EventoFuturo>();
+        private final List<Object[]> atualizacoes = new ArrayList<Object[]>();
+        private double relogio = 0;
+        /**
+         * Próxima posição na ordem de inserção na fila do domínio
+         */
+        private long ordem = 0;
+        private double lookahead = Double.POSITIVE_INFINITY;
+        /**
+         * Domínios alcançados pelas saídas da fronteira
+         */
+        private final List<Dominio> receptores = new ArrayList<Dominio>();
+        /**
+         * Primeiro instante em que o domínio pode enviar um evento, incluindo
+         * os que ainda pode receber
+         */
+        private double emissao;
+        /**
+         * Fim da janela atual: nenhum evento anterior chega ao domínio
+         */
+        private double fimJanela;
+
+        private void adicionar(EventoFuturo ev) {
+            ev.setOrdem(ordem++);
+            eventos.offer(ev);
+            if (ev.getTipo() == EventoFuturo.SAIDA && fronteira.contains(ev.getServidor())) {
+                saidasFronteira.offer(ev);
+            }
+        }
+
+        /**
+         * @return menor instante de um evento para outro domínio que ainda
+         * pode ser criado
+         */
+        private double limiteEnvio() {
+            double inicio = eventos.peek().getTempoOcorrencia();
+            for (Object[] ob : atualizacoes) {
+                inicio = Math.min(inicio, Math.max((Double) ob[2], relogio));
+            }
+            double limite = inicio + lookahead;
+            if (!saidasFronteira.isEmpty()) {
+                limite = Math.min(limite, saidasFronteira.peek().getTempoOcorrencia());
+            }
+            return limite;
+        }
+
+        @Override
+        public Object call() {
+            dominioAtual.set(this);
+            try {
+                while (!eventos.isEmpty() && eventos.peek().getTempoOcorrencia() <= fimJanela) {
+                    for (Object[] ob : atualizacoes) {
+                        if ((Double) ob[2] < eventos.peek().getTempoOcorrencia()) {
+                            CS_VMM mestre = (CS_VMM) ob[0];
+                            Double instante = Math.max((Double) ob[2], relogio);
+                            for (CS_Processamento maq : mestre.getEscalonador().getEscravos()) {
+                                mestre.atualizar(maq, instante);
+                            }
+                            ob[2] = (Double) ob[2] + (Double) ob[1];
+                        }
+                    }
+                    EventoFuturo eventoAtual = eventos.poll();
+                    if (eventoAtual.getTipo() == EventoFuturo.SAIDA && fronteira.contains(eventoAtual.getServidor())) {
+                        saidasFronteira.remove(eventoAtual);
+                    }
+                    relogio = eventoAtual.getTempoOcorrencia();
+                    executarEvento(eventoAtual);
+                }
+            } finally {
+                dominioAtual.remove();
+            }
+            return null;
+        }
+    }
+}
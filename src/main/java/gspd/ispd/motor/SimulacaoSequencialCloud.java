@@ -31,9 +31,15 @@ public class SimulacaoSequencialCloud extends Simulation {
     private double time = 0;
     /**
      * List of futures event sorted by priority, where this priority
-     * is the time instant the event was created. See {@link EventoFuturo#compareTo(EventoFuturo)}
+     * is the time instant the event was created, and then the order in which
+     * simultaneous events were added. See {@link EventoFuturo#compareTo(EventoFuturo)}
      */
     private PriorityQueue<EventoFuturo> eventos;
+    /**
+     * Próxima posição na ordem de inserção: eventos simultâneos são atendidos
+     * na ordem em que foram criados
+     */
+    private long ordem = 0;
     
     public SimulacaoSequencialCloud(SimulationProgress janela, RedeDeFilasCloud redeDeFilas, List<Tarefa> tarefas) throws IllegalArgumentException {
         super(janela, redeDeFilas,tarefas);
@@ -126,6 +132,7 @@ public class SimulacaoSequencialCloud extends Simulation {
             if (isVerbose()) {
                 getJanela().println(":: " + evt);
             }
+            evt.setOrdem(ordem++);
             eventos.add(evt);
         }
         getJanela().println("OK (future events)", Color.green);
@@ -133,6 +140,7 @@ public class SimulacaoSequencialCloud extends Simulation {
 
     @Override
     public void addEventoFuturo(EventoFuturo ev) {
+        ev.setOrdem(ordem++);
         eventos.offer(ev);
         if (isVerbose()) {
             getJanela().println("[Simulation] added future event " + ev, Color.orange);
@@ -5,6 +5,8 @@
 package gspd.ispd.motor;
 
 import gspd.ispd.escalonador.Mestre;
+import gspd.ispd.motor.carga.FonteDeTarefas;
+import gspd.ispd.motor.carga.GerarCarga;
 import gspd.ispd.motor.filas.Cliente;
 import gspd.ispd.motor.filas.RedeDeFilas;
 import gspd.ispd.motor.filas.RedeDeFilasCloud;
@@ -15,8 +17,15 @@ import gspd.ispd.motor.filas.servidores.implementacao.CS_Maquina;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_Mestre;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_VMM;
 import gspd.ispd.motor.metricas.Metricas;
+import gspd.ispd.motor.metricas.MetricasFilaTarefas;
+import gspd.ispd.motor.metricas.MetricasGlobais;
 import java.awt.Color;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  *
@@ -29,12 +38,48 @@ public abstract class Simulation {
     private List<Tarefa> tarefas;
     private SimulationProgress janela;
     private boolean verbose;
+    /**
+     * Fontes que fornecem as tarefas sob demanda, quando a carga não foi
+     * entregue em lista
+     */
+    private List<FonteDeTarefas> fontes;
+    /**
+     * Associa a próxima chegada agendada de cada fonte à sua fonte
+     */
+    private Map<Tarefa, FonteDeTarefas> chegadasPendentes;
+    /**
+     * Tarefas lidas das fontes que ainda não foram finalizadas
+     */
+    private Set<Tarefa> tarefasAtivas;
+    /**
+     * Métricas das tarefas finalizadas e descartadas durante a simulação
+     */
+    private MetricasFilaTarefas tarefasLiberadas;
+    /**
+     * Encerra a simulação quando as métricas atingem a precisão desejada, ou
+     * null para simular até o fim dos eventos
+     */
+    private ControleDuracao controleDuracao;
     
     public Simulation(SimulationProgress janela, RedeDeFilas redeDeFilas, List<Tarefa> tarefas){
         this.tarefas = tarefas;
         this.redeDeFilas = redeDeFilas;
         this.janela = janela;
     }
+
+    /**
+     * Cria uma simulação que lê as tarefas da carga à medida que chegam,
+     * mantendo em memória apenas a próxima chegada de cada fonte e as tarefas
+     * ainda em execução
+     */
+    public Simulation(SimulationProgress janela, RedeDeFilas redeDeFilas, GerarCarga carga) {
+        this.redeDeFilas = redeDeFilas;
+        this.janela = janela;
+        this.fontes = carga.toFontesDeTarefas(redeDeFilas);
+        this.chegadasPendentes = new HashMap<Tarefa, FonteDeTarefas>();
+        this.tarefasAtivas = new LinkedHashSet<Tarefa>();
+        this.tarefasLiberadas = new MetricasFilaTarefas(redeDeFilas);
+    }
     
     public Simulation(SimulationProgress janela, RedeDeFilasCloud redeDeFilas, List<Tarefa> tarefas){
         this.tarefas = tarefas;
@@ -54,9 +99,84 @@ public abstract class Simulation {
         return redeDeFilas;
     }
 
+    /**
+     * @return todas as tarefas da simulação ou, se a carga é lida sob
+     * demanda, apenas as tarefas que ainda não foram finalizadas
+     */
     public List<Tarefa> getTarefas() {
+        if (isCargaSobDemanda()) {
+            return new ArrayList<Tarefa>(tarefasAtivas);
+        }
         return tarefas;
     }
+
+    public boolean isCargaSobDemanda() {
+        return fontes != null;
+    }
+
+    public List<FonteDeTarefas> getFontes() {
+        return fontes;
+    }
+
+    /**
+     * Lê a próxima tarefa de uma fonte, que passa a ser a sua chegada
+     * pendente. A fonte é fechada quando se esgota.
+     *
+     * @param fonte fonte de tarefas da carga
+     * @return próxima tarefa ou null
+     */
+    protected Tarefa proximaTarefa(FonteDeTarefas fonte) {
+        Tarefa tarefa = fonte.proximaTarefa();
+        if (tarefa == null) {
+            fonte.fechar();
+        } else {
+            tarefasAtivas.add(tarefa);
+            chegadasPendentes.put(tarefa, fonte);
+        }
+        return tarefa;
+    }
+
+    /**
+     * Remove a chegada pendente correspondente à tarefa
+     *
+     * @return fonte que forneceu a tarefa, ou null se a tarefa não é a
+     * chegada pendente de nenhuma fonte
+     */
+    protected FonteDeTarefas removerChegadaPendente(Tarefa tarefa) {
+        if (chegadasPendentes == null) {
+            return null;
+        }
+        return chegadasPendentes.remove(tarefa);
+    }
+
+    /**
+     * Indica que a tarefa não receberá mais eventos. Quando a carga é lida sob
+     * demanda a tarefa é contabilizada nas métricas e deixa de ser mantida pelo
+     * motor; caso contrário nada é feito.
+     *
+     * @param tarefa tarefa finalizada
+     */
+    public void liberarTarefa(Tarefa tarefa) {
+        if (controleDuracao != null && tarefa.getEstado() == Tarefa.CONCLUIDO) {
+            controleDuracao.addTarefaConcluida(getTime(null), tarefa.getTimeCriacao());
+        }
+        if (tarefasAtivas != null && tarefasAtivas.remove(tarefa)) {
+            tarefasLiberadas.addTarefa(tarefa);
+        }
+    }
+
+    /**
+     * Contabiliza as tarefas que ainda estavam ativas ao fim da simulação
+     */
+    private void liberarTarefasRestantes() {
+        for (Tarefa tarefa : tarefasAtivas) {
+            tarefasLiberadas.addTarefa(tarefa);
+        }
+        tarefasAtivas.clear();
+        for (FonteDeTarefas fonte : fontes) {
+            fonte.fechar();
+        }
+    }
     
         
     public abstract void simular();
@@ -67,6 +187,29 @@ public abstract class Simulation {
     
     public abstract boolean removeEventoFuturo(int tipoEv, CentroServico servidorEv, Cliente clienteEv);
 
+    /**
+     * Define o controle que pode encerrar a simulação antes do fim dos
+     * eventos, quando as métricas em regime estacionário atingem a precisão
+     * desejada
+     */
+    public void setControleDuracao(ControleDuracao controleDuracao) {
+        this.controleDuracao = controleDuracao;
+        if (controleDuracao != null) {
+            controleDuracao.iniciar(redeDeFilas);
+        }
+    }
+
+    public ControleDuracao getControleDuracao() {
+        return controleDuracao;
+    }
+
+    /**
+     * @return se a simulação pode ser encerrada com eventos ainda pendentes
+     */
+    protected boolean isDuracaoAtingida() {
+        return controleDuracao != null && controleDuracao.isAtingida();
+    }
+
     public void setVerbose(boolean verbose) {
         this.verbose = verbose;
     }
@@ -76,7 +219,11 @@ public abstract class Simulation {
     }
 
     public void addTarefa(Tarefa tarefa) {
-        tarefas.add(tarefa);
+        if (isCargaSobDemanda()) {
+            tarefasAtivas.add(tarefa);
+        } else {
+            tarefas.add(tarefa);
+        }
     }
 
     public void iniciarEscalonadores() {
@@ -117,11 +264,37 @@ public abstract class Simulation {
     public Metricas getMetricas() {
         janela.print("Getting Results.");
         janela.print(" -> ");
-        Metricas metrica = new Metricas(redeDeFilas, getTime(null), tarefas);
+        Metricas metrica;
+        if (isCargaSobDemanda()) {
+            liberarTarefasRestantes();
+            metrica = new Metricas(redeDeFilas, getTime(null), new ArrayList<Tarefa>(), tarefasLiberadas);
+        } else {
+            metrica = new Metricas(redeDeFilas, getTime(null), tarefas);
+        }
+        if (controleDuracao != null) {
+            controleDuracao.preencher(metrica.getMetricasGlobais());
+        }
         janela.incProgresso(5);
         janela.println("OK", Color.green);
         return metrica;
     }
+
+    /**
+     * Obtém somente as métricas globais da simulação
+     */
+    public MetricasGlobais getMetricasGlobais() {
+        MetricasGlobais global;
+        if (isCargaSobDemanda()) {
+            liberarTarefasRestantes();
+            global = new MetricasGlobais(redeDeFilas, getTime(null), tarefasLiberadas);
+        } else {
+            global = new MetricasGlobais(redeDeFilas, getTime(null), tarefas);
+        }
+        if (controleDuracao != null) {
+            controleDuracao.preencher(global);
+        }
+        return global;
+    }
     
     public Metricas getMetricasCloud() {
         janela.print("Getting Results.");
@@ -7,7 +7,7 @@ package gspd.ispd.motor.carga;
 import gspd.ispd.arquivo.xml.DAGXML;
 import gspd.ispd.motor.filas.RedeDeFilas;
 import gspd.ispd.motor.filas.Tarefa;
-import gspd.ispd.motor.filas.dag.TarefaDAG;
+import gspd.ispd.motor.filas.dag.ProgramaDAG;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import java.io.File;
 import java.util.ArrayList;
@@ -28,6 +28,10 @@ public class CargaDAG extends GerarCarga {
     private Integer numeroIteracoes;
     private File arquivo;
     private int inicioIdentificadorTarefa;
+    /**
+     * Programa lido do arquivo, compartilhado pelas instâncias da aplicação
+     */
+    private ProgramaDAG programa;
     
     public CargaDAG(String aplicacao, String proprietario, String escalonador, Integer numTarefas, Integer numIteracoes, File dagFile) {
         this.inicioIdentificadorTarefa = 0;
@@ -42,26 +46,49 @@ public class CargaDAG extends GerarCarga {
     @Override
     public List<Tarefa> toTarefaList(RedeDeFilas rdf) {
         List<Tarefa> list = new ArrayList<Tarefa>();
-        for (int i = 0; i < numeroTarefas; i++) {
-            CS_Processamento mestre = null;
-            for (CS_Processamento maq : rdf.getMestres()) {
-                if (maq.getId().equals(escalonador)) {
-                    mestre = maq;
-                    break;
-                }
+        CS_Processamento mestre = null;
+        for (CS_Processamento maq : rdf.getMestres()) {
+            if (maq.getId().equals(escalonador)) {
+                mestre = maq;
+                break;
             }
-            try {
-                List<Tarefa> temp = DAGXML.getTarefasDAG(arquivo,inicioIdentificadorTarefa,mestre,aplicacao,proprietario);
-                inicioIdentificadorTarefa += temp.size();
+        }
+        try {
+            ProgramaDAG dag = getPrograma();
+            //contador local: a mesma carga pode gerar as tarefas de várias replicações
+            int inicio = inicioIdentificadorTarefa;
+            for (int i = 0; i < numeroTarefas; i++) {
+                List<Tarefa> temp = dag.instanciar(inicio, mestre, aplicacao, proprietario);
+                inicio += temp.size();
                 list.addAll(temp);
-            } catch (Exception ex) {
-                Logger.getLogger(CargaDAG.class.getName()).log(Level.SEVERE, null, ex);
             }
+        } catch (Exception ex) {
+            Logger.getLogger(CargaDAG.class.getName()).log(Level.SEVERE, null, ex);
         }
-        System.out.println(list);
         return list;
     }
 
+    /**
+     * Lê o arquivo da aplicação uma única vez; as replicações seguintes usam
+     * o mesmo programa compilado
+     */
+    @Override
+    public GerarCarga compilar() {
+        try {
+            getPrograma();
+        } catch (Exception ex) {
+            Logger.getLogger(CargaDAG.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return this;
+    }
+
+    private synchronized ProgramaDAG getPrograma() throws Exception {
+        if (programa == null) {
+            programa = DAGXML.compilar(arquivo);
+        }
+        return programa;
+    }
+
     @Override
     public String toString() {
         return String.format("%s %d %d %s",
@@ -122,6 +149,7 @@ public class CargaDAG extends GerarCarga {
 
     public void setArquivo(File arquivo) {
         this.arquivo = arquivo;
+        this.programa = null;
     }
     
 }
@@ -7,7 +7,7 @@ package gspd.ispd.motor.carga;
 import gspd.ispd.motor.filas.RedeDeFilas;
 import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
-import gspd.ispd.motor.random.Distribution;
+import gspd.ispd.motor.random.FluxosAleatorios;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -56,7 +56,19 @@ public class CargaForNode extends GerarCarga {
 
     @Override
     public List<Tarefa> toTarefaList(RedeDeFilas rdf) {
+        List<Tarefa> tarefas = toTarefaList(rdf, inicioIdentificadorTarefa);
+        inicioIdentificadorTarefa += tarefas.size();
+        return tarefas;
+    }
+
+    /**
+     * Cria as tarefas numerando-as a partir de inicio, sem alterar o estado
+     * da carga. Permite que a mesma carga seja usada por várias simulações
+     * ao mesmo tempo.
+     */
+    List<Tarefa> toTarefaList(RedeDeFilas rdf, int inicio) {
         List<Tarefa> tarefas = new ArrayList<Tarefa>();
+        int identificador = inicio;
         CS_Processamento mestre = null;
         int i = 0;
         boolean encontrou = false;
@@ -68,28 +80,38 @@ public class CargaForNode extends GerarCarga {
             i++;
         }
         if (encontrou) {
-            // GeracaoNumAleatorios gerador = new GeracaoNumAleatorios((int)System.currentTimeMillis());
-            // REMOVED GeracaoNumAleatorios
-            Distribution gerador = new Distribution((int) System.currentTimeMillis());
+            //fluxos identificados pelo mestre e pela posição da carga na lista;
+            //cada coluna é sorteada de uma vez
+            FluxosAleatorios fluxos = rdf.getFluxos().derivar("CargaForNode:" + escalonador, inicio);
+            double[] comunicacao = new double[this.getNumeroTarefas()];
+            double[] computacao = new double[this.getNumeroTarefas()];
+            double[] chegada = new double[this.getNumeroTarefas()];
+            fluxos.gerador("comunicacao").twoStageUniform(minComunicacao, minComunicacao + (maxComunicacao - minComunicacao) / 2, maxComunicacao, 1, comunicacao);
+            fluxos.gerador("computacao").twoStageUniform(minComputacao, minComputacao + (maxComputacao - minComputacao) / 2, maxComputacao, 1, computacao);
+            fluxos.gerador("chegada").exponencial(5, chegada);
             for (i = 0; i < this.getNumeroTarefas(); i++) {
-                //Random sorteio = new Random();
-                //double srt = sorteio.nextInt(this.maxComputacao.intValue()) + this.minComputacao;
                 Tarefa tarefa = new Tarefa(
-                        inicioIdentificadorTarefa,
+                        identificador,
                         proprietario,
                         aplicacao,
                         mestre,
-                        gerador.twoStageUniform(minComunicacao, minComunicacao + (maxComunicacao - minComunicacao) / 2, maxComunicacao, 1),
+                        comunicacao[i],
                         0.0009765625 /*arquivo recebimento*/,
-                        gerador.twoStageUniform(minComputacao, minComputacao + (maxComputacao - minComputacao) / 2, maxComputacao, 1),
-                        gerador.exponencial(5));
+                        computacao[i],
+                        chegada[i]);
                 tarefas.add(tarefa);
-                inicioIdentificadorTarefa++;
+                identificador++;
             }
         }
         return tarefas;
     }
 
+    @Override
+    public double getMediaComputacao() {
+        //o primeiro estágio é sempre usado: uniforme entre o mínimo e o meio
+        return minComputacao + (maxComputacao - minComputacao) / 4;
+    }
+
     @Override
     public String toString() {
         return String.format("%s %d %f %f %f %f",
@@ -52,14 +52,28 @@ public class CargaList extends GerarCarga {
         if (tipo == GerarCarga.FORNODE) {
             for (GerarCarga item : this.configuracaoNo) {
                 CargaForNode carga = (CargaForNode) item;
-                carga.setInicioIdentificadorTarefa(inicio);
+                tarefas.addAll(carga.toTarefaList(rdf, inicio));
                 inicio += carga.getNumeroTarefas();
-                tarefas.addAll(carga.toTarefaList(rdf));
             }
         }
         return tarefas;
     }
 
+    @Override
+    public double getMediaComputacao() {
+        if (tipo != GerarCarga.FORNODE) {
+            return Double.NaN;
+        }
+        double soma = 0;
+        int numeroTarefas = 0;
+        for (GerarCarga item : this.configuracaoNo) {
+            CargaForNode carga = (CargaForNode) item;
+            soma += carga.getMediaComputacao() * carga.getNumeroTarefas();
+            numeroTarefas += carga.getNumeroTarefas();
+        }
+        return soma / numeroTarefas;
+    }
+
     @Override
     public String toString() {
         StringBuilder saida = new StringBuilder();
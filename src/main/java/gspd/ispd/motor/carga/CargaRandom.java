@@ -7,7 +7,7 @@ package gspd.ispd.motor.carga;
 import gspd.ispd.motor.filas.RedeDeFilas;
 import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
-import gspd.ispd.motor.random.Distribution;
+import gspd.ispd.motor.random.FluxosAleatorios;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -48,38 +48,50 @@ public class CargaRandom extends GerarCarga {
         int identificador = 0;
         int quantidadePorMestre = this.getNumeroTarefas() / rdf.getMestres().size();
         int resto = this.getNumeroTarefas() % rdf.getMestres().size();
-        // GeracaoNumAleatorios gerador = new GeracaoNumAleatorios((int)System.currentTimeMillis());
-        // REMOVED GeracaoNumAleatorios
-        Distribution gerador = new Distribution((int) System.currentTimeMillis());
-        for (CS_Processamento mestre : rdf.getMestres()) {
-            for (int i = 0; i < quantidadePorMestre; i++) {
-                Tarefa tarefa = new Tarefa(
-                        identificador,
-                        mestre.getProprietario(),
-                        "application1",
-                        mestre,
-                        gerador.twoStageUniform(minComunicacao, AverageComunicacao, maxComunicacao, ProbabilityComunicacao),
-                        0.0009765625 /*arquivo recebimento*/,
-                        gerador.twoStageUniform(minComputacao, AverageComputacao, maxComputacao, ProbabilityComputacao),
-                        gerador.exponencial(timeOfArrival)/*tempo de criação*/);
-                tarefas.add(tarefa);
-                identificador++;
-            }
+        //um fluxo aleatório por mestre: as tarefas de cada mestre não dependem
+        //da ordem em que os demais são gerados
+        FluxosAleatorios fluxos = rdf.getFluxos();
+        for (int m = 0; m < rdf.getMestres().size(); m++) {
+            CS_Processamento mestre = rdf.getMestres().get(m);
+            identificador = gerarTarefas(tarefas, identificador, mestre, quantidadePorMestre, fluxos, m);
         }
-        for (int i = 0; i < resto; i++) {
+        gerarTarefas(tarefas, identificador, rdf.getMestres().get(0), resto, fluxos, rdf.getMestres().size());
+        return tarefas;
+    }
+
+    /**
+     * Cria as tarefas de um mestre, sorteando de uma vez cada coluna
+     * (comunicação, computação e chegada) a partir de um fluxo próprio
+     *
+     * @return identificador da próxima tarefa
+     */
+    private int gerarTarefas(List<Tarefa> tarefas, int identificador, CS_Processamento mestre, int quantidade, FluxosAleatorios fluxos, int indice) {
+        double[] comunicacao = new double[quantidade];
+        double[] computacao = new double[quantidade];
+        double[] chegada = new double[quantidade];
+        fluxos.gerador("CargaRandom:comunicacao", indice).twoStageUniform(minComunicacao, AverageComunicacao, maxComunicacao, ProbabilityComunicacao, comunicacao);
+        fluxos.gerador("CargaRandom:computacao", indice).twoStageUniform(minComputacao, AverageComputacao, maxComputacao, ProbabilityComputacao, computacao);
+        fluxos.gerador("CargaRandom:chegada", indice).exponencial(timeOfArrival, chegada);
+        for (int i = 0; i < quantidade; i++) {
             Tarefa tarefa = new Tarefa(
                     identificador,
-                    rdf.getMestres().get(0).getProprietario(),
+                    mestre.getProprietario(),
                     "application1",
-                    rdf.getMestres().get(0),
-                    gerador.twoStageUniform(minComunicacao, AverageComunicacao, maxComunicacao, ProbabilityComunicacao),
+                    mestre,
+                    comunicacao[i],
                     0.0009765625 /*arquivo recebimento 1 kbit*/,
-                    gerador.twoStageUniform(minComputacao, AverageComputacao, maxComputacao, ProbabilityComputacao),
-                    gerador.exponencial(timeOfArrival)/*tempo de criação*/);
+                    computacao[i],
+                    chegada[i]/*tempo de criação*/);
             tarefas.add(tarefa);
             identificador++;
         }
-        return tarefas;
+        return identificador;
+    }
+
+    @Override
+    public double getMediaComputacao() {
+        return ProbabilityComputacao * (minComputacao + AverageComputacao) / 2
+                + (1 - ProbabilityComputacao) * (AverageComputacao + maxComputacao) / 2;
     }
 
     @Override
@@ -4,20 +4,29 @@
  */
 package gspd.ispd.motor.carga;
 
+import gspd.ispd.arquivo.interpretador.cargas.ColunasTrace;
 import gspd.ispd.arquivo.interpretador.cargas.Interpretador;
+import gspd.ispd.arquivo.interpretador.cargas.LeitorTrace;
+import gspd.ispd.arquivo.interpretador.cargas.RegistroTrace;
+import gspd.ispd.arquivo.interpretador.cargas.TraceBinario;
 import gspd.ispd.motor.filas.RedeDeFilas;
 import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_Maquina;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_Mestre;
 import gspd.ispd.motor.random.Distribution;
+import gspd.ispd.motor.random.FluxosAleatorios;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -27,9 +36,19 @@ import java.util.logging.Logger;
  */
 public class CargaTrace extends GerarCarga {
 
+    /**
+     * Número de linhas de cabeçalho do arquivo .wmsx antes da primeira tarefa
+     */
+    private static final int CABECALHO = 5;
+
     private String tipo, caminho;
     private File file;
     private int num_tasks;
+    /**
+     * Tarefas já lidas do arquivo por {@link #compilar()}, ou null se o
+     * arquivo é lido a cada simulação
+     */
+    private final ColunasTrace compilado;
 
     public CargaTrace(File file, int num_tasks, String tipo) {
         this.file = file;
@@ -37,6 +56,23 @@ public class CargaTrace extends GerarCarga {
         Interpretador interpret = new Interpretador(caminho);
         this.num_tasks = num_tasks;
         this.tipo = tipo;
+        this.compilado = null;
+    }
+
+    private CargaTrace(CargaTrace origem, ColunasTrace compilado) {
+        this.file = origem.file;
+        this.caminho = origem.caminho;
+        this.num_tasks = origem.num_tasks;
+        this.tipo = origem.tipo;
+        this.compilado = compilado;
+    }
+
+    /**
+     * @return se as tarefas já foram lidas por {@link #compilar()}; caso
+     * contrário cada simulação lê o arquivo sob demanda
+     */
+    public boolean isCompilada() {
+        return compilado != null;
     }
 
     private double MediaCapProcGrade(List<CS_Maquina> maquinas) {
@@ -52,134 +88,380 @@ public class CargaTrace extends GerarCarga {
 
     @Override
     public List<Tarefa> toTarefaList(RedeDeFilas rdf) {
+        if (!formatoSuportado()) {
+            return null;
+        }
+        if (compilado != null) {
+            return instanciar(rdf, compilado);
+        }
+        if (leituraDireta()) {
+            try {
+                return instanciar(rdf, LeitorTrace.lerColunas(file, tipo, num_tasks, Runtime.getRuntime().availableProcessors()));
+            } catch (IOException ex) {
+                Logger.getLogger(CargaTrace.class.getName()).log(Level.SEVERE, null, ex);
+                return null;
+            }
+        }
         List<Tarefa> tarefas = new ArrayList<Tarefa>();
-        List<String> users = new ArrayList<String>();
-        List<Double> pcomp = new ArrayList<Double>();
+        for (FonteDeTarefas fonte : toFontesDeTarefas(rdf)) {
+            Tarefa tarefa = fonte.proximaTarefa();
+            while (tarefa != null) {
+                tarefas.add(tarefa);
+                tarefa = fonte.proximaTarefa();
+            }
+            fonte.fechar();
+        }
+        return tarefas;
+    }
+
+    /**
+     * Cria uma fonte por mestre, cada uma lendo do arquivo apenas o trecho de
+     * tarefas destinado ao seu mestre, além de uma fonte para o resto da
+     * divisão, que é atribuído ao primeiro mestre. Nenhuma tarefa é mantida em
+     * memória além da próxima chegada de cada fonte.
+     */
+    @Override
+    public List<FonteDeTarefas> toFontesDeTarefas(RedeDeFilas rdf) {
+        List<FonteDeTarefas> fontes = new ArrayList<FonteDeTarefas>();
+        if (!formatoSuportado()) {
+            return fontes;
+        }
+        try {
+            registrarUsuarios(rdf);
+        } catch (IOException ex) {
+            Logger.getLogger(CargaTrace.class.getName()).log(Level.SEVERE, null, ex);
+            return fontes;
+        }
         int quantidadePorMestre = this.num_tasks / rdf.getMestres().size();
         int resto = this.num_tasks % rdf.getMestres().size();
-        // GeracaoNumAleatorios gerador = new GeracaoNumAleatorios((int) System.currentTimeMillis());
-        // REMOVED GeracaoNumAleatorios
-        Distribution gerador = new Distribution((int) System.currentTimeMillis());
+        //cada trecho do trace tem seu próprio fluxo aleatório, então as fontes
+        //podem ser consumidas em qualquer ordem ou em paralelo
+        FluxosAleatorios fluxos = rdf.getFluxos();
         double mediaCap = MediaCapProcGrade(rdf.getMaquinas());
+        int inicio = 0;
+        for (int i = 0; i < rdf.getMestres().size(); i++) {
+            fontes.add(new FonteTrace(rdf.getMestres().get(i), inicio, quantidadePorMestre, fluxos.gerador("CargaTrace", i), mediaCap));
+            inicio += quantidadePorMestre;
+        }
+        if (resto > 0) {
+            fontes.add(new FonteTrace(rdf.getMestres().get(0), inicio, resto, fluxos.gerador("CargaTrace", rdf.getMestres().size()), mediaCap));
+        }
+        return fontes;
+    }
+
+    /**
+     * Lê o trace uma única vez, mantendo em memória apenas as colunas com os
+     * dados das tarefas. A carga devolvida cria as tarefas de cada simulação a
+     * partir dessas colunas, sem voltar ao arquivo, e pode ser compartilhada
+     * entre replicações e threads. Arquivos binários já são acessados sem
+     * interpretação e não são copiados.
+     */
+    @Override
+    public GerarCarga compilar() {
+        if (compilado != null || !formatoSuportado() || binario()) {
+            return this;
+        }
         try {
+            if (leituraDireta()) {
+                return new CargaTrace(this, LeitorTrace.lerColunas(file, tipo, num_tasks, Runtime.getRuntime().availableProcessors()));
+            }
+            return new CargaTrace(this, LeitorTrace.lerWmsx(file, tipo, num_tasks));
+        } catch (IOException ex) {
+            Logger.getLogger(CargaTrace.class.getName()).log(Level.SEVERE, null, ex);
+            return this;
+        }
+    }
+
+    /**
+     * Cria as tarefas descritas pelas colunas e as distribui entre os mestres
+     * na mesma ordem usada pelas fontes
+     */
+    private List<Tarefa> instanciar(RedeDeFilas rdf, ColunasTrace colunas) {
+        adicionarUsuarios(rdf, colunas.getUsuarios());
+        List<CS_Processamento> mestres = rdf.getMestres();
+        int quantidadePorMestre = this.num_tasks / mestres.size();
+        //mesmos fluxos usados pelas fontes de cada trecho
+        Distribution[] geradores = new Distribution[mestres.size() + 1];
+        for (int i = 0; i < geradores.length; i++) {
+            geradores[i] = rdf.getFluxos().gerador("CargaTrace", i);
+        }
+        double mediaCap = MediaCapProcGrade(rdf.getMaquinas());
+        List<Tarefa> tarefas = new ArrayList<Tarefa>(colunas.getTamanho());
+        for (int i = 0; i < colunas.getTamanho(); i++) {
+            int indice = quantidadePorMestre == 0 ? mestres.size() : Math.min(i / quantidadePorMestre, mestres.size());
+            CS_Processamento mestre = mestres.get(indice < mestres.size() ? indice : 0);
+            tarefas.add(criarTarefa(colunas, i, mestre, geradores[indice], mediaCap));
+        }
+        return tarefas;
+    }
+
+    private boolean formatoSuportado() {
+        return tipo.equals("SWF") || tipo.equals("GWF") || tipo.equals("iSPD");
+    }
+
+    /**
+     * Arquivos SWF e GWF que não foram convertidos para .wmsx são lidos
+     * diretamente por {@link LeitorTrace}
+     */
+    private boolean leituraDireta() {
+        return LeitorTrace.formatoSuportado(tipo) && !caminho.toLowerCase().endsWith(".wmsx") && !binario();
+    }
+
+    /**
+     * Cargas convertidas para o formato binário são acessadas diretamente
+     * pela posição de cada tarefa, sem percorrer o arquivo
+     */
+    private boolean binario() {
+        return caminho.toLowerCase().endsWith(TraceBinario.EXTENSAO);
+    }
+
+    /**
+     * Percorre o trace lendo apenas o usuário de cada tarefa e adiciona aos
+     * mestres e ao modelo os usuários que ainda não existem
+     */
+    private void registrarUsuarios(RedeDeFilas rdf) throws IOException {
+        Set<String> users = new LinkedHashSet<String>();
+        if (compilado != null) {
+            users.addAll(compilado.getUsuarios());
+        } else if (binario()) {
+            TraceBinario trace = new TraceBinario(file);
+            try {
+                users.addAll(trace.getUsuarios(num_tasks));
+            } finally {
+                trace.close();
+            }
+        } else if (leituraDireta()) {
+            LeitorTrace leitor = new LeitorTrace(file, tipo);
+            try {
+                RegistroTrace registro = new RegistroTrace();
+                for (int i = 0; i < num_tasks && leitor.proximo(registro); i++) {
+                    users.add(registro.getUsuario());
+                }
+            } finally {
+                leitor.close();
+            }
+        } else {
             BufferedReader in = new BufferedReader(new FileReader(caminho));
-            String aux;
-            int j = 0;
-            //escapa o cabeçalho
-            while (in.ready() && j < 5) {
-                in.readLine();
-                j++;
-            }
-            if (tipo.equals("SWF") || tipo.equals("GWF")) {
-                for (CS_Processamento mestre : rdf.getMestres()) {
-                    for (int i = 0; i < quantidadePorMestre; i++) {
-                        aux = in.readLine();
-                        String[] campos = aux.split("\"");
-                        if (rdf.getUsuarios().contains(campos[11]) == false && users.contains(campos[11]) == false) {
-                            users.add(campos[11]);
-                            pcomp.add(0.0);
-                        }
-                        Tarefa tarefa = new Tarefa(
-                                (int) Integer.parseInt(campos[1]),
-                                campos[11],
-                                "application1",
-                                mestre,
-                                gerador.twoStageUniform(200, 5000, 25000, 0.5),
-                                0.0009765625 /*arquivo recebimento*/,
-                                (double) (Double.parseDouble(campos[7]) * mediaCap),
-                                Double.parseDouble(campos[3])/*tempo de criação*/);
-                        tarefas.add(tarefa);
-                        if (campos[5].contains("0") || campos[5].contains("5")) {
-                            tarefa.setLocalProcessamento(mestre);
-                            tarefa.cancelar(0);
-                        }
+            try {
+                pularLinhas(in, CABECALHO);
+                for (int i = 0; i < num_tasks; i++) {
+                    String aux = in.readLine();
+                    if (aux == null) {
+                        break;
                     }
+                    users.add(aux.split("\"")[11]);
                 }
-                for (int i = 0; i < resto; i++) {
-                    aux = in.readLine();
-                    String[] campos = aux.split("\"");
-                    if (rdf.getUsuarios().contains(campos[11]) == false && users.contains(campos[11]) == false) {
-                        users.add(campos[11]);
-                        pcomp.add(0.0);
-                    }
-                    Tarefa tarefa = new Tarefa(
-                            (int) Integer.parseInt(campos[1]),
-                            campos[11],
-                            "application1",
-                            rdf.getMestres().get(0),
-                            gerador.twoStageUniform(200, 5000, 25000, 0.5),
-                            0.0009765625 /*arquivo recebimento*/,
-                            (double) (Double.parseDouble(campos[7]) * mediaCap),
-                            Double.parseDouble(campos[3])/*tempo de criação*/);
-                    tarefas.add(tarefa);
-                    if (campos[5].contains("0") || campos[5].contains("5")) {
-                        tarefa.setLocalProcessamento(rdf.getMestres().get(0));
-                        tarefa.cancelar(0);
+            } finally {
+                in.close();
+            }
+        }
+        adicionarUsuarios(rdf, users);
+    }
+
+    /**
+     * Adiciona aos mestres e ao modelo os usuários do trace que ainda não
+     * existem
+     */
+    private void adicionarUsuarios(RedeDeFilas rdf, Collection<String> usuarios) {
+        List<String> users = new ArrayList<String>();
+        List<Double> pcomp = new ArrayList<Double>();
+        Set<String> vistos = new HashSet<String>(rdf.getUsuarios());
+        for (String usuario : usuarios) {
+            if (vistos.add(usuario)) {
+                users.add(usuario);
+                pcomp.add(0.0);
+            }
+        }
+        for (CS_Processamento mestre : rdf.getMestres()) {
+            CS_Mestre mestreaux = (CS_Mestre) mestre;
+            mestreaux.getEscalonador().getMetricaUsuarios().addAllUsuarios(users, pcomp);
+        }
+        rdf.getUsuarios().addAll(users);
+    }
+
+    private static void pularLinhas(BufferedReader in, int linhas) throws IOException {
+        for (int j = 0; j < linhas && in.readLine() != null; j++) {
+        }
+    }
+
+    /**
+     * Cria a tarefa descrita pelos campos de uma linha do trace
+     */
+    private Tarefa criarTarefa(String[] campos, CS_Processamento mestre, Distribution gerador, double mediaCap) {
+        return criarTarefa((int) Integer.parseInt(campos[1]), campos[11],
+                Double.parseDouble(campos[3]), Double.parseDouble(campos[7]), LeitorTrace.getTempoRequisitadoWmsx(campos), Double.parseDouble(campos[9]),
+                campos[5].contains("0") || campos[5].contains("5"), mestre, gerador, mediaCap);
+    }
+
+    private Tarefa criarTarefa(ColunasTrace colunas, int i, CS_Processamento mestre, Distribution gerador, double mediaCap) {
+        return criarTarefa(colunas.getId(i), colunas.getUsuario(i), colunas.getChegada(i), colunas.getTempoExecucao(i),
+                colunas.getTempoRequisitado(i), colunas.getComunicacao(i), colunas.isCancelada(i), mestre, gerador, mediaCap);
+    }
+
+    /**
+     * Cria uma tarefa a partir dos campos do trace. Nos formatos SWF e GWF o
+     * tamanho registrado é o tempo de execução, convertido pela capacidade
+     * média das máquinas do modelo, e a comunicação é sorteada. O tempo
+     * requisitado, quando presente, é convertido da mesma forma no tamanho
+     * estimado da tarefa.
+     */
+    private Tarefa criarTarefa(int id, String usuario, double chegada, double tamanho, double requisitado, double comunicacao, boolean cancelada,
+            CS_Processamento mestre, Distribution gerador, double mediaCap) {
+        if (tipo.equals("iSPD")) {
+            return new Tarefa(
+                    id,
+                    usuario,
+                    "application1",
+                    mestre,
+                    comunicacao,
+                    0.0009765625 /*arquivo recebimento*/,
+                    tamanho,
+                    chegada/*tempo de criação*/);
+        }
+        Tarefa tarefa = new Tarefa(
+                id,
+                usuario,
+                "application1",
+                mestre,
+                gerador.twoStageUniform(200, 5000, 25000, 0.5),
+                0.0009765625 /*arquivo recebimento*/,
+                (double) (tamanho * mediaCap),
+                chegada/*tempo de criação*/);
+        if (requisitado > 0) {
+            tarefa.setTamEstimado(requisitado * mediaCap);
+        }
+        if (cancelada) {
+            tarefa.setLocalProcessamento(mestre);
+            tarefa.cancelar(0);
+        }
+        return tarefa;
+    }
+
+    /**
+     * Lê sob demanda as tarefas de um trecho contínuo do arquivo de trace, ou
+     * das colunas da carga compilada
+     */
+    private class FonteTrace implements FonteDeTarefas {
+
+        private final CS_Processamento mestre;
+        private final int inicio;
+        private int restantes;
+        private final Distribution gerador;
+        private final double mediaCap;
+        private BufferedReader in;
+        private LeitorTrace leitor;
+        private RegistroTrace registro;
+        private TraceBinario binario;
+        private int proxima;
+
+        public FonteTrace(CS_Processamento mestre, int inicio, int quantidade, Distribution gerador, double mediaCap) {
+            this.mestre = mestre;
+            this.inicio = inicio;
+            this.restantes = quantidade;
+            this.gerador = gerador;
+            this.mediaCap = mediaCap;
+            this.proxima = inicio;
+        }
+
+        @Override
+        public Tarefa proximaTarefa() {
+            if (restantes <= 0) {
+                return null;
+            }
+            try {
+                if (compilado != null) {
+                    if (proxima >= compilado.getTamanho()) {
+                        fechar();
+                        return null;
                     }
+                    restantes--;
+                    return criarTarefa(compilado, proxima++, mestre, gerador, mediaCap);
                 }
-                for (CS_Processamento mestre : rdf.getMestres()) {
-                    CS_Mestre mestreaux = (CS_Mestre) mestre;
-                    mestreaux.getEscalonador().getMetricaUsuarios().addAllUsuarios(users, pcomp);
+                if (binario()) {
+                    return proximaTarefaBinaria();
                 }
-                rdf.getUsuarios().addAll(users);
-                return tarefas;
-
-            } else if (tipo.equals("iSPD")) {
-                for (CS_Processamento mestre : rdf.getMestres()) {
-                    for (int i = 0; i < quantidadePorMestre; i++) {
-                        aux = in.readLine();
-                        String[] campos = aux.split("\"");
-                        if (rdf.getUsuarios().contains(campos[11]) == false && users.contains(campos[11]) == false) {
-                            users.add(campos[11]);
-                            pcomp.add(0.0);
-                        }
-                        Tarefa tarefa = new Tarefa(
-                                (int) Integer.parseInt(campos[1]),
-                                campos[11],
-                                "application1",
-                                mestre,
-                                (double) Double.parseDouble(campos[9]),
-                                0.0009765625 /*arquivo recebimento*/,
-                                (double) Double.parseDouble(campos[7]),
-                                Double.parseDouble(campos[3])/*tempo de criação*/);
-                        tarefas.add(tarefa);
-                    }
-
+                if (leituraDireta()) {
+                    return proximaTarefaDireta();
                 }
-                for (int i = 0; i < resto; i++) {
-                    aux = in.readLine();
-                    String[] campos = aux.split("\"");
-                    if (rdf.getUsuarios().contains(campos[11]) == false && users.contains(campos[11]) == false) {
-                        users.add(campos[11]);
-                        pcomp.add(0.0);
-                    }
-                    Tarefa tarefa = new Tarefa(
-                            (int) Integer.parseInt(campos[1]),
-                            campos[11],
-                            "application1",
-                            rdf.getMestres().get(0),
-                            (double) Double.parseDouble(campos[9]),
-                            0.0009765625 /*arquivo recebimento*/,
-                            (double) Double.parseDouble(campos[7]),
-                            Double.parseDouble(campos[3])/*tempo de criação*/);
-                    tarefas.add(tarefa);
+                if (in == null) {
+                    in = new BufferedReader(new FileReader(caminho));
+                    //escapa o cabeçalho e as tarefas das fontes anteriores
+                    pularLinhas(in, CABECALHO + inicio);
                 }
-                for (CS_Processamento mestre : rdf.getMestres()) {
-                    CS_Mestre mestreaux = (CS_Mestre) mestre;
-                    mestreaux.getEscalonador().getMetricaUsuarios().addAllUsuarios(users, pcomp);
+                String aux = in.readLine();
+                if (aux == null) {
+                    fechar();
+                    return null;
                 }
-                rdf.getUsuarios().addAll(users);
-                return tarefas;
+                restantes--;
+                return criarTarefa(aux.split("\""), mestre, gerador, mediaCap);
+            } catch (IOException ex) {
+                Logger.getLogger(CargaTrace.class.getName()).log(Level.SEVERE, null, ex);
+                fechar();
+                return null;
+            }
+        }
 
+        private Tarefa proximaTarefaDireta() throws IOException {
+            if (leitor == null) {
+                leitor = new LeitorTrace(file, tipo);
+                registro = new RegistroTrace();
+                //escapa as tarefas das fontes anteriores
+                leitor.pular(inicio);
             }
+            if (!leitor.proximo(registro)) {
+                fechar();
+                return null;
+            }
+            restantes--;
+            return criarTarefa(registro.getId(), registro.getUsuario(), registro.getChegada(), registro.getTempoExecucao(),
+                    registro.getTempoRequisitado(), registro.getComunicacao(), registro.isCancelada(), mestre, gerador, mediaCap);
+        }
 
-        } catch (IOException ex) {
-            Logger.getLogger(CargaTrace.class.getName()).log(Level.SEVERE, null, ex);
+        private Tarefa proximaTarefaBinaria() throws IOException {
+            if (binario == null) {
+                binario = new TraceBinario(file);
+            }
+            if (proxima >= binario.getNumTarefas()) {
+                fechar();
+                return null;
+            }
+            int i = proxima++;
+            restantes--;
+            return criarTarefa(binario.getId(i), binario.getUsuario(i), binario.getChegada(i), binario.getTamanho(i),
+                    binario.getTempoRequisitado(i), binario.getComunicacao(i), binario.isCancelada(i), mestre, gerador, mediaCap);
         }
 
-        return null;
+        @Override
+        public void fechar() {
+            restantes = 0;
+            if (binario != null) {
+                try {
+                    binario.close();
+                } catch (IOException ex) {
+                    Logger.getLogger(CargaTrace.class.getName()).log(Level.SEVERE, null, ex);
+                }
+                binario = null;
+            }
+            if (leitor != null) {
+                try {
+                    leitor.close();
+                } catch (IOException ex) {
+                    Logger.getLogger(CargaTrace.class.getName()).log(Level.SEVERE, null, ex);
+                }
+                leitor = null;
+            }
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ex) {
+                    Logger.getLogger(CargaTrace.class.getName()).log(Level.SEVERE, null, ex);
+                }
+                in = null;
+            }
+        }
     }
-    
+
     public File getFile() {
         return file;
     }
@@ -0,0 +1,162 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.motor.carga;
+
+import gspd.ispd.model.data.Job;
+import gspd.ispd.model.workload.TaskModel;
+import gspd.ispd.model.workload.Workflow;
+import gspd.ispd.model.workload.Workload;
+import gspd.ispd.motor.filas.RedeDeFilas;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import java.util.ArrayList;
+import java.util.List;
+import org.w3c.dom.Element;
+
+/**
+ * Carga descrita pela árvore de expansões de gspd.ispd.model.workload. Cada
+ * fluxo de trabalho se torna uma fonte de tarefas que percorre a árvore
+ * apenas quando o motor pede a próxima chegada, de modo que expansões
+ * iterativas e recursivas com milhões de tarefas nunca são geradas por
+ * inteiro.
+ *
+ * A carga mantém apenas o modelo: cada chamada a
+ * {@link #toFontesDeTarefas(RedeDeFilas)} percorre uma cópia dos fluxos, com
+ * cursores próprios, e por isso a mesma carga pode ser usada por várias
+ * replicações ao mesmo tempo.
+ *
+ * @author denison
+ */
+public class CargaWorkload extends GerarCarga {
+
+    private final Workload workload;
+    /**
+     * Elemento do modelo icônico de onde a carga foi lida, mantido para que o
+     * modelo seja gravado novamente sem perder a descrição dos fluxos
+     */
+    private final Element descricao;
+
+    public CargaWorkload(Workload workload) {
+        this(workload, null);
+    }
+
+    public CargaWorkload(Workload workload, Element descricao) {
+        this.workload = workload;
+        this.descricao = descricao;
+    }
+
+    public Workload getWorkload() {
+        return workload;
+    }
+
+    /**
+     * @return elemento xml que descreve os fluxos, ou null se a carga não foi
+     * lida de um modelo
+     */
+    public Element getDescricao() {
+        return descricao;
+    }
+
+    /**
+     * Gera todas as tarefas na mesma ordem em que o motor as lê das fontes: a
+     * próxima tarefa de um fluxo é lida quando a anterior chega, portanto os
+     * identificadores são os mesmos da simulação sob demanda.
+     */
+    @Override
+    public List<Tarefa> toTarefaList(RedeDeFilas rdf) {
+        List<Tarefa> tarefas = new ArrayList<Tarefa>();
+        List<FonteDeTarefas> fontes = toFontesDeTarefas(rdf);
+        Tarefa[] pendentes = new Tarefa[fontes.size()];
+        for (int i = 0; i < pendentes.length; i++) {
+            pendentes[i] = fontes.get(i).proximaTarefa();
+        }
+        while (true) {
+            int proxima = -1;
+            for (int i = 0; i < pendentes.length; i++) {
+                if (pendentes[i] != null && (proxima == -1
+                        || pendentes[i].getTimeCriacao() < pendentes[proxima].getTimeCriacao())) {
+                    proxima = i;
+                }
+            }
+            if (proxima == -1) {
+                return tarefas;
+            }
+            tarefas.add(pendentes[proxima]);
+            pendentes[proxima] = fontes.get(proxima).proximaTarefa();
+        }
+    }
+
+    @Override
+    public List<FonteDeTarefas> toFontesDeTarefas(RedeDeFilas rdf) {
+        //identificadores sequenciais entre todos os fluxos desta simulação
+        int[] proximoIdentificador = {0};
+        List<FonteDeTarefas> fontes = new ArrayList<FonteDeTarefas>();
+        for (Workflow fluxo : workload.copy().getWorkflows()) {
+            CS_Processamento mestre = null;
+            for (CS_Processamento maq : rdf.getMestres()) {
+                if (fluxo.getScheduler() == null || maq.getId().equals(fluxo.getScheduler())) {
+                    mestre = maq;
+                    break;
+                }
+            }
+            fontes.add(new FonteWorkflow(fluxo, mestre, proximoIdentificador));
+        }
+        return fontes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d workflows", workload.getWorkflows().size());
+    }
+
+    @Override
+    public int getTipo() {
+        return GerarCarga.WORKLOAD;
+    }
+
+    /**
+     * Converte os jobs de um fluxo em tarefas à medida que são solicitados
+     */
+    private static class FonteWorkflow implements FonteDeTarefas {
+
+        private final Workflow fluxo;
+        private final CS_Processamento mestre;
+        private final int[] proximoIdentificador;
+        private boolean fechada;
+
+        public FonteWorkflow(Workflow fluxo, CS_Processamento mestre, int[] proximoIdentificador) {
+            this.fluxo = fluxo;
+            this.mestre = mestre;
+            this.proximoIdentificador = proximoIdentificador;
+        }
+
+        @Override
+        public Tarefa proximaTarefa() {
+            if (fechada) {
+                return null;
+            }
+            Job job = fluxo.getNextTask();
+            if (job == null) {
+                fechar();
+                return null;
+            }
+            TaskModel modelo = job.getModel();
+            return new Tarefa(
+                    proximoIdentificador[0]++,
+                    fluxo.getOwner(),
+                    modelo.getApplication(),
+                    mestre,
+                    modelo.getSendFile(),
+                    modelo.getReceiveFile(),
+                    modelo.getProcessingSize(),
+                    fluxo.getArrivalTime(job.getId()));
+        }
+
+        @Override
+        public void fechar() {
+            fechada = true;
+        }
+    }
+}
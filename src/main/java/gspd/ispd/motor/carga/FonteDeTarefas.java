@@ -0,0 +1,30 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.motor.carga;
+
+import gspd.ispd.motor.filas.Tarefa;
+
+/**
+ * Fornece as tarefas de uma carga sob demanda, uma de cada vez, em ordem
+ * não decrescente de tempo de criação. O motor de simulação mantém apenas a
+ * próxima chegada de cada fonte na lista de eventos futuros e só solicita a
+ * seguinte quando a atual chega ao seu mestre de origem.
+ *
+ * @author denison
+ */
+public interface FonteDeTarefas {
+
+    /**
+     * Obtém a próxima tarefa da carga
+     *
+     * @return próxima tarefa, ou null se a fonte se esgotou
+     */
+    public Tarefa proximaTarefa();
+
+    /**
+     * Libera os recursos (arquivos, buffers) usados pela fonte
+     */
+    public void fechar();
+}
@@ -0,0 +1,52 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.motor.carga;
+
+import gspd.ispd.motor.filas.Tarefa;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Fonte de tarefas sobre uma lista já gerada. Utilizada pelas cargas que não
+ * sabem produzir suas tarefas de forma incremental.
+ *
+ * @author denison
+ */
+public class FonteLista implements FonteDeTarefas {
+
+    private Tarefa[] tarefas;
+    private int proxima;
+
+    public FonteLista(List<Tarefa> tarefas) {
+        List<Tarefa> ordenadas = new ArrayList<Tarefa>(tarefas);
+        //a lista pode não estar em ordem de chegada
+        Collections.sort(ordenadas, new Comparator<Tarefa>() {
+            @Override
+            public int compare(Tarefa o1, Tarefa o2) {
+                return Double.compare(o1.getTimeCriacao(), o2.getTimeCriacao());
+            }
+        });
+        this.tarefas = ordenadas.toArray(new Tarefa[ordenadas.size()]);
+        this.proxima = 0;
+    }
+
+    @Override
+    public Tarefa proximaTarefa() {
+        if (proxima < tarefas.length) {
+            Tarefa tarefa = tarefas[proxima];
+            //permite que a tarefa seja descartada após concluída
+            tarefas[proxima++] = null;
+            return tarefa;
+        }
+        return null;
+    }
+
+    @Override
+    public void fechar() {
+        proxima = tarefas.length;
+    }
+}
@@ -7,6 +7,7 @@ package gspd.ispd.motor.carga;
 
 import gspd.ispd.motor.filas.RedeDeFilas;
 import gspd.ispd.motor.filas.Tarefa;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -19,8 +20,48 @@ public abstract class GerarCarga {
     public static final int FORNODE = 1;
     public static final int TRACE = 2;
     public static final int DAG = 3;
+    public static final int WORKLOAD = 4;
     public abstract List<Tarefa> toTarefaList(RedeDeFilas rdf);
 
+    /**
+     * Cria as fontes que fornecem as tarefas desta carga sob demanda. Cargas
+     * que não sabem gerar suas tarefas de forma incremental devolvem uma única
+     * fonte sobre a lista criada por {@link #toTarefaList(RedeDeFilas)}.
+     *
+     * @param rdf rede de filas que será simulada
+     * @return fontes de tarefas, cada uma em ordem de tempo de criação
+     */
+    public List<FonteDeTarefas> toFontesDeTarefas(RedeDeFilas rdf) {
+        List<Tarefa> tarefas = toTarefaList(rdf);
+        if (tarefas == null) {
+            return Collections.emptyList();
+        }
+        return Collections.<FonteDeTarefas>singletonList(new FonteLista(tarefas));
+    }
+
+    /**
+     * Lê uma única vez as entradas da carga (arquivos de trace, por exemplo)
+     * e devolve uma carga imutável que pode ser usada por várias replicações e
+     * threads, cada uma criando apenas as suas tarefas. Cargas geradas somente
+     * a partir de parâmetros devolvem a si mesmas.
+     *
+     * @return carga que pode ser compartilhada entre simulações
+     */
+    public GerarCarga compilar() {
+        return this;
+    }
+
+    /**
+     * Valor esperado do tamanho de computação das tarefas geradas, usado como
+     * variável de controle na estimativa das métricas entre replicações
+     *
+     * @return média esperada, ou NaN se a carga não for aleatória ou se a
+     * média não for conhecida
+     */
+    public double getMediaComputacao() {
+        return Double.NaN;
+    }
+
     @Override
     public abstract String toString();
 
@@ -0,0 +1,59 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.motor.filas;
+
+/**
+ * Conteúdo da resposta de um escravo a uma mensagem de atualização: apenas as
+ * tarefas que mudaram de situação desde a última atualização enviada ao mesmo
+ * mestre, cada uma com a sua situação atual. A primeira resposta a um mestre é
+ * completa e contém todas as tarefas na fila e em execução.
+ *
+ * @author denison
+ */
+public class AtualizacaoEscravo {
+
+    /**
+     * A tarefa entrou (ou voltou) para o fim da fila do escravo
+     */
+    public static final byte FILA = 0;
+    /**
+     * A tarefa está em execução no escravo
+     */
+    public static final byte EXECUTANDO = 1;
+    /**
+     * A tarefa não está mais na fila nem em execução no escravo
+     */
+    public static final byte FORA = 2;
+
+    private final boolean completa;
+    private final Tarefa[] tarefas;
+    private final byte[] situacoes;
+
+    public AtualizacaoEscravo(boolean completa, Tarefa[] tarefas, byte[] situacoes) {
+        this.completa = completa;
+        this.tarefas = tarefas;
+        this.situacoes = situacoes;
+    }
+
+    /**
+     * @return se a atualização descreve todo o estado do escravo, substituindo
+     * o que o mestre conhecia
+     */
+    public boolean isCompleta() {
+        return completa;
+    }
+
+    public int size() {
+        return tarefas.length;
+    }
+
+    public Tarefa getTarefa(int i) {
+        return tarefas[i];
+    }
+
+    public byte getSituacao(int i) {
+        return situacoes[i];
+    }
+}
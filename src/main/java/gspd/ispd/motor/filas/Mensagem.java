@@ -24,6 +24,7 @@ public class Mensagem implements Cliente {
     private double tamComunicacao;
     private List<Tarefa> filaEscravo;
     private List<Tarefa> processadorEscravo;
+    private AtualizacaoEscravo atualizacao;
 
     public Mensagem(CS_Processamento origem, int tipo) {
         this.origem = origem;
@@ -95,6 +96,19 @@ public class Mensagem implements Cliente {
         this.processadorEscravo = processadorEscravo;
     }
     
+    /**
+     * @return alterações do escravo desde a última atualização, ou null se a
+     * resposta contém o estado completo em getFilaEscravo() e
+     * getProcessadorEscravo()
+     */
+    public AtualizacaoEscravo getAtualizacao() {
+        return atualizacao;
+    }
+
+    public void setAtualizacao(AtualizacaoEscravo atualizacao) {
+        this.atualizacao = atualizacao;
+    }
+    
     public int getTipo(){
         return tipo;
     }
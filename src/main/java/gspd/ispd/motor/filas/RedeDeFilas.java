@@ -8,6 +8,7 @@ import gspd.ispd.motor.filas.servidores.CS_Comunicacao;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_Internet;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_Maquina;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.random.FluxosAleatorios;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -41,6 +42,10 @@ public class RedeDeFilas {
      * Mantem lista dos usuarios da rede de filas
      */
     private List<String> usuarios;
+    /**
+     * Fluxos de números aleatórios da replicação simulada com esta rede
+     */
+    private FluxosAleatorios fluxos;
     
     /**
      * Armazena listas com a arquitetura de todo o sistema modelado, utilizado
@@ -98,6 +103,22 @@ public class RedeDeFilas {
         this.usuarios = usuarios;
     }
 
+    /**
+     * Fluxos usados pela carga e pelas falhas desta replicação. Se não foram
+     * definidos, a rede recebe os fluxos da próxima replicação dos fluxos
+     * padrão.
+     */
+    public synchronized FluxosAleatorios getFluxos() {
+        if (fluxos == null) {
+            fluxos = FluxosAleatorios.getPadrao().novaReplicacao();
+        }
+        return fluxos;
+    }
+
+    public synchronized void setFluxos(FluxosAleatorios fluxos) {
+        this.fluxos = fluxos;
+    }
+
     /**
      * Cria falhas para ocorrer durante a simulação usando a distribuição de Weibull.
      * A distribuição de Weibull indica o momento que ocorre a falha, 
@@ -111,7 +132,7 @@ public class RedeDeFilas {
      * @param recuperavel indica se a falha tem recuperação automática
      */
     public void setFalhas(int min, int max, double scale, double shape, double recMin, double recMax, boolean recuperavel) {
-        Random rd = new Random();
+        Random rd = getFluxos().gerador("falhas");
         int numFalhas = min + rd.nextInt(max - min);
         List<Double> falhas = new ArrayList<Double>();
         for (int i = 0; i < numFalhas; i++) {
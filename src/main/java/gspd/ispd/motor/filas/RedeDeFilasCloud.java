@@ -92,7 +92,7 @@ public class RedeDeFilasCloud extends RedeDeFilas{
      */
     @Override
     public void setFalhas(int min, int max, double scale, double shape, double recMin, double recMax, boolean recuperavel) {
-        Random rd = new Random();
+        Random rd = getFluxos().gerador("falhas");
         int numFalhas = min + rd.nextInt(max - min);
         List<Double> falhas = new ArrayList<Double>();
         for (int i = 0; i < numFalhas; i++) {
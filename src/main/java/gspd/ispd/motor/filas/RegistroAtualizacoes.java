@@ -0,0 +1,103 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.motor.filas;
+
+import gspd.ispd.motor.filas.servidores.CentroServico;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Mantido pelo escravo para responder às mensagens de atualização. Guarda,
+ * para cada mestre que já pediu atualizações, as tarefas que mudaram de
+ * situação desde a última resposta enviada a ele, e monta a resposta apenas
+ * com elas.
+ *
+ * Mestres que nunca pediram atualizações (escalonadores estáticos) não são
+ * acompanhados, de modo que o registro não custa nada nesses casos.
+ *
+ * @author denison
+ */
+public class RegistroAtualizacoes {
+
+    /**
+     * Tarefas alteradas desde a última atualização de cada mestre, na ordem
+     * da última alteração
+     */
+    private final Map<CentroServico, LinkedHashSet<Tarefa>> alteradas = new HashMap<CentroServico, LinkedHashSet<Tarefa>>();
+
+    /**
+     * Deve ser chamado sempre que a tarefa entrar ou sair da fila ou da
+     * lista de tarefas em execução do escravo
+     */
+    public void alterou(Tarefa tarefa) {
+        if (alteradas.isEmpty()) {
+            return;
+        }
+        for (LinkedHashSet<Tarefa> tarefas : alteradas.values()) {
+            //Reinsere para manter a ordem de entrada na fila
+            tarefas.remove(tarefa);
+            tarefas.add(tarefa);
+        }
+    }
+
+    /**
+     * Registra todas as tarefas da coleção, antes de ela ser esvaziada
+     */
+    public void alterou(Collection<Tarefa> tarefas) {
+        if (alteradas.isEmpty()) {
+            return;
+        }
+        for (Tarefa tarefa : tarefas) {
+            alterou(tarefa);
+        }
+    }
+
+    /**
+     * Monta a resposta para o mestre. A primeira resposta é completa; as
+     * seguintes contêm a situação atual das tarefas alteradas desde a
+     * resposta anterior.
+     *
+     * @param mestre mestre que pediu a atualização
+     * @param fila tarefas aguardando na fila do escravo
+     * @param processador tarefas em execução no escravo
+     */
+    public AtualizacaoEscravo gerar(CentroServico mestre, Collection<Tarefa> fila, Collection<Tarefa> processador) {
+        LinkedHashSet<Tarefa> tarefas = alteradas.get(mestre);
+        if (tarefas == null) {
+            alteradas.put(mestre, new LinkedHashSet<Tarefa>());
+            Tarefa[] estado = new Tarefa[fila.size() + processador.size()];
+            byte[] situacoes = new byte[estado.length];
+            int i = 0;
+            for (Tarefa tarefa : fila) {
+                estado[i] = tarefa;
+                situacoes[i++] = AtualizacaoEscravo.FILA;
+            }
+            for (Tarefa tarefa : processador) {
+                estado[i] = tarefa;
+                situacoes[i++] = AtualizacaoEscravo.EXECUTANDO;
+            }
+            return new AtualizacaoEscravo(true, estado, situacoes);
+        }
+        Tarefa[] alteracoes = new Tarefa[tarefas.size()];
+        byte[] situacoes = new byte[alteracoes.length];
+        int i = 0;
+        for (Iterator<Tarefa> it = tarefas.iterator(); it.hasNext(); i++) {
+            Tarefa tarefa = it.next();
+            alteracoes[i] = tarefa;
+            if (processador.contains(tarefa)) {
+                situacoes[i] = AtualizacaoEscravo.EXECUTANDO;
+            } else if (fila.contains(tarefa)) {
+                situacoes[i] = AtualizacaoEscravo.FILA;
+            } else {
+                situacoes[i] = AtualizacaoEscravo.FORA;
+            }
+        }
+        tarefas.clear();
+        return new AtualizacaoEscravo(false, alteracoes, situacoes);
+    }
+}
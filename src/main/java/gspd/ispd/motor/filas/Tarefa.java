@@ -28,6 +28,11 @@ public class Tarefa implements Cliente {
     private String aplicacao;
     private int identificador;
     private boolean copia;
+    /**
+     * Indica se a tarefa já foi contabilizada nas métricas do usuário ao
+     * chegar ao seu mestre
+     */
+    private boolean submetida;
     private List<CS_Processamento> historicoProcessamento = new ArrayList<CS_Processamento>();
 
     /**
@@ -50,6 +55,11 @@ public class Tarefa implements Cliente {
      * Tamanho em Mflops para processar
      */
     private double tamProcessamento;
+    /**
+     * Tamanho em Mflops estimado pelo usuário, conhecido pelo escalonador
+     * antes da execução; negativo quando não informado
+     */
+    private double tamEstimado = -1;
     /**
      * Local de origem da mensagem/tarefa
      */
@@ -97,6 +107,7 @@ public class Tarefa implements Cliente {
 
     public Tarefa(Tarefa tarefa) {
         this(tarefa.identificador, tarefa.proprietario, tarefa.getAplicacao(), tarefa.getOrigem(), tarefa.getArquivoEnvio(), tarefa.arquivoRecebimento, tarefa.getTamProcessamento(), tarefa.getTimeCriacao());
+        this.tamEstimado = tarefa.tamEstimado;
         this.copia = true;
     }
 
@@ -108,6 +119,18 @@ public class Tarefa implements Cliente {
         return tamProcessamento;
     }
 
+    /**
+     * @return tamanho estimado em Mflops, ou o tamanho real quando a carga
+     * não informa estimativa
+     */
+    public double getTamEstimado() {
+        return tamEstimado < 0 ? tamProcessamento : tamEstimado;
+    }
+
+    public void setTamEstimado(double tamEstimado) {
+        this.tamEstimado = tamEstimado;
+    }
+
     public String getProprietario() {
         return proprietario;
     }
@@ -244,6 +267,14 @@ public class Tarefa implements Cliente {
         return aplicacao;
     }
 
+    public boolean isSubmetida() {
+        return submetida;
+    }
+
+    public void setSubmetida(boolean submetida) {
+        this.submetida = submetida;
+    }
+
     public boolean isCopy() {
         return copia;
     }
@@ -289,6 +320,14 @@ public class Tarefa implements Cliente {
         return arquivoEnvio;
     }
 
+    /**
+     * Altera o arquivo de envio de uma tarefa que ainda não saiu da origem
+     */
+    protected void setArquivoEnvio(double arquivoEnvio) {
+        this.arquivoEnvio = arquivoEnvio;
+        this.tamComunicacao = arquivoEnvio;
+    }
+
     @Override
     public String toString() {
         return "Task#" + this.getIdentificador() +
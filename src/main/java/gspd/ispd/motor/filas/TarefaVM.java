@@ -7,20 +7,36 @@ package gspd.ispd.motor.filas;
 
 import gspd.ispd.motor.filas.servidores.CentroServico;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_VirtualMac;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * TarefaVM define uma VM que é enviada para alocação para um VMM
  *
+ * Uma mesma tarefa leva todas as VMs alocadas no mesmo destino em uma
+ * rodada de alocação; o arquivo de envio cresce com o número de VMs.
+ *
  * @author Diogo Tavares
  */
 public class TarefaVM extends Tarefa {
     
     //lista de atributos
     private CS_VirtualMac VM_enviada;
+    /**
+     * VMs levadas por esta tarefa, começando por VM_enviada
+     */
+    private final List<CS_VirtualMac> VMs;
+    /**
+     * Tamanho da imagem de cada VM
+     */
+    private final double arquivoVM;
     
     public TarefaVM(CentroServico origem, CS_VirtualMac VM, double arquivoEnvio, double tempoCriacao){
         super(0,VM.getProprietario(),VM.getId(), origem, arquivoEnvio, 0, tempoCriacao);
         this.VM_enviada = VM;
+        this.VMs = new ArrayList<CS_VirtualMac>();
+        this.VMs.add(VM);
+        this.arquivoVM = arquivoEnvio;
     }
 
     public CS_VirtualMac getVM_enviada() {
@@ -29,6 +45,20 @@ public class TarefaVM extends Tarefa {
 
     public void setVM_enviada(CS_VirtualMac VM_enviada) {
         this.VM_enviada = VM_enviada;
+        this.VMs.set(0, VM_enviada);
+    }
+
+    /**
+     * Inclui mais uma VM para o mesmo destino, enquanto a tarefa não saiu do
+     * VMM
+     */
+    public void addVM(CS_VirtualMac vm) {
+        VMs.add(vm);
+        setArquivoEnvio(arquivoVM * VMs.size());
+    }
+
+    public List<CS_VirtualMac> getVMs() {
+        return VMs;
     }
 
     @Override
@@ -0,0 +1,57 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.motor.filas;
+
+import gspd.ispd.escalonador.FilaFIFO;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Estado de um escravo conhecido pelo mestre, atualizado a cada resposta de
+ * atualização recebida. O escravo envia apenas as alterações; as listas
+ * vistas aqui não podem ser alteradas, e o mestre entrega ao escalonador uma
+ * cópia a cada atualização, como antes das atualizações parciais.
+ *
+ * @author denison
+ */
+public class VisaoEscravo {
+
+    private final FilaFIFO<Tarefa> fila = new FilaFIFO<Tarefa>();
+    private final List<Tarefa> processador = new ArrayList<Tarefa>();
+
+    public void aplicar(AtualizacaoEscravo atualizacao) {
+        if (atualizacao.isCompleta()) {
+            fila.clear();
+            processador.clear();
+        }
+        for (int i = 0; i < atualizacao.size(); i++) {
+            Tarefa tarefa = atualizacao.getTarefa(i);
+            //Uma tarefa pode estar ausente se a visão começou depois dela
+            fila.remove(tarefa);
+            switch (atualizacao.getSituacao(i)) {
+                case AtualizacaoEscravo.FILA:
+                    processador.remove(tarefa);
+                    fila.add(tarefa);
+                    break;
+                case AtualizacaoEscravo.EXECUTANDO:
+                    if (!processador.contains(tarefa)) {
+                        processador.add(tarefa);
+                    }
+                    break;
+                default:
+                    processador.remove(tarefa);
+            }
+        }
+    }
+
+    public List<Tarefa> getFila() {
+        return Collections.unmodifiableList(fila);
+    }
+
+    public List<Tarefa> getProcessador() {
+        return Collections.unmodifiableList(processador);
+    }
+}
@@ -44,16 +44,43 @@ import java.util.HashMap;
 /**
  * Classe contendo todas as tarefas de uma aplicação
  * Utilizada para busca a partir de um rank
+ * Também guarda o estado das instruções compartilhadas entre as instâncias de
+ * um mesmo DAG: a origem de cada receive e a iteração atual de cada loop
  * @author Denison
  */
 public class AppDAG {
 
     private final HashMap<Integer, TarefaDAG> tarefas;
     private final String nome;
+    private final TarefaDAG[] origens;
+    private final int[] iteracoes;
+    private final ProgramaDAG programa;
 
     public AppDAG(String nome) {
+        this(nome, 0, 0);
+    }
+
+    /**
+     * @param nome nome da aplicação
+     * @param receives número de instruções receive do programa
+     * @param loops número de loops do programa
+     */
+    public AppDAG(String nome, int receives, int loops) {
+        this(nome, receives, loops, null);
+    }
+
+    /**
+     * @param nome nome da aplicação
+     * @param receives número de instruções receive do programa
+     * @param loops número de loops do programa
+     * @param programa DAG compilado do qual a aplicação é uma instância
+     */
+    public AppDAG(String nome, int receives, int loops, ProgramaDAG programa) {
         this.nome = nome;
+        this.programa = programa;
         tarefas = new HashMap<Integer, TarefaDAG>();
+        origens = new TarefaDAG[receives];
+        iteracoes = new int[loops];
     }
     
     public void addTarefa(TarefaDAG task) {
@@ -70,4 +97,36 @@ public class AppDAG {
     public String getNome() {
         return nome;
     }
+
+    /**
+     * @return DAG compilado do qual a aplicação é uma instância, ou null se
+     * as tarefas não foram criadas a partir de um ProgramaDAG
+     */
+    public ProgramaDAG getPrograma() {
+        return programa;
+    }
+
+    /**
+     * Tarefa da qual o receive recebeu a última mensagem nesta instância, ou
+     * a origem indicada no modelo se nenhuma mensagem chegou ainda
+     */
+    public TarefaDAG getOrigem(Receive receive) {
+        TarefaDAG origem = origens[receive.getIndice()];
+        if (origem == null && receive.getRankOrigem() != null) {
+            return getTarefa(receive.getRankOrigem());
+        }
+        return origem;
+    }
+
+    public void setOrigem(Receive receive, TarefaDAG origem) {
+        origens[receive.getIndice()] = origem;
+    }
+
+    public int getIteracao(BlocoRepeticao loop) {
+        return iteracoes[loop.getIndice()];
+    }
+
+    void setIteracao(BlocoRepeticao loop, int iteracao) {
+        iteracoes[loop.getIndice()] = iteracao;
+    }
 }
@@ -0,0 +1,106 @@
+/* ==========================================================
+ * iSPD : iconic Simulator of Parallel and Distributed System
+ * ==========================================================
+ *
+ * (C) Copyright 2010-2014, by Grupo de pesquisas em Sistemas Paralelos e Distribuídos da Unesp (GSPD).
+ *
+ * Project Info:  http://gspd.dcce.ibilce.unesp.br/
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ *
+ * ---------------
+ * BlocoRepeticao.java
+ * ---------------
+ * (C) Copyright 2014, by Grupo de pesquisas em Sistemas Paralelos e Distribuídos da Unesp (GSPD).
+ *
+ * Original Author:  Denison Menezes (for GSPD);
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 
+ * 14-Out-2014 : Version 2.0.2;
+ *
+ */
+package gspd.ispd.motor.filas.dag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conjunto de blocos que devem ser executados e número de repetições.
+ * Representa o corpo de uma thread ou de um loop do programa de um DAG. É
+ * montado uma única vez ao compilar o DAG e compartilhado por todas as
+ * instâncias da aplicação; o andamento de cada instância fica em
+ * {@link LinhaExecucao}.
+ * @author denison
+ */
+public class BlocoRepeticao {
+
+    private final int indice;
+    private final int inicio;
+    private final int iteracoes;
+    private final List<Object> blocos;
+
+    /**
+     * @param indice posição do loop no programa, ou -1 para o corpo de uma
+     * tarefa
+     * @param inicio rank da tarefa referenciada na primeira iteração
+     * @param iteracoes número de vezes que os blocos são executados
+     */
+    public BlocoRepeticao(int indice, int inicio, int iteracoes) {
+        this.indice = indice;
+        this.inicio = inicio;
+        this.iteracoes = iteracoes;
+        this.blocos = new ArrayList<Object>();
+    }
+
+    /**
+     * Adiciona um bloco durante a compilação do DAG
+     */
+    public void addBlock(Object block) {
+        if (block instanceof Send
+                || block instanceof Receive
+                || block instanceof Process
+                || block instanceof BlocoRepeticao) {
+            blocos.add(block);
+        } else {
+            throw new IllegalArgumentException(block + ": Não implementado ainda!");
+        }
+    }
+
+    public Object getBlock(int i) {
+        return blocos.get(i);
+    }
+
+    public int getNumBlocos() {
+        return blocos.size();
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public int getInicio() {
+        return inicio;
+    }
+
+    public int getIteracoes() {
+        return iteracoes;
+    }
+}
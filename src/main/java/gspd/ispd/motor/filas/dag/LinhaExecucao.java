@@ -39,11 +39,10 @@
  */
 package gspd.ispd.motor.filas.dag;
 
-import java.util.ArrayList;
-
 /**
- * Classe contendo conjunto de blocos que devem ser executados e número de repetições
- * Modelada para representar uma thread ou um loop no motor
+ * Andamento da execução de um {@link BlocoRepeticao} em uma instância da
+ * aplicação. Modelada para representar uma thread ou um loop no motor; os
+ * blocos são compartilhados e apenas a posição atual pertence à instância.
  * @author Denison
  */
 public class LinhaExecucao {
@@ -52,42 +51,33 @@ public class LinhaExecucao {
      * Conjunto de tarefas DAG que o objeto faz parte
      */
     private final AppDAG app;
-    private final Integer start;
-    private final Integer iteration;
-    private Integer iterationAtual;
-    private Integer blocoAtual;
-    private final ArrayList blocks;
+    private final BlocoRepeticao estrutura;
+    private final int iteration;
+    private int iterationAtual;
+    private int blocoAtual;
+    /**
+     * Andamento dos loops internos, criado quando cada loop é alcançado
+     */
+    private LinhaExecucao[] internas;
 
-    public LinhaExecucao(Integer start, Integer iteration, AppDAG application) {
-        this.start = start;
-        if (iteration > 0) {
-            this.iteration = iteration - 1;
+    public LinhaExecucao(BlocoRepeticao estrutura, AppDAG application) {
+        this.estrutura = estrutura;
+        if (estrutura.getIteracoes() > 0) {
+            this.iteration = estrutura.getIteracoes() - 1;
             this.blocoAtual = 0;
         } else {
             this.iteration = 0;
             this.blocoAtual = -1;
         }
         this.iterationAtual = 0;
-        blocks = new ArrayList();
         app = application;
     }
 
-    public void addBlock(Object block) {
-        if (block instanceof Send
-                || block instanceof Receive
-                || block instanceof Process
-                || block instanceof LinhaExecucao) {
-            blocks.add(block);
-        } else {
-            throw new IllegalArgumentException(block + ": Não implementado ainda!");
-        }
-    }
-
     public Object getBlock() {
-        if (blocoAtual < 0 || blocoAtual >= blocks.size()) {
+        if (blocoAtual < 0 || blocoAtual >= estrutura.getNumBlocos()) {
             return null;
-        } else if (blocks.get(blocoAtual) instanceof LinhaExecucao) {
-            Object block = ((LinhaExecucao) blocks.get(blocoAtual)).getBlock();
+        } else if (estrutura.getBlock(blocoAtual) instanceof BlocoRepeticao) {
+            Object block = interna(blocoAtual).getBlock();
             if (block != null) {
                 return block;
             } else {
@@ -95,29 +85,41 @@ public class LinhaExecucao {
                 return getBlock();
             }
         }
-        return blocks.get(blocoAtual);
+        return estrutura.getBlock(blocoAtual);
     }
 
     public void setNextBlock() {
-        if (blocks.get(blocoAtual) instanceof LinhaExecucao) {
-            ((LinhaExecucao)blocks.get(blocoAtual)).setNextBlock();
+        if (estrutura.getBlock(blocoAtual) instanceof BlocoRepeticao) {
+            interna(blocoAtual).setNextBlock();
         } else {
             blocoAtual++;
-            if (blocoAtual == blocks.size() && iterationAtual < iteration) {
+            if (blocoAtual == estrutura.getNumBlocos() && iterationAtual < iteration) {
                 blocoAtual = 0;
                 iterationAtual++;
+                if (estrutura.getIndice() >= 0) {
+                    app.setIteracao(estrutura, iterationAtual);
+                }
             }
         }
     }
 
+    private LinhaExecucao interna(int bloco) {
+        if (internas == null) {
+            internas = new LinhaExecucao[estrutura.getNumBlocos()];
+        }
+        if (internas[bloco] == null) {
+            internas[bloco] = new LinhaExecucao((BlocoRepeticao) estrutura.getBlock(bloco), app);
+        }
+        return internas[bloco];
+    }
+
     /**
      * Busca a tarefa referenciada pelo contador da iteração
      *
      * @return tarefa atualmente apontada pelo loop
      */
     public TarefaDAG getAtualTask() {
-        System.out.println("Buscar tarefa pelo id: "+(start+iterationAtual));
-        return app.getTarefa(start + iterationAtual);
+        return app.getTarefa(estrutura.getInicio() + iterationAtual);
     }
 
     public AppDAG getAppDAG() {
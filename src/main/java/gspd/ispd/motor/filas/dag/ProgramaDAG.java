@@ -0,0 +1,265 @@
+/* ==========================================================
+ * iSPD : iconic Simulator of Parallel and Distributed System
+ * ==========================================================
+ *
+ * (C) Copyright 2010-2014, by Grupo de pesquisas em Sistemas Paralelos e Distribuídos da Unesp (GSPD).
+ *
+ * Project Info:  http://gspd.dcce.ibilce.unesp.br/
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ *
+ * ---------------
+ * ProgramaDAG.java
+ * ---------------
+ * (C) Copyright 2014, by Grupo de pesquisas em Sistemas Paralelos e Distribuídos da Unesp (GSPD).
+ *
+ * Original Author:  Denison Menezes (for GSPD);
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 
+ * 14-Out-2014 : Version 2.0.2;
+ *
+ */
+package gspd.ispd.motor.filas.dag;
+
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Representação compilada de um arquivo de DAG: tarefas, programa de
+ * send/receive/process de cada tarefa e dependências entre elas. É montada
+ * uma única vez e não é alterada depois, podendo ser compartilhada entre
+ * threads; cada instância da aplicação cria apenas suas tarefas e o estado de
+ * execução delas.
+ * @author denison
+ */
+public class ProgramaDAG {
+
+    private final String usuarioPadrao;
+    private int numTarefas;
+    private int[] ranks;
+    private double[] comunicacoes;
+    private double[] computacoes;
+    private double[] criacoes;
+    private BlocoRepeticao[] programas;
+    private int[][] depende;
+    private int[][] libera;
+    private double[][] tamanhosLibera;
+    private final HashMap<Integer, Integer> indicePorRank;
+    private int numReceives;
+    private int numLoops;
+
+    /**
+     * @param usuarioPadrao proprietário usado quando a carga não define um
+     */
+    public ProgramaDAG(String usuarioPadrao) {
+        this.usuarioPadrao = usuarioPadrao;
+        this.numTarefas = 0;
+        this.ranks = new int[16];
+        this.comunicacoes = new double[16];
+        this.computacoes = new double[16];
+        this.criacoes = new double[16];
+        this.programas = new BlocoRepeticao[16];
+        this.depende = new int[16][];
+        this.libera = new int[16][];
+        this.tamanhosLibera = new double[16][];
+        this.indicePorRank = new HashMap<Integer, Integer>();
+    }
+
+    /**
+     * Adiciona uma tarefa durante a compilação
+     *
+     * @param dag se a tarefa possui programa (TarefaDAG) ou é uma tarefa
+     * simples
+     * @return corpo do programa da tarefa, ou null para tarefas simples
+     */
+    public BlocoRepeticao addTarefa(int rank, double comunicacao, double computacao, double criacao, boolean dag) {
+        if (numTarefas == ranks.length) {
+            int capacidade = ranks.length * 2;
+            ranks = Arrays.copyOf(ranks, capacidade);
+            comunicacoes = Arrays.copyOf(comunicacoes, capacidade);
+            computacoes = Arrays.copyOf(computacoes, capacidade);
+            criacoes = Arrays.copyOf(criacoes, capacidade);
+            programas = Arrays.copyOf(programas, capacidade);
+            depende = Arrays.copyOf(depende, capacidade);
+            libera = Arrays.copyOf(libera, capacidade);
+            tamanhosLibera = Arrays.copyOf(tamanhosLibera, capacidade);
+        }
+        ranks[numTarefas] = rank;
+        comunicacoes[numTarefas] = comunicacao;
+        computacoes[numTarefas] = computacao;
+        criacoes[numTarefas] = criacao;
+        depende[numTarefas] = new int[0];
+        libera[numTarefas] = new int[0];
+        tamanhosLibera[numTarefas] = new double[0];
+        if (dag) {
+            programas[numTarefas] = new BlocoRepeticao(-1, 0, 1);
+            indicePorRank.put(rank, numTarefas);
+        }
+        numTarefas++;
+        return programas[numTarefas - 1];
+    }
+
+    /**
+     * @return corpo do programa da tarefa DAG com o rank informado
+     */
+    public BlocoRepeticao getPrograma(int rank) {
+        Integer indice = indicePorRank.get(rank);
+        return indice == null ? null : programas[indice];
+    }
+
+    public Receive novoReceive(Integer rankOrigem) {
+        return new Receive(numReceives++, rankOrigem);
+    }
+
+    public BlocoRepeticao novoLoop(int inicio, int iteracoes) {
+        return new BlocoRepeticao(numLoops++, inicio, iteracoes);
+    }
+
+    /**
+     * Registra que a tarefa rank depende de uma mensagem de rankOrigem
+     */
+    public void addDependencia(int rank, int rankOrigem) {
+        int i = indicePorRank.get(rank);
+        depende[i] = Arrays.copyOf(depende[i], depende[i].length + 1);
+        depende[i][depende[i].length - 1] = rankOrigem;
+    }
+
+    /**
+     * Registra que a tarefa rank envia uma mensagem para rankDestino
+     */
+    public void addLiberacao(int rank, int rankDestino) {
+        addLiberacao(rank, rankDestino, 0);
+    }
+
+    /**
+     * Registra que a tarefa rank envia uma mensagem de tamanho Mbits para
+     * rankDestino
+     */
+    public void addLiberacao(int rank, int rankDestino, double tamanho) {
+        int i = indicePorRank.get(rank);
+        libera[i] = Arrays.copyOf(libera[i], libera[i].length + 1);
+        libera[i][libera[i].length - 1] = rankDestino;
+        tamanhosLibera[i] = Arrays.copyOf(tamanhosLibera[i], tamanhosLibera[i].length + 1);
+        tamanhosLibera[i][tamanhosLibera[i].length - 1] = tamanho;
+    }
+
+    public int getNumTarefas() {
+        return numTarefas;
+    }
+
+    /**
+     * @return índice da tarefa DAG com o rank informado, ou -1
+     */
+    public int getIndice(int rank) {
+        Integer indice = indicePorRank.get(rank);
+        return indice == null ? -1 : indice;
+    }
+
+    /**
+     * @return se a tarefa do índice possui programa (TarefaDAG)
+     */
+    public boolean isDAG(int indice) {
+        return programas[indice] != null;
+    }
+
+    /**
+     * @return tamanho de processamento da tarefa do índice, em Mflops
+     */
+    public double getComputacao(int indice) {
+        return computacoes[indice];
+    }
+
+    /**
+     * @return ranks das tarefas para as quais a tarefa do índice envia
+     * mensagens, na ordem do programa
+     */
+    int[] getLibera(int indice) {
+        return libera[indice];
+    }
+
+    /**
+     * @return tamanho em Mbits de cada mensagem de getLibera
+     */
+    double[] getTamanhosLibera(int indice) {
+        return tamanhosLibera[indice];
+    }
+
+    /**
+     * Cria uma instância da aplicação
+     *
+     * @param inicioIdentificadorTarefa identificador da primeira tarefa
+     * @param mestre mestre que recebe as tarefas
+     * @param aplicacao nome da aplicação
+     * @param proprietario proprietário das tarefas, ou null para usar o
+     * indicado no arquivo
+     * @return tarefas da instância, na ordem do arquivo
+     */
+    public ArrayList<Tarefa> instanciar(int inicioIdentificadorTarefa, CS_Processamento mestre, String aplicacao, String proprietario) {
+        if (proprietario == null || "".equals(proprietario)) {
+            proprietario = usuarioPadrao;
+        }
+        AppDAG aplicacaoDAG = new AppDAG(aplicacao, numReceives, numLoops, this);
+        ArrayList<Tarefa> tasks = new ArrayList<Tarefa>(numTarefas);
+        for (int i = 0; i < numTarefas; i++) {
+            if (programas[i] == null) {
+                tasks.add(new Tarefa(
+                        inicioIdentificadorTarefa + i,
+                        proprietario,
+                        aplicacao,
+                        mestre,
+                        comunicacoes[i],
+                        0.0009765625 /*arquivo recebimento*/,
+                        computacoes[i],
+                        criacoes[i] /* criação */));
+            } else {
+                TarefaDAG tar = new TarefaDAG(
+                        inicioIdentificadorTarefa + i,
+                        ranks[i],
+                        proprietario,
+                        aplicacaoDAG,
+                        mestre,
+                        comunicacoes[i],
+                        0.0009765625 /*arquivo recebimento*/,
+                        computacoes[i],
+                        criacoes[i] /* criação */,
+                        programas[i]);
+                aplicacaoDAG.addTarefa(tar);
+                tasks.add(tar);
+            }
+        }
+        //dependências só podem ser ligadas depois que todas as tarefas existem
+        for (int i = 0; i < numTarefas; i++) {
+            if (programas[i] != null) {
+                TarefaDAG tar = aplicacaoDAG.getTarefa(ranks[i]);
+                for (int rank : depende[i]) {
+                    tar.getDepende().add(aplicacaoDAG.getTarefa(rank));
+                }
+                for (int rank : libera[i]) {
+                    tar.getLibera().add(aplicacaoDAG.getTarefa(rank));
+                }
+            }
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,286 @@
+/* ==========================================================
+ * iSPD : iconic Simulator of Parallel and Distributed System
+ * ==========================================================
+ *
+ * (C) Copyright 2010-2014, by Grupo de pesquisas em Sistemas Paralelos e Distribuídos da Unesp (GSPD).
+ *
+ * Project Info:  http://gspd.dcce.ibilce.unesp.br/
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ *
+ * ---------------
+ * RanksDAG.java
+ * ---------------
+ * (C) Copyright 2014, by Grupo de pesquisas em Sistemas Paralelos e Distribuídos da Unesp (GSPD).
+ *
+ * Original Author:  Denison Menezes (for GSPD);
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 
+ * 14-Out-2014 : Version 2.0.2;
+ *
+ */
+package gspd.ispd.motor.filas.dag;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ranks de um {@link ProgramaDAG} usados pelos escalonadores de lista (HEFT,
+ * CPOP). O rank superior de uma tarefa é o maior caminho dela até uma saída,
+ * e o inferior o maior caminho de uma entrada até ela, somando os custos
+ * médios de processamento e de comunicação. Também guarda as arestas sem
+ * repetição, com o tamanho das mensagens somado, em vetores por índice.
+ *
+ * Mensagens repetidas para a mesma tarefa formam uma aresta só. Se o arquivo
+ * tiver ciclos, as arestas que voltam na ordem topológica são descartadas,
+ * para que toda tarefa possa ser liberada.
+ * @author denison
+ */
+public class RanksDAG {
+
+    private final ProgramaDAG programa;
+    private final int[][] sucessores;
+    private final double[][] comunicacoesSucessores;
+    private final int[][] predecessores;
+    private final double[][] comunicacoesPredecessores;
+    private final double[] superior;
+    private final double[] inferior;
+    private final boolean[] critico;
+    private final double caminhoCritico;
+    private final int numTarefasDAG;
+
+    /**
+     * @param programa DAG compilado
+     * @param tempoMflop tempo médio para processar um Mflop
+     * @param tempoMbit tempo médio para transmitir um Mbit entre dois
+     * escravos
+     */
+    public RanksDAG(ProgramaDAG programa, double tempoMflop, double tempoMbit) {
+        this.programa = programa;
+        int n = programa.getNumTarefas();
+        //arestas sem repetição
+        int[][] destinos = new int[n][];
+        double[][] tamanhos = new double[n][];
+        int[] entradas = new int[n];
+        int dag = 0;
+        for (int i = 0; i < n; i++) {
+            Map<Integer, Double> arestas = new LinkedHashMap<Integer, Double>();
+            if (programa.isDAG(i)) {
+                dag++;
+                int[] libera = programa.getLibera(i);
+                double[] tamanhosLibera = programa.getTamanhosLibera(i);
+                for (int k = 0; k < libera.length; k++) {
+                    int j = programa.getIndice(libera[k]);
+                    if (j >= 0 && j != i) {
+                        Double soma = arestas.get(j);
+                        arestas.put(j, (soma == null ? 0 : soma) + tamanhosLibera[k]);
+                    }
+                }
+            }
+            destinos[i] = new int[arestas.size()];
+            tamanhos[i] = new double[arestas.size()];
+            int k = 0;
+            for (Map.Entry<Integer, Double> aresta : arestas.entrySet()) {
+                destinos[i][k] = aresta.getKey();
+                tamanhos[i][k++] = aresta.getValue();
+                entradas[aresta.getKey()]++;
+            }
+        }
+        numTarefasDAG = dag;
+        //ordem topológica; tarefas em ciclos entram no fim, na ordem do arquivo
+        int[] ordem = new int[n];
+        int[] posicao = new int[n];
+        Arrays.fill(posicao, -1);
+        Deque<Integer> livres = new ArrayDeque<Integer>();
+        for (int i = 0; i < n; i++) {
+            if (entradas[i] == 0) {
+                livres.add(i);
+            }
+        }
+        int ordenadas = 0;
+        while (!livres.isEmpty()) {
+            int i = livres.poll();
+            posicao[i] = ordenadas;
+            ordem[ordenadas++] = i;
+            for (int j : destinos[i]) {
+                if (--entradas[j] == 0) {
+                    livres.add(j);
+                }
+            }
+        }
+        for (int i = 0; i < n && ordenadas < n; i++) {
+            if (posicao[i] < 0) {
+                posicao[i] = ordenadas;
+                ordem[ordenadas++] = i;
+            }
+        }
+        //mantém apenas as arestas que seguem a ordem
+        sucessores = new int[n][];
+        comunicacoesSucessores = new double[n][];
+        int[] numPredecessores = new int[n];
+        for (int i = 0; i < n; i++) {
+            int m = 0;
+            for (int j : destinos[i]) {
+                if (posicao[j] > posicao[i]) {
+                    m++;
+                }
+            }
+            sucessores[i] = new int[m];
+            comunicacoesSucessores[i] = new double[m];
+            m = 0;
+            for (int k = 0; k < destinos[i].length; k++) {
+                int j = destinos[i][k];
+                if (posicao[j] > posicao[i]) {
+                    sucessores[i][m] = j;
+                    comunicacoesSucessores[i][m++] = tamanhos[i][k];
+                    numPredecessores[j]++;
+                }
+            }
+        }
+        predecessores = new int[n][];
+        comunicacoesPredecessores = new double[n][];
+        for (int j = 0; j < n; j++) {
+            predecessores[j] = new int[numPredecessores[j]];
+            comunicacoesPredecessores[j] = new double[numPredecessores[j]];
+        }
+        Arrays.fill(numPredecessores, 0);
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < sucessores[i].length; k++) {
+                int j = sucessores[i][k];
+                predecessores[j][numPredecessores[j]] = i;
+                comunicacoesPredecessores[j][numPredecessores[j]++] = comunicacoesSucessores[i][k];
+            }
+        }
+        //ranks
+        superior = new double[n];
+        for (int p = n - 1; p >= 0; p--) {
+            int i = ordem[p];
+            double maior = 0;
+            for (int k = 0; k < sucessores[i].length; k++) {
+                maior = Math.max(maior, comunicacoesSucessores[i][k] * tempoMbit + superior[sucessores[i][k]]);
+            }
+            superior[i] = programa.getComputacao(i) * tempoMflop + maior;
+        }
+        inferior = new double[n];
+        double maior = 0;
+        for (int p = 0; p < n; p++) {
+            int j = ordem[p];
+            for (int k = 0; k < predecessores[j].length; k++) {
+                int i = predecessores[j][k];
+                inferior[j] = Math.max(inferior[j], inferior[i] + programa.getComputacao(i) * tempoMflop + comunicacoesPredecessores[j][k] * tempoMbit);
+            }
+            maior = Math.max(maior, inferior[j] + superior[j]);
+        }
+        caminhoCritico = maior;
+        //marca um único caminho crítico, da entrada até uma saída
+        critico = new boolean[n];
+        int atual = -1;
+        for (int p = 0; p < n && atual < 0; p++) {
+            int i = ordem[p];
+            if (predecessores[i].length == 0 && ehCritico(i)) {
+                atual = i;
+            }
+        }
+        while (atual >= 0) {
+            critico[atual] = true;
+            int proximo = -1;
+            for (int j : sucessores[atual]) {
+                if (ehCritico(j) && (proximo < 0 || superior[j] + inferior[j] > superior[proximo] + inferior[proximo])) {
+                    proximo = j;
+                }
+            }
+            atual = proximo;
+        }
+    }
+
+    private boolean ehCritico(int indice) {
+        return inferior[indice] + superior[indice] >= caminhoCritico * (1 - 1e-9);
+    }
+
+    public ProgramaDAG getPrograma() {
+        return programa;
+    }
+
+    public int getNumTarefas() {
+        return superior.length;
+    }
+
+    /**
+     * @return número de tarefas com programa (TarefaDAG) de cada instância
+     */
+    public int getNumTarefasDAG() {
+        return numTarefasDAG;
+    }
+
+    /**
+     * @return índice da tarefa DAG com o rank informado, ou -1
+     */
+    public int getIndice(int rank) {
+        return programa.getIndice(rank);
+    }
+
+    /**
+     * @return maior caminho da tarefa até uma saída, incluindo a tarefa
+     */
+    public double getSuperior(int indice) {
+        return superior[indice];
+    }
+
+    /**
+     * @return maior caminho de uma entrada até a tarefa, sem incluí-la
+     */
+    public double getInferior(int indice) {
+        return inferior[indice];
+    }
+
+    /**
+     * @return tamanho do caminho crítico do DAG
+     */
+    public double getCaminhoCritico() {
+        return caminhoCritico;
+    }
+
+    /**
+     * @return se a tarefa está no caminho crítico escolhido; havendo vários
+     * com o mesmo tamanho, apenas um é marcado
+     */
+    public boolean isCritico(int indice) {
+        return critico[indice];
+    }
+
+    public int[] getSucessores(int indice) {
+        return sucessores[indice];
+    }
+
+    public int[] getPredecessores(int indice) {
+        return predecessores[indice];
+    }
+
+    /**
+     * @return Mbits enviados por cada predecessor de getPredecessores
+     */
+    public double[] getComunicacoesPredecessores(int indice) {
+        return comunicacoesPredecessores[indice];
+    }
+}
@@ -40,24 +40,38 @@
 package gspd.ispd.motor.filas.dag;
 
 /**
- * Instrução de recebimento de mensagem
+ * Instrução de recebimento de mensagem. A tarefa da qual a mensagem foi
+ * recebida é guardada por instância da aplicação, em {@link AppDAG}
  * @author denison
  */
 public class Receive {
 
-    private TarefaDAG origem;
+    private final int indice;
+    private final Integer rankOrigem;
 
-    public Receive(Object origem) {
-        if (origem instanceof TarefaDAG) {
-            this.origem = (TarefaDAG) origem;
-        }
+    /**
+     * @param indice posição do receive no programa
+     * @param rankOrigem rank da tarefa de origem, ou null para qualquer
+     * origem
+     */
+    public Receive(int indice, Integer rankOrigem) {
+        this.indice = indice;
+        this.rankOrigem = rankOrigem;
     }
 
-    public TarefaDAG getOrigem() {
-        return origem;
+    public int getIndice() {
+        return indice;
     }
 
-    public void setOrigem(TarefaDAG origem) {
-        this.origem = origem;
+    public Integer getRankOrigem() {
+        return rankOrigem;
+    }
+
+    public TarefaDAG getOrigem(AppDAG app) {
+        return app.getOrigem(this);
+    }
+
+    public void setOrigem(AppDAG app, TarefaDAG origem) {
+        app.setOrigem(this, origem);
     }
 }
@@ -40,7 +40,9 @@
 package gspd.ispd.motor.filas.dag;
 
 /**
- * Instrução de envio de mensagem
+ * Instrução de envio de mensagem. O destino pode ser uma tarefa, a origem de
+ * um receive ou a tarefa apontada pela iteração atual de um loop, e é
+ * resolvido na instância da aplicação que executa a instrução
  * @author denison
  */
 public class Send {
@@ -48,10 +50,15 @@ public class Send {
     private final Object destino;
     private final Double tamanho;
 
+    /**
+     * @param destino rank da tarefa (Integer), {@link Receive} ou
+     * {@link BlocoRepeticao} do loop de destino
+     * @param tamanho tamanho da mensagem
+     */
     public Send(Object destino, Double tamanho) {
-        if (destino instanceof TarefaDAG
+        if (destino instanceof Integer
                 || destino instanceof Receive
-                || destino instanceof LinhaExecucao) {
+                || destino instanceof BlocoRepeticao) {
             this.destino = destino;
         } else {
             throw new IllegalArgumentException(destino+": Destino não é valido");
@@ -59,13 +66,14 @@ public class Send {
         this.tamanho = tamanho;
     }
 
-    public TarefaDAG getDestino() {
-        if (destino instanceof TarefaDAG) {
-            return (TarefaDAG) destino;
+    public TarefaDAG getDestino(AppDAG app) {
+        if (destino instanceof Integer) {
+            return app.getTarefa((Integer) destino);
         } else if(destino instanceof Receive) {
-            return ((Receive)destino).getOrigem();
-        } else if(destino instanceof LinhaExecucao) {
-            return ((LinhaExecucao)destino).getAtualTask();
+            return app.getOrigem((Receive) destino);
+        } else if(destino instanceof BlocoRepeticao) {
+            BlocoRepeticao loop = (BlocoRepeticao) destino;
+            return app.getTarefa(loop.getInicio() + app.getIteracao(loop));
         }
         return null;
     }
@@ -39,8 +39,10 @@
  */
 package gspd.ispd.motor.filas.dag;
 
+import gspd.ispd.motor.filas.Mensagem;
 import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.servidores.CentroServico;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 
 /**
@@ -53,11 +55,20 @@ public class TarefaDAG extends Tarefa {
     private Integer rank;
     private ArrayList<TarefaDAG> depende;
     private ArrayList<TarefaDAG> libera;
+    /**
+     * Mensagens que chegaram e ainda não foram consumidas por um receive, na
+     * ordem de chegada. Criada na primeira mensagem.
+     */
+    private ArrayDeque<Mensagem> mensagens;
+    /**
+     * Se a tarefa está bloqueada em um receive
+     */
+    private boolean aguardandoMensagem;
 
     public TarefaDAG(int id, int rank, String proprietario, AppDAG aplicacao, CentroServico origem, double arquivoEnvio, double tamProcessamento, double tempoCriacao) {
         super(id, proprietario, aplicacao.getNome(), origem, arquivoEnvio, tamProcessamento, tempoCriacao);
         this.rank = rank;
-        thread = new LinhaExecucao(0, 1, aplicacao);
+        thread = new LinhaExecucao(new BlocoRepeticao(-1, 0, 1), aplicacao);
         depende = new ArrayList<TarefaDAG>();
         libera = new ArrayList<TarefaDAG>();
     }
@@ -65,7 +76,19 @@ public class TarefaDAG extends Tarefa {
     public TarefaDAG(int id, int rank, String proprietario, AppDAG aplicacao, CentroServico origem, double arquivoEnvio, double arquivoRecebimento, double tamProcessamento, double tempoCriacao) {
         super(id, proprietario, aplicacao.getNome(), origem, arquivoEnvio, arquivoRecebimento, tamProcessamento, tempoCriacao);
         this.rank = rank;
-        thread = new LinhaExecucao(0, 1, aplicacao);
+        thread = new LinhaExecucao(new BlocoRepeticao(-1, 0, 1), aplicacao);
+        depende = new ArrayList<TarefaDAG>();
+        libera = new ArrayList<TarefaDAG>();
+    }
+
+    /**
+     * Cria uma instância de uma tarefa de um DAG compilado. O programa é
+     * compartilhado com as demais instâncias do DAG.
+     */
+    public TarefaDAG(int id, int rank, String proprietario, AppDAG aplicacao, CentroServico origem, double arquivoEnvio, double arquivoRecebimento, double tamProcessamento, double tempoCriacao, BlocoRepeticao programa) {
+        super(id, proprietario, aplicacao.getNome(), origem, arquivoEnvio, arquivoRecebimento, tamProcessamento, tempoCriacao);
+        this.rank = rank;
+        thread = new LinhaExecucao(programa, aplicacao);
         depende = new ArrayList<TarefaDAG>();
         libera = new ArrayList<TarefaDAG>();
     }
@@ -163,4 +186,36 @@ public class TarefaDAG extends Tarefa {
     public LinhaExecucao getThread() {
         return thread;
     }
+
+    /**
+     * Guarda uma mensagem recebida pela tarefa
+     *
+     * @return se a tarefa está bloqueada em um receive e pode continuar
+     */
+    public boolean addMensagem(Mensagem mensagem) {
+        if (mensagens == null) {
+            mensagens = new ArrayDeque<Mensagem>(2);
+        }
+        mensagens.add(mensagem);
+        return aguardandoMensagem;
+    }
+
+    /**
+     * Retira a mensagem mais antiga. Como no modelo original, um receive
+     * aceita a primeira mensagem que chegou para a tarefa, e a origem dela
+     * passa a ser a origem do receive.
+     *
+     * @return mensagem, ou null se nenhuma mensagem chegou
+     */
+    public Mensagem retirarMensagem() {
+        return mensagens == null ? null : mensagens.poll();
+    }
+
+    public boolean isAguardandoMensagem() {
+        return aguardandoMensagem;
+    }
+
+    public void setAguardandoMensagem(boolean aguardandoMensagem) {
+        this.aguardandoMensagem = aguardandoMensagem;
+    }
 }
@@ -13,7 +13,8 @@ import gspd.ispd.motor.metricas.MetricasProcessamento;
 import java.util.ArrayList;
 import java.util.List;
 import gspd.ispd.gui.auxiliar.ParesOrdenadosUso;
-import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Classe abstrata que representa os servidores de processamento do modelo de fila,
@@ -31,7 +32,11 @@ public abstract class CS_Processamento extends CentroServico {
     private double Ocupacao;
     private double PoderComputacionalDisponivelPorProcessador;
     private MetricasProcessamento metrica;
-    private List<ParesOrdenadosUso> lista_pares = new ArrayList<ParesOrdenadosUso>();
+    /**
+     * Períodos de uso disjuntos, pelo instante inicial; intervalos que se
+     * sobrepõem ou se tocam são unidos ao serem registrados
+     */
+    private TreeMap<Double, Double> periodosUso = new TreeMap<Double, Double>();
     // denison adicionou energia
     private Double consumoEnergia;
     
@@ -527,14 +532,30 @@ public abstract class CS_Processamento extends CentroServico {
     }
     
     
-     public void setTempoProcessamento(double inicio, double fim){
-        ParesOrdenadosUso par = new ParesOrdenadosUso(inicio,fim);
-        lista_pares.add(par); 
+    public void setTempoProcessamento(double inicio, double fim) {
+        Map.Entry<Double, Double> anterior = periodosUso.floorEntry(inicio);
+        if (anterior != null && anterior.getValue() >= inicio) {
+            inicio = anterior.getKey();
+            fim = Math.max(fim, anterior.getValue());
+        }
+        Map.Entry<Double, Double> seguinte = periodosUso.ceilingEntry(inicio);
+        while (seguinte != null && seguinte.getKey() <= fim) {
+            fim = Math.max(fim, seguinte.getValue());
+            periodosUso.remove(seguinte.getKey());
+            seguinte = periodosUso.ceilingEntry(inicio);
+        }
+        periodosUso.put(inicio, fim);
     }
-    
-    public List getListaProcessamento(){
-        Collections.sort(lista_pares);
-        return (this.lista_pares);
+
+    /**
+     * @return períodos em que o recurso processou, ordenados pelo início
+     */
+    public List<ParesOrdenadosUso> getListaProcessamento() {
+        List<ParesOrdenadosUso> lista = new ArrayList<ParesOrdenadosUso>(periodosUso.size());
+        for (Map.Entry<Double, Double> periodo : periodosUso.entrySet()) {
+            lista.add(new ParesOrdenadosUso(periodo.getKey(), periodo.getValue()));
+        }
+        return lista;
     }
 
 }
\ No newline at end of file
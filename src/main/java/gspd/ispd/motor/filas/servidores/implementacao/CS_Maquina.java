@@ -4,17 +4,21 @@
  */
 package gspd.ispd.motor.filas.servidores.implementacao;
 
+import gspd.ispd.escalonador.FilaFIFO;
 import gspd.ispd.motor.EventoFuturo;
 import gspd.ispd.motor.Mensagens;
 import gspd.ispd.motor.Simulation;
 import gspd.ispd.motor.filas.Mensagem;
+import gspd.ispd.motor.filas.RegistroAtualizacoes;
 import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.dag.TarefaDAG;
 import gspd.ispd.motor.filas.servidores.CS_Comunicacao;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.CentroServico;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  *
@@ -25,14 +29,20 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
 
     private List<CS_Comunicacao> conexoesEntrada;
     private List<CS_Comunicacao> conexoesSaida;
-    private List<Tarefa> filaTarefas;
-    private List<Tarefa> filaBloqueio = new ArrayList<Tarefa>();
-    private List<Mensagem> filaMsgDAG = new ArrayList<Mensagem>();
+    private FilaFIFO<Tarefa> filaTarefas;
+    /**
+     * Tarefas DAG bloqueadas em um send ou receive
+     */
+    private Set<Tarefa> filaBloqueio = new HashSet<Tarefa>();
     private List<CS_Processamento> mestres;
     private List<List> caminhoMestre;
     private int processadoresDisponiveis;
     //Dados dinamicos
     private List<Tarefa> tarefaEmExecucao;
+    /**
+     * Tarefas alteradas desde a última atualização enviada a cada mestre
+     */
+    private final RegistroAtualizacoes alteracoes = new RegistroAtualizacoes();
     //Adição de falhas
     private List<Double> falhas = new ArrayList<Double>();
     private List<Double> recuperacao = new ArrayList<Double>();
@@ -54,7 +64,7 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
         super(id, proprietario, PoderComputacional, numeroProcessadores, Ocupacao, 0);
         this.conexoesEntrada = new ArrayList<CS_Comunicacao>();
         this.conexoesSaida = new ArrayList<CS_Comunicacao>();
-        this.filaTarefas = new ArrayList<Tarefa>();
+        this.filaTarefas = new FilaFIFO<Tarefa>();
         this.mestres = new ArrayList<CS_Processamento>();
         this.processadoresDisponiveis = numeroProcessadores;
         this.tarefaEmExecucao = new ArrayList<Tarefa>(numeroProcessadores);
@@ -65,7 +75,7 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
         super(id, proprietario, PoderComputacional, numeroProcessadores, Ocupacao, numeroMaquina);
         this.conexoesEntrada = new ArrayList<CS_Comunicacao>();
         this.conexoesSaida = new ArrayList<CS_Comunicacao>();
-        this.filaTarefas = new ArrayList<Tarefa>();
+        this.filaTarefas = new FilaFIFO<Tarefa>();
         this.mestres = new ArrayList<CS_Processamento>();
         this.processadoresDisponiveis = numeroProcessadores;
         this.tarefaEmExecucao = new ArrayList<Tarefa>(numeroProcessadores);
@@ -116,6 +126,7 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
                 simulacao.addEventoFuturo(novoEvt);
             } else {
                 filaTarefas.add(cliente);
+                alteracoes.alterou(cliente);
             }
             historicoProcessamento.add(cliente);
         }
@@ -132,6 +143,7 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
             cliente.iniciarAtendimentoProcessamento(simulacao.getTime(this));
             cliente.setEstado(Tarefa.PROCESSANDO);
             tarefaEmExecucao.add(cliente);
+            alteracoes.alterou(cliente);
             Double next = simulacao.getTime(this) + tempoProcessar(cliente.getTamProcessamento() - cliente.getMflopsProcessado());
             if (!falhas.isEmpty() && next > falhas.get(0)) {
                 Double tFalha = falhas.remove(0);
@@ -169,6 +181,7 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
         //Incrementa o tempo de transmissão no pacote
         cliente.finalizarAtendimentoProcessamento(simulacao.getTime(this));
         tarefaEmExecucao.remove(cliente);
+        alteracoes.alterou(cliente);
         //eficiencia calculada apenas nas classes CS_Maquina
         cliente.calcEficiencia(this.getPoderComputacional());
         //Devolve tarefa para o mestre
@@ -207,6 +220,7 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
         } else {
             //Gera evento para atender proximo cliente da lista
             Tarefa proxCliente = filaTarefas.remove(0);
+            alteracoes.alterou(proxCliente);
             EventoFuturo evtFut = new EventoFuturo(
                     simulacao.getTime(this),
                     EventoFuturo.ATENDIMENTO,
@@ -272,6 +286,7 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
             //remover evento de saida do cliente do servidor
             simulacao.removeEventoFuturo(EventoFuturo.SAIDA, this, mensagem.getTarefa());
             tarefaEmExecucao.remove(mensagem.getTarefa());
+            alteracoes.alterou(mensagem.getTarefa());
             //gerar evento para atender proximo cliente
             if (filaTarefas.isEmpty()) {
                 //Indica que está livre
@@ -279,6 +294,7 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
             } else {
                 //Gera evento para atender proximo cliente da lista
                 Tarefa proxCliente = filaTarefas.remove(0);
+                alteracoes.alterou(proxCliente);
                 EventoFuturo evtFut = new EventoFuturo(
                         simulacao.getTime(this),
                         EventoFuturo.ATENDIMENTO,
@@ -317,6 +333,7 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
             } else {
                 //Gera evento para atender proximo cliente da lista
                 Tarefa proxCliente = filaTarefas.remove(0);
+                alteracoes.alterou(proxCliente);
                 EventoFuturo evtFut = new EventoFuturo(
                         simulacao.getTime(this),
                         EventoFuturo.ATENDIMENTO,
@@ -339,12 +356,14 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
             mensagem.getTarefa().incMflopsDesperdicados(mflopsProcessados);
             tarefaEmExecucao.remove(mensagem.getTarefa());
             filaTarefas.add(mensagem.getTarefa());
+            alteracoes.alterou(mensagem.getTarefa());
         }
     }
 
     @Override
     public void atenderDevolucao(Simulation simulacao, Mensagem mensagem) {
         boolean remover = filaTarefas.remove(mensagem.getTarefa());
+        alteracoes.alterou(mensagem.getTarefa());
         if (remover) {
             EventoFuturo evtFut = new EventoFuturo(
                     simulacao.getTime(this),
@@ -361,6 +380,7 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
         boolean remover = false;
         if (mensagem.getTarefa().getEstado() == Tarefa.PARADO) {
             remover = filaTarefas.remove(mensagem.getTarefa());
+            alteracoes.alterou(mensagem.getTarefa());
         } else if (mensagem.getTarefa().getEstado() == Tarefa.PROCESSANDO) {
             remover = simulacao.removeEventoFuturo(
                     EventoFuturo.SAIDA,
@@ -373,6 +393,7 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
             } else {
                 //Gera evento para atender proximo cliente da lista
                 Tarefa proxCliente = filaTarefas.remove(0);
+                alteracoes.alterou(proxCliente);
                 EventoFuturo evtFut = new EventoFuturo(
                         simulacao.getTime(this),
                         EventoFuturo.ATENDIMENTO,
@@ -393,9 +414,11 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
             double numCP = ((int) ((mflopsProcessados / mensagem.getTarefa().getCheckPoint()) * mensagem.getTarefa().getCheckPoint())) * mensagem.getTarefa().getCheckPoint();
             mensagem.getTarefa().setMflopsProcessado(numCP);
             tarefaEmExecucao.remove(mensagem.getTarefa());
+            alteracoes.alterou(mensagem.getTarefa());
             // Incrementa deperdício
             mensagem.getTarefa().incMflopsDesperdicados(mflopsProcessados - numCP);
             tarefaEmExecucao.remove(mensagem.getTarefa());
+            alteracoes.alterou(mensagem.getTarefa());
         }
         if (remover) {
             // Evento para devolver tarefa a sua origem
@@ -415,9 +438,8 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
         int index = mestres.indexOf(mensagem.getOrigem());
         List<CentroServico> caminho = new ArrayList<CentroServico>((List<CentroServico>) caminhoMestre.get(index));
         Mensagem novaMensagem = new Mensagem(this, mensagem.getTamComunicacao(), Mensagens.RESULTADO_ATUALIZAR);
-        //Obtem informações dinâmicas
-        novaMensagem.setProcessadorEscravo(new ArrayList<Tarefa>(tarefaEmExecucao));
-        novaMensagem.setFilaEscravo(new ArrayList<Tarefa>(filaTarefas));
+        //Obtem informações dinâmicas alteradas desde a última atualização
+        novaMensagem.setAtualizacao(alteracoes.gerar(mensagem.getOrigem(), filaTarefas, tarefaEmExecucao));
         novaMensagem.setCaminho(caminho);
         EventoFuturo evtFut = new EventoFuturo(
                 simulacao.getTime(this),
@@ -467,8 +489,10 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
         }
         if (!erroRecuperavel) {
             processadoresDisponiveis += tarefaEmExecucao.size();
+            alteracoes.alterou(filaTarefas);
             filaTarefas.clear();
         }
+        alteracoes.alterou(tarefaEmExecucao);
         tarefaEmExecucao.clear();
     }
 
@@ -506,17 +530,16 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
 
     private void atenderProgramaDAG(Simulation simulacao, TarefaDAG tarefa) {
         if (tarefa.getEstado() != Tarefa.PROCESSANDO) {
-            System.out.println(this.getId() + "-" + this.getnumeroMaquina() + " Iniciar " + tarefa.toString() + "! " + simulacao.getTime(this));
             tarefa.finalizarEsperaProcessamento(simulacao.getTime(this));
             tarefa.iniciarAtendimentoProcessamento(simulacao.getTime(this));
             tarefaEmExecucao.add(tarefa);
+            alteracoes.alterou(tarefa);
         }
 
         Object instrucao = tarefa.getThread().getBlock();
 
         //Encerra tarefa
         if (instrucao == null) {
-            System.out.println(this.getId() + "-" + this.getnumeroMaquina() + " Finalizar " + tarefa.getIdentificador() + "! " + simulacao.getTime(this));
             //Gera evento para atender proximo cliente da lista
             EventoFuturo novoEvt = new EventoFuturo(
                     simulacao.getTime(this),
@@ -528,8 +551,7 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
             //Atendimeto de Send
         } else if (instrucao instanceof gspd.ispd.motor.filas.dag.Send) {
             gspd.ispd.motor.filas.dag.Send send = (gspd.ispd.motor.filas.dag.Send) instrucao;
-            TarefaDAG dest = send.getDestino();
-            System.out.println(this.getId() + "-" + this.getnumeroMaquina() + " Enviando <" + tarefa + "--" + dest + "> para " + dest.getLocalProcessamento().getId() + "-" + ((CS_Processamento) dest.getLocalProcessamento()).getnumeroMaquina());
+            TarefaDAG dest = send.getDestino(tarefa.getThread().getAppDAG());
             Mensagem msg = new Mensagem(this, send.getTamanho(), dest, tarefa, Mensagens.DAG_PROGRAM);
             send(simulacao, msg, (CS_Processamento) dest.getLocalProcessamento());
             tarefa.getThread().setNextBlock();
@@ -538,22 +560,13 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
             //Atende Receive
         } else if (instrucao instanceof gspd.ispd.motor.filas.dag.Receive) {
             gspd.ispd.motor.filas.dag.Receive receive = (gspd.ispd.motor.filas.dag.Receive) instrucao;
-            System.out.println(this.getId() + "-" + this.getnumeroMaquina() + " Aguardar uma comunicação!");
-            Mensagem temp = null;
-            for (Mensagem msgTemp : filaMsgDAG) {
-                if (msgTemp.getTarefa().equals(tarefa)) {
-                    temp = msgTemp;
-                    break;
-                }
-            }
+            Mensagem temp = tarefa.retirarMensagem();
             if (temp == null) {
-                System.out.println("Bloquear tarefa até chegar mensagem");
+                //Bloqueia até chegar uma mensagem para a tarefa
+                tarefa.setAguardandoMensagem(true);
                 blockDAGTask(simulacao, tarefa);
-                //nextTarefa(simulacao);
             } else {
-                System.out.println("Mensagem já tinha chegado indicar que chegou e continuando execução");
-                filaMsgDAG.remove(temp);
-                receive.setOrigem(temp.getTarefaOrigem());
+                receive.setOrigem(tarefa.getThread().getAppDAG(), temp.getTarefaOrigem());
                 Mensagem msg = new Mensagem(this, 0.011444091796875, temp.getTarefaOrigem(), tarefa, Mensagens.DAG_ACK);
                 send(simulacao, msg, (CS_Processamento) temp.getTarefaOrigem().getLocalProcessamento());
                 EventoFuturo novoEvt = new EventoFuturo(
@@ -569,7 +582,6 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
         } else if (instrucao instanceof gspd.ispd.motor.filas.dag.Process) {
             gspd.ispd.motor.filas.dag.Process process = (gspd.ispd.motor.filas.dag.Process) instrucao;
             Double next = simulacao.getTime(this) + tempoProcessar(process.getTamanho());
-            System.out.println("Atender processamento " + tarefa + "! " + process.getTamanho());
             EventoFuturo novoEvt = new EventoFuturo(next, EventoFuturo.ATENDIMENTO, this, tarefa);
             simulacao.addEventoFuturo(novoEvt);
             tarefa.getThread().setNextBlock();
@@ -587,20 +599,29 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
             //Incrementa o tempo de processamento
             this.getMetrica().incSegundosDeProcessamento(tempoProc);
             tarefaEmExecucao.remove(tarefa);
+            alteracoes.alterou(tarefa);
             filaBloqueio.add(tarefa);
             nextTarefa(simulacao);
         }
     }
 
+    /**
+     * Trata a chegada de uma mensagem de DAG. A mensagem fica guardada na
+     * tarefa de destino e libera a tarefa se ela estava bloqueada em um
+     * receive; a confirmação libera a tarefa bloqueada no send.
+     */
     public void atenderDAG(Simulation simulacao, Mensagem mensagem) {
-        System.out.println("Bloqueados " + getId() + "-" + this.getnumeroMaquina() + " " + filaBloqueio);
-        System.out.println("Tarefa: " + mensagem.getTarefa());
-        if (filaBloqueio.contains(mensagem.getTarefa())) {
-            System.out.println("tirar tarefa " + simulacao.getTime(this));
-            filaBloqueio.remove(mensagem.getTarefa());
+        TarefaDAG tarefa = (TarefaDAG) mensagem.getTarefa();
+        boolean liberar;
+        if (mensagem.getTipo() == Mensagens.DAG_PROGRAM) {
+            liberar = tarefa.addMensagem(mensagem);
+        } else {
+            liberar = !tarefa.isAguardandoMensagem();
+        }
+        if (liberar && filaBloqueio.remove(tarefa)) {
+            tarefa.setAguardandoMensagem(false);
             if (processadoresDisponiveis != 0) {
                 processadoresDisponiveis--;
-                System.out.println("Processador livre " + tarefaEmExecucao);
                 //máquina livre tarefa será atendida imediatamente
                 EventoFuturo evtFut = new EventoFuturo(
                         simulacao.getTime(this),
@@ -609,12 +630,9 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
                 simulacao.addEventoFuturo(evtFut);
             } else {
                 filaTarefas.add(mensagem.getTarefa());
+                alteracoes.alterou(mensagem.getTarefa());
             }
         }
-        if (mensagem.getTipo() == Mensagens.DAG_PROGRAM) {
-            System.out.println("armazenar mensagem " + simulacao.getTime(this));
-            filaMsgDAG.add(mensagem);
-        }
     }
 
     /**
@@ -632,6 +650,7 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
         } else {
             //Gera evento para atender proximo cliente da lista
             Tarefa proxCliente = filaTarefas.remove(0);
+            alteracoes.alterou(proxCliente);
             EventoFuturo evtFut = new EventoFuturo(
                     simulacao.getTime(this),
                     EventoFuturo.ATENDIMENTO,
@@ -648,12 +667,9 @@ public class CS_Maquina extends CS_Processamento implements Mensagens, Vertice {
             caminho = new ArrayList<CentroServico>();
             caminho.add(this);
         } else if (mestres.contains(dest)) {
-            System.out.println("Conheço rota");
             int index = mestres.indexOf(dest);
             caminho = new ArrayList<CentroServico>((List<CentroServico>) caminhoMestre.get(index));
-            System.out.println("Olha lá -> " + caminho.size());
         } else {
-            System.out.println("Calcular rota");
             //buscar menor caminho!!!;
             caminho = new ArrayList<CentroServico>(CS_Maquina.getMenorCaminhoIndireto(this, dest));
             this.addMestre(dest);
@@ -172,41 +172,26 @@ public class CS_MaquinaCloud extends CS_Processamento implements Mensagens, Vert
     public void atendimento(Simulation simulacao, Tarefa cliente) {
 
         TarefaVM trf = (TarefaVM) cliente;
-        CS_VirtualMac vm = trf.getVM_enviada();
         if (simulacao.isVerbose()) {
             simulacao.getJanela().println("[Attendance Machine " + this.getId() + "] Client: " + cliente, Color.blue);
-            simulacao.getJanela().println("[Attendance Machine " + this.getId() + "] :::: VM expected: " + vm, Color.blue);
+            simulacao.getJanela().println("[Attendance Machine " + this.getId() + "] :::: VMs expected: " + trf.getVMs(), Color.blue);
         }
-        //vm.setStatus(CS_VirtualMac.ALOCADA);
-        this.addVM(vm); //incluir a VM na lista de VMs
-        getMetricaAloc().incVMsAlocadas();
-        //Setar o caminho da vm para o VMM e o caminho do ACK da mensagem >>>
-        CS_VMM vmm = vm.getVmmResponsavel();
+        //Setar o caminho das vms para o VMM e o caminho do ACK da mensagem >>>
+        //as VMs de uma mesma tarefa têm o mesmo VMM responsável
+        CS_VMM vmm = trf.getVM_enviada().getVmmResponsavel();
         int index = mestres.indexOf(vmm);
         Mensagem msg = new Mensagem(this, Mensagens.ALOCAR_ACK, cliente);
-
+        ArrayList<CentroServico> caminhoVMM;
         if (index == -1) {
-            ArrayList<CentroServico> caminhoVMM = new ArrayList<CentroServico>(getMenorCaminhoIndiretoCloud(this, vmm));
-            ArrayList<CentroServico> caminhoMsg = new ArrayList<CentroServico>(getMenorCaminhoIndiretoCloud(this, vmm));
-
-            if (simulacao.isVerbose()) {
-                simulacao.getJanela().println("[Attendance Machine " + this.getId() + "] Path to master: ", Color.blue);
-                simulacao.getJanela().println("[Attendance Machine " + this.getId() + "] :::: " + caminhoVMM, Color.blue);
-            }
-
-            vm.setCaminhoVMM(caminhoVMM);
-            msg.setCaminho(caminhoMsg);
+            caminhoVMM = new ArrayList<CentroServico>(getMenorCaminhoIndiretoCloud(this, vmm));
         } else {
-            ArrayList<CentroServico> caminhoVMM = new ArrayList<CentroServico>(caminhoMestre.get(index));
-            ArrayList<CentroServico> caminhoMsg = new ArrayList<CentroServico>(caminhoMestre.get(index));
-
-            if (simulacao.isVerbose()) {
-                simulacao.getJanela().println("[Attendance Machine " + this.getId() + "] Path to master: ", Color.blue);
-                simulacao.getJanela().println("[Attendance Machine " + this.getId() + "] :::: " + caminhoVMM, Color.blue);
-            }
-            vm.setCaminhoVMM(caminhoVMM);
-            msg.setCaminho(caminhoMsg);
+            caminhoVMM = new ArrayList<CentroServico>(caminhoMestre.get(index));
+        }
+        if (simulacao.isVerbose()) {
+            simulacao.getJanela().println("[Attendance Machine " + this.getId() + "] Path to master: ", Color.blue);
+            simulacao.getJanela().println("[Attendance Machine " + this.getId() + "] :::: " + caminhoVMM, Color.blue);
         }
+        msg.setCaminho(new ArrayList<CentroServico>(caminhoVMM));
 
         if (simulacao.isVerbose()) {
             simulacao.getJanela().println("[Attendance Machine " + this.getId() + "] Sending Ack to VMM", Color.blue);
@@ -222,12 +207,18 @@ public class CS_MaquinaCloud extends CS_Processamento implements Mensagens, Vert
             simulacao.getJanela().println("[Attendance Machine " + this.getId() + "] Request for VMM schedule", Color.blue);
         }
 
-        //Gerenciamento de custos
-        custoTotalProc = custoTotalProc + (vm.getProcessadoresDisponiveis() * custoProc);
-        custoTotalMemoria = custoTotalMemoria + (vm.getMemoriaDisponivel() * custoMemoria);
-        custoTotalDisco = custoTotalDisco + (vm.getDiscoDisponivel() * custoDisco);
-        //setar o poder de processamento da VM.
-        vm.setPoderProcessamentoPorNucleo(this.getPoderComputacional());
+        for (CS_VirtualMac vm : trf.getVMs()) {
+            //vm.setStatus(CS_VirtualMac.ALOCADA);
+            this.addVM(vm); //incluir a VM na lista de VMs
+            getMetricaAloc().incVMsAlocadas();
+            vm.setCaminhoVMM(caminhoVMM);
+            //Gerenciamento de custos
+            custoTotalProc = custoTotalProc + (vm.getProcessadoresDisponiveis() * custoProc);
+            custoTotalMemoria = custoTotalMemoria + (vm.getMemoriaDisponivel() * custoMemoria);
+            custoTotalDisco = custoTotalDisco + (vm.getDiscoDisponivel() * custoDisco);
+            //setar o poder de processamento da VM.
+            vm.setPoderProcessamentoPorNucleo(this.getPoderComputacional());
+        }
         /*
          //setar o caminho da vm para o mestre
          CS_VMM vmm = vm.getVmmResponsavel();
@@ -316,8 +307,6 @@ public class CS_MaquinaCloud extends CS_Processamento implements Mensagens, Vert
     public void atenderAckAlocacao(Simulation simulacao, Mensagem mensagem) {
         //quem deve resolver esse método é o VMM de origem
         //portanto as maquinas só encaminham pro próximo centro de serviço.
-        System.out.println("--------------------------------------");
-        System.out.println("Encaminhando ACK de alocação para " + mensagem.getOrigem().getId());
         EventoFuturo evt = new EventoFuturo(
                 simulacao.getTime(this),
                 EventoFuturo.MENSAGEM,
@@ -6,17 +6,22 @@ package gspd.ispd.motor.filas.servidores.implementacao;
 
 import gspd.ispd.escalonador.Carregar;
 import gspd.ispd.escalonador.Escalonador;
+import gspd.ispd.escalonador.FilaFIFO;
 import gspd.ispd.escalonador.Mestre;
+import gspd.ispd.escalonador.RastroDecisoes;
 import gspd.ispd.motor.EventoFuturo;
 import gspd.ispd.motor.Mensagens;
 import gspd.ispd.motor.Simulation;
 import gspd.ispd.motor.filas.Mensagem;
 import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.VisaoEscravo;
 import gspd.ispd.motor.filas.servidores.CS_Comunicacao;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.CentroServico;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  *
@@ -28,27 +33,46 @@ public class CS_Mestre extends CS_Processamento implements Mestre, Mensagens, Ve
     private List<CS_Comunicacao> conexoesEntrada;
     private List<CS_Comunicacao> conexoesSaida;
     private Escalonador escalonador;
-    private List<Tarefa> filaTarefas;
+    private FilaFIFO<Tarefa> filaTarefas;
     private boolean maqDisponivel;
     private boolean escDisponivel;
     private int tipoEscalonamento;
+    /**
+     * Número máximo de tarefas atribuídas em cada evento de escalonamento
+     */
+    private int tamanhoLote;
+    /**
+     * Indica que uma rodada em lote está em andamento e quantas tarefas ela já
+     * enviou
+     */
+    private boolean emLote;
+    private int enviadasNoLote;
     
     /**
      * Armazena os caminhos possiveis para alcançar cada escravo
      */
     private List<List> caminhoEscravo;
     private Simulation simulacao;
+    /**
+     * Estado de cada escravo montado a partir das atualizações recebidas
+     */
+    private final Map<CentroServico, VisaoEscravo> visoesEscravos = new HashMap<CentroServico, VisaoEscravo>();
+    /**
+     * Grava as chamadas feitas ao escalonador, ou null se não há gravação
+     */
+    private RastroDecisoes rastro;
 
     public CS_Mestre(String id, String proprietario, double PoderComputacional, double Ocupacao, String Escalonador) {
         super(id, proprietario, PoderComputacional, 1, Ocupacao, 0);
         this.escalonador = Carregar.getNewEscalonador(Escalonador);
         escalonador.setMestre(this);
-        this.filaTarefas = new ArrayList<Tarefa>();
+        this.filaTarefas = new FilaFIFO<Tarefa>();
         this.maqDisponivel = true;
         this.escDisponivel = true;
         this.conexoesEntrada = new ArrayList<CS_Comunicacao>();
         this.conexoesSaida = new ArrayList<CS_Comunicacao>();
         this.tipoEscalonamento = ENQUANTO_HOUVER_TAREFAS;
+        this.tamanhoLote = 1;
     }
 
     //Métodos do centro de serviços
@@ -68,6 +92,12 @@ public class CS_Mestre extends CS_Processamento implements Mestre, Mensagens, Ve
                             cliente);
                     //Event adicionado a lista de evntos futuros
                     simulacao.addEventoFuturo(evtFut);
+                } else {
+                    //tarefa retornou à origem e não gera mais eventos
+                    simulacao.liberarTarefa(cliente);
+                }
+                if (rastro != null) {
+                    rastro.tarefaConcluida(simulacao.getTime(this), cliente);
                 }
                 this.escalonador.addTarefaConcluida(cliente);
                 if (tipoEscalonamento == QUANDO_RECEBE_RESULTADO || tipoEscalonamento == AMBOS) {
@@ -80,11 +110,17 @@ public class CS_Mestre extends CS_Processamento implements Mestre, Mensagens, Ve
             } else if (escDisponivel) {
                 this.escDisponivel = false;
                 //escalonador decide qual ação tomar na chegada de uma tarefa
+                if (rastro != null) {
+                    rastro.adicionarTarefa(simulacao.getTime(this), cliente);
+                }
                 escalonador.adicionarTarefa(cliente);
                 //Se não tiver tarefa na fila a primeira tarefa será escalonada
                 executarEscalonamento();
             } else {
                 //escalonador decide qual ação tomar na chegada de uma tarefa
+                if (rastro != null) {
+                    rastro.adicionarTarefa(simulacao.getTime(this), cliente);
+                }
                 escalonador.adicionarTarefa(cliente);
             }
         }
@@ -157,7 +193,14 @@ public class CS_Mestre extends CS_Processamento implements Mestre, Mensagens, Ve
     @Override
     public void requisicao(Simulation simulacao, Mensagem mensagem, int tipo) {
         if (tipo == EventoFuturo.ESCALONAR) {
-            escalonador.escalonar();
+            if (rastro != null) {
+                rastro.escalonar(simulacao.getTime(this), tamanhoLote);
+            }
+            if (tamanhoLote > 1) {
+                escalonarLote();
+            } else {
+                escalonador.escalonar();
+            }
         } else if (mensagem != null) {
             if (mensagem.getTipo() == Mensagens.ATUALIZAR) {
                 atenderAtualizacao(simulacao, mensagem);
@@ -185,9 +228,38 @@ public class CS_Mestre extends CS_Processamento implements Mestre, Mensagens, Ve
         }
     }
 
+    /**
+     * Rodada de escalonamento que atribui várias tarefas. As tarefas enviadas
+     * seguem direto para o primeiro enlace do caminho, onde são transmitidas
+     * uma após a outra, e uma nova rodada só é gerada se o lote foi preenchido
+     */
+    private void escalonarLote() {
+        emLote = true;
+        enviadasNoLote = 0;
+        int atribuidas = escalonador.escalonarLote(tamanhoLote);
+        emLote = false;
+        if (enviadasNoLote > 0 && (tipoEscalonamento == ENQUANTO_HOUVER_TAREFAS || tipoEscalonamento == AMBOS)) {
+            if (escalonador.getFilaTarefas().isEmpty()) {
+                this.escDisponivel = true;
+            } else if (atribuidas >= tamanhoLote) {
+                executarEscalonamento();
+            }
+        }
+    }
+
     //métodos do Mestre
     @Override
     public void enviarTarefa(Tarefa tarefa) {
+        if (emLote) {
+            enviadasNoLote++;
+            //Dentro do lote a saída do mestre não gera nova rodada, a tarefa segue para o próximo servidor
+            EventoFuturo evtFut = new EventoFuturo(
+                    simulacao.getTime(this),
+                    EventoFuturo.CHEGADA,
+                    tarefa.getCaminho().remove(0), tarefa);
+            simulacao.addEventoFuturo(evtFut);
+            return;
+        }
         //Gera evento para atender proximo cliente da lista
         EventoFuturo evtFut = new EventoFuturo(
                 simulacao.getTime(this),
@@ -265,6 +337,20 @@ public class CS_Mestre extends CS_Processamento implements Mestre, Mensagens, Ve
         return escalonador;
     }
 
+    /**
+     * Passa a gravar as chamadas feitas ao escalonador no rastro, para
+     * reproduzi-las depois com ReprodutorDecisoes
+     *
+     * @param rastro rastro que recebe as chamadas, ou null para parar de gravar
+     */
+    public void setRastro(RastroDecisoes rastro) {
+        this.rastro = rastro;
+    }
+
+    public RastroDecisoes getRastro() {
+        return rastro;
+    }
+
     @Override
     public void addConexoesSaida(CS_Link link) {
         conexoesSaida.add(link);
@@ -323,6 +409,16 @@ public class CS_Mestre extends CS_Processamento implements Mestre, Mensagens, Ve
         tipoEscalonamento = tipo;
     }
 
+    @Override
+    public int getTamanhoLote() {
+        return tamanhoLote;
+    }
+
+    @Override
+    public void setTamanhoLote(int tamanho) {
+        tamanhoLote = Math.max(1, tamanho);
+    }
+
     @Override
     public Tarefa criarCopia(Tarefa get) {
         Tarefa tarefa = new Tarefa(get);
@@ -482,6 +578,21 @@ public class CS_Mestre extends CS_Processamento implements Mestre, Mensagens, Ve
 
     @Override
     public void atenderRetornoAtualizacao(Simulation simulacao, Mensagem mensagem) {
+        if (mensagem.getAtualizacao() != null) {
+            //Aplica as alterações ao estado conhecido do escravo
+            VisaoEscravo visao = visoesEscravos.get(mensagem.getOrigem());
+            if (visao == null) {
+                visao = new VisaoEscravo();
+                visoesEscravos.put(mensagem.getOrigem(), visao);
+            }
+            visao.aplicar(mensagem.getAtualizacao());
+            //O escalonador pode guardar e alterar as listas recebidas
+            mensagem.setFilaEscravo(new ArrayList<Tarefa>(visao.getFila()));
+            mensagem.setProcessadorEscravo(new ArrayList<Tarefa>(visao.getProcessador()));
+        }
+        if (rastro != null) {
+            rastro.resultadoAtualizar(simulacao.getTime(this), mensagem);
+        }
         escalonador.resultadoAtualizar(mensagem);
     }
     
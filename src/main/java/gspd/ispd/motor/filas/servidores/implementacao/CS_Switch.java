@@ -156,7 +156,7 @@ public class CS_Switch extends CS_Comunicacao implements Vertice {
 
     @Override
     public void addConexoesEntrada(CS_Link conexao) {
-        this.conexoesSaida.add(conexao);
+        this.conexoesEntrada.add(conexao);
     }
 
     @Override
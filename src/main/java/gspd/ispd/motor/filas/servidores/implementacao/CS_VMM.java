@@ -14,13 +14,16 @@ import gspd.ispd.motor.Mensagens;
 import gspd.ispd.motor.Simulation;
 import gspd.ispd.motor.filas.Mensagem;
 import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.VisaoEscravo;
 import gspd.ispd.motor.filas.servidores.CS_Comunicacao;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.CentroServico;
 
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import gspd.ispd.alocacaoVM.CarregarAlloc;
 import gspd.ispd.motor.filas.TarefaVM;
 
@@ -48,6 +51,15 @@ public class CS_VMM extends CS_Processamento implements VMM, MestreCloud, Mensag
     private List<List> caminhoEscravo;
     private List<List> caminhoVMs;
     private Simulation simulacao;
+    /**
+     * Estado de cada escravo montado a partir das atualizações recebidas
+     */
+    private final Map<CentroServico, VisaoEscravo> visoesEscravos = new HashMap<CentroServico, VisaoEscravo>();
+    /**
+     * Tarefa de alocação que ainda não saiu do VMM para cada destino; as
+     * demais VMs alocadas no mesmo destino seguem nela
+     */
+    private final Map<CentroServico, TarefaVM> lotesVM = new HashMap<CentroServico, TarefaVM>();
 
     public CS_VMM(String id, String proprietario, double PoderComputacional, double memoria, double disco, double Ocupacao, String Escalonador, String Alocador) {
         super(id, proprietario, PoderComputacional, 1, Ocupacao, 0);
@@ -76,38 +88,39 @@ public class CS_VMM extends CS_Processamento implements VMM, MestreCloud, Mensag
         }
         if (cliente instanceof TarefaVM) {
             TarefaVM trf = (TarefaVM) cliente;
-            CS_VirtualMac vm = trf.getVM_enviada();
             // se get caminho está vazio, então vm é a origem
             if (cliente.getCaminho().isEmpty()) {
-                //trecho dbg
-                if (this.maquinasVirtuais.contains(vm)) {
-                    if (simulacao.isVerbose()) {
-                        simulacao.getJanela().println("[Enter VMM " + getId() + "] duplicated VM", Color.red);
-                    }
-                } else {
-                    if (simulacao.isVerbose()) {
-                        simulacao.getJanela().println("[Enter VMM " + getId() + "] VM " + cliente + " added in allocator", Color.blue);
-                    }
-                    maquinasVirtuais.add(vm); //adiciona na lista de maquinas virtuais
-                    if (alocDisponivel) {
+                boolean novas = false;
+                for (CS_VirtualMac vm : trf.getVMs()) {
+                    //trecho dbg
+                    if (this.maquinasVirtuais.contains(vm)) {
                         if (simulacao.isVerbose()) {
-                            simulacao.getJanela().println("[Enter VMM " + getId() + "] allocator available", Color.blue);
+                            simulacao.getJanela().println("[Enter VMM " + getId() + "] duplicated VM", Color.red);
                         }
-                        this.alocDisponivel = false;
-                        alocadorVM.addVM(vm);
-                        escalonador.addEscravo(vm);
-                        executarAlocacao();
                     } else {
                         if (simulacao.isVerbose()) {
-                            simulacao.getJanela().println("[Enter VMM " + getId() + "] allocator unavailable", Color.blue);
+                            simulacao.getJanela().println("[Enter VMM " + getId() + "] VM " + vm + " added in allocator", Color.blue);
                         }
+                        maquinasVirtuais.add(vm); //adiciona na lista de maquinas virtuais
                         alocadorVM.addVM(vm);
                         escalonador.addEscravo(vm);
+                        novas = true;
+                    }
+                }
+                if (novas) {
+                    if (alocDisponivel) {
+                        if (simulacao.isVerbose()) {
+                            simulacao.getJanela().println("[Enter VMM " + getId() + "] allocator available", Color.blue);
+                        }
+                        this.alocDisponivel = false;
+                        executarAlocacao();
+                    } else if (simulacao.isVerbose()) {
+                        simulacao.getJanela().println("[Enter VMM " + getId() + "] allocator unavailable", Color.blue);
                     }
                 }
             } else {//se não for ele a origem ele precisa encaminhá-la
                 if (simulacao.isVerbose()) {
-                    simulacao.getJanela().println("[Enter VMM " + getId() + "] intermediary VMM, sending " + vm.getId(), Color.blue);
+                    simulacao.getJanela().println("[Enter VMM " + getId() + "] intermediary VMM, sending " + trf.getVMs(), Color.blue);
                 }
                 EventoFuturo evtFut = new EventoFuturo(
                         simulacao.getTime(this),
@@ -212,7 +225,13 @@ public class CS_VMM extends CS_Processamento implements VMM, MestreCloud, Mensag
         if (cliente instanceof TarefaVM) {
             TarefaVM trf = (TarefaVM) cliente;
             if (simulacao.isVerbose()) {
-                simulacao.getJanela().println("[Exit VMM " + getId() + "] Sent VM: " + trf.getVM_enviada(), Color.blue);
+                simulacao.getJanela().println("[Exit VMM " + getId() + "] Sent VMs: " + trf.getVMs(), Color.blue);
+            }
+            //o lote saiu: novas VMs para o mesmo destino vão em outra tarefa
+            List<CentroServico> caminho = trf.getCaminho();
+            CentroServico destino = caminho.get(caminho.size() - 1);
+            if (lotesVM.get(destino) == trf) {
+                lotesVM.remove(destino);
             }
             EventoFuturo evtFut = new EventoFuturo(
                     simulacao.getTime(this),
@@ -321,15 +340,30 @@ public class CS_VMM extends CS_Processamento implements VMM, MestreCloud, Mensag
         simulacao.addEventoFuturo(evtFut);
     }
 
+    /**
+     * Envia a VM na tarefa de alocação que ainda está no VMM para o mesmo
+     * destino, ou cria uma nova tarefa com a rota da VM
+     */
     @Override
     public void enviarVM(CS_VirtualMac vm) {
+        List<CentroServico> rota = vm.getCaminho();
+        CentroServico destino = rota.get(rota.size() - 1);
+        TarefaVM lote = lotesVM.get(destino);
+        if (lote != null && lote.getOrigem() == vm.getVmmResponsavel()) {
+            if (simulacao.isVerbose()) {
+                simulacao.getJanela().println("[SendVM VMM " + getId() + "] VM: " + vm + " joins " + lote, Color.blue);
+            }
+            lote.addVM(vm);
+            return;
+        }
         TarefaVM tarefa = new TarefaVM(vm.getVmmResponsavel(), vm, 300.0, 0.0);
         if (simulacao.isVerbose()) {
             simulacao.getJanela().println("[SendVM VMM " + getId() + "] VM: " + vm, Color.blue);
             simulacao.getJanela().println("[SendVM VMM " + getId() + "] VMM: " + vm.getVmmResponsavel(), Color.blue);
             simulacao.getJanela().println("[SendVM VMM " + getId() + "] Task generated: " + tarefa, Color.blue);
         }
-        tarefa.setCaminho(vm.getCaminho());
+        tarefa.setCaminho(rota);
+        lotesVM.put(destino, tarefa);
         EventoFuturo evtFut = new EventoFuturo(
                 simulacao.getTime(this),
                 EventoFuturo.SAIDA,
@@ -522,6 +556,18 @@ public class CS_VMM extends CS_Processamento implements VMM, MestreCloud, Mensag
 
     @Override
     public void atenderRetornoAtualizacao(Simulation simulacao, Mensagem mensagem) {
+        if (mensagem.getAtualizacao() != null) {
+            //Aplica as alterações ao estado conhecido do escravo
+            VisaoEscravo visao = visoesEscravos.get(mensagem.getOrigem());
+            if (visao == null) {
+                visao = new VisaoEscravo();
+                visoesEscravos.put(mensagem.getOrigem(), visao);
+            }
+            visao.aplicar(mensagem.getAtualizacao());
+            //O escalonador pode guardar e alterar as listas recebidas
+            mensagem.setFilaEscravo(new ArrayList<Tarefa>(visao.getFila()));
+            mensagem.setProcessadorEscravo(new ArrayList<Tarefa>(visao.getProcessador()));
+        }
         escalonador.resultadoAtualizar(mensagem);
     }
 
@@ -576,20 +622,13 @@ public class CS_VMM extends CS_Processamento implements VMM, MestreCloud, Mensag
 
     public void determinarCaminhoVM(CS_VirtualMac vm, ArrayList<CentroServico> caminhoVM) {
 
-        int indVM = escalonador.getEscravos().indexOf(vm);
-        System.out.println("indice da vm: " + indVM);
+        int indVM = escalonador.getIndiceEscravo(vm);
         if (indVM >= caminhoVMs.size()) {
             caminhoVMs.add(indVM, caminhoVM);
         } else {
             caminhoVMs.set(indVM, caminhoVM);
         }
-        System.out.println("Lista atualizada de caminho para as vms:");
-        for (int i = 0; i < caminhoVMs.size(); i++) {
-            System.out.println(this.escalonador.getEscravos().get(i).getId());
-            System.out.println(caminhoVMs.get(i).toString());
-        }
         escalonador.setCaminhoEscravo(caminhoVMs);
-        System.out.println("------------------------------");
 
     }
 
@@ -601,46 +640,41 @@ public class CS_VMM extends CS_Processamento implements VMM, MestreCloud, Mensag
     @Override
     public void atenderAckAlocacao(Simulation simulacao, Mensagem mensagem) {
         //se este VMM for o de origem ele deve atender senão deve encaminhar a mensagem para frente
-        System.out.println("--------------------------------------");
+        //o ACK confirma todas as VMs da tarefa, que estão na mesma máquina
         TarefaVM trf = (TarefaVM) mensagem.getTarefa();
-        CS_VirtualMac auxVM = trf.getVM_enviada();
-        CS_MaquinaCloud auxMaq = auxVM.getMaquinaHospedeira();
-        System.out.println("Atendendo ACK de alocação da vm " + auxVM.getId() + " na máquina " + auxMaq.getId());
-        if (auxVM.getVmmResponsavel().equals(this)) {//se o VMM responsável da VM for este..
+        CS_MaquinaCloud auxMaq = trf.getVM_enviada().getMaquinaHospedeira();
+        if (simulacao.isVerbose()) {
+            simulacao.getJanela().println("[Ack VMM " + getId() + "] VMs " + trf.getVMs() + " allocated in " + auxMaq.getId(), Color.blue);
+        }
+        if (trf.getVM_enviada().getVmmResponsavel().equals(this)) {//se o VMM responsável da VM for este..
             //tratar o ack
             //primeiro encontrar o caminho pra máquina onde a vm está alocada
-
-            int index = alocadorVM.getMaquinasFisicas().indexOf(auxMaq); //busca índice da maquina na lista de máquinas físicas do vmm
-            ArrayList<CentroServico> caminho;
-            if (index == -1) {
-                caminho = new ArrayList<CentroServico>(getMenorCaminhoIndiretoCloud(this, auxMaq));
-            } else {
-                caminho = new ArrayList<CentroServico>(caminhoEscravo.get(index));
+            ArrayList<CentroServico> caminho = getCaminhoMaquina(auxMaq);
+            for (CS_VirtualMac auxVM : trf.getVMs()) {
+                determinarCaminhoVM(auxVM, caminho);
+                auxVM.setStatus(CS_VirtualMac.ALOCADA);
+                auxVM.setInstanteAloc(simulacao.getTime(this));
             }
-            System.out.println(this.getId() + ": Caminho encontrado para a vm com tamanho: " + caminho.size());
-            determinarCaminhoVM(auxVM, caminho);
-            System.out.println(auxVM.getId() + " Alocada");
-            auxVM.setStatus(CS_VirtualMac.ALOCADA);
-            auxVM.setInstanteAloc(simulacao.getTime(this));
             if (this.vmsAlocadas == false) {
                 this.vmsAlocadas = true;
-                this.escDisponivel = true;
+                // como a alocação da VM foi confirmada, então é necessário executar o escalonamento das tarefas
+                // que ficaram esperando
+                if (escalonador.getFilaTarefas().isEmpty()) {
+                    this.escDisponivel = true;
+                } else {
+                    this.escDisponivel = false;
+                    executarEscalonamento();
+                }
             }
-            // como a alocação da VM foi confirmada, então é necessário executar o escalonamento das tarefas
-            // que ficaram esperando
-            // executarEscalonamento();
         } else {//passar adiante, encontrando antes o caminho intermediário para poder escalonar tarefas desse VMM tbm para a vm hierarquica
-            System.out.println(this.getId() + ": VMM intermediário, definindo caminho intermediário para " + auxVM.getId());
-            if (this.escalonador.getEscravos().contains(auxVM)) {
-                int index = alocadorVM.getMaquinasFisicas().indexOf(auxMaq);
-                ArrayList<CentroServico> caminho;
-                if (index == -1) {
-                    caminho = new ArrayList<CentroServico>(getMenorCaminhoIndiretoCloud(this, auxMaq));
-                } else {
-                    caminho = new ArrayList<CentroServico>(caminhoEscravo.get(index));
+            ArrayList<CentroServico> caminho = null;
+            for (CS_VirtualMac auxVM : trf.getVMs()) {
+                if (escalonador.getIndiceEscravo(auxVM) != -1) {
+                    if (caminho == null) {
+                        caminho = getCaminhoMaquina(auxMaq);
+                    }
+                    determinarCaminhoVM(auxVM, caminho);
                 }
-                System.out.println("Caminho encontrado para a vm com tamanho: " + caminho.size());
-                determinarCaminhoVM(auxVM, caminho);
             }
             EventoFuturo evt = new EventoFuturo(
                     simulacao.getTime(this),
@@ -651,6 +685,18 @@ public class CS_VMM extends CS_Processamento implements VMM, MestreCloud, Mensag
         }
     }
 
+    /**
+     * Caminho até a máquina física, compartilhado pelas VMs alocadas nela:
+     * quem usa os caminhos das VMs trabalha sobre uma cópia
+     */
+    private ArrayList<CentroServico> getCaminhoMaquina(CS_MaquinaCloud maquina) {
+        int index = alocadorVM.getIndiceMaquina(maquina); //busca índice da maquina na lista de máquinas físicas do vmm
+        if (index == -1) {
+            return new ArrayList<CentroServico>(getMenorCaminhoIndiretoCloud(this, maquina));
+        }
+        return new ArrayList<CentroServico>(caminhoEscravo.get(index));
+    }
+
     @Override
     public String toString() {
         return super.toString() + " (VMM)";
@@ -5,6 +5,7 @@
  */
 package gspd.ispd.motor.filas.servidores.implementacao;
 
+import gspd.ispd.escalonador.FilaFIFO;
 import gspd.ispd.motor.EventoFuturo;
 import gspd.ispd.motor.Mensagens;
 import gspd.ispd.motor.Simulation;
@@ -42,8 +43,12 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
     private List<CentroServico> caminhoVMM;
     private List<List> caminhoIntermediarios;
     private int status;
-    private List<Tarefa> filaTarefas;
+    private FilaFIFO<Tarefa> filaTarefas;
     private List<Tarefa> tarefaEmExecucao;
+    /**
+     * Tarefas alteradas desde a última atualização enviada a cada mestre
+     */
+    private final RegistroAtualizacoes alteracoes = new RegistroAtualizacoes();
     private List<CS_VMM> vmmsIntermediarios;
     private MetricasCusto metricaCusto;
     private List<Double> falhas = new ArrayList<Double>();
@@ -76,7 +81,7 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
         this.tempoDeExec = 0;
         this.status = LIVRE;
         this.tarefaEmExecucao = new ArrayList<Tarefa>(numeroProcessadores);
-        this.filaTarefas = new ArrayList<Tarefa>();
+        this.filaTarefas = new FilaFIFO<Tarefa>();
     }
 
     
@@ -102,6 +107,7 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
                 historicoProcessamento.add(cliente);
             } else {
                 filaTarefas.add(cliente);
+                alteracoes.alterou(cliente);
             }
         } else {
             if (simulacao.isVerbose()) {
@@ -145,6 +151,7 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
         }
         cliente.iniciarAtendimentoProcessamento(simulacao.getTime(this));
         tarefaEmExecucao.add(cliente);
+        alteracoes.alterou(cliente);
         cliente.setEstado(Tarefa.PROCESSANDO);
         // tempo do próximo evento depois do atendimento
         double nextTime;
@@ -230,6 +237,7 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
         //Incrementa o tempo de transmissão no pacote
         cliente.finalizarAtendimentoProcessamento(simulacao.getTime(this));
         tarefaEmExecucao.remove(cliente);
+        alteracoes.alterou(cliente);
         //eficiencia calculada apenas nas classes CS_Maquina
         cliente.calcEficiencia(this.getPoderComputacional());
         //Devolve tarefa para o mestre
@@ -278,6 +286,7 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
         } else {
             //Gera evento para atender proximo cliente da lista
             Tarefa proxCliente = filaTarefas.remove(0);
+            alteracoes.alterou(proxCliente);
             EventoFuturo NovoEvt = new EventoFuturo(
                     simulacao.getTime(this),
                     EventoFuturo.ATENDIMENTO,
@@ -320,6 +329,7 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
             //remover evento de saida do cliente do servidor
             simulacao.removeEventoFuturo(EventoFuturo.SAIDA, this, mensagem.getTarefa());
             tarefaEmExecucao.remove(mensagem.getTarefa());
+            alteracoes.alterou(mensagem.getTarefa());
             //gerar evento para atender proximo cliente
             if (filaTarefas.isEmpty()) {
                 //Indica que está livre
@@ -327,6 +337,7 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
             } else {
                 //Gera evento para atender proximo cliente da lista
                 Tarefa proxCliente = filaTarefas.remove(0);
+                alteracoes.alterou(proxCliente);
                 EventoFuturo evtFut = new EventoFuturo(
                         simulacao.getTime(this),
                         EventoFuturo.ATENDIMENTO,
@@ -361,6 +372,7 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
             } else {
                 //Gera evento para atender proximo cliente da lista
                 Tarefa proxCliente = filaTarefas.remove(0);
+                alteracoes.alterou(proxCliente);
                 EventoFuturo evtFut = new EventoFuturo(
                         simulacao.getTime(this),
                         EventoFuturo.ATENDIMENTO,
@@ -379,12 +391,14 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
             mensagem.getTarefa().setMflopsProcessado(mflopsProcessados);
             tarefaEmExecucao.remove(mensagem.getTarefa());
             filaTarefas.add(mensagem.getTarefa());
+            alteracoes.alterou(mensagem.getTarefa());
         }
     }
 
     @Override
     public void atenderDevolucao(Simulation simulacao, Mensagem mensagem) {
         boolean remover = filaTarefas.remove(mensagem.getTarefa());
+        alteracoes.alterou(mensagem.getTarefa());
         if (remover) {
             EventoFuturo evtFut = new EventoFuturo(
                     simulacao.getTime(this),
@@ -401,6 +415,7 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
         boolean remover = false;
         if (mensagem.getTarefa().getEstado() == Tarefa.PARADO) {
             remover = filaTarefas.remove(mensagem.getTarefa());
+            alteracoes.alterou(mensagem.getTarefa());
         } else if (mensagem.getTarefa().getEstado() == Tarefa.PROCESSANDO) {
             remover = simulacao.removeEventoFuturo(
                     EventoFuturo.SAIDA,
@@ -413,6 +428,7 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
             } else {
                 //Gera evento para atender proximo cliente da lista
                 Tarefa proxCliente = filaTarefas.remove(0);
+                alteracoes.alterou(proxCliente);
                 EventoFuturo evtFut = new EventoFuturo(
                         simulacao.getTime(this),
                         EventoFuturo.ATENDIMENTO,
@@ -431,6 +447,7 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
             int numCP = (int) (mflopsProcessados / mensagem.getTarefa().getCheckPoint());
             mensagem.getTarefa().setMflopsProcessado(numCP * mensagem.getTarefa().getCheckPoint());
             tarefaEmExecucao.remove(mensagem.getTarefa());
+            alteracoes.alterou(mensagem.getTarefa());
         }
         if (remover) {
             EventoFuturo evtFut = new EventoFuturo(
@@ -449,9 +466,8 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
         
         List<CentroServico> caminho = new ArrayList<CentroServico>((List<CentroServico>) caminhoVMM);
         Mensagem novaMensagem = new Mensagem(this, mensagem.getTamComunicacao(), Mensagens.RESULTADO_ATUALIZAR);
-        //Obtem informações dinâmicas
-        novaMensagem.setProcessadorEscravo(new ArrayList<Tarefa>(tarefaEmExecucao));
-        novaMensagem.setFilaEscravo(new ArrayList<Tarefa>(filaTarefas));
+        //Obtem informações dinâmicas alteradas desde a última atualização
+        novaMensagem.setAtualizacao(alteracoes.gerar(mensagem.getOrigem(), filaTarefas, tarefaEmExecucao));
         novaMensagem.setCaminho(caminho);
         EventoFuturo evtFut = new EventoFuturo(
                 simulacao.getTime(this),
@@ -527,8 +543,10 @@ public class CS_VirtualMac extends CS_Processamento implements Cliente, Mensagen
         }
         if (!erroRecuperavel) {
             processadoresDisponiveis += tarefaEmExecucao.size();
+            alteracoes.alterou(filaTarefas);
             filaTarefas.clear();
         }
+        alteracoes.alterou(tarefaEmExecucao);
         tarefaEmExecucao.clear();
     }
 
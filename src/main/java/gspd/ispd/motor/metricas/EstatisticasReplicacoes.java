@@ -0,0 +1,298 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.motor.metricas;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.math3.distribution.TDistribution;
+
+/**
+ * Guarda as métricas globais de cada replicação para estimar a média de cada
+ * métrica com um intervalo de confiança.
+ *
+ * As replicações de um mesmo grupo (um par de variáveis antitéticas) são
+ * primeiro substituídas pela sua média, formando amostras independentes.
+ * Quando a média esperada da variável de controle (o tamanho médio de
+ * computação das tarefas geradas) é conhecida, a estimativa usa variáveis de
+ * controle: a média da métrica é corrigida pelo desvio observado no controle,
+ * com o coeficiente obtido por regressão sobre as amostras.
+ *
+ * @author denison
+ */
+public class EstatisticasReplicacoes implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int TEMPO_SIMULACAO = 0;
+    public static final int SATISFACAO = 1;
+    public static final int OCIOSIDADE_COMPUTACAO = 2;
+    public static final int OCIOSIDADE_COMUNICACAO = 3;
+    public static final int EFICIENCIA = 4;
+    public static final int NUM_METRICAS = 5;
+    private static final String[] NOMES = {
+        "Total Simulated Time",
+        "Satisfaction",
+        "Idleness of processing resources",
+        "Idleness of communication resources",
+        "Efficiency"};
+    /**
+     * Nível de confiança usado em {@link #toString()}
+     */
+    public static final double CONFIANCA = 0.95;
+
+    private final List<Integer> grupos;
+    private final List<double[]> valores;
+    private final List<Double> controles;
+    private double mediaControle;
+
+    public EstatisticasReplicacoes() {
+        this.grupos = new ArrayList<Integer>();
+        this.valores = new ArrayList<double[]>();
+        this.controles = new ArrayList<Double>();
+        this.mediaControle = Double.NaN;
+    }
+
+    /**
+     * Registra os resultados de uma replicação ou, se as métricas já forem
+     * um agregado, as replicações que elas contêm
+     */
+    public void add(MetricasGlobais global) {
+        if (global.getReplicacoes() != null && global.getReplicacoes().getNumReplicacoes() > 0) {
+            addAll(global.getReplicacoes());
+        } else {
+            add(global.getGrupo(), new double[]{
+                global.getTempoSimulacao(),
+                global.getSatisfacaoMedia(),
+                global.getOciosidadeComputacao(),
+                global.getOciosidadeComunicacao(),
+                global.getEficiencia()}, global.getMediaComputacao());
+        }
+    }
+
+    /**
+     * @param grupo grupo da replicação; replicações com grupo menor ou igual
+     * a zero são consideradas independentes de todas as outras
+     * @param metricas valor de cada métrica, na ordem das constantes desta
+     * classe
+     * @param controle valor observado da variável de controle
+     */
+    public synchronized void add(int grupo, double[] metricas, double controle) {
+        grupos.add(grupo);
+        valores.add(metricas.clone());
+        controles.add(controle);
+    }
+
+    public synchronized void addAll(EstatisticasReplicacoes outras) {
+        synchronized (outras) {
+            grupos.addAll(outras.grupos);
+            valores.addAll(outras.valores);
+            controles.addAll(outras.controles);
+        }
+        if (Double.isNaN(mediaControle)) {
+            mediaControle = outras.mediaControle;
+        }
+    }
+
+    public synchronized int getNumReplicacoes() {
+        return valores.size();
+    }
+
+    /**
+     * @param mediaControle valor esperado da variável de controle, ou NaN se
+     * desconhecido
+     */
+    public void setMediaControle(double mediaControle) {
+        this.mediaControle = mediaControle;
+    }
+
+    public double getMediaControle() {
+        return mediaControle;
+    }
+
+    /**
+     * @return número de amostras independentes usadas nas estimativas
+     */
+    public int getNumAmostras() {
+        return amostras().length;
+    }
+
+    /**
+     * @return se as estimativas são corrigidas pela variável de controle
+     */
+    public boolean isUsandoControle() {
+        return usaControle(amostras());
+    }
+
+    public double getMedia(int metrica) {
+        return estimar(metrica)[0];
+    }
+
+    /**
+     * @param metrica métrica, de acordo com as constantes desta classe
+     * @param confianca nível de confiança, como 0.95
+     * @return metade da largura do intervalo de confiança da média, ou NaN se
+     * não houver amostras suficientes
+     */
+    public double getMeiaLargura(int metrica, double confianca) {
+        double[] estimativa = estimar(metrica);
+        if (estimativa[2] < 1) {
+            return Double.NaN;
+        }
+        return new TDistribution(estimativa[2]).inverseCumulativeProbability(0.5 + confianca / 2) * Math.sqrt(estimativa[1]);
+    }
+
+    /**
+     * @param metrica métrica, de acordo com as constantes desta classe
+     * @return variância amostral da métrica entre as amostras independentes,
+     * sem a correção da variável de controle
+     */
+    public double getVariancia(int metrica) {
+        double[][] amostras = amostras();
+        int n = amostras.length;
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double media = 0;
+        for (double[] amostra : amostras) {
+            media += amostra[metrica] / n;
+        }
+        double soma = 0;
+        for (double[] amostra : amostras) {
+            soma += (amostra[metrica] - media) * (amostra[metrica] - media);
+        }
+        return soma / (n - 1);
+    }
+
+    /**
+     * @param meiaLarguraRelativa maior metade da largura aceita, relativa à
+     * média de cada métrica
+     * @param confianca nível de confiança dos intervalos
+     * @return se o intervalo de confiança de todas as métricas é estreito o
+     * suficiente. Métricas sem valor definido (NaN), como a satisfação de um
+     * modelo sem tarefas, não são consideradas
+     */
+    public boolean isPrecisaoAtingida(double meiaLarguraRelativa, double confianca) {
+        if (getNumAmostras() < 2) {
+            return false;
+        }
+        for (int m = 0; m < NUM_METRICAS; m++) {
+            if (Double.isNaN(getMedia(m))) {
+                continue;
+            }
+            double meiaLargura = getMeiaLargura(m, confianca);
+            if (Double.isNaN(meiaLargura) || meiaLargura > meiaLarguraRelativa * Math.abs(getMedia(m))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Média de cada grupo completo: a última coluna é a variável de controle.
+     * Grupos com menos replicações que os demais (um par antitético
+     * incompleto) são ignorados, pois não têm a mesma variância.
+     */
+    private synchronized double[][] amostras() {
+        Map<Integer, double[]> somas = new LinkedHashMap<Integer, double[]>();
+        Map<Integer, Integer> contagem = new LinkedHashMap<Integer, Integer>();
+        int maior = 0;
+        for (int i = 0; i < valores.size(); i++) {
+            Integer grupo = grupos.get(i) > 0 ? grupos.get(i) : -i;
+            double[] soma = somas.get(grupo);
+            if (soma == null) {
+                soma = new double[NUM_METRICAS + 1];
+                somas.put(grupo, soma);
+                contagem.put(grupo, 0);
+            }
+            for (int m = 0; m < NUM_METRICAS; m++) {
+                soma[m] += valores.get(i)[m];
+            }
+            soma[NUM_METRICAS] += controles.get(i);
+            int n = contagem.get(grupo) + 1;
+            contagem.put(grupo, n);
+            maior = Math.max(maior, n);
+        }
+        List<double[]> amostras = new ArrayList<double[]>();
+        for (Map.Entry<Integer, double[]> entry : somas.entrySet()) {
+            int n = contagem.get(entry.getKey());
+            if (n == maior) {
+                double[] media = entry.getValue();
+                for (int m = 0; m < media.length; m++) {
+                    media[m] /= n;
+                }
+                amostras.add(media);
+            }
+        }
+        return amostras.toArray(new double[amostras.size()][]);
+    }
+
+    private boolean usaControle(double[][] amostras) {
+        if (Double.isNaN(mediaControle) || amostras.length < 4) {
+            return false;
+        }
+        double primeiro = amostras[0][NUM_METRICAS];
+        boolean varia = false;
+        for (double[] amostra : amostras) {
+            if (Double.isNaN(amostra[NUM_METRICAS])) {
+                return false;
+            }
+            varia |= amostra[NUM_METRICAS] != primeiro;
+        }
+        return varia;
+    }
+
+    /**
+     * @return média estimada, variância da média e graus de liberdade
+     */
+    private double[] estimar(int metrica) {
+        double[][] amostras = amostras();
+        int n = amostras.length;
+        if (n == 0) {
+            return new double[]{Double.NaN, Double.NaN, 0};
+        }
+        double mediaY = 0;
+        double mediaX = 0;
+        for (double[] amostra : amostras) {
+            mediaY += amostra[metrica];
+            mediaX += amostra[NUM_METRICAS];
+        }
+        mediaY /= n;
+        mediaX /= n;
+        double syy = 0;
+        double sxx = 0;
+        double sxy = 0;
+        for (double[] amostra : amostras) {
+            double dy = amostra[metrica] - mediaY;
+            double dx = amostra[NUM_METRICAS] - mediaX;
+            syy += dy * dy;
+            sxx += dx * dx;
+            sxy += dx * dy;
+        }
+        if (!usaControle(amostras)) {
+            return new double[]{mediaY, n > 1 ? syy / (n - 1) / n : Double.NaN, n - 1};
+        }
+        //regressão da métrica sobre o controle: a variância residual substitui
+        //a variância da métrica e um grau de liberdade a mais é perdido
+        double beta = sxy / sxx;
+        double residuo = Math.max(syy - beta * sxy, 0) / (n - 2);
+        double desvio = mediaX - mediaControle;
+        return new double[]{mediaY - beta * desvio, residuo * (1.0 / n + desvio * desvio / sxx), n - 2};
+    }
+
+    @Override
+    public String toString() {
+        double[][] amostras = amostras();
+        String texto = String.format("\t\tConfidence Intervals (%d%%, %d independent samples%s):\n\n",
+                Math.round(CONFIANCA * 100), amostras.length,
+                usaControle(amostras) ? ", control variate" : "");
+        for (int m = 0; m < NUM_METRICAS; m++) {
+            texto += String.format("\t%s = %g +- %g (variance %g)\n", NOMES[m], getMedia(m), getMeiaLargura(m, CONFIANCA), getVariancia(m));
+        }
+        return texto;
+    }
+}
@@ -4,18 +4,21 @@
  */
 package gspd.ispd.motor.metricas;
 
+import gspd.ispd.escalonador.EscalonadorListaDAG;
 import gspd.ispd.motor.filas.RedeDeFilas;
 import gspd.ispd.motor.filas.RedeDeFilasCloud;
 import gspd.ispd.motor.filas.Tarefa;
 import gspd.ispd.motor.filas.servidores.CS_Comunicacao;
 import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_MaquinaCloud;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Mestre;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_VMM;
 import gspd.ispd.motor.filas.servidores.implementacao.CS_VirtualMac;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  *
@@ -56,6 +59,10 @@ public class Metricas implements Serializable {
      * Associates each user with its ConcludedTasks
      */
     private Map<String, Integer> tarefasConcluidas;
+    /**
+     * Makespan e vazão de decisões das aplicações DAG, pelo nome
+     */
+    private Map<String, MetricasDAG> metricasDAG;
     private double tempoMedioFilaComunicacao;
     private double tempoMedioComunicacao;
     private double tempoMedioFilaProcessamento;
@@ -68,6 +75,7 @@ public class Metricas implements Serializable {
         this.numeroDeSimulacoes = 0;
         this.metricasGlobais = new MetricasGlobais();
         this.usuarios = usuarios;
+        this.metricasDAG = new TreeMap<String, MetricasDAG>();
         tempoMedioFilaComunicacao = 0;
         tempoMedioComunicacao = 0;
         tempoMedioFilaProcessamento = 0;
@@ -78,8 +86,24 @@ public class Metricas implements Serializable {
     }
 
     public Metricas(RedeDeFilas redeDeFilas, double time, List<Tarefa> tarefas) {
+        this(redeDeFilas, time, tarefas, new MetricasFilaTarefas(redeDeFilas));
+    }
+
+    /**
+     * Cria as métricas de uma simulação cujas tarefas já finalizadas foram
+     * contabilizadas durante a execução
+     *
+     * @param redeDeFilas modelo simulado
+     * @param time tempo final da simulação
+     * @param tarefas tarefas ainda não contabilizadas
+     * @param liberadas métricas das tarefas descartadas durante a simulação
+     */
+    public Metricas(RedeDeFilas redeDeFilas, double time, List<Tarefa> tarefas, MetricasFilaTarefas liberadas) {
         this.numeroDeSimulacoes = 1;
-        this.metricasGlobais = new MetricasGlobais(redeDeFilas, time, tarefas);
+        for (Tarefa no : tarefas) {
+            liberadas.addTarefa(no);
+        }
+        this.metricasGlobais = new MetricasGlobais(redeDeFilas, time, liberadas);
         metricasSatisfacao = new HashMap<String, Double>();
         tarefasConcluidas = new HashMap<String, Integer>();
         this.usuarios = redeDeFilas.getUsuarios();
@@ -87,15 +111,20 @@ public class Metricas implements Serializable {
             metricasSatisfacao.put(user, 0.0);
             tarefasConcluidas.put(user, 0);
         }
-        getMetricaFilaTarefa(tarefas, redeDeFilas);
+        getMetricaFilaTarefa(liberadas);
         getMetricaComunicacao(redeDeFilas);
         getMetricaProcessamento(redeDeFilas);
+        getMetricaDAG(redeDeFilas);
 
     }
 
     public Metricas(RedeDeFilasCloud redeDeFilas, double time, List<Tarefa> tarefas) {
         this.numeroDeSimulacoes = 1;
-        this.metricasGlobais = new MetricasGlobais(redeDeFilas, time, tarefas);
+        MetricasFilaTarefas filaTarefas = new MetricasFilaTarefas(redeDeFilas);
+        for (Tarefa no : tarefas) {
+            filaTarefas.addTarefa(no);
+        }
+        this.metricasGlobais = new MetricasGlobais(redeDeFilas, time, filaTarefas);
         metricasSatisfacao = new HashMap<String, Double>();
         tarefasConcluidas = new HashMap<String, Integer>();
         this.usuarios = redeDeFilas.getUsuarios();
@@ -103,11 +132,12 @@ public class Metricas implements Serializable {
             metricasSatisfacao.put(user, 0.0);
             tarefasConcluidas.put(user, 0);
         }
-        getMetricaFilaTarefaCloud(tarefas, redeDeFilas);
+        getMetricaFilaTarefa(filaTarefas);
         getMetricaComunicacao(redeDeFilas);
         getMetricaProcessamentoCloud(redeDeFilas);
         getMetricaAlocacao(redeDeFilas);
         getMetricaCusto(redeDeFilas);
+        metricasDAG = new TreeMap<String, MetricasDAG>();
 
     }
 
@@ -117,6 +147,7 @@ public class Metricas implements Serializable {
         addMetricaComunicacao(metrica.getMetricasComunicacao());
         addMetricaProcessamento(metrica.getMetricasProcessamento());
         addMetricaSatisfacao(metrica.getMetricasSatisfacao(), metrica.tarefasConcluidas);
+        addMetricaDAG(metrica.getMetricasDAG());
         this.numeroDeSimulacoes += metrica.numeroDeSimulacoes;
     }
 
@@ -152,6 +183,10 @@ public class Metricas implements Serializable {
         return metricasSatisfacao;
     }
 
+    public Map<String, MetricasDAG> getMetricasDAG() {
+        return metricasDAG;
+    }
+
     public double getTempoMedioFilaComunicacao() {
         return tempoMedioFilaComunicacao;
     }
@@ -216,109 +251,20 @@ public class Metricas implements Serializable {
         }
     }
 
-    private void getMetricaFilaTarefa(List<Tarefa> tarefas, RedeDeFilas rede) {
-        this.tempoMedioFilaComunicacao = 0;
-        this.tempoMedioComunicacao = 0;
-        this.tempoMedioFilaProcessamento = 0;
-        this.tempoMedioProcessamento = 0;
-        this.numTarefasCanceladas = 0;
-        this.MflopsDesperdicio = 0;
-        this.numTarefas = 0;
-
-        Double mediaPoder = 0.0;
-        for (int i = 0; i < rede.getMaquinas().size(); i++) {
-            mediaPoder += rede.getMaquinas().get(i).getPoderComputacional();
-        }
-        mediaPoder = mediaPoder / rede.getMaquinas().size();
-        for (Tarefa no : tarefas) {
-            if (no.getEstado() == Tarefa.CONCLUIDO) {
-
-                Double suij;
-                CS_Processamento maq = (CS_Processamento) no.getHistoricoProcessamento().get(0);
-                suij = (no.getTamProcessamento() / mediaPoder / (no.getTempoFinal().get(no.getTempoFinal().size() - 1) - no.getTimeCriacao())) * (100);
-                metricasSatisfacao.put(no.getProprietario(), suij + metricasSatisfacao.get(no.getProprietario()));
-                tarefasConcluidas.put(no.getProprietario(), 1 + tarefasConcluidas.get(no.getProprietario()));
-
-            }
-            if (no.getEstado() == Tarefa.CONCLUIDO) {
-                tempoMedioFilaComunicacao += no.getMetricas().getTempoEsperaComu();
-                tempoMedioComunicacao += no.getMetricas().getTempoComunicacao();
-                tempoMedioFilaProcessamento = no.getMetricas().getTempoEsperaProc();
-                tempoMedioProcessamento = no.getMetricas().getTempoProcessamento();
-                numTarefas++;
-            } else if (no.getEstado() == Tarefa.CANCELADO) {
-                MflopsDesperdicio += no.getTamProcessamento() * no.getMflopsProcessado();
-                numTarefasCanceladas++;
-            }
-            //Rever, se for informação pertinente adicionar nas métricas da tarefa ou CS_Processamento e calcula durante a simulação
-            CS_Processamento temp = (CS_Processamento) no.getLocalProcessamento();
-            if (temp != null) {
-                for (int i = 0; i < no.getTempoInicial().size(); i++) {
-                    temp.setTempoProcessamento(no.getTempoInicial().get(i), no.getTempoFinal().get(i));
-                }
-            }
-        }
+    private void getMetricaFilaTarefa(MetricasFilaTarefas filaTarefas) {
+        this.tempoMedioFilaComunicacao = filaTarefas.getTempoFilaComunicacao();
+        this.tempoMedioComunicacao = filaTarefas.getTempoComunicacao();
+        this.tempoMedioFilaProcessamento = filaTarefas.getTempoFilaProcessamento();
+        this.tempoMedioProcessamento = filaTarefas.getTempoProcessamento();
+        this.numTarefasCanceladas = filaTarefas.getNumTarefasCanceladas();
+        this.MflopsDesperdicio = filaTarefas.getMflopsDesperdicio();
+        this.numTarefas = filaTarefas.getNumTarefasConcluidas();
 
         for (Map.Entry<String, Double> entry : metricasSatisfacao.entrySet()) {
 
             String string = entry.getKey();
-            entry.setValue(entry.getValue() / tarefasConcluidas.get(string));
-
-        }
-
-        tempoMedioFilaComunicacao = tempoMedioFilaComunicacao / numTarefas;
-        tempoMedioComunicacao = tempoMedioComunicacao / numTarefas;
-        tempoMedioFilaProcessamento = tempoMedioFilaProcessamento / numTarefas;
-        tempoMedioProcessamento = tempoMedioProcessamento / numTarefas;
-    }
-
-    private void getMetricaFilaTarefaCloud(List<Tarefa> tarefas, RedeDeFilasCloud rede) {
-        this.tempoMedioFilaComunicacao = 0;
-        this.tempoMedioComunicacao = 0;
-        this.tempoMedioFilaProcessamento = 0;
-        this.tempoMedioProcessamento = 0;
-        this.numTarefasCanceladas = 0;
-        this.MflopsDesperdicio = 0;
-        this.numTarefas = 0;
-
-        Double mediaPoder = 0.0;
-        for (int i = 0; i < rede.getVMs().size(); i++) {
-            mediaPoder += rede.getVMs().get(i).getPoderComputacional();
-        }
-        mediaPoder = mediaPoder / rede.getVMs().size();
-        for (Tarefa no : tarefas) {
-            if (no.getEstado() == Tarefa.CONCLUIDO) {
-
-                Double suij;
-                CS_Processamento vm = (CS_Processamento) no.getHistoricoProcessamento().get(0);
-                suij = (no.getTamProcessamento() / mediaPoder / (no.getTempoFinal().get(no.getTempoFinal().size() - 1) - no.getTimeCriacao())) * (100);
-                metricasSatisfacao.put(no.getProprietario(), suij + metricasSatisfacao.get(no.getProprietario()));
-                tarefasConcluidas.put(no.getProprietario(), 1 + tarefasConcluidas.get(no.getProprietario()));
-
-            }
-            if (no.getEstado() == Tarefa.CONCLUIDO) {
-                tempoMedioFilaComunicacao += no.getMetricas().getTempoEsperaComu();
-                tempoMedioComunicacao += no.getMetricas().getTempoComunicacao();
-                tempoMedioFilaProcessamento = no.getMetricas().getTempoEsperaProc();
-                tempoMedioProcessamento = no.getMetricas().getTempoProcessamento();
-                numTarefas++;
-            } else if (no.getEstado() == Tarefa.CANCELADO) {
-                MflopsDesperdicio += no.getTamProcessamento() * no.getMflopsProcessado();
-                numTarefasCanceladas++;
-            }
-            //Rever, se for informação pertinente adicionar nas métricas da tarefa ou CS_Processamento e calcula durante a simulação
-            CS_Processamento temp = (CS_Processamento) no.getLocalProcessamento();
-            if (temp != null) {
-                for (int i = 0; i < no.getTempoInicial().size(); i++) {
-                    temp.setTempoProcessamento(no.getTempoInicial().get(i), no.getTempoFinal().get(i));
-                }
-            }
-        }
-
-        for (Map.Entry<String, Double> entry : metricasSatisfacao.entrySet()) {
-
-            String string = entry.getKey();
-            entry.setValue(entry.getValue() / tarefasConcluidas.get(string));
+            tarefasConcluidas.put(string, filaTarefas.getTarefasConcluidas(string));
+            entry.setValue(filaTarefas.getSatisfacao(string) / tarefasConcluidas.get(string));
 
         }
 
@@ -358,12 +304,30 @@ public class Metricas implements Serializable {
         }
     }
 
+    private void getMetricaDAG(RedeDeFilas redeDeFilas) {
+        metricasDAG = new TreeMap<String, MetricasDAG>();
+        for (CS_Processamento maq : redeDeFilas.getMestres()) {
+            if (maq instanceof CS_Mestre && ((CS_Mestre) maq).getEscalonador() instanceof EscalonadorListaDAG) {
+                EscalonadorListaDAG escalonador = (EscalonadorListaDAG) ((CS_Mestre) maq).getEscalonador();
+                for (EscalonadorListaDAG.ResultadoDAG resultado : escalonador.getResultadosDAG()) {
+                    MetricasDAG item = metricasDAG.get(resultado.getAplicacao());
+                    if (item == null) {
+                        item = new MetricasDAG(resultado.getAplicacao());
+                        metricasDAG.put(resultado.getAplicacao(), item);
+                    }
+                    item.addInstancia(resultado.getTarefas(), resultado.getMakespan(), resultado.getDuracaoEscalonamento());
+                }
+            }
+        }
+    }
+
     private void addMetricasGlobais(MetricasGlobais global) {
         metricasGlobais.setTempoSimulacao(metricasGlobais.getTempoSimulacao() + global.getTempoSimulacao());
         metricasGlobais.setSatisfacaoMedia(metricasGlobais.getSatisfacaoMedia() + global.getSatisfacaoMedia());
         metricasGlobais.setOciosidadeComputacao(metricasGlobais.getOciosidadeComputacao() + global.getOciosidadeComputacao());
         metricasGlobais.setOciosidadeComunicacao(metricasGlobais.getOciosidadeComunicacao() + global.getOciosidadeComunicacao());
         metricasGlobais.setEficiencia(metricasGlobais.getEficiencia() + global.getEficiencia());
+        metricasGlobais.addReplicacao(global);
     }
 
     private void addMetricaComunicacao(Map<String, MetricasComunicacao> metricasComunicacao) {
@@ -394,6 +358,17 @@ public class Metricas implements Serializable {
         }
     }
 
+    private void addMetricaDAG(Map<String, MetricasDAG> metricasDAG) {
+        for (MetricasDAG item : metricasDAG.values()) {
+            MetricasDAG base = this.metricasDAG.get(item.getAplicacao());
+            if (base == null) {
+                base = new MetricasDAG(item.getAplicacao());
+                this.metricasDAG.put(item.getAplicacao(), base);
+            }
+            base.addMetricasDAG(item);
+        }
+    }
+
     private void addMetricaFilaTarefa(Metricas metrica) {
         this.tempoMedioFilaComunicacao += metrica.tempoMedioFilaComunicacao;
         this.tempoMedioComunicacao += metrica.tempoMedioComunicacao;
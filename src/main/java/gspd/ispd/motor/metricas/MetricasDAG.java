@@ -0,0 +1,79 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.motor.metricas;
+
+import java.io.Serializable;
+
+/**
+ * Medidas das instâncias concluídas de uma aplicação DAG escalonada por um
+ * escalonador de lista (HEFT, CPOP). Guarda somas, de modo que replicações
+ * são acumuladas diretamente e as médias são sempre por instância.
+ *
+ * @author denison
+ */
+public class MetricasDAG implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private String aplicacao;
+    private int instancias;
+    private int tarefas;
+    /**
+     * Soma dos makespans simulados das instâncias
+     */
+    private double makespan;
+    /**
+     * Tempo real gasto atribuindo as tarefas, em nanossegundos
+     */
+    private long nanos;
+
+    public MetricasDAG(String aplicacao) {
+        this.aplicacao = aplicacao;
+    }
+
+    /**
+     * Contabiliza uma instância concluída
+     *
+     * @param tarefas tarefas atribuídas na instância
+     * @param makespan tempo simulado da chegada da primeira tarefa até a
+     * conclusão da última
+     * @param nanos tempo real gasto atribuindo as tarefas
+     */
+    public void addInstancia(int tarefas, double makespan, long nanos) {
+        this.instancias++;
+        this.tarefas += tarefas;
+        this.makespan += makespan;
+        this.nanos += nanos;
+    }
+
+    public void addMetricasDAG(MetricasDAG metrica) {
+        this.instancias += metrica.instancias;
+        this.tarefas += metrica.tarefas;
+        this.makespan += metrica.makespan;
+        this.nanos += metrica.nanos;
+    }
+
+    public String getAplicacao() {
+        return aplicacao;
+    }
+
+    public int getInstancias() {
+        return instancias;
+    }
+
+    public int getTarefas() {
+        return tarefas;
+    }
+
+    public double getMakespanMedio() {
+        return instancias == 0 ? 0 : makespan / instancias;
+    }
+
+    /**
+     * @return tarefas atribuídas por segundo de tempo real do escalonador
+     */
+    public double getDecisoesPorSegundo() {
+        return nanos == 0 ? 0 : tarefas * 1e9 / nanos;
+    }
+}
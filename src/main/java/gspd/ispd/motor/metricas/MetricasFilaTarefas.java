@@ -0,0 +1,166 @@
+/*
+ * To change this template, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package gspd.ispd.motor.metricas;
+
+import gspd.ispd.motor.filas.RedeDeFilas;
+import gspd.ispd.motor.filas.RedeDeFilasCloud;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acumula as métricas obtidas das tarefas de uma simulação. Cada tarefa é
+ * contabilizada uma única vez, permitindo que o motor a descarte assim que ela
+ * termina, sem precisar manter a lista completa até o fim da simulação. Os
+ * períodos de uso de cada recurso são unidos ao serem registrados, ocupando
+ * espaço proporcional aos seus intervalos ociosos e não ao número de tarefas.
+ *
+ * @author denison
+ */
+public class MetricasFilaTarefas implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    /**
+     * Poder computacional médio dos recursos, usado no cálculo da satisfação
+     */
+    private double mediaPoder;
+    private double tempoFilaComunicacao;
+    private double tempoComunicacao;
+    private double tempoFilaProcessamento;
+    private double tempoProcessamento;
+    private double mflopsDesperdicio;
+    private int numTarefasCanceladas;
+    private int numTarefasConcluidas;
+    private double somaEficiencia;
+    private double somaComputacao;
+    private int numTarefas;
+    private Map<String, Double> satisfacao;
+    private Map<String, Integer> concluidasPorUsuario;
+
+    public MetricasFilaTarefas(RedeDeFilas redeDeFilas) {
+        this(mediaPoder(redeDeFilas.getMaquinas()));
+    }
+
+    public MetricasFilaTarefas(RedeDeFilasCloud redeDeFilas) {
+        this(mediaPoder(redeDeFilas.getVMs()));
+    }
+
+    private MetricasFilaTarefas(double mediaPoder) {
+        this.mediaPoder = mediaPoder;
+        this.satisfacao = new HashMap<String, Double>();
+        this.concluidasPorUsuario = new HashMap<String, Integer>();
+    }
+
+    private static double mediaPoder(List<? extends CS_Processamento> recursos) {
+        Double mediaPoder = 0.0;
+        for (int i = 0; i < recursos.size(); i++) {
+            mediaPoder += recursos.get(i).getPoderComputacional();
+        }
+        return mediaPoder / recursos.size();
+    }
+
+    /**
+     * Contabiliza uma tarefa que não receberá mais eventos na simulação
+     *
+     * @param no tarefa finalizada
+     */
+    public void addTarefa(Tarefa no) {
+        if (no.getEstado() == Tarefa.CONCLUIDO) {
+            Double suij = (no.getTamProcessamento() / mediaPoder / (no.getTempoFinal().get(no.getTempoFinal().size() - 1) - no.getTimeCriacao())) * (100);
+            Double anterior = satisfacao.get(no.getProprietario());
+            satisfacao.put(no.getProprietario(), anterior == null ? suij : suij + anterior);
+            Integer concluidas = concluidasPorUsuario.get(no.getProprietario());
+            concluidasPorUsuario.put(no.getProprietario(), concluidas == null ? 1 : concluidas + 1);
+            tempoFilaComunicacao += no.getMetricas().getTempoEsperaComu();
+            tempoComunicacao += no.getMetricas().getTempoComunicacao();
+            tempoFilaProcessamento = no.getMetricas().getTempoEsperaProc();
+            tempoProcessamento = no.getMetricas().getTempoProcessamento();
+            numTarefasConcluidas++;
+        } else if (no.getEstado() == Tarefa.CANCELADO) {
+            mflopsDesperdicio += no.getTamProcessamento() * no.getMflopsProcessado();
+            numTarefasCanceladas++;
+        }
+        //Rever, se for informação pertinente adicionar nas métricas da tarefa ou CS_Processamento e calcula durante a simulação
+        CS_Processamento temp = (CS_Processamento) no.getLocalProcessamento();
+        if (temp != null) {
+            for (int i = 0; i < no.getTempoInicial().size(); i++) {
+                temp.setTempoProcessamento(no.getTempoInicial().get(i), no.getTempoFinal().get(i));
+            }
+        }
+        somaEficiencia += no.getMetricas().getEficiencia();
+        somaComputacao += no.getTamProcessamento();
+        numTarefas++;
+    }
+
+    public double getTempoFilaComunicacao() {
+        return tempoFilaComunicacao;
+    }
+
+    public double getTempoComunicacao() {
+        return tempoComunicacao;
+    }
+
+    public double getTempoFilaProcessamento() {
+        return tempoFilaProcessamento;
+    }
+
+    public double getTempoProcessamento() {
+        return tempoProcessamento;
+    }
+
+    public double getMflopsDesperdicio() {
+        return mflopsDesperdicio;
+    }
+
+    public int getNumTarefasCanceladas() {
+        return numTarefasCanceladas;
+    }
+
+    public int getNumTarefasConcluidas() {
+        return numTarefasConcluidas;
+    }
+
+    /**
+     * @return número total de tarefas contabilizadas, em qualquer estado
+     */
+    public int getNumTarefas() {
+        return numTarefas;
+    }
+
+    /**
+     * @return eficiência média de todas as tarefas contabilizadas
+     */
+    public double getEficiencia() {
+        return somaEficiencia / numTarefas;
+    }
+
+    /**
+     * @return tamanho médio de computação de todas as tarefas contabilizadas
+     */
+    public double getMediaComputacao() {
+        return somaComputacao / numTarefas;
+    }
+
+    /**
+     * @param usuario proprietário das tarefas
+     * @return soma da satisfação das tarefas concluídas do usuário
+     */
+    public double getSatisfacao(String usuario) {
+        Double valor = satisfacao.get(usuario);
+        return valor == null ? 0.0 : valor;
+    }
+
+    /**
+     * @param usuario proprietário das tarefas
+     * @return número de tarefas concluídas do usuário
+     */
+    public int getTarefasConcluidas(String usuario) {
+        Integer valor = concluidasPorUsuario.get(usuario);
+        return valor == null ? 0 : valor;
+    }
+}
@@ -30,6 +30,29 @@ public class MetricasGlobais implements Serializable {
     private double custoTotalMem;
     private int totaldeVMs;
     private int numVMsRejeitadas;
+    /**
+     * Grupo da replicação que gerou estas métricas (um par de variáveis
+     * antitéticas tem um único grupo)
+     */
+    private int grupo;
+    /**
+     * Tamanho médio de computação das tarefas, usado como variável de controle
+     */
+    private double mediaComputacao = Double.NaN;
+    /**
+     * Resultados de cada replicação somada a estas métricas
+     */
+    private EstatisticasReplicacoes replicacoes;
+    /**
+     * Resultados do controle de duração da simulação: médias estimadas após o
+     * aquecimento e metade da largura relativa dos seus intervalos de
+     * confiança (NaN quando a duração não é controlada)
+     */
+    private double tempoAquecimento = Double.NaN;
+    private double tempoRespostaMedio = Double.NaN;
+    private double precisaoTempoResposta = Double.NaN;
+    private double utilizacaoMedia = Double.NaN;
+    private double precisaoUtilizacao = Double.NaN;
     
     
     public MetricasGlobais(double tempoSimulacao, double satisfacaoMedia, double ociosidadeComputacao, double ociosidadeComunicacao, double eficiencia, double custoTotalDisco, double custoTotalProc, double custoTotalMem, int total) {
@@ -47,6 +70,8 @@ public class MetricasGlobais implements Serializable {
 
     public MetricasGlobais(RedeDeFilas redeDeFilas, double tempoSimulacao, List<Tarefa> tarefas) {
         this.tempoSimulacao = tempoSimulacao;
+        this.grupo = redeDeFilas.getFluxos().getGrupo();
+        this.mediaComputacao = getMediaComputacao(tarefas);
         this.satisfacaoMedia = 100;
         this.ociosidadeComputacao = getOciosidadeComputacao(redeDeFilas);
         this.ociosidadeComunicacao = getOciosidadeComunicacao(redeDeFilas);
@@ -54,8 +79,21 @@ public class MetricasGlobais implements Serializable {
         this.total = 0;
     }
 
+    public MetricasGlobais(RedeDeFilas redeDeFilas, double tempoSimulacao, MetricasFilaTarefas tarefas) {
+        this.tempoSimulacao = tempoSimulacao;
+        this.grupo = redeDeFilas.getFluxos().getGrupo();
+        this.mediaComputacao = tarefas.getMediaComputacao();
+        this.satisfacaoMedia = 100;
+        this.ociosidadeComputacao = getOciosidadeComputacao(redeDeFilas);
+        this.ociosidadeComunicacao = getOciosidadeComunicacao(redeDeFilas);
+        this.eficiencia = tarefas.getEficiencia();
+        this.total = 0;
+    }
+
     public MetricasGlobais(RedeDeFilasCloud redeDeFilas, double tempoSimulacao, List<Tarefa> tarefas) {
         this.tempoSimulacao = tempoSimulacao;
+        this.grupo = redeDeFilas.getFluxos().getGrupo();
+        this.mediaComputacao = getMediaComputacao(tarefas);
         this.satisfacaoMedia = 100;
         this.ociosidadeComputacao = getOciosidadeComputacaoCloud(redeDeFilas);
         this.ociosidadeComunicacao = getOciosidadeComunicacao(redeDeFilas);
@@ -68,6 +106,22 @@ public class MetricasGlobais implements Serializable {
         this.total = 0;
     }
 
+    public MetricasGlobais(RedeDeFilasCloud redeDeFilas, double tempoSimulacao, MetricasFilaTarefas tarefas) {
+        this.tempoSimulacao = tempoSimulacao;
+        this.grupo = redeDeFilas.getFluxos().getGrupo();
+        this.mediaComputacao = tarefas.getMediaComputacao();
+        this.satisfacaoMedia = 100;
+        this.ociosidadeComputacao = getOciosidadeComputacaoCloud(redeDeFilas);
+        this.ociosidadeComunicacao = getOciosidadeComunicacao(redeDeFilas);
+        this.eficiencia = tarefas.getEficiencia();
+        this.custoTotalDisco = getCustoTotalDisco(redeDeFilas);
+        this.custoTotalMem = getCustoTotalMem(redeDeFilas);
+        this.custoTotalProc = getCustoTotalProc(redeDeFilas);
+        this.totaldeVMs = getTotalVMs(redeDeFilas);
+        this.numVMsRejeitadas = getNumVMsRejeitadas(redeDeFilas);
+        this.total = 0;
+    }
+
     public MetricasGlobais() {
         this.tempoSimulacao = 0;
         this.satisfacaoMedia = 0;
@@ -216,6 +270,14 @@ public class MetricasGlobais implements Serializable {
         return (tempoLivreMedio * 100) / getTempoSimulacao();
     }
 
+    private double getMediaComputacao(List<Tarefa> tarefas) {
+        double soma = 0;
+        for (Tarefa tar : tarefas) {
+            soma += tar.getTamProcessamento();
+        }
+        return soma / tarefas.size();
+    }
+
     private double getEficiencia(List<Tarefa> tarefas) {
         double somaEfic = 0;
         for (Tarefa tar : tarefas) {
@@ -269,26 +331,108 @@ public class MetricasGlobais implements Serializable {
         return totaldeVMs;
     }
 
+    public double getTempoAquecimento() {
+        return tempoAquecimento;
+    }
+
+    public void setTempoAquecimento(double tempoAquecimento) {
+        this.tempoAquecimento = tempoAquecimento;
+    }
+
+    public double getTempoRespostaMedio() {
+        return tempoRespostaMedio;
+    }
+
+    public void setTempoRespostaMedio(double tempoRespostaMedio) {
+        this.tempoRespostaMedio = tempoRespostaMedio;
+    }
+
+    public double getPrecisaoTempoResposta() {
+        return precisaoTempoResposta;
+    }
+
+    public void setPrecisaoTempoResposta(double precisaoTempoResposta) {
+        this.precisaoTempoResposta = precisaoTempoResposta;
+    }
+
+    public double getUtilizacaoMedia() {
+        return utilizacaoMedia;
+    }
+
+    public void setUtilizacaoMedia(double utilizacaoMedia) {
+        this.utilizacaoMedia = utilizacaoMedia;
+    }
+
+    public double getPrecisaoUtilizacao() {
+        return precisaoUtilizacao;
+    }
+
+    public void setPrecisaoUtilizacao(double precisaoUtilizacao) {
+        this.precisaoUtilizacao = precisaoUtilizacao;
+    }
+
+    public int getGrupo() {
+        return grupo;
+    }
+
+    public double getMediaComputacao() {
+        return mediaComputacao;
+    }
+
+    /**
+     * @return resultados das replicações somadas a estas métricas, ou null se
+     * elas forem de uma única simulação
+     */
+    public EstatisticasReplicacoes getReplicacoes() {
+        return replicacoes;
+    }
+
+    /**
+     * Registra os resultados de uma replicação (ou de um agregado de
+     * replicações) para as estimativas com intervalo de confiança
+     */
+    public void addReplicacao(MetricasGlobais global) {
+        if (replicacoes == null) {
+            replicacoes = new EstatisticasReplicacoes();
+        }
+        replicacoes.add(global);
+    }
+
     public void add(MetricasGlobais global) {
         tempoSimulacao += global.getTempoSimulacao();
         satisfacaoMedia += global.getSatisfacaoMedia();
         ociosidadeComputacao += global.getOciosidadeComputacao();
         ociosidadeComunicacao += global.getOciosidadeComunicacao();
         eficiencia += global.getEficiencia();
-        total++;
+        total += Math.max(global.total, 1);
+        addReplicacao(global);
+        if (!Double.isNaN(global.getPrecisaoTempoResposta())) {
+            //médias somadas como as demais métricas; a precisão é a pior obtida
+            tempoAquecimento = somar(tempoAquecimento, global.getTempoAquecimento());
+            tempoRespostaMedio = somar(tempoRespostaMedio, global.getTempoRespostaMedio());
+            utilizacaoMedia = somar(utilizacaoMedia, global.getUtilizacaoMedia());
+            precisaoTempoResposta = Double.isNaN(precisaoTempoResposta) ? global.getPrecisaoTempoResposta() : Math.max(precisaoTempoResposta, global.getPrecisaoTempoResposta());
+            precisaoUtilizacao = Double.isNaN(precisaoUtilizacao) ? global.getPrecisaoUtilizacao() : Math.max(precisaoUtilizacao, global.getPrecisaoUtilizacao());
+        }
+    }
+
+    private static double somar(double soma, double valor) {
+        return Double.isNaN(soma) ? valor : soma + valor;
     }
 
     @Override
     public String toString() {
+        //métricas de uma única simulação não passam por add()
+        int replicacoesSomadas = Math.max(total, 1);
         String texto = "\t\tSimulation Results:\n\n";
-        texto += String.format("\tTotal Simulated Time = %g \n", tempoSimulacao / total);
-        texto += String.format("\tSatisfaction = %g %%\n", satisfacaoMedia / total);
-        texto += String.format("\tIdleness of processing resources = %g %%\n", ociosidadeComputacao / total);
-        texto += String.format("\tIdleness of communication resources = %g %%\n", ociosidadeComunicacao / total);
-        texto += String.format("\tEfficiency = %g %%\n", eficiencia / total);
-        if (eficiencia / total > 70.0) {
+        texto += String.format("\tTotal Simulated Time = %g \n", tempoSimulacao / replicacoesSomadas);
+        texto += String.format("\tSatisfaction = %g %%\n", satisfacaoMedia / replicacoesSomadas);
+        texto += String.format("\tIdleness of processing resources = %g %%\n", ociosidadeComputacao / replicacoesSomadas);
+        texto += String.format("\tIdleness of communication resources = %g %%\n", ociosidadeComunicacao / replicacoesSomadas);
+        texto += String.format("\tEfficiency = %g %%\n", eficiencia / replicacoesSomadas);
+        if (eficiencia / replicacoesSomadas > 70.0) {
             texto += "\tEfficiency GOOD\n ";
-        } else if (eficiencia / total > 40.0) {
+        } else if (eficiencia / replicacoesSomadas > 40.0) {
             texto += "\tEfficiency MEDIA\n ";
         } else {
             texto += "\tEfficiency BAD\n ";
@@ -298,8 +442,17 @@ public class MetricasGlobais implements Serializable {
         texto += String.format("\tCost Total de Memory = %g %%\n", custoTotalMem);
         texto += String.format("\tCost Total de Disk = %g %%\n", custoTotalDisco);
         texto += "\t\tVM Alocation results:";
-        texto += String.format("\tTotal of VMs alocated = %g %%\n", (totaldeVMs - numVMsRejeitadas));
-        texto += String.format("\tTotal of VMs rejected = %g %%\n", numVMsRejeitadas);
+        texto += String.format("\tTotal of VMs alocated = %d\n", (totaldeVMs - numVMsRejeitadas));
+        texto += String.format("\tTotal of VMs rejected = %d\n", numVMsRejeitadas);
+        if (!Double.isNaN(precisaoTempoResposta)) {
+            texto += "\t\tSteady State Results:\n\n";
+            texto += String.format("\tWarm-up period = %g\n", tempoAquecimento / replicacoesSomadas);
+            texto += String.format("\tMean response time = %g (+- %g %%)\n", tempoRespostaMedio / replicacoesSomadas, precisaoTempoResposta * 100);
+            texto += String.format("\tMean utilization = %g %% (+- %g %%)\n", utilizacaoMedia * 100 / replicacoesSomadas, precisaoUtilizacao * 100);
+        }
+        if (replicacoes != null && replicacoes.getNumAmostras() > 1) {
+            texto += replicacoes.toString();
+        }
         return texto;
     }
 
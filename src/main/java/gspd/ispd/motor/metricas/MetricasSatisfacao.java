@@ -4,9 +4,6 @@
  */
 package gspd.ispd.motor.metricas;
 
-import gspd.ispd.motor.filas.Tarefa;
-import gspd.ispd.motor.filas.servidores.CS_Processamento;
-
 /**
  *
  * @author cassio
@@ -35,12 +32,7 @@ public class MetricasSatisfacao {
     
     public void addSatisfacao(MetricasUsuarios metricasUsuarios) {
         
-        Double suij = 0.0;
-        for (Tarefa j : metricasUsuarios.getTarefasConcluidas(usuario)) {
-            CS_Processamento maq = (CS_Processamento) j.getHistoricoProcessamento().get(0);
-            suij += ((j.getTimeCriacao() + maq.tempoProcessar(j.getTamProcessamento())) / (j.getTempoFinal().get(j.getTempoFinal().size() - 1) - j.getTimeCriacao())) * (100);
-        }
-        this.satisfacao += suij/metricasUsuarios.getTarefasConcluidas(usuario).size();
+        this.satisfacao += metricasUsuarios.getSatisfacao(usuario)/metricasUsuarios.getSizeTarefasConcluidas(usuario);
         
     }
 }
@@ -5,11 +5,14 @@
 package gspd.ispd.motor.metricas;
 
 import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 /**
+ * Métricas das tarefas de cada usuário. As tarefas são contabilizadas quando
+ * chegam ao mestre e quando retornam a ele, sem manter referência a elas, de
+ * forma que o espaço usado depende apenas do número de usuários.
  *
  * @author denison_usuario
  */
@@ -18,8 +21,7 @@ public class MetricasUsuarios {
     private HashMap<String, Integer> usuarios;
     private List<String> listaUsuarios;
     private List<Double> poderComputacional;
-    private List<HashSet<Tarefa>> tarefasSubmetidas;
-    private List<HashSet<Tarefa>> tarefasConcluidas;
+    private List<Totais> totais;
     // deninson adicionou perfis e limites
     private HashMap<String, Double> limites;
     
@@ -28,16 +30,14 @@ public class MetricasUsuarios {
         usuarios = new HashMap<String, Integer>();
         listaUsuarios = new ArrayList<String>();
         poderComputacional = new ArrayList<Double>();
-        tarefasSubmetidas = new ArrayList<HashSet<Tarefa>>();
-        tarefasConcluidas = new ArrayList<HashSet<Tarefa>>();
+        totais = new ArrayList<Totais>();
     }
     
     public void addUsuario(String nome, Double poderComputacional){
         this.listaUsuarios.add(nome);
         this.usuarios.put(nome, listaUsuarios.indexOf(nome));
         this.poderComputacional.add(poderComputacional);
-        this.tarefasSubmetidas.add(new HashSet<Tarefa>());
-        this.tarefasConcluidas.add(new HashSet<Tarefa>());
+        this.totais.add(new Totais());
     }
     // merged to denison (added perfil)
     public void addUsuario(String nome, Double poderComputacional, Double perfil){
@@ -50,8 +50,7 @@ public class MetricasUsuarios {
             this.listaUsuarios.add(nomes.get(i));
             this.usuarios.put(nomes.get(i), i);
             this.poderComputacional.add(poderComputacional.get(i));
-            this.tarefasSubmetidas.add(new HashSet<Tarefa>());
-            this.tarefasConcluidas.add(new HashSet<Tarefa>());
+            this.totais.add(new Totais());
         }
     }
     
@@ -63,37 +62,45 @@ public class MetricasUsuarios {
                 this.usuarios.put(mtc.listaUsuarios.get(i), this.listaUsuarios.indexOf(mtc.listaUsuarios.get(i)));
                 this.limites.put(mtc.listaUsuarios.get(i), mtc.limites.get(usuarios.get(this.listaUsuarios.indexOf(mtc.listaUsuarios.get(i)))));
                 this.poderComputacional.add(mtc.poderComputacional.get(i));
-                this.tarefasSubmetidas.add(mtc.tarefasSubmetidas.get(i));
-                this.tarefasConcluidas.add(mtc.tarefasConcluidas.get(i));
+                Totais copia = new Totais();
+                copia.somar(mtc.totais.get(i));
+                this.totais.add(copia);
             }else{
-                this.tarefasSubmetidas.get(index).addAll(mtc.tarefasSubmetidas.get(i));
-                this.tarefasConcluidas.get(index).addAll(mtc.tarefasConcluidas.get(i));
+                this.totais.get(index).somar(mtc.totais.get(i));
             }
         }
     }
     
     public void incTarefasSubmetidas(Tarefa tarefa){
-        int index = this.usuarios.get(tarefa.getProprietario());
-        this.tarefasSubmetidas.get(index).add(tarefa);
+        //uma tarefa devolvida ao mestre não é submetida novamente
+        if (tarefa.isSubmetida()) {
+            return;
+        }
+        tarefa.setSubmetida(true);
+        Totais total = this.totais.get(this.usuarios.get(tarefa.getProprietario()));
+        total.submetidas++;
+        total.mflopsSubmetidas += tarefa.getTamProcessamento();
     }
     
     public void incTarefasConcluidas(Tarefa tarefa){
-        int index = this.usuarios.get(tarefa.getProprietario());
-        this.tarefasConcluidas.get(index).add(tarefa);
-    }
-    
-    public HashSet<Tarefa> getTarefasConcluidas(String user){
-        Integer index = this.usuarios.get(user);
-        if(index != null){
-            return tarefasConcluidas.get(index);
+        Totais total = this.totais.get(this.usuarios.get(tarefa.getProprietario()));
+        total.concluidas++;
+        total.mflopsConcluidas += tarefa.getTamProcessamento();
+        total.esperaComunicacao += tarefa.getMetricas().getTempoEsperaComu();
+        total.comunicacao += tarefa.getMetricas().getTempoComunicacao();
+        total.esperaProcessamento += tarefa.getMetricas().getTempoEsperaProc();
+        total.processamento += tarefa.getMetricas().getTempoProcessamento();
+        if (!tarefa.getHistoricoProcessamento().isEmpty()) {
+            CS_Processamento maq = tarefa.getHistoricoProcessamento().get(0);
+            total.satisfacao += ((tarefa.getTimeCriacao() + maq.tempoProcessar(tarefa.getTamProcessamento()))
+                    / (tarefa.getTempoFinal().get(tarefa.getTempoFinal().size() - 1) - tarefa.getTimeCriacao())) * (100);
         }
-        return null;
     }
     
     public int getSizeTarefasConcluidas(String user) {
         Integer index = usuarios.get(user);
         if (index != null) {
-            return tarefasConcluidas.get(index).size();
+            return totais.get(index).concluidas;
         } else {
             return -1;
         }
@@ -102,7 +109,7 @@ public class MetricasUsuarios {
     public int getSizeTarefasSubmetidas(String user) {
         Integer index = usuarios.get(user);
         if (index != null) {
-            return tarefasSubmetidas.get(index).size();
+            return totais.get(index).submetidas;
         } else {
             return -1;
         }
@@ -111,12 +118,7 @@ public class MetricasUsuarios {
     public double getMflopsTarefasSubmetidas(String user) {
         Integer index = usuarios.get(user);
         if (index != null) {
-            double mflops = 0;
-            for(Object tar : tarefasSubmetidas.get(index)){
-                Tarefa tarefa = (Tarefa) tar;
-                mflops += tarefa.getTamProcessamento();
-            }
-            return mflops;
+            return totais.get(index).mflopsSubmetidas;
         } else {
             return -1;
         }
@@ -125,23 +127,53 @@ public class MetricasUsuarios {
     public double getMflopsTarefasConcluidas(String user) {
         Integer index = usuarios.get(user);
         if (index != null) {
-            double mflops = 0;
-            for(Object tar : tarefasConcluidas.get(index)){
-                Tarefa tarefa = (Tarefa) tar;
-                mflops += tarefa.getTamProcessamento();
-            }
-            return mflops;
+            return totais.get(index).mflopsConcluidas;
         } else {
             return -1;
         }
     }
 
-    public List<HashSet<Tarefa>> getTarefasConcluidas() {
-        return tarefasConcluidas;
+    /**
+     * @return soma do tempo de espera em filas de comunicação das tarefas
+     * concluídas do usuário
+     */
+    public double getTempoEsperaComunicacao(String user) {
+        Integer index = usuarios.get(user);
+        return index != null ? totais.get(index).esperaComunicacao : -1;
     }
 
-    public List<HashSet<Tarefa>> getTarefasSubmetidas() {
-        return tarefasSubmetidas;
+    /**
+     * @return soma do tempo de comunicação das tarefas concluídas do usuário
+     */
+    public double getTempoComunicacao(String user) {
+        Integer index = usuarios.get(user);
+        return index != null ? totais.get(index).comunicacao : -1;
+    }
+
+    /**
+     * @return soma do tempo de espera em filas de processamento das tarefas
+     * concluídas do usuário
+     */
+    public double getTempoEsperaProcessamento(String user) {
+        Integer index = usuarios.get(user);
+        return index != null ? totais.get(index).esperaProcessamento : -1;
+    }
+
+    /**
+     * @return soma do tempo de processamento das tarefas concluídas do usuário
+     */
+    public double getTempoProcessamento(String user) {
+        Integer index = usuarios.get(user);
+        return index != null ? totais.get(index).processamento : -1;
+    }
+
+    /**
+     * @return soma da satisfação das tarefas concluídas do usuário, em
+     * porcentagem
+     */
+    public double getSatisfacao(String user) {
+        Integer index = usuarios.get(user);
+        return index != null ? totais.get(index).satisfacao : -1;
     }
 
     public double getPoderComputacional(String user) {
@@ -172,8 +204,36 @@ public class MetricasUsuarios {
     public String toString(){
         String texto = "";
         for (int i = 0; i < usuarios.size(); i++) {
-            texto += "Usuario: "+usuarios.get(i)+" tarefas: sub "+tarefasSubmetidas.get(i).size()+" con "+tarefasConcluidas.get(i).size()+"\n";
+            texto += "Usuario: "+listaUsuarios.get(i)+" tarefas: sub "+totais.get(i).submetidas+" con "+totais.get(i).concluidas+"\n";
         }
         return texto;
     }
+
+    /**
+     * Totais acumulados das tarefas de um usuário
+     */
+    private static class Totais {
+
+        private int submetidas;
+        private int concluidas;
+        private double mflopsSubmetidas;
+        private double mflopsConcluidas;
+        private double esperaComunicacao;
+        private double comunicacao;
+        private double esperaProcessamento;
+        private double processamento;
+        private double satisfacao;
+
+        private void somar(Totais outro) {
+            submetidas += outro.submetidas;
+            concluidas += outro.concluidas;
+            mflopsSubmetidas += outro.mflopsSubmetidas;
+            mflopsConcluidas += outro.mflopsConcluidas;
+            esperaComunicacao += outro.esperaComunicacao;
+            comunicacao += outro.comunicacao;
+            esperaProcessamento += outro.esperaProcessamento;
+            processamento += outro.processamento;
+            satisfacao += outro.satisfacao;
+        }
+    }
 }
\ No newline at end of file
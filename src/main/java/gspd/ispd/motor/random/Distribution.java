@@ -44,16 +44,98 @@ import java.util.Random;
 /**
  * Distribution.java
  * This class generates various random variables for
- * distributions not directly supported in Java
+ * distributions not directly supported in Java.
+ * The generator produces the same sequence as java.util.Random, but keeps its
+ * state in a plain field instead of an atomic one: an instance must not be
+ * shared between threads (use {@link FluxosAleatorios} to get one per thread).
+ * The methods that receive a double[] fill the whole array with the same
+ * values that the same number of single calls would return.
+ * An antithetic generator returns 1 - u - 2^-53 in place of each uniform u of
+ * the original sequence, so the values derived from nextDouble() are
+ * negatively correlated with those of a generator with the same seed.
  */
 public class Distribution extends Random {
 
+    private static final long MULTIPLICADOR = 0x5DEECE66DL;
+    private static final long INCREMENTO = 0xBL;
+    private static final long MASCARA = (1L << 48) - 1;
+    private static final double UNIDADE = 0x1.0p-53;
+    /**
+     * Complemento usado nas variáveis antitéticas: mantém os valores no
+     * intervalo [0, 1) e no mesmo reticulado de nextDouble()
+     */
+    private static final double COMPLEMENTO = 1.0 - UNIDADE;
+    /**
+     * Estado do gerador linear congruente. É definido por setSeed durante o
+     * construtor de Random, por isso não pode ter inicializador.
+     */
+    private long semente;
+    private final boolean antitetica;
+
     public Distribution() {
         super();
+        this.antitetica = false;
     }
 
     public Distribution(long seed) {
+        this(seed, false);
+    }
+
+    /**
+     * @param seed semente do gerador
+     * @param antitetica se os uniformes devem ser os complementos dos gerados
+     * pela mesma semente
+     */
+    public Distribution(long seed, boolean antitetica) {
         super(seed);
+        this.antitetica = antitetica;
+    }
+
+    public boolean isAntitetica() {
+        return antitetica;
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed);
+        semente = (seed ^ MULTIPLICADOR) & MASCARA;
+    }
+
+    @Override
+    protected int next(int bits) {
+        semente = (semente * MULTIPLICADOR + INCREMENTO) & MASCARA;
+        return (int) (semente >>> (48 - bits));
+    }
+
+    @Override
+    public double nextDouble() {
+        double u = super.nextDouble();
+        return antitetica ? COMPLEMENTO - u : u;
+    }
+
+    /**
+     * Preenche o trecho [inicio, fim) com valores uniformes em [0, 1), os
+     * mesmos de chamadas sucessivas a nextDouble()
+     */
+    public void nextDoubles(double[] destino, int inicio, int fim) {
+        long s = semente;
+        for (int i = inicio; i < fim; i++) {
+            s = (s * MULTIPLICADOR + INCREMENTO) & MASCARA;
+            long alto = s >>> (48 - 26);
+            s = (s * MULTIPLICADOR + INCREMENTO) & MASCARA;
+            long baixo = s >>> (48 - 27);
+            destino[i] = ((alto << 27) + baixo) * UNIDADE;
+        }
+        semente = s;
+        if (antitetica) {
+            for (int i = inicio; i < fim; i++) {
+                destino[i] = COMPLEMENTO - destino[i];
+            }
+        }
+    }
+
+    public void nextDoubles(double[] destino) {
+        nextDoubles(destino, 0, destino.length);
     }
     
     //http://www.math.csusb.edu/faculty/stanton/probstat/poisson/Distribution.java
@@ -78,6 +160,13 @@ public class Distribution extends Random {
         return result;
     }
 
+    public void exponencial(double media, double[] destino) {
+        nextDoubles(destino);
+        for (int i = 0; i < destino.length; i++) {
+            destino[i] = -media * Math.log(destino[i]);
+        }
+    }
+
     //Code iSPD 1.0
     public double nextNormal(double media, double desvioPadrao) {
         double soma12 = 0.0;
@@ -87,6 +176,21 @@ public class Distribution extends Random {
         return (media + (desvioPadrao * (soma12 - 6.0)));
     }
 
+    public void nextNormal(double media, double desvioPadrao, double[] destino) {
+        double[] uniformes = new double[12 * Math.min(destino.length, 1024)];
+        for (int inicio = 0; inicio < destino.length; inicio += 1024) {
+            int quantidade = Math.min(1024, destino.length - inicio);
+            nextDoubles(uniformes, 0, 12 * quantidade);
+            for (int i = 0, j = 0; i < quantidade; i++) {
+                double soma12 = 0.0;
+                for (int k = 0; k < 12; k++) {
+                    soma12 = soma12 + uniformes[j++];
+                }
+                destino[inicio + i] = media + (desvioPadrao * (soma12 - 6.0));
+            }
+        }
+    }
+
     //http://www.cs.huji.ac.il/labs/parallel/workload/m_lublin99/m_lublin99.c
     public double twoStageUniform(double low, double med, double hi, double prob) {
         double a;
@@ -108,12 +212,40 @@ public class Distribution extends Random {
         return tsu;
     }
 
+    public void twoStageUniform(double low, double med, double hi, double prob, double[] destino) {
+        double[] uniformes = new double[2 * Math.min(destino.length, 1024)];
+        for (int inicio = 0; inicio < destino.length; inicio += 1024) {
+            int quantidade = Math.min(1024, destino.length - inicio);
+            nextDoubles(uniformes, 0, 2 * quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                double u = uniformes[2 * i];
+                double v = uniformes[2 * i + 1];
+                destino[inicio + i] = u <= prob ? (v * (med - low)) + low : (v * (hi - med)) + med;
+            }
+        }
+    }
+
     public double nextLogNormal(double media, double desvioPadrao) {
         double y = Math.exp(this.nextNormal(media, desvioPadrao));
         return y;
     }
 
+    public void nextLogNormal(double media, double desvioPadrao, double[] destino) {
+        nextNormal(media, desvioPadrao, destino);
+        for (int i = 0; i < destino.length; i++) {
+            destino[i] = Math.exp(destino[i]);
+        }
+    }
+
     public double nextWeibull(double scale, double shape) {
         return scale * Math.pow(-Math.log(1 - this.nextDouble()), 1 / shape);
     }
+
+    public void nextWeibull(double scale, double shape, double[] destino) {
+        nextDoubles(destino);
+        double inverso = 1 / shape;
+        for (int i = 0; i < destino.length; i++) {
+            destino[i] = scale * Math.pow(-Math.log(1 - destino[i]), inverso);
+        }
+    }
 }
\ No newline at end of file
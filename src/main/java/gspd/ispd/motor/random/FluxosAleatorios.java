@@ -0,0 +1,220 @@
+/* ==========================================================
+ * iSPD : iconic Simulator of Parallel and Distributed System
+ * ==========================================================
+ *
+ * (C) Copyright 2010-2014, by Grupo de pesquisas em Sistemas Paralelos e Distribuídos da Unesp (GSPD).
+ *
+ * Project Info:  http://gspd.dcce.ibilce.unesp.br/
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ *
+ * ---------------
+ * FluxosAleatorios.java
+ * ---------------
+ * (C) Copyright 2014, by Grupo de pesquisas em Sistemas Paralelos e Distribuídos da Unesp (GSPD).
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 
+ * 09-Set-2014 : Version 2.0;
+ *
+ */
+package gspd.ispd.motor.random;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gerencia os fluxos de números aleatórios de uma execução a partir de uma
+ * única semente. Cada replicação, gerador e mestre recebe um fluxo próprio,
+ * derivado da semente e do seu nome, sem compartilhar estado com os demais.
+ * Assim as tarefas de mestres diferentes podem ser geradas em paralelo e uma
+ * replicação pode ser repetida exatamente, independente da ordem em que os
+ * fluxos são pedidos ou de quantos outros fluxos são usados.
+ *
+ * Como os fluxos são identificados pela finalidade (a carga de um mestre, as
+ * falhas) e não pela ordem de consumo, duas configurações simuladas com a
+ * mesma semente recebem os mesmos números aleatórios de carga e de falhas
+ * (números aleatórios comuns), mesmo que seus escalonadores consumam números
+ * de forma diferente. Com variáveis antitéticas, as replicações são formadas
+ * em pares: a replicação 2k usa os complementos dos uniformes da replicação
+ * 2k - 1. Somente os geradores {@link Distribution} são antitéticos; os
+ * fluxos de {@link #fluxo(String, int)} são iguais nas duas replicações do
+ * par.
+ *
+ * @author denison
+ */
+public class FluxosAleatorios {
+
+    /**
+     * Propriedade do sistema usada para definir a semente padrão
+     */
+    public static final String PROPRIEDADE_SEMENTE = "ispd.semente";
+    /**
+     * Propriedade do sistema que ativa as variáveis antitéticas nos fluxos
+     * padrão
+     */
+    public static final String PROPRIEDADE_ANTITETICAS = "ispd.antiteticas";
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static volatile FluxosAleatorios padrao;
+
+    private final long semente;
+    private final boolean antiteticas;
+    private final boolean antitetico;
+    private final int replicacao;
+    private final AtomicInteger proximaReplicacao;
+
+    public FluxosAleatorios(long semente) {
+        this(semente, false);
+    }
+
+    /**
+     * @param semente semente de todos os fluxos
+     * @param antiteticas se as replicações devem ser formadas em pares de
+     * variáveis antitéticas
+     */
+    public FluxosAleatorios(long semente, boolean antiteticas) {
+        this(semente, antiteticas, false, 0);
+    }
+
+    private FluxosAleatorios(long semente, boolean antiteticas, boolean antitetico, int replicacao) {
+        this.semente = semente;
+        this.antiteticas = antiteticas;
+        this.antitetico = antitetico;
+        this.replicacao = replicacao;
+        this.proximaReplicacao = new AtomicInteger();
+    }
+
+    /**
+     * Fluxos usados quando a simulação não define outros. A semente é lida da
+     * propriedade {@value #PROPRIEDADE_SEMENTE} ou, se ausente, do relógio, o
+     * que mantém execuções diferentes a cada vez. As variáveis antitéticas são
+     * ativadas pela propriedade {@value #PROPRIEDADE_ANTITETICAS}.
+     */
+    public static FluxosAleatorios getPadrao() {
+        if (padrao == null) {
+            synchronized (FluxosAleatorios.class) {
+                if (padrao == null) {
+                    String valor = System.getProperty(PROPRIEDADE_SEMENTE);
+                    padrao = new FluxosAleatorios(valor != null ? Long.parseLong(valor.trim()) : System.nanoTime(),
+                            Boolean.getBoolean(PROPRIEDADE_ANTITETICAS));
+                }
+            }
+        }
+        return padrao;
+    }
+
+    public static void setPadrao(FluxosAleatorios fluxos) {
+        padrao = fluxos;
+    }
+
+    public long getSemente() {
+        return semente;
+    }
+
+    public boolean isAntiteticas() {
+        return antiteticas;
+    }
+
+    /**
+     * @return se os geradores destes fluxos devolvem os complementos dos
+     * uniformes da outra replicação do par
+     */
+    public boolean isAntitetico() {
+        return antitetico;
+    }
+
+    /**
+     * Identifica as replicações cujos resultados não são independentes: com
+     * variáveis antitéticas, as duas replicações de um par têm o mesmo grupo
+     *
+     * @return grupo da replicação que usa estes fluxos
+     */
+    public int getGrupo() {
+        return replicacao;
+    }
+
+    /**
+     * @param numero número da replicação, a partir de 1
+     * @return fluxos da replicação indicada
+     */
+    public FluxosAleatorios replicacao(int numero) {
+        if (!antiteticas) {
+            return new FluxosAleatorios(semente("replicacao", numero), false, false, numero);
+        }
+        int par = (numero + 1) / 2;
+        return new FluxosAleatorios(semente("replicacao", par), true, numero % 2 == 0, par);
+    }
+
+    /**
+     * Fluxos da próxima replicação ainda não usada, para simulações que não
+     * numeram suas replicações
+     */
+    public FluxosAleatorios novaReplicacao() {
+        return replicacao(proximaReplicacao.incrementAndGet());
+    }
+
+    /**
+     * @param nome nome do grupo de fluxos (uma carga, por exemplo)
+     * @param indice índice dentro do grupo
+     * @return fluxos independentes identificados por nome e índice
+     */
+    public FluxosAleatorios derivar(String nome, int indice) {
+        return new FluxosAleatorios(semente(nome, indice), antiteticas, antitetico, replicacao);
+    }
+
+    /**
+     * @param nome nome do gerador
+     * @param indice índice do gerador, como o do mestre que gera as tarefas
+     * @return gerador com fluxo próprio, que não deve ser compartilhado entre
+     * threads
+     */
+    public Distribution gerador(String nome, int indice) {
+        return new Distribution(semente(nome, indice), antitetico);
+    }
+
+    public Distribution gerador(String nome) {
+        return gerador(nome, 0);
+    }
+
+    /**
+     * @return fluxo que pode ser dividido, para as distribuições de
+     * {@link gspd.ispd.util.distribution.DistributionBuilder}
+     */
+    public SplittableRandom fluxo(String nome, int indice) {
+        return new SplittableRandom(semente(nome, indice));
+    }
+
+    private long semente(String nome, int indice) {
+        long z = mix(semente + GOLDEN_GAMMA * (nome.hashCode() & 0xffffffffL));
+        return mix(z + GOLDEN_GAMMA * (indice + 1L));
+    }
+
+    /**
+     * Função de mistura do SplitMix64: sementes próximas geram valores sem
+     * correlação aparente
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
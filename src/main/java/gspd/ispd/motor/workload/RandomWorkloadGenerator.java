@@ -9,6 +9,7 @@ import gspd.ispd.util.distribution.DistributionBuilder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 import java.util.stream.Collectors;
 
 public class RandomWorkloadGenerator extends SingleSchedulerWorkloadGenerator {
@@ -30,9 +31,11 @@ public class RandomWorkloadGenerator extends SingleSchedulerWorkloadGenerator {
     @Override
     public List<Tarefa> generateTaskList() {
         List<Tarefa> taskList = new ArrayList<>();
-        Distribution computationDist = DistributionBuilder.uniform(getMinComputation(), getMaxComputation()).build();
-        Distribution communicationDist = DistributionBuilder.uniform(getMinCommunication(), getMaxCommunication()).build();
-        Distribution arrivalDist = DistributionBuilder.exponential(getArrivalTime()).build();
+        // one stream per scheduler, taken from the random streams of the simulated network
+        SplittableRandom random = getQueueNetwork().getFluxos().fluxo("RandomWorkloadGenerator:" + getScheduler(), 0);
+        Distribution computationDist = DistributionBuilder.uniform(getMinComputation(), getMaxComputation()).build(random.split());
+        Distribution communicationDist = DistributionBuilder.uniform(getMinCommunication(), getMaxCommunication()).build(random.split());
+        Distribution arrivalDist = DistributionBuilder.exponential(getArrivalTime()).build(random.split());
         SingleTaskBuilder builder = new SingleTaskBuilder();
         builder.setOwner(getUser());
         List<CS_Processamento> masters = getQueueNetwork()
@@ -45,10 +48,17 @@ public class RandomWorkloadGenerator extends SingleSchedulerWorkloadGenerator {
         }
         builder.setApplication("randomApp");
         builder.setReceiveFile(0.0009765625); // Don't know why this value ??
+        // each column is sampled in a single block
+        double[] processing = new double[getQuantity()];
+        double[] sendFile = new double[getQuantity()];
+        double[] creation = new double[getQuantity()];
+        computationDist.random(processing, 0, processing.length);
+        communicationDist.random(sendFile, 0, sendFile.length);
+        arrivalDist.random(creation, 0, creation.length);
         for (int i = 0; i < getQuantity(); i++) {
-            builder.setProcessingSize(computationDist.random());
-            builder.setSendFile(communicationDist.random());
-            builder.setCreationTime(arrivalDist.random());
+            builder.setProcessingSize(processing[i]);
+            builder.setSendFile(sendFile[i]);
+            builder.setCreationTime(creation[i]);
             builder.setId(getIdSystem().size());
             Tarefa task = builder.build();
             getIdSystem().add(task);
@@ -0,0 +1,44 @@
+package gspd.ispd.util.distribution;
+
+/**
+ * Serves the values of a distribution from a buffer that is refilled in
+ * blocks, so code that asks for one value at a time still gets the cost of
+ * bulk sampling. The values are the same, and in the same order, as the ones
+ * of the wrapped distribution.
+ */
+public class BufferedDistribution implements Distribution {
+
+    public static final int DEFAULT_SIZE = 4096;
+
+    private final Distribution distribution;
+    private final double[] buffer;
+    private int next;
+
+    public BufferedDistribution(Distribution distribution, int size) {
+        this.distribution = distribution;
+        this.buffer = new double[size];
+        this.next = size;
+    }
+
+    public BufferedDistribution(Distribution distribution) {
+        this(distribution, DEFAULT_SIZE);
+    }
+
+    @Override
+    public double random() {
+        if (next == buffer.length) {
+            distribution.random(buffer, 0, buffer.length);
+            next = 0;
+        }
+        return buffer[next++];
+    }
+
+    @Override
+    public void random(double[] values, int from, int to) {
+        // first what is left in the buffer, then straight from the distribution
+        int left = Math.min(buffer.length - next, to - from);
+        System.arraycopy(buffer, next, values, from, left);
+        next += left;
+        distribution.random(values, from + left, to);
+    }
+}
@@ -1,5 +1,8 @@
 package gspd.ispd.util.distribution;
 
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
 public class ConstantDistributionBuilder extends DistributionBuilder {
     private double constant;
 
@@ -20,12 +23,17 @@ public class ConstantDistributionBuilder extends DistributionBuilder {
     }
 
     @Override
-    public Distribution build() {
+    public Distribution build(SplittableRandom random) {
         return new Distribution() {
             @Override
             public double random() {
                 return constant;
             }
+
+            @Override
+            public void random(double[] values, int from, int to) {
+                Arrays.fill(values, from, to, constant);
+            }
         };
     }
 }
@@ -3,4 +3,16 @@ package gspd.ispd.util.distribution;
 public interface Distribution {
 
     double random();
+
+    /**
+     * Fills values[from, to) with the same values that to - from calls to
+     * random() would return. Distributions override it to draw the whole
+     * block at once, which is much cheaper than one call per value when
+     * generating large workloads.
+     */
+    default void random(double[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            values[i] = random();
+        }
+    }
 }
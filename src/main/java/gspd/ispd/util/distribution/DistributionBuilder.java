@@ -1,8 +1,23 @@
 package gspd.ispd.util.distribution;
 
+import java.util.SplittableRandom;
+
 public abstract class DistributionBuilder {
 
-    public abstract Distribution build();
+    /**
+     * Builds the distribution using a new, unseeded random stream
+     */
+    public Distribution build() {
+        return build(new SplittableRandom());
+    }
+
+    /**
+     * Builds the distribution drawing its values from the given stream, so
+     * that a seeded stream reproduces the same values. The stream is owned by
+     * the distribution from now on; nested distributions get streams split
+     * from it.
+     */
+    public abstract Distribution build(SplittableRandom random);
     // Normal distributions
     public static NormalDistributionBuilder normal(DistributionBuilder average, DistributionBuilder deviation) {
         return new NormalDistributionBuilder(average, deviation);
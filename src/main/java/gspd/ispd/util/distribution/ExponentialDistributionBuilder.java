@@ -1,6 +1,6 @@
 package gspd.ispd.util.distribution;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class ExponentialDistributionBuilder extends DistributionBuilder {
     private DistributionBuilder lambdaBuilder;
@@ -23,15 +23,25 @@ public class ExponentialDistributionBuilder extends DistributionBuilder {
     }
 
     @Override
-    public Distribution build() {
-        Distribution lambda = lambdaBuilder.build();
-        Random lcg = new Random();
-        // overrides random()
-        return () -> {
-            double l, r;
-            r = lcg.nextDouble();
-            l = lambda.random();
-            return - l * Math.log(r);
+    public Distribution build(SplittableRandom random) {
+        Distribution lambda = lambdaBuilder.build(random.split());
+        // inverse of the cumulative distribution function
+        return new Distribution() {
+            @Override
+            public double random() {
+                double l, r;
+                r = random.nextDouble();
+                l = lambda.random();
+                return - l * Math.log(r);
+            }
+
+            @Override
+            public void random(double[] values, int from, int to) {
+                lambda.random(values, from, to);
+                for (int i = from; i < to; i++) {
+                    values[i] = - values[i] * Math.log(random.nextDouble());
+                }
+            }
         };
     }
 }
@@ -1,5 +1,7 @@
 package gspd.ispd.util.distribution;
 
+import java.util.SplittableRandom;
+
 public class LogDistributionBuilder extends DistributionBuilder {
     private DistributionBuilder distributionBuilder;
 
@@ -16,8 +18,21 @@ public class LogDistributionBuilder extends DistributionBuilder {
     }
 
     @Override
-    public Distribution build() {
-        Distribution distribution = distributionBuilder.build();
-        return () -> Math.exp(distribution.random());
+    public Distribution build(SplittableRandom random) {
+        Distribution distribution = distributionBuilder.build(random.split());
+        return new Distribution() {
+            @Override
+            public double random() {
+                return Math.exp(distribution.random());
+            }
+
+            @Override
+            public void random(double[] values, int from, int to) {
+                distribution.random(values, from, to);
+                for (int i = from; i < to; i++) {
+                    values[i] = Math.exp(values[i]);
+                }
+            }
+        };
     }
 }
@@ -1,5 +1,7 @@
 package gspd.ispd.util.distribution;
 
+import java.util.SplittableRandom;
+
 // TODO: review this class
 public class MultiStageDistributionBuilder extends DistributionBuilder {
 
@@ -62,16 +64,21 @@ public class MultiStageDistributionBuilder extends DistributionBuilder {
     }
 
     @Override
-    public Distribution build() {
+    public Distribution build(SplittableRandom random) {
         int i;
         Distribution[] distributions = new Distribution[stagesDistributions.length];
-        Distribution dealer = dealerDistribution.build();
+        Distribution dealer = dealerDistribution.build(random.split());
+        // split before starting the threads: a SplittableRandom is not thread safe
+        SplittableRandom[] streams = new SplittableRandom[stagesDistributions.length];
+        for (i = 0; i < stagesDistributions.length; i++) {
+            streams[i] = random.split();
+        }
         // try parallel attribution. If an error occur, do the sequential attribution
         try {
             Thread[] threads = new Thread[stagesDistributions.length];
             for (i = 0; i < stagesDistributions.length; i++) {
                 int k = i; // just because java forces a final variable to put as argument in thread method
-                threads[i] = new Thread(() -> generateStageDistribution(distributions, k));
+                threads[i] = new Thread(() -> generateStageDistribution(distributions, streams, k));
                 threads[i].start();
             }
             for (i = 0; i < stagesDistributions.length; i++) {
@@ -80,28 +87,61 @@ public class MultiStageDistributionBuilder extends DistributionBuilder {
         } catch (Exception e) {
             System.out.println("Parallel attribution did not go well. Doing in the old way");
             for (i = 0; i < stagesDistributions.length; i++) {
-                distributions[i] = stagesDistributions[i].build();
+                distributions[i] = stagesDistributions[i].build(streams[i]);
             }
         }
-        return () -> {
-            try {
-                double p;
-                int j;
-                p = dealer.random();
-                j = 0;
-                while (j < stagesLimits.length && stagesLimits[j] > p) {
-                    j++;
+        return new Distribution() {
+            @Override
+            public double random() {
+                try {
+                    return distributions[stage(dealer.random())].random();
+                } catch (Exception e) {
+                    System.out.println("An error occurred probably in the distribution builder specification. Are you sure the stages are specified correctly?");
+                    e.printStackTrace();
+                    return -1.0;
+                }
+            }
+
+            @Override
+            public void random(double[] values, int from, int to) {
+                // deal all the values first, then draw each stage in a single block
+                int n = to - from;
+                int[] stages = new int[n];
+                int[] counts = new int[distributions.length];
+                dealer.random(values, from, to);
+                for (int i = 0; i < n; i++) {
+                    stages[i] = stage(values[from + i]);
+                    if (stages[i] < distributions.length) {
+                        counts[stages[i]]++;
+                    }
+                }
+                double[][] drawn = new double[distributions.length][];
+                for (int j = 0; j < distributions.length; j++) {
+                    drawn[j] = new double[counts[j]];
+                    distributions[j].random(drawn[j], 0, counts[j]);
+                    counts[j] = 0;
+                }
+                for (int i = 0; i < n; i++) {
+                    if (stages[i] < distributions.length) {
+                        values[from + i] = drawn[stages[i]][counts[stages[i]]++];
+                    } else {
+                        System.out.println("An error occurred probably in the distribution builder specification. Are you sure the stages are specified correctly?");
+                        values[from + i] = -1.0;
+                    }
                 }
-                return distributions[j].random();
-            } catch (Exception e) {
-                System.out.println("An error occurred probably in the distribution builder specification. Are you sure the stages are specified correctly?");
-                e.printStackTrace();
-                return -1.0;
             }
         };
     }
 
-    private void generateStageDistribution(Distribution[] distributions, int index) {
-        distributions[index] = stagesDistributions[index].build();
+    private int stage(double p) {
+        int j = 0;
+        while (j < stagesLimits.length && stagesLimits[j] > p) {
+            j++;
+        }
+        return j;
+    }
+
+    private void generateStageDistribution(Distribution[] distributions, SplittableRandom[] streams, int index) {
+        distributions[index] = stagesDistributions[index].build(streams[index]);
     }
 }
@@ -1,6 +1,6 @@
 package gspd.ispd.util.distribution;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class NormalDistributionBuilder extends DistributionBuilder {
 
@@ -39,19 +39,28 @@ public class NormalDistributionBuilder extends DistributionBuilder {
     }
 
     @Override
-    public Distribution build() {
-        Distribution average = averageBuilder.build();
-        Distribution deviation = deviationBuilder.build();
-        Random lcg = new Random();
-        return () -> {
-            int i;
-            double sum = 0.0, a, d;
-            a = average.random();
-            d = deviation.random();
-            for (i = 0; i < 12; i++) {
-                sum += lcg.nextDouble();
+    public Distribution build(SplittableRandom random) {
+        Distribution average = averageBuilder.build(random.split());
+        Distribution deviation = deviationBuilder.build(random.split());
+        // ziggurat method for the standard normal
+        return new Distribution() {
+            @Override
+            public double random() {
+                double a, d;
+                a = average.random();
+                d = deviation.random();
+                return a + d * ZigguratNormal.sample(random);
+            }
+
+            @Override
+            public void random(double[] values, int from, int to) {
+                double[] d = new double[to - from];
+                average.random(values, from, to);
+                deviation.random(d, 0, d.length);
+                for (int i = from; i < to; i++) {
+                    values[i] += d[i - from] * ZigguratNormal.sample(random);
+                }
             }
-            return (a + (d * (sum - 6.0)));
         };
     }
 }
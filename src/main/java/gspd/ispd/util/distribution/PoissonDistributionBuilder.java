@@ -1,6 +1,6 @@
 package gspd.ispd.util.distribution;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class PoissonDistributionBuilder extends DistributionBuilder {
     private DistributionBuilder lambdaBuilder;
@@ -23,20 +23,33 @@ public class PoissonDistributionBuilder extends DistributionBuilder {
     }
 
     @Override
-    public Distribution build() {
-        Distribution lambda = lambdaBuilder.build();
-        Random lcg = new Random();
-        return () -> {
-            double el, p, k, l;
-            l = lambda.random();
-            el = Math.exp(-l);
-            p = 1;
-            k = 0;
-            do {
-                p *= lcg.nextDouble();
-                k++;
-            } while (p > el);
-            return k-1;
+    public Distribution build(SplittableRandom random) {
+        Distribution lambda = lambdaBuilder.build(random.split());
+        return new Distribution() {
+            @Override
+            public double random() {
+                return sample(random, lambda.random());
+            }
+
+            @Override
+            public void random(double[] values, int from, int to) {
+                lambda.random(values, from, to);
+                for (int i = from; i < to; i++) {
+                    values[i] = sample(random, values[i]);
+                }
+            }
         };
     }
+
+    private static double sample(SplittableRandom random, double l) {
+        double el, p, k;
+        el = Math.exp(-l);
+        p = 1;
+        k = 0;
+        do {
+            p *= random.nextDouble();
+            k++;
+        } while (p > el);
+        return k-1;
+    }
 }
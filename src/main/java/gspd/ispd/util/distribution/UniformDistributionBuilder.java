@@ -1,6 +1,6 @@
 package gspd.ispd.util.distribution;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class UniformDistributionBuilder extends DistributionBuilder {
     private DistributionBuilder minBuilder;
@@ -38,21 +38,34 @@ public class UniformDistributionBuilder extends DistributionBuilder {
     }
 
     @Override
-    public Distribution build() {
-        Distribution min = minBuilder.build();
-        Distribution max = maxBuilder.build();
-        Random lcg = new Random();
-        return () -> {
-            double a, b, r, swap;
-            r = lcg.nextDouble();
-            a = min.random();
-            b = max.random();
-            if (a > b) {
-                swap = a;
-                a = b;
-                b = swap;
+    public Distribution build(SplittableRandom random) {
+        Distribution min = minBuilder.build(random.split());
+        Distribution max = maxBuilder.build(random.split());
+        return new Distribution() {
+            @Override
+            public double random() {
+                return sample(random.nextDouble(), min.random(), max.random());
+            }
+
+            @Override
+            public void random(double[] values, int from, int to) {
+                double[] b = new double[to - from];
+                min.random(values, from, to);
+                max.random(b, 0, b.length);
+                for (int i = from; i < to; i++) {
+                    values[i] = sample(random.nextDouble(), values[i], b[i - from]);
+                }
             }
-            return (b - a) * r  + a;
         };
     }
+
+    private static double sample(double r, double a, double b) {
+        double swap;
+        if (a > b) {
+            swap = a;
+            a = b;
+            b = swap;
+        }
+        return (b - a) * r  + a;
+    }
 }
@@ -1,6 +1,6 @@
 package gspd.ispd.util.distribution;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class WeibullDistributionBuilder extends DistributionBuilder {
 
@@ -39,16 +39,28 @@ public class WeibullDistributionBuilder extends DistributionBuilder {
     }
 
     @Override
-    public Distribution build() {
-        Distribution scale = scaleBuilder.build();
-        Distribution shape = shapeBuilder.build();
-        Random lcg = new Random();
-        return () -> {
-            double r, sc, sh;
-            r = lcg.nextDouble();
-            sc = scale.random();
-            sh = shape.random();
-            return sc * Math.pow(-Math.log(1 - r), 1 / sh);
+    public Distribution build(SplittableRandom random) {
+        Distribution scale = scaleBuilder.build(random.split());
+        Distribution shape = shapeBuilder.build(random.split());
+        return new Distribution() {
+            @Override
+            public double random() {
+                double r, sc, sh;
+                r = random.nextDouble();
+                sc = scale.random();
+                sh = shape.random();
+                return sc * Math.pow(-Math.log(1 - r), 1 / sh);
+            }
+
+            @Override
+            public void random(double[] values, int from, int to) {
+                double[] sh = new double[to - from];
+                scale.random(values, from, to);
+                shape.random(sh, 0, sh.length);
+                for (int i = from; i < to; i++) {
+                    values[i] = values[i] * Math.pow(-Math.log(1 - random.nextDouble()), 1 / sh[i - from]);
+                }
+            }
         };
     }
 }
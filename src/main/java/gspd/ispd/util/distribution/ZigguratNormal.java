@@ -0,0 +1,65 @@
+package gspd.ispd.util.distribution;
+
+import java.util.SplittableRandom;
+
+/**
+ * Standard normal sampler using the ziggurat method (Marsaglia and Tsang, with
+ * the 128 layer tables of Doornik's ZIGNOR). Most samples cost one random long
+ * and one comparison, instead of the twelve uniforms of the sum
+ * approximation.
+ */
+final class ZigguratNormal {
+
+    private static final int LAYERS = 128;
+    private static final double R = 3.442619855899;
+    private static final double V = 9.91256303526217e-3;
+    private static final double[] X = new double[LAYERS + 1];
+    private static final double[] RATIO = new double[LAYERS];
+
+    static {
+        double f = Math.exp(-0.5 * R * R);
+        X[0] = V / f;
+        X[1] = R;
+        X[LAYERS] = 0;
+        for (int i = 2; i < LAYERS; i++) {
+            X[i] = Math.sqrt(-2 * Math.log(V / X[i - 1] + f));
+            f = Math.exp(-0.5 * X[i] * X[i]);
+        }
+        for (int i = 0; i < LAYERS; i++) {
+            RATIO[i] = X[i + 1] / X[i];
+        }
+    }
+
+    private ZigguratNormal() {
+    }
+
+    static double sample(SplittableRandom random) {
+        while (true) {
+            long bits = random.nextLong();
+            // low 7 bits choose the layer, the top 53 bits the position inside it
+            int i = (int) bits & (LAYERS - 1);
+            double u = 2 * ((bits >>> 11) * 0x1.0p-53) - 1;
+            if (Math.abs(u) < RATIO[i]) {
+                return u * X[i];
+            }
+            if (i == 0) {
+                return tail(random, u < 0);
+            }
+            double x = u * X[i];
+            double f0 = Math.exp(-0.5 * (X[i] * X[i] - x * x));
+            double f1 = Math.exp(-0.5 * (X[i + 1] * X[i + 1] - x * x));
+            if (f1 + random.nextDouble() * (f0 - f1) < 1.0) {
+                return x;
+            }
+        }
+    }
+
+    private static double tail(SplittableRandom random, boolean negative) {
+        double x, y;
+        do {
+            x = Math.log(1 - random.nextDouble()) / R;
+            y = Math.log(1 - random.nextDouble());
+        } while (-2 * y < x * x);
+        return negative ? x - R : R - x;
+    }
+}
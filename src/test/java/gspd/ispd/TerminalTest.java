@@ -0,0 +1,162 @@
+package gspd.ispd;
+
+import static org.junit.Assert.*;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import gspd.ispd.escalonador.CompiladorMemoria;
+import gspd.ispd.escalonador.Mestre;
+import gspd.ispd.motor.Simulation;
+import gspd.ispd.motor.carga.CargaTrace;
+import gspd.ispd.motor.carga.GerarCarga;
+import gspd.ispd.motor.filas.RedeDeFilas;
+import gspd.ispd.motor.filas.servidores.CS_Comunicacao;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Internet;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Maquina;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Mestre;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Switch;
+import gspd.ispd.motor.metricas.MetricasUsuarios;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * TerminalTest
+ */
+public class TerminalTest {
+
+    private static final String ESCALONADOR = "WorkqueueTerminal";
+    private static final int TAREFAS = 6;
+
+    @Before
+    public void compiladorDisponivel() {
+        Assume.assumeTrue(CompiladorMemoria.disponivel());
+        // the simulator loads the policies by name
+        assertNull(CompiladorMemoria.compilar("gspd.ispd.externo.gridSchedulers" + ESCALONADOR, ESCALONADOR,
+                "package gspd.ispd.externo;\npublic class " + ESCALONADOR + " extends Workqueue {}\n"));
+    }
+
+    private static RedeDeFilas newRedeDeFilas() {
+        List<CS_Processamento> mestres = new ArrayList<CS_Processamento>();
+        List<CS_Maquina> maquinas = new ArrayList<CS_Maquina>();
+        List<CS_Comunicacao> links = new ArrayList<CS_Comunicacao>();
+        CS_Mestre mestre = new CS_Mestre("m", "u0", 100, 0.0, ESCALONADOR);
+        CS_Switch sw = new CS_Switch("sw", 1000, 0.0, 0.001);
+        mestre.addConexoesEntrada(sw);
+        mestre.addConexoesSaida(sw);
+        sw.addConexoesEntrada(mestre);
+        sw.addConexoesSaida(mestre);
+        mestres.add(mestre);
+        links.add(sw);
+        for (int i = 0; i < 2; i++) {
+            CS_Maquina maquina = new CS_Maquina("q" + i, "u0", 50, 1, 0.0, i + 1);
+            maquina.addConexoesEntrada(sw);
+            maquina.addConexoesSaida(sw);
+            sw.addConexoesEntrada(maquina);
+            sw.addConexoesSaida(maquina);
+            maquina.addMestre(mestre);
+            mestre.addEscravo(maquina);
+            maquinas.add(maquina);
+        }
+        RedeDeFilas rdf = new RedeDeFilas(mestres, maquinas, links, new ArrayList<CS_Internet>());
+        List<String> usuarios = new ArrayList<String>(Arrays.asList("u0"));
+        MetricasUsuarios metricasUsuarios = new MetricasUsuarios();
+        metricasUsuarios.addAllUsuarios(usuarios, Arrays.asList(100.0));
+        mestre.getEscalonador().setMetricaUsuarios(metricasUsuarios);
+        rdf.setUsuarios(usuarios);
+        return rdf;
+    }
+
+    /**
+     * Model whose only load is a SWF trace
+     */
+    private static Document newModelo() throws IOException, ParserConfigurationException {
+        File trace = File.createTempFile("trace", ".swf");
+        trace.deleteOnExit();
+        FileWriter out = new FileWriter(trace);
+        try {
+            out.write("; SWF header\n");
+            for (int i = 1; i <= TAREFAS; i++) {
+                out.write(i + " " + (3 * i) + " 0 10 1 -1 -1 1 20 -1 1 " + (i % 2) + " -1 -1 -1 -1 -1 -1\n");
+            }
+        } finally {
+            out.close();
+        }
+        Document modelo = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element sistema = modelo.createElement("system");
+        Element load = modelo.createElement("load");
+        Element carga = modelo.createElement("trace");
+        carga.setAttribute("file_path", trace.getAbsolutePath());
+        carga.setAttribute("tasks", "" + TAREFAS);
+        carga.setAttribute("format", "SWF");
+        load.appendChild(carga);
+        sistema.appendChild(load);
+        modelo.appendChild(sistema);
+        return modelo;
+    }
+
+    private static Simulation simular(GerarCarga carga) {
+        Terminal terminal = new Terminal(new String[]{"-n", "1", "modelo.imsx"});
+        RedeDeFilas rdf = newRedeDeFilas();
+        Simulation sim = terminal.newSimulacaoSequencial(rdf, carga);
+        // one task per scheduling round unless -b is given
+        assertEquals(1, ((Mestre) rdf.getMestres().get(0)).getTamanhoLote());
+        // the arrivals are read by the running simulation
+        assertTrue(sim.isCargaSobDemanda());
+        assertTrue(sim.getTarefas().isEmpty());
+        sim.simular();
+        assertTrue(sim.getTarefas().isEmpty());
+        return sim;
+    }
+
+    @Test
+    public void testSingleRunStreamsTrace() throws Exception {
+        GerarCarga carga = Terminal.newCarga(newModelo(), 1);
+        assertTrue(carga instanceof CargaTrace);
+        assertFalse(((CargaTrace) carga).isCompilada());
+        assertEquals(TAREFAS, simular(carga).getMetricas().getNumTarefas());
+    }
+
+    @Test
+    public void testReplicationsShareCompiledTrace() throws Exception {
+        GerarCarga carga = Terminal.newCarga(newModelo(), 2);
+        assertTrue(((CargaTrace) carga).isCompilada());
+        assertEquals(TAREFAS, simular(carga).getMetricas().getNumTarefas());
+        assertEquals(TAREFAS, simular(carga).getMetricas().getNumTarefas());
+    }
+
+    @Test
+    public void testConfidenceIntervalRejectsOptimisticParallel() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        PrintStream padrao = System.out;
+        System.setOut(new PrintStream(saida, true));
+        try {
+            new Terminal(new String[]{"-ci", "0.05", "-p", "modelo.imsx"}).executar();
+        } finally {
+            System.setOut(padrao);
+        }
+        assertTrue(saida.toString().contains("-ci and -p"));
+    }
+
+    @Test
+    public void testBatchOption() throws Exception {
+        Terminal terminal = new Terminal(new String[]{"-b", "modelo.imsx"});
+        RedeDeFilas rdf = newRedeDeFilas();
+        Simulation sim = terminal.newSimulacaoSequencial(rdf, Terminal.newCarga(newModelo(), 1));
+        assertEquals(Mestre.LOTE_COMPLETO, ((Mestre) rdf.getMestres().get(0)).getTamanhoLote());
+        sim.simular();
+        assertEquals(TAREFAS, sim.getMetricas().getNumTarefas());
+    }
+}
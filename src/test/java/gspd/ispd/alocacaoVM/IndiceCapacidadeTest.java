@@ -0,0 +1,103 @@
+package gspd.ispd.alocacaoVM;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_MaquinaCloud;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_VirtualMac;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * IndiceCapacidadeTest
+ */
+public class IndiceCapacidadeTest {
+
+    private static CS_MaquinaCloud maquina(int i, int proc, double mem, double disco) {
+        return new CS_MaquinaCloud("m" + i, "user", 100, proc, 0, mem, disco, 0, 0, 0);
+    }
+
+    private static boolean cabe(CS_Processamento maq, CS_VirtualMac vm) {
+        CS_MaquinaCloud cloud = (CS_MaquinaCloud) maq;
+        return vm.getProcessadoresDisponiveis() <= cloud.getProcessadoresDisponiveis()
+                && vm.getMemoriaDisponivel() <= cloud.getMemoriaDisponivel()
+                && vm.getDiscoDisponivel() <= cloud.getDiscoDisponivel();
+    }
+
+    private static double volume(CS_Processamento maq) {
+        CS_MaquinaCloud cloud = (CS_MaquinaCloud) maq;
+        return cloud.getProcessadoresDisponiveis() * cloud.getMemoriaDisponivel() * cloud.getDiscoDisponivel();
+    }
+
+    @Test
+    public void testPrimeiroQueCabe() {
+        List<CS_Processamento> maquinas = new ArrayList<CS_Processamento>();
+        maquinas.add(maquina(0, 2, 1024, 100));
+        maquinas.add(maquina(1, 8, 512, 100));
+        maquinas.add(maquina(2, 8, 4096, 50));
+        maquinas.add(maquina(3, 8, 4096, 500));
+        maquinas.add(maquina(4, 4, 2048, 200));
+        IndiceCapacidade indice = new IndiceCapacidade(maquinas);
+        CS_VirtualMac vm = new CS_VirtualMac("vm", "user", 4, 1024, 100, "LINUX");
+        // each host before 3 lacks one of the dimensions
+        assertEquals(3, indice.primeiroQueCabe(vm, 0));
+        assertEquals(4, indice.primeiroQueCabe(vm, 4));
+        assertEquals(-1, indice.primeiroQueCabe(vm, 5));
+        assertEquals(3, indice.maiorVolumeQueCabe(vm));
+        assertEquals(4, indice.menorVolumeQueCabe(vm));
+        // the index reads the new capacity after an update
+        ((CS_MaquinaCloud) maquinas.get(3)).setMemoriaDisponivel(0);
+        indice.atualizar(3);
+        assertEquals(4, indice.primeiroQueCabe(vm, 0));
+        assertEquals(4, indice.maiorVolumeQueCabe(vm));
+    }
+
+    @Test
+    public void testAgainstLinearScan() {
+        Random random = new Random(48);
+        for (int rodada = 0; rodada < 50; rodada++) {
+            List<CS_Processamento> maquinas = new ArrayList<CS_Processamento>();
+            int n = 1 + random.nextInt(200);
+            for (int i = 0; i < n; i++) {
+                maquinas.add(maquina(i, 1 + random.nextInt(16), 512 * (1 + random.nextInt(32)), 50 * (1 + random.nextInt(20))));
+            }
+            IndiceCapacidade indice = new IndiceCapacidade(maquinas);
+            for (int v = 0; v < 300; v++) {
+                CS_VirtualMac vm = new CS_VirtualMac("vm" + v, "user", 1 + random.nextInt(4),
+                        512 * (1 + random.nextInt(8)), 50 * (1 + random.nextInt(5)), "LINUX");
+                int inicio = random.nextInt(n);
+                int primeiro = -1;
+                int maior = -1;
+                int menor = -1;
+                for (int i = 0; i < n; i++) {
+                    if (cabe(maquinas.get(i), vm)) {
+                        if (primeiro == -1 && i >= inicio) {
+                            primeiro = i;
+                        }
+                        if (maior == -1 || volume(maquinas.get(i)) > volume(maquinas.get(maior))) {
+                            maior = i;
+                        }
+                        if (menor == -1 || volume(maquinas.get(i)) < volume(maquinas.get(menor))) {
+                            menor = i;
+                        }
+                    }
+                }
+                assertEquals(primeiro, indice.primeiroQueCabe(vm, inicio));
+                int achado = indice.maiorVolumeQueCabe(vm);
+                assertEquals(maior == -1 ? -1 : volume(maquinas.get(maior)), achado == -1 ? -1 : volume(maquinas.get(achado)), 0);
+                achado = indice.menorVolumeQueCabe(vm);
+                assertEquals(menor == -1 ? -1 : volume(maquinas.get(menor)), achado == -1 ? -1 : volume(maquinas.get(achado)), 0);
+                if (achado != -1) {
+                    // places the vm as a best fit allocator would
+                    CS_MaquinaCloud maq = (CS_MaquinaCloud) maquinas.get(achado);
+                    maq.setProcessadoresDisponiveis(maq.getProcessadoresDisponiveis() - vm.getProcessadoresDisponiveis());
+                    maq.setMemoriaDisponivel(maq.getMemoriaDisponivel() - vm.getMemoriaDisponivel());
+                    maq.setDiscoDisponivel(maq.getDiscoDisponivel() - vm.getDiscoDisponivel());
+                    indice.atualizar(achado);
+                }
+            }
+        }
+    }
+}
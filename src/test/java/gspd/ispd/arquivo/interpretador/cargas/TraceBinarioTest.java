@@ -0,0 +1,61 @@
+package gspd.ispd.arquivo.interpretador.cargas;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * TraceBinarioTest
+ */
+public class TraceBinarioTest {
+
+    @Test
+    public void testRequestedTimeRoundTrip() throws IOException {
+        ColunasTrace colunas = new ColunasTrace(0);
+        colunas.add(7, 0, 10, 30, 5, false, "a");
+        colunas.add(8, 2, 20, 5, false, "b");
+        colunas.add(9, 4, 15, 60, 5, true, "a");
+        File arquivo = File.createTempFile("trace", TraceBinario.EXTENSAO);
+        arquivo.deleteOnExit();
+        TraceBinario.escrever(colunas, arquivo);
+        TraceBinario trace = new TraceBinario(arquivo);
+        try {
+            assertEquals(3, trace.getNumTarefas());
+            assertEquals(30, trace.getTempoRequisitado(0), 0);
+            assertEquals(-1, trace.getTempoRequisitado(1), 0);
+            assertEquals(60, trace.getTempoRequisitado(2), 0);
+            assertEquals(20, trace.getTamanho(1), 0);
+            assertTrue(trace.isCancelada(2));
+            ColunasTrace janela = trace.janela(1, 5);
+            assertEquals(2, janela.getTamanho());
+            assertEquals(8, janela.getId(0));
+            assertEquals(-1, janela.getTempoRequisitado(0), 0);
+            assertEquals(60, janela.getTempoRequisitado(1), 0);
+        } finally {
+            trace.close();
+        }
+    }
+
+    @Test
+    public void testWmsxRequestedTime() throws IOException {
+        File arquivo = File.createTempFile("trace", ".wmsx");
+        arquivo.deleteOnExit();
+        FileWriter out = new FileWriter(arquivo);
+        try {
+            out.write("<?xml version=\"1.0\" encoding=\"ISO-8859-1\" standalone=\"no\"?>\n");
+            out.write("<task id=\"1\" arr=\"0\" sts=\"1\" cpsz =\"10\" cmsz=\"-1\" usr=\"user1\" req=\"30\" />\n");
+            // converted before the requested time was written
+            out.write("<task id=\"2\" arr=\"3\" sts=\"1\" cpsz =\"20\" cmsz=\"-1\" usr=\"user1\" />\n");
+        } finally {
+            out.close();
+        }
+        ColunasTrace colunas = LeitorTrace.lerWmsx(arquivo, "SWF", Integer.MAX_VALUE);
+        assertEquals(2, colunas.getTamanho());
+        assertEquals(30, colunas.getTempoRequisitado(0), 0);
+        assertEquals(-1, colunas.getTempoRequisitado(1), 0);
+        assertEquals(20, colunas.getTempoExecucao(1), 0);
+    }
+}
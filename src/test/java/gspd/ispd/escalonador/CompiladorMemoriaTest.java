@@ -0,0 +1,58 @@
+package gspd.ispd.escalonador;
+
+import static org.junit.Assert.*;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+
+/**
+ * CompiladorMemoriaTest
+ */
+public class CompiladorMemoriaTest {
+
+    private static String fonte(String retorno) {
+        return "package gspd.ispd.externo;\n"
+                + "public class Politica implements java.util.concurrent.Callable<String> {\n"
+                + "    public String call() { return \"" + retorno + "\"; }\n"
+                + "}\n";
+    }
+
+    @Before
+    public void compiladorDisponivel() {
+        Assume.assumeTrue(CompiladorMemoria.disponivel());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCompileAndLoad() throws Exception {
+        assertNull(CompiladorMemoria.compilar("teste.a", "Politica", fonte("a")));
+        Class<?> classe = CompiladorMemoria.getClasse("teste.a");
+        assertEquals("gspd.ispd.externo.Politica", classe.getName());
+        assertEquals("a", ((Callable<String>) classe.newInstance()).call());
+        // the class is defined once per compilation
+        assertSame(classe, CompiladorMemoria.getClasse("teste.a"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRecompileSameName() throws Exception {
+        assertNull(CompiladorMemoria.compilar("teste.b", "Politica", fonte("b1")));
+        Class<?> primeira = CompiladorMemoria.getClasse("teste.b");
+        assertNull(CompiladorMemoria.compilar("teste.b", "Politica", fonte("b2")));
+        Class<?> segunda = CompiladorMemoria.getClasse("teste.b");
+        assertNotSame(primeira, segunda);
+        assertEquals("b2", ((Callable<String>) segunda.newInstance()).call());
+        // unchanged source is served from the cache
+        assertNull(CompiladorMemoria.compilar("teste.c", "Politica", fonte("b2")));
+        assertSame(segunda, CompiladorMemoria.getClasse("teste.c"));
+    }
+
+    @Test
+    public void testErrors() {
+        String erros = CompiladorMemoria.compilar("teste.d", "Politica", "public class Politica { int x = ; }");
+        assertNotNull(erros);
+        assertNull(CompiladorMemoria.getClasse("teste.d"));
+    }
+}
@@ -0,0 +1,102 @@
+package gspd.ispd.escalonador;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import gspd.ispd.externo.ConservativeBackfilling;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CentroServico;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Maquina;
+import gspd.ispd.motor.metricas.MetricasUsuarios;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ConservativeBackfillingTest
+ */
+public class ConservativeBackfillingTest {
+
+    private MestreTeste mestre;
+    private CS_Maquina origem;
+    private ConservativeBackfilling escalonador;
+
+    @Before
+    public void criarEscalonador() {
+        mestre = new MestreTeste();
+        origem = new CS_Maquina("origem", "u0", 1, 1, 0.0);
+        escalonador = new ConservativeBackfilling();
+        // one processor of 10 Mflops and one of 1 Mflops
+        escalonador.addEscravo(new CS_Maquina("rapido", "u0", 10, 1, 0.0));
+        escalonador.addEscravo(new CS_Maquina("lento", "u0", 1, 1, 0.0));
+        List<List> caminhos = new ArrayList<List>();
+        caminhos.add(new ArrayList<CentroServico>());
+        caminhos.add(new ArrayList<CentroServico>());
+        escalonador.setCaminhoEscravo(caminhos);
+        escalonador.setMestre(mestre);
+        escalonador.setMetricaUsuarios(new MetricasUsuarios());
+        escalonador.iniciar();
+    }
+
+    private Tarefa newTarefa(int id, double tamanho) {
+        return newTarefa(id, tamanho, -1);
+    }
+
+    private Tarefa newTarefa(int id, double tamanho, double estimado) {
+        Tarefa tarefa = new Tarefa(id, "u0", "app", origem, 0, tamanho, mestre.tempo);
+        tarefa.setTamEstimado(estimado);
+        escalonador.adicionarTarefa(tarefa);
+        return tarefa;
+    }
+
+    private void concluir(Tarefa tarefa, double tempo) {
+        mestre.tempo = tempo;
+        escalonador.addTarefaConcluida(tarefa);
+        escalonador.escalonarLote(Mestre.LOTE_COMPLETO);
+    }
+
+    @Test
+    public void testReservationsOnArrival() {
+        Tarefa t1 = newTarefa(1, 100);
+        newTarefa(2, 100);
+        Tarefa t3 = newTarefa(3, 5);
+        newTarefa(4, 5);
+        escalonador.escalonarLote(Mestre.LOTE_COMPLETO);
+        // 2 is reserved on the fast processor at 10, 3 in the slow one now
+        // and 4 right after 3
+        assertEquals(Arrays.asList("1@rapido", "3@lento"), mestre.getLocais());
+        assertEquals(2, escalonador.getFilaTarefas().size());
+        assertEquals(4, escalonador.escalonarTarefa().getIdentificador());
+        concluir(t3, 5);
+        assertEquals(Arrays.asList("1@rapido", "3@lento", "4@lento"), mestre.getLocais());
+        concluir(t1, 10);
+        assertEquals(Arrays.asList("1@rapido", "3@lento", "4@lento", "2@rapido"), mestre.getLocais());
+        assertTrue(escalonador.getFilaTarefas().isEmpty());
+    }
+
+    @Test
+    public void testCompressionWhenTaskFinishesEarly() {
+        Tarefa t1 = newTarefa(1, 100);
+        newTarefa(2, 100);
+        escalonador.escalonarLote(Mestre.LOTE_COMPLETO);
+        assertEquals(Arrays.asList("1@rapido"), mestre.getLocais());
+        // 1 finishes at 4 instead of 10 and 2 is moved up
+        concluir(t1, 4);
+        assertEquals(Arrays.asList("1@rapido", "2@rapido"), mestre.getLocais());
+    }
+
+    @Test
+    public void testOverrunningTaskKeepsProcessor() {
+        // 1 is estimated to finish at 10, so 2 is reserved there
+        newTarefa(1, 1000, 100);
+        newTarefa(2, 100);
+        escalonador.escalonarLote(Mestre.LOTE_COMPLETO);
+        assertEquals(Arrays.asList("1@rapido"), mestre.getLocais());
+        // the queue is planned again without the fast processor
+        mestre.tempo = 12;
+        escalonador.escalonarLote(Mestre.LOTE_COMPLETO);
+        assertEquals(Arrays.asList("1@rapido", "2@lento"), mestre.getLocais());
+    }
+}
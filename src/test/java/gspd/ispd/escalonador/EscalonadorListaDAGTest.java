@@ -0,0 +1,93 @@
+package gspd.ispd.escalonador;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import gspd.ispd.externo.CPOP;
+import gspd.ispd.externo.HEFT;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.dag.DiamanteDAG;
+import gspd.ispd.motor.filas.dag.ProgramaDAG;
+import gspd.ispd.motor.filas.servidores.CentroServico;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Link;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Maquina;
+import gspd.ispd.motor.metricas.MetricasUsuarios;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EscalonadorListaDAGTest
+ */
+public class EscalonadorListaDAGTest {
+
+    /**
+     * Fast slave (10 Mflops) behind a link with the given latency and a slow
+     * slave (6 Mflops) next to the master
+     *
+     * @return slave of each task, in the order the tasks were sent
+     */
+    private static List<String> escalonar(EscalonadorListaDAG escalonador, ProgramaDAG programa, double latenciaRapido) {
+        MestreTeste mestre = new MestreTeste();
+        CS_Maquina origem = new CS_Maquina("origem", "u0", 1, 1, 0.0);
+        List<List> caminhos = new ArrayList<List>();
+        escalonador.addEscravo(new CS_Maquina("rapido", "u0", 10, 1, 0.0));
+        List<CentroServico> caminhoRapido = new ArrayList<CentroServico>();
+        caminhoRapido.add(new CS_Link("l", 1000, 0.0, latenciaRapido));
+        caminhos.add(caminhoRapido);
+        escalonador.addEscravo(new CS_Maquina("lento", "u0", 6, 1, 0.0));
+        caminhos.add(new ArrayList<CentroServico>());
+        escalonador.setCaminhoEscravo(caminhos);
+        escalonador.setMestre(mestre);
+        escalonador.setMetricaUsuarios(new MetricasUsuarios());
+        escalonador.iniciar();
+        for (Tarefa tarefa : programa.instanciar(0, origem, "app", null)) {
+            escalonador.adicionarTarefa(tarefa);
+        }
+        escalonador.escalonarLote(Mestre.LOTE_COMPLETO);
+        return mestre.getLocais();
+    }
+
+    private static List<String> esperado(String... locais) {
+        List<String> lista = new ArrayList<String>();
+        for (String local : locais) {
+            lista.add(local);
+        }
+        return lista;
+    }
+
+    @Test
+    public void testHeftPlacement() {
+        // 2 has the highest upward rank and goes to the fast slave after 0;
+        // 1 then finishes earlier on the idle slow slave
+        assertEquals(esperado("0@rapido", "2@rapido", "1@lento", "3@rapido"),
+                escalonar(new HEFT(), DiamanteDAG.newDiamante(20, 30), 0));
+    }
+
+    @Test
+    public void testHeftPicksEarliestFinish() {
+        ProgramaDAG programa = new ProgramaDAG("u0");
+        programa.addTarefa(0, 0, 10, 0, true);
+        programa.addTarefa(1, 0, 10, 0, true);
+        programa.addLiberacao(0, 1);
+        // the fast slave only starts at 5, the slow one finishes both before
+        assertEquals(esperado("0@lento", "1@lento"), escalonar(new HEFT(), programa, 5));
+    }
+
+    @Test
+    public void testCpopKeepsCriticalPathOnFastestSlave() {
+        ProgramaDAG programa = new ProgramaDAG("u0");
+        programa.addTarefa(0, 0, 10, 0, true);
+        programa.addTarefa(1, 0, 10, 0, true);
+        programa.addLiberacao(0, 1);
+        assertEquals(esperado("0@rapido", "1@rapido"), escalonar(new CPOP(), programa, 5));
+    }
+
+    @Test
+    public void testCpopPinsOneOfTiedPaths() {
+        // both branches are critical, only 1 is pinned and 2 finishes
+        // earlier on the slow slave
+        assertEquals(esperado("0@rapido", "1@rapido", "2@lento", "3@rapido"),
+                escalonar(new CPOP(), DiamanteDAG.newDiamante(30, 30), 0));
+    }
+}
@@ -0,0 +1,121 @@
+package gspd.ispd.escalonador;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * FilaFIFOTest
+ */
+public class FilaFIFOTest {
+
+    @Test
+    public void testFirstInFirstOut() {
+        FilaFIFO<String> fila = new FilaFIFO<String>(Arrays.asList("a", "b"));
+        fila.adicionar("c");
+        fila.adicionarPrimeiro("z");
+        assertEquals("z", fila.primeiro());
+        assertEquals("c", fila.ultimo());
+        assertEquals("z", fila.removerPrimeiro());
+        assertEquals("a", fila.removerPrimeiro());
+        assertEquals(Arrays.asList("b", "c"), fila);
+        fila.clear();
+        assertNull(fila.removerPrimeiro());
+        assertNull(fila.primeiro());
+    }
+
+    @Test
+    public void testRemoveByNode() {
+        FilaFIFO<String> fila = new FilaFIFO<String>();
+        fila.adicionar("a");
+        FilaFIFO.No<String> b = fila.adicionar("b");
+        FilaFIFO.No<String> c = fila.adicionar("c");
+        assertEquals("b", fila.remover(b));
+        assertTrue(b.isRemovido());
+        assertFalse(c.isRemovido());
+        // a node is removed only once
+        assertNull(fila.remover(b));
+        assertEquals(Arrays.asList("a", "c"), fila);
+        assertFalse(fila.contains("b"));
+        assertSame(c, fila.getNo("c"));
+        assertEquals("d", fila.adicionarAntes(c, "d").getValor());
+        assertEquals(Arrays.asList("a", "d", "c"), fila);
+    }
+
+    @Test
+    public void testRemoveFirstByNode() {
+        FilaFIFO<String> fila = new FilaFIFO<String>();
+        FilaFIFO.No<String> a = fila.adicionar("a");
+        fila.adicionar("b");
+        assertEquals("a", fila.remover(a));
+        assertEquals("b", fila.primeiro());
+        assertEquals(1, fila.size());
+    }
+
+    @Test
+    public void testNextOfNode() {
+        FilaFIFO<String> fila = new FilaFIFO<String>();
+        FilaFIFO.No<String> a = fila.adicionar("a");
+        FilaFIFO.No<String> b = fila.adicionar("b");
+        FilaFIFO.No<String> c = fila.adicionar("c");
+        assertEquals("b", fila.seguinte(a));
+        fila.remover(b);
+        assertEquals("c", fila.seguinte(a));
+        assertNull(fila.seguinte(c));
+        assertNull(fila.seguinte(b));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInsertBeforeRemovedNode() {
+        FilaFIFO<String> fila = new FilaFIFO<String>();
+        FilaFIFO.No<String> a = fila.adicionar("a");
+        fila.remover(a);
+        fila.adicionarAntes(a, "b");
+    }
+
+    @Test
+    public void testRepeatedElements() {
+        String a = "a";
+        FilaFIFO<String> fila = new FilaFIFO<String>();
+        FilaFIFO.No<String> primeiro = fila.adicionar(a);
+        fila.adicionar("b");
+        FilaFIFO.No<String> segundo = fila.adicionar(a);
+        fila.remover(primeiro);
+        // the remaining occurrence is still found
+        assertTrue(fila.contains(a));
+        assertSame(segundo, fila.getNo(a));
+        assertEquals(1, fila.indexOf(a));
+        assertTrue(fila.remove(a));
+        assertFalse(fila.contains(a));
+        assertEquals(Arrays.asList("b"), fila);
+    }
+
+    @Test
+    public void testRemoveWhileIteratingByIndex() {
+        FilaFIFO<Integer> fila = new FilaFIFO<Integer>();
+        for (int i = 0; i < 10; i++) {
+            fila.add(i);
+        }
+        for (int i = 0; i < fila.size(); i++) {
+            if (fila.get(i) % 3 == 0) {
+                fila.remove(i);
+                i--;
+            }
+        }
+        assertEquals(Arrays.asList(1, 2, 4, 5, 7, 8), fila);
+        fila.add(2, 3);
+        fila.set(0, 0);
+        assertEquals(Arrays.asList(0, 2, 3, 4, 5, 7, 8), fila);
+        assertEquals(Integer.valueOf(8), fila.get(6));
+        assertEquals(Integer.valueOf(0), fila.remove(0));
+        assertEquals(Integer.valueOf(2), fila.get(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() {
+        FilaFIFO<String> fila = new FilaFIFO<String>();
+        fila.adicionar("a");
+        fila.get(1);
+    }
+}
@@ -0,0 +1,132 @@
+package gspd.ispd.escalonador;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * HeapIndexadoTest
+ */
+public class HeapIndexadoTest {
+
+    /**
+     * Element with a mutable priority, compared by identity in the heap
+     */
+    private static class Item {
+
+        private final String nome;
+        private double prioridade;
+
+        private Item(String nome, double prioridade) {
+            this.nome = nome;
+            this.prioridade = prioridade;
+        }
+    }
+
+    private HeapIndexado<Item> heap;
+
+    @Before
+    public void criarHeap() {
+        heap = new HeapIndexado<Item>(new Comparator<Item>() {
+            @Override
+            public int compare(Item a, Item b) {
+                return Double.compare(a.prioridade, b.prioridade);
+            }
+        });
+    }
+
+    private List<String> esvaziar() {
+        List<String> nomes = new ArrayList<String>();
+        while (!heap.isEmpty()) {
+            nomes.add(heap.poll().nome);
+        }
+        return nomes;
+    }
+
+    @Test
+    public void testPollInPriorityOrder() {
+        double[] prioridades = {5, 3, 8, 1, 9, 2, 7, 4, 6, 0};
+        for (int i = 0; i < prioridades.length; i++) {
+            heap.offer(new Item("" + (int) prioridades[i], prioridades[i]));
+        }
+        assertEquals(10, heap.size());
+        assertEquals("0", heap.peek().nome);
+        assertEquals(Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"), esvaziar());
+        assertNull(heap.poll());
+        assertNull(heap.peek());
+    }
+
+    @Test
+    public void testTiesLeaveInInsertionOrder() {
+        heap.offer(new Item("a", 1));
+        heap.offer(new Item("b", 0));
+        heap.offer(new Item("c", 1));
+        heap.offer(new Item("d", 0));
+        heap.offer(new Item("e", 1));
+        assertEquals(Arrays.asList("b", "d", "a", "c", "e"), esvaziar());
+    }
+
+    @Test
+    public void testSameElementOnlyOnce() {
+        Item item = new Item("a", 1);
+        assertTrue(heap.offer(item));
+        assertFalse(heap.offer(item));
+        // equal contents, but another object
+        assertTrue(heap.offer(new Item("a", 1)));
+        assertEquals(2, heap.size());
+    }
+
+    @Test
+    public void testRemoveThroughIndex() {
+        List<Item> itens = new ArrayList<Item>();
+        for (int i = 0; i < 8; i++) {
+            itens.add(new Item("" + i, i));
+            heap.offer(itens.get(i));
+        }
+        assertTrue(heap.remove(itens.get(0)));
+        assertTrue(heap.remove(itens.get(5)));
+        assertTrue(heap.remove(itens.get(7)));
+        assertFalse(heap.remove(itens.get(5)));
+        assertFalse(heap.contains(itens.get(5)));
+        assertTrue(heap.contains(itens.get(6)));
+        assertEquals(Arrays.asList("1", "2", "3", "4", "6"), esvaziar());
+    }
+
+    @Test
+    public void testUpdateThroughIndex() {
+        List<Item> itens = new ArrayList<Item>();
+        for (int i = 0; i < 6; i++) {
+            itens.add(new Item("" + i, i));
+            heap.offer(itens.get(i));
+        }
+        itens.get(4).prioridade = -1;
+        assertTrue(heap.atualizar(itens.get(4)));
+        itens.get(0).prioridade = 10;
+        assertTrue(heap.atualizar(itens.get(0)));
+        // 3 ties with 2 and keeps its later insertion
+        itens.get(3).prioridade = 2;
+        assertTrue(heap.atualizar(itens.get(3)));
+        assertFalse(heap.atualizar(new Item("x", 0)));
+        assertEquals(Arrays.asList("4", "1", "2", "3", "5", "0"), esvaziar());
+    }
+
+    @Test
+    public void testIteratorRemovesFromHeap() {
+        for (int i = 0; i < 5; i++) {
+            heap.offer(new Item("" + i, i));
+        }
+        Iterator<Item> it = heap.iterator();
+        while (it.hasNext()) {
+            if (Integer.parseInt(it.next().nome) % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(Arrays.asList("1", "3"), esvaziar());
+    }
+}
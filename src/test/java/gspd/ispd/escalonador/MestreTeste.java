@@ -0,0 +1,106 @@
+package gspd.ispd.escalonador;
+
+import gspd.ispd.motor.EventoFuturo;
+import gspd.ispd.motor.Simulation;
+import gspd.ispd.motor.filas.Cliente;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.CentroServico;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Master that records the tasks sent by a scheduler, at a simulated time set
+ * by the test
+ */
+class MestreTeste implements Mestre {
+
+    final List<Tarefa> enviadas = new ArrayList<Tarefa>();
+    double tempo;
+    private final Simulation simulacao = new Simulation(null, null, (List<Tarefa>) null) {
+        @Override
+        public void simular() {
+        }
+
+        @Override
+        public double getTime(Object origem) {
+            return tempo;
+        }
+
+        @Override
+        public void addEventoFuturo(EventoFuturo ev) {
+        }
+
+        @Override
+        public boolean removeEventoFuturo(int tipoEv, CentroServico servidorEv, Cliente clienteEv) {
+            return false;
+        }
+    };
+    private int tamanhoLote;
+
+    /**
+     * @return slave of each task sent, in order, as "id@slave"
+     */
+    List<String> getLocais() {
+        List<String> locais = new ArrayList<String>();
+        for (Tarefa tarefa : enviadas) {
+            locais.add(tarefa.getIdentificador() + "@" + tarefa.getLocalProcessamento().getId());
+        }
+        return locais;
+    }
+
+    @Override
+    public void enviarTarefa(Tarefa tarefa) {
+        enviadas.add(tarefa);
+    }
+
+    @Override
+    public void processarTarefa(Tarefa tarefa) {
+    }
+
+    @Override
+    public void executarEscalonamento() {
+    }
+
+    @Override
+    public void enviarMensagem(Tarefa tarefa, CS_Processamento escravo, int tipo) {
+    }
+
+    @Override
+    public void atualizar(CS_Processamento escravo) {
+    }
+
+    @Override
+    public void setSimulacao(Simulation simulacao) {
+    }
+
+    @Override
+    public int getTipoEscalonamento() {
+        return ENQUANTO_HOUVER_TAREFAS;
+    }
+
+    @Override
+    public void setTipoEscalonamento(int tipo) {
+    }
+
+    @Override
+    public int getTamanhoLote() {
+        return tamanhoLote;
+    }
+
+    @Override
+    public void setTamanhoLote(int tamanho) {
+        this.tamanhoLote = tamanho;
+    }
+
+    @Override
+    public Tarefa criarCopia(Tarefa get) {
+        return null;
+    }
+
+    @Override
+    public Simulation getSimulacao() {
+        return simulacao;
+    }
+}
@@ -0,0 +1,114 @@
+package gspd.ispd.escalonador;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * MultimapaOrdenadoTest
+ */
+public class MultimapaOrdenadoTest {
+
+    private static List<String> valores(MultimapaOrdenado<Double, String> mapa) {
+        List<String> valores = new ArrayList<String>();
+        for (String valor : mapa) {
+            valores.add(valor);
+        }
+        return valores;
+    }
+
+    @Test
+    public void testIterationInKeyOrder() {
+        MultimapaOrdenado<Double, String> mapa = new MultimapaOrdenado<Double, String>();
+        mapa.adicionar(3.0, "c");
+        mapa.adicionar(1.0, "a");
+        mapa.adicionar(2.0, "b");
+        assertEquals(Arrays.asList("a", "b", "c"), valores(mapa));
+        assertEquals(Double.valueOf(1.0), mapa.primeiraChave());
+        assertEquals("a", mapa.primeiro());
+    }
+
+    @Test
+    public void testDuplicateKeysKeepInsertionOrder() {
+        MultimapaOrdenado<Double, String> mapa = new MultimapaOrdenado<Double, String>();
+        mapa.adicionar(1.0, "a1");
+        mapa.adicionar(0.0, "z");
+        mapa.adicionar(1.0, "a2");
+        mapa.adicionarPrimeiro(1.0, "a0");
+        mapa.adicionar(1.0, "a3");
+        assertEquals(5, mapa.size());
+        assertEquals(Arrays.asList("a0", "a1", "a2", "a3"), mapa.get(1.0));
+        assertEquals(Arrays.asList("z", "a0", "a1", "a2", "a3"), valores(mapa));
+        assertEquals("z", mapa.removerPrimeiro());
+        assertEquals("a0", mapa.removerPrimeiro());
+        assertEquals(Double.valueOf(1.0), mapa.primeiraChave());
+    }
+
+    @Test
+    public void testRemoveOneOccurrence() {
+        MultimapaOrdenado<Double, String> mapa = new MultimapaOrdenado<Double, String>();
+        mapa.adicionar(1.0, "a");
+        mapa.adicionar(1.0, "b");
+        mapa.adicionar(1.0, "a");
+        mapa.adicionar(2.0, "c");
+        assertTrue(mapa.remover(1.0, "a"));
+        assertEquals(Arrays.asList("b", "a"), mapa.get(1.0));
+        assertFalse(mapa.remover(2.0, "a"));
+        assertFalse(mapa.remover(5.0, "a"));
+        assertTrue(mapa.remover(1.0, "b"));
+        assertTrue(mapa.remover(1.0, "a"));
+        // the empty key is gone
+        assertEquals(Double.valueOf(2.0), mapa.primeiraChave());
+        assertTrue(mapa.get(1.0).isEmpty());
+        assertEquals(1, mapa.size());
+    }
+
+    @Test
+    public void testRemoveByIdentity() {
+        MultimapaOrdenado<Double, String> mapa = new MultimapaOrdenado<Double, String>();
+        String a = new String("a");
+        String igual = new String("a");
+        mapa.adicionar(1.0, igual);
+        mapa.adicionar(1.0, a);
+        assertTrue(mapa.remover(1.0, a));
+        assertSame(igual, mapa.primeiro());
+        assertFalse(mapa.remover(1.0, a));
+        assertFalse(mapa.remover(1.0, new String("a")));
+        assertEquals(1, mapa.size());
+    }
+
+    @Test
+    public void testSuccessorCrossesKeys() {
+        MultimapaOrdenado<Double, String> mapa = new MultimapaOrdenado<Double, String>();
+        String a = "a";
+        String b = "b";
+        String c = "c";
+        mapa.adicionar(1.0, a);
+        mapa.adicionar(1.0, b);
+        mapa.adicionar(4.0, c);
+        assertSame(b, mapa.sucessor(1.0, a));
+        assertSame(c, mapa.sucessor(1.0, b));
+        assertNull(mapa.sucessor(4.0, c));
+        assertNull(mapa.sucessor(2.0, a));
+        mapa.remover(1.0, b);
+        assertSame(c, mapa.sucessor(1.0, a));
+    }
+
+    @Test
+    public void testComparatorAndEmpty() {
+        MultimapaOrdenado<Double, String> mapa = new MultimapaOrdenado<Double, String>(Collections.<Double>reverseOrder());
+        mapa.adicionar(1.0, "a");
+        mapa.adicionar(2.0, "b");
+        assertEquals(Arrays.asList("b", "a"), valores(mapa));
+        mapa.clear();
+        assertTrue(mapa.isEmpty());
+        assertNull(mapa.primeiro());
+        assertNull(mapa.primeiraChave());
+        assertNull(mapa.removerPrimeiro());
+        assertFalse(mapa.iterator().hasNext());
+    }
+}
@@ -0,0 +1,144 @@
+package gspd.ispd.escalonador;
+
+import static org.junit.Assert.*;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import gspd.ispd.motor.SequentialSimulation;
+import gspd.ispd.motor.Simulation;
+import gspd.ispd.motor.SimulationProgress;
+import gspd.ispd.motor.filas.RedeDeFilas;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CS_Comunicacao;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Internet;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Maquina;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Mestre;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Switch;
+import gspd.ispd.motor.metricas.MetricasUsuarios;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Dispatch order of the fair-share policies OSEP, M_OSEP and HOSEP on a
+ * small two-user model. The expected placements were recorded with the
+ * versions of the policies that searched users, tasks and slaves linearly.
+ */
+public class OSEPTest {
+
+    @Before
+    public void compiladorDisponivel() {
+        Assume.assumeTrue(CompiladorMemoria.disponivel());
+    }
+
+    /**
+     * The simulator loads the policies by name
+     */
+    private static String compilar(String politica) {
+        String nome = politica + "Teste";
+        assertNull(CompiladorMemoria.compilar("gspd.ispd.externo.gridSchedulers" + nome, nome,
+                "package gspd.ispd.externo;\npublic class " + nome + " extends " + politica + " {}\n"));
+        return nome;
+    }
+
+    /**
+     * u0 fills every slave at once; u1, who owns half of the grid, arrives
+     * later and takes its share back by preemption. Each task is reported as
+     * "id@slave starts finish"
+     */
+    private static List<String> simular(String politica) {
+        String escalonador = compilar(politica);
+        List<CS_Processamento> mestres = new ArrayList<CS_Processamento>();
+        List<CS_Maquina> maquinas = new ArrayList<CS_Maquina>();
+        List<CS_Comunicacao> links = new ArrayList<CS_Comunicacao>();
+        CS_Mestre mestre = new CS_Mestre("m", "u0", 10, 0.0, escalonador);
+        CS_Switch sw = new CS_Switch("sw", 1000, 0.0, 0.001);
+        mestre.addConexoesEntrada(sw);
+        mestre.addConexoesSaida(sw);
+        sw.addConexoesEntrada(mestre);
+        sw.addConexoesSaida(mestre);
+        mestres.add(mestre);
+        links.add(sw);
+        double[] poderes = {20, 40, 20, 60};
+        String[] proprietarios = {"u0", "u0", "u1", "u1"};
+        for (int i = 0; i < poderes.length; i++) {
+            CS_Maquina maquina = new CS_Maquina("q" + i, proprietarios[i], poderes[i], 1, 0.0, i + 1);
+            maquina.addConexoesEntrada(sw);
+            maquina.addConexoesSaida(sw);
+            sw.addConexoesEntrada(maquina);
+            sw.addConexoesSaida(maquina);
+            maquina.addMestre(mestre);
+            mestre.addEscravo(maquina);
+            maquinas.add(maquina);
+        }
+        RedeDeFilas rdf = new RedeDeFilas(mestres, maquinas, links, new ArrayList<CS_Internet>());
+        List<String> usuarios = new ArrayList<String>(Arrays.asList("u0", "u1"));
+        MetricasUsuarios metricasUsuarios = new MetricasUsuarios();
+        metricasUsuarios.addAllUsuarios(usuarios, Arrays.asList(50.0, 60.0));
+        mestre.getEscalonador().setMetricaUsuarios(metricasUsuarios);
+        rdf.setUsuarios(usuarios);
+        List<Tarefa> tarefas = new ArrayList<Tarefa>();
+        for (int i = 0; i < 8; i++) {
+            tarefas.add(new Tarefa(i, "u0", "app", mestre, 1, 0, 4000 + 1000 * (i % 3), i % 2));
+        }
+        for (int i = 8; i < 14; i++) {
+            tarefas.add(new Tarefa(i, "u1", "app", mestre, 1, 0, 3000 + 1000 * (i % 2), 20 + 5 * (i - 8)));
+        }
+        SimulationProgress janela = new SimulationProgress() {
+            @Override
+            public void incProgresso(int n) {
+            }
+
+            @Override
+            public void print(String text, Color cor) {
+            }
+        };
+        Simulation sim = new SequentialSimulation(janela, rdf, tarefas);
+        sim.simular();
+        List<String> resultado = new ArrayList<String>();
+        for (Tarefa tarefa : tarefas) {
+            resultado.add(String.format(Locale.ROOT, "%d@%s %d %.4f", tarefa.getIdentificador(),
+                    tarefa.getLocalProcessamento().getId(), tarefa.getTempoInicial().size(),
+                    tarefa.getTempoFinal().get(tarefa.getTempoFinal().size() - 1)));
+        }
+        return resultado;
+    }
+
+    @Test
+    public void testOSEPDispatchOrder() {
+        assertEquals(Arrays.asList(
+                "0@q2 2 515.0101", "1@q1 1 395.0101", "2@q2 1 300.0060",
+                "3@q3 1 411.6768", "4@q1 1 125.0040", "5@q1 1 555.0101",
+                "6@q3 1 66.6747", "7@q1 1 260.0101", "8@q0 1 216.6787",
+                "9@q3 1 276.6768", "10@q3 1 125.0101", "11@q3 1 201.6788",
+                "12@q3 1 335.0101", "13@q0 1 425.0101"),
+                simular("OSEP"));
+    }
+
+    @Test
+    public void testMOSEPDispatchOrder() {
+        assertEquals(Arrays.asList(
+                "0@q3 1 66.6687", "1@q3 2 383.3434", "2@q2 3 675.0101",
+                "3@q1 2 205.0121", "4@q3 2 473.3434", "5@q0 1 720.0101",
+                "6@q1 2 310.0101", "7@q1 2 440.0101", "8@q3 2 215.0101",
+                "9@q0 2 410.0121", "10@q1 1 105.0030", "11@q3 2 291.6768",
+                "12@q3 1 155.0101", "13@q2 1 365.0141"),
+                simular("M_OSEP"));
+    }
+
+    @Test
+    public void testHOSEPDispatchOrder() {
+        assertEquals(Arrays.asList(
+                "0@q3 1 66.6687", "1@q1 1 325.0100", "2@q2 1 300.0080",
+                "3@q1 1 200.0070", "4@q3 2 383.3503", "5@q1 1 475.0130",
+                "6@q1 1 100.0040", "7@q2 1 550.0110", "8@q3 1 116.6717",
+                "9@q3 1 233.3443", "10@q0 1 216.6737", "11@q0 1 416.6767",
+                "12@q3 1 166.6747", "13@q3 1 300.0140"),
+                simular("HOSEP"));
+    }
+}
@@ -0,0 +1,116 @@
+package gspd.ispd.escalonador;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import gspd.ispd.escalonador.PerfilDisponibilidade.Reserva;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Maquina;
+
+/**
+ * PerfilDisponibilidadeTest
+ */
+public class PerfilDisponibilidadeTest {
+
+    private CS_Maquina rapido;
+    private CS_Maquina lento;
+    private PerfilDisponibilidade perfil;
+
+    @Before
+    public void criarPerfil() {
+        // one processor of 10 Mflops and two of 5 Mflops
+        rapido = new CS_Maquina("rapido", "u0", 10, 1, 0.0);
+        lento = new CS_Maquina("lento", "u0", 10, 2, 0.0);
+        perfil = new PerfilDisponibilidade();
+        perfil.addEscravo(lento, 0);
+        perfil.addEscravo(rapido, 0);
+    }
+
+    private Reserva reservar(double agora, double tamanho) {
+        Reserva reserva = perfil.procurar(agora, tamanho);
+        perfil.ocupar(reserva);
+        return reserva;
+    }
+
+    private static void assertReserva(CS_Maquina escravo, double inicio, double fim, Reserva reserva) {
+        assertSame(escravo, reserva.getEscravo());
+        assertEquals(inicio, reserva.getInicio(), 1e-9);
+        assertEquals(fim, reserva.getFim(), 1e-9);
+    }
+
+    @Test
+    public void testEarliestFinishPrefersFasterClass() {
+        assertReserva(rapido, 0, 10, reservar(0, 100));
+        // waiting for the fast processor ties with starting now on a slow one
+        assertReserva(rapido, 10, 20, perfil.procurar(0, 100));
+        assertReserva(lento, 0, 20, perfil.procurarAgora(0, 100));
+    }
+
+    @Test
+    public void testEarliestFitUsesGap() {
+        reservar(0, 100);
+        // the fast processor is free in [10, 30) and from 40 on
+        assertReserva(rapido, 30, 40, reservar(30, 100));
+        assertReserva(rapido, 10, 25, perfil.procurar(0, 150));
+        // too long for the gap, so the slow processors finish earlier
+        assertReserva(lento, 0, 50, perfil.procurar(0, 250));
+        assertReserva(rapido, 40, 45, perfil.procurar(35, 50));
+    }
+
+    @Test
+    public void testReleaseMergesGaps() {
+        reservar(0, 100);
+        Reserva depois = reservar(30, 100);
+        perfil.liberar(depois, 5);
+        // [10, 30), [30, 40) and [40, ...) are one gap again
+        assertReserva(rapido, 10, 35, perfil.procurar(5, 250));
+    }
+
+    @Test
+    public void testReleaseKeepsOnlyTheFuture() {
+        Reserva reserva = reservar(0, 100);
+        assertNull(rapidoAgora(4));
+        perfil.liberar(reserva, 4);
+        assertReserva(rapido, 4, 5, rapidoAgora(4));
+    }
+
+    private Reserva rapidoAgora(double agora) {
+        Reserva reserva = perfil.procurarAgora(agora, 10);
+        return reserva == null || reserva.getEscravo() != rapido ? null : reserva;
+    }
+
+    @Test
+    public void testFreeNow() {
+        perfil.ocupar(perfil.procurarAgora(0, 100));
+        assertTrue(perfil.livreAgora(0));
+        perfil.ocupar(perfil.procurarAgora(0, 100));
+        perfil.ocupar(perfil.procurarAgora(0, 100));
+        assertFalse(perfil.livreAgora(0));
+        assertNull(perfil.procurarAgora(0, 1));
+        assertTrue(perfil.livreAgora(10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOccupyReservedInterval() {
+        Reserva reserva = perfil.procurar(0, 100);
+        perfil.ocupar(reserva);
+        perfil.ocupar(reserva);
+    }
+
+    @Test
+    public void testExtend() {
+        Reserva reserva = reservar(0, 100);
+        Reserva estendida = perfil.estender(reserva, 12);
+        assertReserva(rapido, 0, Double.POSITIVE_INFINITY, estendida);
+        // the fast processor is taken until the task finishes
+        assertSame(lento, perfil.procurar(12, 1).getEscravo());
+    }
+
+    @Test
+    public void testExtendBlockedByLaterReservation() {
+        Reserva reserva = reservar(0, 100);
+        // the next task on the fast processor is planned for [10, 20)
+        assertReserva(rapido, 10, 20, reservar(0, 100));
+        assertNull(perfil.estender(reserva, 12));
+    }
+}
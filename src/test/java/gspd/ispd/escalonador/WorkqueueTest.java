@@ -0,0 +1,77 @@
+package gspd.ispd.escalonador;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import gspd.ispd.externo.Workqueue;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CentroServico;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Maquina;
+import gspd.ispd.motor.metricas.MetricasUsuarios;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * WorkqueueTest
+ */
+public class WorkqueueTest {
+
+    private MestreTeste mestre;
+    private CS_Maquina origem;
+    private Workqueue escalonador;
+
+    @Before
+    public void criarEscalonador() {
+        mestre = new MestreTeste();
+        origem = new CS_Maquina("origem", "u0", 1, 1, 0.0);
+        escalonador = new Workqueue();
+        escalonador.addEscravo(new CS_Maquina("a", "u0", 1, 1, 0.0));
+        escalonador.addEscravo(new CS_Maquina("b", "u0", 1, 1, 0.0));
+        List<List> caminhos = new ArrayList<List>();
+        caminhos.add(new ArrayList<CentroServico>());
+        caminhos.add(new ArrayList<CentroServico>());
+        escalonador.setCaminhoEscravo(caminhos);
+        escalonador.setMestre(mestre);
+        escalonador.setMetricaUsuarios(new MetricasUsuarios());
+        escalonador.iniciar();
+    }
+
+    private Tarefa newTarefa(int id) {
+        Tarefa tarefa = new Tarefa(id, "u0", "app", origem, 0, 10, mestre.tempo);
+        escalonador.adicionarTarefa(tarefa);
+        return tarefa;
+    }
+
+    @Test
+    public void testCompletedTaskSlaveGetsNextTask() {
+        newTarefa(1);
+        Tarefa t2 = newTarefa(2);
+        newTarefa(3);
+        escalonador.escalonar();
+        escalonador.escalonar();
+        escalonador.addTarefaConcluida(t2);
+        escalonador.escalonar();
+        assertEquals(Arrays.asList("1@a", "2@b", "3@b"), mestre.getLocais());
+    }
+
+    @Test
+    public void testReturnedTaskFreesItsSlave() {
+        Tarefa t1 = newTarefa(1);
+        newTarefa(2);
+        escalonador.escalonar();
+        escalonador.escalonar();
+        // no free slave until a task comes back
+        escalonador.escalonar();
+        assertEquals(2, mestre.enviadas.size());
+        escalonador.adicionarTarefa(t1);
+        escalonador.escalonar();
+        assertEquals(Arrays.asList("1@a", "2@b", "1@a"), mestre.getLocais());
+        // the slave of the task sent again is no longer free
+        newTarefa(3);
+        escalonador.escalonar();
+        assertEquals(3, mestre.enviadas.size());
+    }
+}
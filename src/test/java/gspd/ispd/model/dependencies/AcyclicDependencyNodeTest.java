@@ -1,6 +1,10 @@
 package gspd.ispd.model.dependencies;
 
 import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import org.junit.Test;
 
 /**
@@ -18,4 +22,103 @@ public class AcyclicDependencyNodeTest {
         // do not allow cyclic dependencies chaining
         assertFalse(c.addDependent(a));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAgainstCreationOrder() {
+        DependencyNode a = new AcyclicDependencyNode();
+        DependencyNode b = new AcyclicDependencyNode();
+        DependencyNode c = new AcyclicDependencyNode();
+        // c -> b -> a, each edge against the order the nodes were created
+        assertTrue(c.addDependent(b));
+        assertTrue(a.addDependency(b));
+        assertFalse(a.addDependent(c));
+        assertFalse(c.addDependency(a));
+        // still simple: no loops or parallel dependencies
+        assertFalse(a.addDependent(a));
+        assertFalse(b.addDependent(a));
+        assertTrue(c.addDependent(a));
+    }
+
+    @Test
+    public void testRemovedDependency() {
+        DependencyNode a = new AcyclicDependencyNode();
+        DependencyNode b = new AcyclicDependencyNode();
+        DependencyNode c = new AcyclicDependencyNode();
+        DependencyNode d = new AcyclicDependencyNode();
+        assertTrue(a.addDependent(b));
+        assertTrue(b.addDependent(c));
+        assertFalse(c.addDependent(a));
+        b.removeDependent(c);
+        assertTrue(c.addDependent(a));
+        // a is done, its dependents may now come before it
+        assertTrue(a.addDependent(d));
+        a.disconectDependents();
+        assertTrue(b.isFree());
+        assertTrue(d.isFree());
+        assertTrue(b.addDependent(a));
+        assertTrue(d.addDependent(a));
+        assertFalse(a.addDependent(c));
+    }
+
+    @Test
+    public void testLongChain() {
+        // a recursive search would overflow the stack here
+        int n = 200000;
+        List<DependencyNode> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nodes.add(new AcyclicDependencyNode(i));
+        }
+        for (int i = 0; i < n - 1; i++) {
+            assertTrue(nodes.get(i).addDependent(nodes.get(i + 1)));
+        }
+        assertFalse(nodes.get(n - 1).addDependent(nodes.get(0)));
+        assertTrue(nodes.get(0).addDependent(nodes.get(n - 1)));
+    }
+
+    @Test
+    public void testRandomGraphs() {
+        Random random = new Random(47);
+        for (int round = 0; round < 20; round++) {
+            int n = 60;
+            List<DependencyNode> nodes = new ArrayList<>();
+            boolean[][] edge = new boolean[n][n];
+            for (int i = 0; i < n; i++) {
+                nodes.add(new AcyclicDependencyNode(i));
+            }
+            for (int k = 0; k < 600; k++) {
+                int from = random.nextInt(n);
+                int to = random.nextInt(n);
+                if (edge[from][to] && random.nextInt(4) == 0) {
+                    nodes.get(from).removeDependent(nodes.get(to));
+                    edge[from][to] = false;
+                    continue;
+                }
+                boolean expected = from != to && !edge[from][to] && !reaches(edge, to, from);
+                assertEquals(expected, nodes.get(from).addDependent(nodes.get(to)));
+                if (expected) {
+                    edge[from][to] = true;
+                }
+            }
+        }
+    }
+
+    private static boolean reaches(boolean[][] edge, int from, int to) {
+        boolean[] seen = new boolean[edge.length];
+        List<Integer> stack = new ArrayList<>();
+        stack.add(from);
+        seen[from] = true;
+        while (!stack.isEmpty()) {
+            int node = stack.remove(stack.size() - 1);
+            if (node == to) {
+                return true;
+            }
+            for (int next = 0; next < edge.length; next++) {
+                if (edge[node][next] && !seen[next]) {
+                    seen[next] = true;
+                    stack.add(next);
+                }
+            }
+        }
+        return false;
+    }
+}
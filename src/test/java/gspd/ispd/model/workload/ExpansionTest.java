@@ -0,0 +1,64 @@
+package gspd.ispd.model.workload;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import gspd.ispd.model.data.Job;
+
+/**
+ * ExpansionTest
+ */
+public class ExpansionTest {
+
+    private static String stream(WorkloadModel model) {
+        StringBuilder names = new StringBuilder();
+        for (Job job = model.getNextTask(); job != null; job = model.getNextTask()) {
+            names.append(job.getModel().getApplication());
+        }
+        return names.toString();
+    }
+
+    @Test
+    public void testIterativeAndParallel() {
+        TaskModel a = new TaskModel("a", 1, 0, 0);
+        TaskModel b = new TaskModel("b", 1, 0, 0);
+        Workflow body = new Workflow();
+        body.addModel(a);
+        body.addModel(new ParallelExpansion(b, 2).expandModel());
+        WorkloadModel model = new IterativeExpansion(body, 3).expandModel();
+        assertEquals("abbabbabb", stream(model));
+        // the stream can be pulled again from the start
+        model.rewind();
+        assertEquals("abbabbabb", stream(model));
+    }
+
+    @Test
+    public void testRecursive() {
+        Workflow body = new Workflow();
+        body.addModel(new TaskModel("a", 1, 0, 0));
+        body.addModel(new TaskModel("b", 1, 0, 0));
+        body.addModel(new TaskModel("c", 1, 0, 0));
+        // a (recursive call) b c
+        body.addRecursivePoint(new RecursivePoint(1));
+        assertEquals("abc", stream(new RecursiveExpansion(body, 1).expandModel()));
+        assertEquals("aaabcbcbc", stream(new RecursiveExpansion(body, 3).expandModel()));
+        // a (recursive call) b c (recursive call)
+        body.addRecursivePoint(new RecursivePoint(3));
+        assertEquals("aabcbcabc", stream(new RecursiveExpansion(body, 2).expandModel()));
+    }
+
+    @Test
+    public void testCopyHasOwnCursor() {
+        Workflow body = new Workflow();
+        body.addModel(new TaskModel("a", 1, 0, 0));
+        body.addModel(new TaskModel("b", 1, 0, 0));
+        body.addRecursivePoint(new RecursivePoint(1));
+        WorkloadModel model = new IterativeExpansion(new RecursiveExpansion(body, 2).expandModel(), 2).expandModel();
+        assertEquals("aabbaabb", stream(model.copy()));
+        model.getNextTask();
+        WorkloadModel copy = model.copy();
+        assertEquals("abbaabb", stream(model));
+        // the copy starts from the first job, whatever the cursor of the model
+        assertEquals("aabbaabb", stream(copy));
+    }
+}
@@ -0,0 +1,47 @@
+package gspd.ispd.motor;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.PriorityQueue;
+
+/**
+ * EventoFuturoTest
+ */
+public class EventoFuturoTest {
+
+    @Test
+    public void testEarlierEventFirst() {
+        EventoFuturo antes = new EventoFuturo(1.0, EventoFuturo.CHEGADA, null, null);
+        EventoFuturo depois = new EventoFuturo(2.0, EventoFuturo.CHEGADA, null, null);
+        depois.setOrdem(0);
+        antes.setOrdem(1);
+        assertTrue(antes.compareTo(depois) < 0);
+        assertTrue(depois.compareTo(antes) > 0);
+    }
+
+    @Test
+    public void testSimultaneousEventsWithoutOrderAreTied() {
+        // engines that do not set the order keep the previous comparison
+        EventoFuturo a = new EventoFuturo(1.0, EventoFuturo.CHEGADA, null, null);
+        EventoFuturo b = new EventoFuturo(1.0, EventoFuturo.SAIDA, null, null);
+        assertEquals(0, a.compareTo(b));
+    }
+
+    @Test
+    public void testSimultaneousEventsInInsertionOrder() {
+        PriorityQueue<EventoFuturo> eventos = new PriorityQueue<EventoFuturo>();
+        EventoFuturo[] criados = new EventoFuturo[8];
+        for (int i = 0; i < criados.length; i++) {
+            criados[i] = new EventoFuturo(i % 2 == 0 ? 1.0 : 0.5, EventoFuturo.CHEGADA, null, null);
+            criados[i].setOrdem(i);
+            eventos.add(criados[i]);
+        }
+        for (int i = 1; i < criados.length; i += 2) {
+            assertSame(criados[i], eventos.poll());
+        }
+        for (int i = 0; i < criados.length; i += 2) {
+            assertSame(criados[i], eventos.poll());
+        }
+    }
+}
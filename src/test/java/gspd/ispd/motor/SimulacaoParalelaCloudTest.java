@@ -0,0 +1,139 @@
+package gspd.ispd.motor;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import gspd.ispd.motor.carga.CargaRandom;
+import gspd.ispd.motor.filas.RedeDeFilasCloud;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CS_Comunicacao;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.CentroServico;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Internet;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Link;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_MaquinaCloud;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Switch;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_VMM;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_VirtualMac;
+import gspd.ispd.motor.metricas.MetricasUsuarios;
+import gspd.ispd.motor.random.FluxosAleatorios;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SimulacaoParalelaCloudTest
+ */
+public class SimulacaoParalelaCloudTest {
+
+    private static final int VMMS = 3;
+
+    private static CS_Link newLink(String id, CentroServico origem, CentroServico destino, int vmm, List<CS_Comunicacao> links) {
+        // each datacenter has its own latency, so no two events cross domains at the same instant
+        CS_Link link = new CS_Link(id, 100 + 7 * vmm, 0.0, 0.005 + 0.0013 * vmm);
+        link.setConexoesEntrada(origem);
+        link.setConexoesSaida(destino);
+        links.add(link);
+        return link;
+    }
+
+    /**
+     * Datacenters with one VMM each, linked by a backbone switch
+     */
+    private static RedeDeFilasCloud newRedeDeFilas() {
+        List<CS_Processamento> mestres = new ArrayList<CS_Processamento>();
+        List<CS_MaquinaCloud> maquinas = new ArrayList<CS_MaquinaCloud>();
+        List<CS_VirtualMac> vms = new ArrayList<CS_VirtualMac>();
+        List<CS_Comunicacao> links = new ArrayList<CS_Comunicacao>();
+        List<String> usuarios = Arrays.asList("u0");
+        CS_Switch backbone = new CS_Switch("backbone", 1000, 0.0, 0.01);
+        links.add(backbone);
+        for (int d = 0; d < VMMS; d++) {
+            CS_VMM vmm = new CS_VMM("vmm" + d, "u0", 100, 16384, 500, 0.0, "RoundRobin", "FirstFit");
+            mestres.add(vmm);
+            CS_Link subida = newLink("up" + d, vmm, backbone, d, links);
+            CS_Link descida = newLink("down" + d, backbone, vmm, d, links);
+            vmm.addConexoesSaida(subida);
+            vmm.addConexoesEntrada(descida);
+            backbone.addConexoesEntrada(subida);
+            backbone.addConexoesSaida(descida);
+            CS_Switch sw = new CS_Switch("sw" + d, 1000, 0.0, 0.001);
+            links.add(sw);
+            CS_Link saida = newLink("s2b" + d, sw, backbone, d, links);
+            CS_Link entrada = newLink("b2s" + d, backbone, sw, d, links);
+            sw.addConexoesSaida(saida);
+            sw.addConexoesEntrada(entrada);
+            backbone.addConexoesEntrada(saida);
+            backbone.addConexoesSaida(entrada);
+            for (int j = 0; j < 4; j++) {
+                CS_MaquinaCloud maquina = new CS_MaquinaCloud("h" + d + "_" + j, "u0", 100 + 10 * j, 8, 0.0, 16384, 500, 1, 1, 1);
+                maquina.addConexoesSaida(sw);
+                maquina.addConexoesEntrada(sw);
+                sw.addConexoesEntrada(maquina);
+                sw.addConexoesSaida(maquina);
+                maquina.addMestre(vmm);
+                vmm.addEscravo(maquina);
+                maquinas.add(maquina);
+            }
+            for (int i = 0; i < 6; i++) {
+                CS_VirtualMac vm = new CS_VirtualMac("vm" + d + "_" + i, "u0", 1 + i % 2, 1024 * (1 + i % 4), 20 + 5 * i, "LINUX");
+                vm.addVMM(vmm);
+                vmm.addVM(vm);
+                vms.add(vm);
+            }
+            MetricasUsuarios metricasUsuarios = new MetricasUsuarios();
+            metricasUsuarios.addAllUsuarios(usuarios, Arrays.asList(1000.0));
+            vmm.getEscalonador().setMetricaUsuarios(metricasUsuarios);
+        }
+        RedeDeFilasCloud rdf = new RedeDeFilasCloud(mestres, maquinas, vms, links, new ArrayList<CS_Internet>());
+        rdf.setUsuarios(usuarios);
+        rdf.setFluxos(new FluxosAleatorios(50));
+        return rdf;
+    }
+
+    /**
+     * @return where and when each task was processed and each VM allocated,
+     * followed by the final time of the simulation
+     */
+    private static List<String> simular(int threads) {
+        SimulationProgress janela = new SimulationProgress() {
+            @Override
+            public void incProgresso(int n) {
+            }
+
+            @Override
+            public void print(String text, Color cor) {
+            }
+        };
+        RedeDeFilasCloud rdf = newRedeDeFilas();
+        List<Tarefa> tarefas = new CargaRandom(300, 100, 1000, 500, 0.5, 1, 10, 5, 0.5, 1).toTarefaList(rdf);
+        Simulation sim;
+        if (threads == 0) {
+            sim = new SimulacaoSequencialCloud(janela, rdf, tarefas);
+        } else {
+            sim = new SimulacaoParalelaCloud(janela, rdf, tarefas, threads);
+        }
+        sim.simular();
+        List<String> resultado = new ArrayList<String>();
+        for (Tarefa tarefa : tarefas) {
+            resultado.add(tarefa.getIdentificador() + " " + tarefa.getEstado()
+                    + " " + (tarefa.getLocalProcessamento() == null ? null : tarefa.getLocalProcessamento().getId())
+                    + " " + tarefa.getTempoInicial() + " " + tarefa.getTempoFinal());
+        }
+        for (CS_VirtualMac vm : rdf.getVMs()) {
+            resultado.add(vm.getId() + " " + vm.getStatus() + " " + vm.getInstanteAloc()
+                    + " " + (vm.getMaquinaHospedeira() == null ? null : vm.getMaquinaHospedeira().getId()));
+        }
+        resultado.add(Double.toString(sim.getTime(null)));
+        return resultado;
+    }
+
+    @Test
+    public void testMatchesSequential() {
+        List<String> sequencial = simular(0);
+        assertEquals(sequencial, simular(1));
+        assertEquals(sequencial, simular(VMMS));
+    }
+}
@@ -0,0 +1,156 @@
+package gspd.ispd.motor.carga;
+
+import static org.junit.Assert.*;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import gspd.ispd.escalonador.CompiladorMemoria;
+import gspd.ispd.model.workload.IterativeExpansion;
+import gspd.ispd.model.workload.ParallelExpansion;
+import gspd.ispd.model.workload.TaskModel;
+import gspd.ispd.model.workload.Workflow;
+import gspd.ispd.model.workload.Workload;
+import gspd.ispd.motor.SequentialSimulation;
+import gspd.ispd.motor.Simulation;
+import gspd.ispd.motor.SimulationProgress;
+import gspd.ispd.motor.filas.RedeDeFilas;
+import gspd.ispd.motor.filas.Tarefa;
+import gspd.ispd.motor.filas.servidores.CS_Comunicacao;
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Internet;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Maquina;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Mestre;
+import gspd.ispd.motor.filas.servidores.implementacao.CS_Switch;
+import gspd.ispd.motor.metricas.Metricas;
+import gspd.ispd.motor.metricas.MetricasGlobais;
+import gspd.ispd.motor.metricas.MetricasUsuarios;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CargaWorkloadTest
+ */
+public class CargaWorkloadTest {
+
+    private static final String ESCALONADOR = "WorkqueueCargaWorkload";
+
+    @Before
+    public void compiladorDisponivel() {
+        Assume.assumeTrue(CompiladorMemoria.disponivel());
+        // the simulator loads the policies by name
+        assertNull(CompiladorMemoria.compilar("gspd.ispd.externo.gridSchedulers" + ESCALONADOR, ESCALONADOR,
+                "package gspd.ispd.externo;\npublic class " + ESCALONADOR + " extends Workqueue {}\n"));
+    }
+
+    private static RedeDeFilas newRedeDeFilas() {
+        List<CS_Processamento> mestres = new ArrayList<CS_Processamento>();
+        List<CS_Maquina> maquinas = new ArrayList<CS_Maquina>();
+        List<CS_Comunicacao> links = new ArrayList<CS_Comunicacao>();
+        CS_Mestre mestre = new CS_Mestre("m", "u0", 100, 0.0, ESCALONADOR);
+        CS_Switch sw = new CS_Switch("sw", 1000, 0.0, 0.001);
+        mestre.addConexoesEntrada(sw);
+        mestre.addConexoesSaida(sw);
+        sw.addConexoesEntrada(mestre);
+        sw.addConexoesSaida(mestre);
+        mestres.add(mestre);
+        links.add(sw);
+        for (int i = 0; i < 3; i++) {
+            CS_Maquina maquina = new CS_Maquina("q" + i, "u" + (i % 2), 50 + 25 * i, 1, 0.0, i + 1);
+            maquina.addConexoesEntrada(sw);
+            maquina.addConexoesSaida(sw);
+            sw.addConexoesEntrada(maquina);
+            sw.addConexoesSaida(maquina);
+            maquina.addMestre(mestre);
+            mestre.addEscravo(maquina);
+            maquinas.add(maquina);
+        }
+        RedeDeFilas rdf = new RedeDeFilas(mestres, maquinas, links, new ArrayList<CS_Internet>());
+        List<String> usuarios = Arrays.asList("u0", "u1");
+        MetricasUsuarios metricasUsuarios = new MetricasUsuarios();
+        metricasUsuarios.addAllUsuarios(usuarios, Arrays.asList(100.0, 75.0));
+        mestre.getEscalonador().setMetricaUsuarios(metricasUsuarios);
+        rdf.setUsuarios(usuarios);
+        return rdf;
+    }
+
+    private static CargaWorkload newCarga() {
+        Workload workload = new Workload();
+        for (int u = 0; u < 2; u++) {
+            Workflow fluxo = new Workflow("u" + u, null);
+            // no two tasks arrive at the same time
+            fluxo.setArrivalTime(0.31 * u);
+            fluxo.setInterval(0.7 + 0.6 * u);
+            Workflow corpo = new Workflow();
+            corpo.addModel(new TaskModel("a", 120 + 80 * u, 1, 0));
+            corpo.addModel(new ParallelExpansion(new TaskModel("b", 200, 2, 0), 2).expandModel());
+            fluxo.addModel(new IterativeExpansion(corpo, 5).expandModel());
+            workload.addWorkflow(fluxo);
+        }
+        return new CargaWorkload(workload);
+    }
+
+    private static Metricas simular(GerarCarga carga, boolean sobDemanda) {
+        SimulationProgress janela = new SimulationProgress() {
+            @Override
+            public void incProgresso(int n) {
+            }
+
+            @Override
+            public void print(String text, Color cor) {
+            }
+        };
+        RedeDeFilas rdf = newRedeDeFilas();
+        Simulation sim;
+        if (sobDemanda) {
+            sim = new SequentialSimulation(janela, rdf, carga);
+        } else {
+            sim = new SequentialSimulation(janela, rdf, carga.toTarefaList(rdf));
+        }
+        sim.simular();
+        return sim.getMetricas();
+    }
+
+    private static void assertMesmasMetricas(Metricas esperadas, Metricas obtidas) {
+        assertEquals(esperadas.getNumTarefas(), obtidas.getNumTarefas());
+        // the metrics of the streamed run are summed as the tasks finish
+        for (String usuario : esperadas.getMetricasSatisfacao().keySet()) {
+            assertEquals(esperadas.getMetricasSatisfacao().get(usuario), obtidas.getMetricasSatisfacao().get(usuario), 1e-9);
+        }
+        assertEquals(esperadas.getTempoMedioFilaProcessamento(), obtidas.getTempoMedioFilaProcessamento(), 1e-9);
+        assertEquals(esperadas.getTempoMedioProcessamento(), obtidas.getTempoMedioProcessamento(), 1e-9);
+        assertEquals(esperadas.getTempoMedioComunicacao(), obtidas.getTempoMedioComunicacao(), 1e-9);
+        MetricasGlobais global = esperadas.getMetricasGlobais();
+        assertEquals(global.getTempoSimulacao(), obtidas.getMetricasGlobais().getTempoSimulacao(), 1e-9);
+        assertEquals(global.getOciosidadeComputacao(), obtidas.getMetricasGlobais().getOciosidadeComputacao(), 1e-9);
+    }
+
+    @Test
+    public void testTarefaListInArrivalOrder() {
+        List<Tarefa> tarefas = newCarga().toTarefaList(newRedeDeFilas());
+        assertEquals(30, tarefas.size());
+        boolean[] identificadores = new boolean[tarefas.size()];
+        for (int i = 0; i < tarefas.size(); i++) {
+            identificadores[tarefas.get(i).getIdentificador()] = true;
+            if (i > 0) {
+                assertTrue(tarefas.get(i).getTimeCriacao() > tarefas.get(i - 1).getTimeCriacao());
+            }
+        }
+        for (boolean usado : identificadores) {
+            assertTrue(usado);
+        }
+    }
+
+    @Test
+    public void testStreamedMatchesExpanded() {
+        CargaWorkload carga = newCarga();
+        Metricas expandida = simular(carga, false);
+        assertEquals(30, expandida.getNumTarefas());
+        assertMesmasMetricas(expandida, simular(carga, true));
+        // each simulation reads its own copy of the workflows
+        assertMesmasMetricas(expandida, simular(carga, true));
+    }
+}
@@ -0,0 +1,46 @@
+package gspd.ispd.motor.filas.dag;
+
+/**
+ * Diamond-shaped programs 0 -> {1, 2} -> 3 shared by the DAG tests. Tasks 0
+ * and 3 compute 10 Mflops
+ */
+public class DiamanteDAG {
+
+    private DiamanteDAG() {
+    }
+
+    private static ProgramaDAG newTarefas(double computacao1, double computacao2) {
+        ProgramaDAG programa = new ProgramaDAG("u0");
+        programa.addTarefa(0, 0, 10, 0, true);
+        programa.addTarefa(1, 0, computacao1, 0, true);
+        programa.addTarefa(2, 0, computacao2, 0, true);
+        programa.addTarefa(3, 0, 10, 0, true);
+        return programa;
+    }
+
+    /**
+     * Diamond without messages
+     */
+    public static ProgramaDAG newDiamante(double computacao1, double computacao2) {
+        ProgramaDAG programa = newTarefas(computacao1, computacao2);
+        programa.addLiberacao(0, 1);
+        programa.addLiberacao(0, 2);
+        programa.addLiberacao(1, 3);
+        programa.addLiberacao(2, 3);
+        return programa;
+    }
+
+    /**
+     * Diamond whose edges carry messages of 4, 2, 6 and 2 Mbits; the message
+     * from 0 to 2 is sent in two parts
+     */
+    public static ProgramaDAG newDiamanteComMensagens(double computacao1, double computacao2) {
+        ProgramaDAG programa = newTarefas(computacao1, computacao2);
+        programa.addLiberacao(0, 1, 4);
+        programa.addLiberacao(0, 2, 1);
+        programa.addLiberacao(0, 2, 1);
+        programa.addLiberacao(1, 3, 6);
+        programa.addLiberacao(2, 3, 2);
+        return programa;
+    }
+}
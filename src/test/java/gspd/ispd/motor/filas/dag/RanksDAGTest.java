@@ -0,0 +1,81 @@
+package gspd.ispd.motor.filas.dag;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * RanksDAGTest
+ */
+public class RanksDAGTest {
+
+    @Test
+    public void testUpwardAndDownwardRanks() {
+        ProgramaDAG programa = DiamanteDAG.newDiamanteComMensagens(20, 30);
+        // a task without a program is independent of the DAG
+        programa.addTarefa(4, 0, 5, 0, false);
+        RanksDAG ranks = new RanksDAG(programa, 1, 0.5);
+        assertEquals(5, ranks.getNumTarefas());
+        assertEquals(4, ranks.getNumTarefasDAG());
+        assertEquals(10, ranks.getSuperior(3), 1e-9);
+        assertEquals(20 + 3 + 10, ranks.getSuperior(1), 1e-9);
+        assertEquals(30 + 1 + 10, ranks.getSuperior(2), 1e-9);
+        assertEquals(10 + 1 + 41, ranks.getSuperior(0), 1e-9);
+        assertEquals(5, ranks.getSuperior(4), 1e-9);
+        assertEquals(0, ranks.getInferior(0), 1e-9);
+        assertEquals(10 + 2, ranks.getInferior(1), 1e-9);
+        assertEquals(10 + 1, ranks.getInferior(2), 1e-9);
+        assertEquals(11 + 30 + 1, ranks.getInferior(3), 1e-9);
+        assertEquals(52, ranks.getCaminhoCritico(), 1e-9);
+    }
+
+    @Test
+    public void testRepeatedMessagesFormOneEdge() {
+        RanksDAG ranks = new RanksDAG(DiamanteDAG.newDiamanteComMensagens(20, 30), 1, 0.5);
+        assertArrayEquals(new int[]{1, 2}, ranks.getSucessores(0));
+        assertArrayEquals(new int[]{0}, ranks.getPredecessores(2));
+        assertEquals(2, ranks.getComunicacoesPredecessores(2)[0], 1e-9);
+        assertArrayEquals(new int[]{1, 2}, ranks.getPredecessores(3));
+    }
+
+    @Test
+    public void testCriticalPath() {
+        RanksDAG ranks = new RanksDAG(DiamanteDAG.newDiamanteComMensagens(20, 30), 1, 0.5);
+        assertTrue(ranks.isCritico(0));
+        assertFalse(ranks.isCritico(1));
+        assertTrue(ranks.isCritico(2));
+        assertTrue(ranks.isCritico(3));
+    }
+
+    @Test
+    public void testSingleCriticalPathOnTies() {
+        ProgramaDAG programa = new ProgramaDAG("u0");
+        programa.addTarefa(0, 0, 10, 0, true);
+        programa.addTarefa(1, 0, 30, 0, true);
+        programa.addTarefa(2, 0, 30, 0, true);
+        programa.addTarefa(3, 0, 10, 0, true);
+        programa.addLiberacao(0, 1, 2);
+        programa.addLiberacao(0, 2, 2);
+        programa.addLiberacao(1, 3, 2);
+        programa.addLiberacao(2, 3, 2);
+        RanksDAG ranks = new RanksDAG(programa, 1, 1);
+        // both branches are as long as the critical path, only one is marked
+        assertEquals(ranks.getCaminhoCritico(), ranks.getSuperior(1) + ranks.getInferior(1), 1e-9);
+        assertEquals(ranks.getCaminhoCritico(), ranks.getSuperior(2) + ranks.getInferior(2), 1e-9);
+        assertTrue(ranks.isCritico(0));
+        assertTrue(ranks.isCritico(1) ^ ranks.isCritico(2));
+        assertTrue(ranks.isCritico(3));
+    }
+
+    @Test
+    public void testCycleIsBroken() {
+        ProgramaDAG programa = new ProgramaDAG("u0");
+        programa.addTarefa(0, 0, 10, 0, true);
+        programa.addTarefa(1, 0, 20, 0, true);
+        programa.addLiberacao(0, 1, 1);
+        programa.addLiberacao(1, 0, 1);
+        RanksDAG ranks = new RanksDAG(programa, 1, 1);
+        assertEquals(0, ranks.getPredecessores(0).length);
+        assertArrayEquals(new int[]{0}, ranks.getPredecessores(1));
+        assertEquals(10 + 1 + 20, ranks.getSuperior(0), 1e-9);
+    }
+}
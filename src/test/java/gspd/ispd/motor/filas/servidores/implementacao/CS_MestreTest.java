@@ -0,0 +1,70 @@
+package gspd.ispd.motor.filas.servidores.implementacao;
+
+import static org.junit.Assert.*;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import gspd.ispd.escalonador.CompiladorMemoria;
+import gspd.ispd.motor.Mensagens;
+import gspd.ispd.motor.filas.AtualizacaoEscravo;
+import gspd.ispd.motor.filas.Mensagem;
+import gspd.ispd.motor.filas.Tarefa;
+
+import java.util.Arrays;
+
+/**
+ * CS_MestreTest
+ */
+public class CS_MestreTest {
+
+    /**
+     * Workqueue that keeps the received queues and clears the previous one
+     * on each update, as DynamicFPLTF does
+     */
+    private static final String ESCALONADOR = "WorkqueueLimpaFila";
+
+    @Before
+    public void compiladorDisponivel() {
+        Assume.assumeTrue(CompiladorMemoria.disponivel());
+        String erros = CompiladorMemoria.compilar("gspd.ispd.externo.gridSchedulers" + ESCALONADOR, ESCALONADOR,
+                "package gspd.ispd.externo;\n"
+                + "import java.util.ArrayList;\n"
+                + "import java.util.List;\n"
+                + "public class " + ESCALONADOR + " extends Workqueue {\n"
+                + "    public void iniciar() {\n"
+                + "        super.iniciar();\n"
+                + "        filaEscravo = new ArrayList<List>();\n"
+                + "        for (int i = 0; i < escravos.size(); i++) {\n"
+                + "            filaEscravo.add(new ArrayList());\n"
+                + "        }\n"
+                + "    }\n"
+                + "    public void resultadoAtualizar(gspd.ispd.motor.filas.Mensagem mensagem) {\n"
+                + "        getFilaEscravo(getIndiceEscravo(mensagem.getOrigem())).clear();\n"
+                + "        super.resultadoAtualizar(mensagem);\n"
+                + "    }\n"
+                + "}\n");
+        assertNull(erros);
+    }
+
+    private static Mensagem newRetorno(CS_Maquina escravo, boolean completa, Tarefa tarefa) {
+        Mensagem mensagem = new Mensagem(escravo, Mensagens.RESULTADO_ATUALIZAR);
+        mensagem.setAtualizacao(new AtualizacaoEscravo(completa, new Tarefa[]{tarefa}, new byte[]{AtualizacaoEscravo.FILA}));
+        return mensagem;
+    }
+
+    @Test
+    public void testPolicyChangesDoNotReachSlaveView() {
+        CS_Mestre mestre = new CS_Mestre("m", "u0", 100, 0.0, ESCALONADOR);
+        CS_Maquina escravo = new CS_Maquina("q0", "u0", 50, 1, 0.0, 1);
+        mestre.addEscravo(escravo);
+        mestre.getEscalonador().iniciar();
+        Tarefa t1 = new Tarefa(1, "u0", "app", mestre, 0, 10, 0);
+        Tarefa t2 = new Tarefa(2, "u0", "app", mestre, 0, 10, 0);
+        mestre.atenderRetornoAtualizacao(null, newRetorno(escravo, true, t1));
+        assertEquals(Arrays.asList(t1), mestre.getEscalonador().getFilaEscravo(0));
+        // the policy clears the first queue before storing the delta
+        mestre.atenderRetornoAtualizacao(null, newRetorno(escravo, false, t2));
+        assertEquals(Arrays.asList(t1, t2), mestre.getEscalonador().getFilaEscravo(0));
+    }
+}
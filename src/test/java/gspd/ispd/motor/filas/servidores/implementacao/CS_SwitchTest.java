@@ -0,0 +1,54 @@
+package gspd.ispd.motor.filas.servidores.implementacao;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import gspd.ispd.motor.filas.servidores.CS_Processamento;
+import gspd.ispd.motor.filas.servidores.CentroServico;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * CS_SwitchTest
+ */
+public class CS_SwitchTest {
+
+    private static CS_Link newLink(String id, CentroServico origem, CentroServico destino) {
+        CS_Link link = new CS_Link(id, 100, 0.0, 0.01);
+        link.setConexoesEntrada(origem);
+        link.setConexoesSaida(destino);
+        return link;
+    }
+
+    @Test
+    public void testIncomingLinkIsNotAnExit() {
+        CS_Switch sw = new CS_Switch("sw", 1000, 0.0, 0.001);
+        CS_Maquina maquina = new CS_Maquina("q", "u0", 50, 1, 0.0);
+        CS_Link entrada = newLink("in", maquina, sw);
+        sw.addConexoesEntrada(entrada);
+        assertEquals(Collections.emptyList(), sw.getConexoesSaida());
+        CS_Link saida = newLink("out", sw, maquina);
+        sw.addConexoesSaida(saida);
+        assertEquals(Arrays.asList(saida), sw.getConexoesSaida());
+    }
+
+    @Test
+    public void testRouteLeavesSwitchThroughItsExit() {
+        CS_Maquina origem = new CS_Maquina("o", "u0", 50, 1, 0.0);
+        CS_Switch sw = new CS_Switch("sw", 1000, 0.0, 0.001);
+        CS_Maquina maquina = new CS_Maquina("q", "u0", 50, 1, 0.0);
+        CS_Link subida = newLink("up", origem, sw);
+        CS_Link descida = newLink("down", sw, maquina);
+        CS_Link retorno = newLink("back", maquina, sw);
+        origem.addConexoesSaida(subida);
+        sw.addConexoesEntrada(subida);
+        sw.addConexoesEntrada(retorno);
+        sw.addConexoesSaida(descida);
+        maquina.addConexoesEntrada(descida);
+        maquina.addConexoesSaida(retorno);
+        // an incoming link taken as an exit only led back into the switch
+        assertEquals(Arrays.<CentroServico>asList(subida, sw, descida, maquina),
+                CS_Processamento.getMenorCaminho(origem, maquina));
+    }
+}
@@ -0,0 +1,43 @@
+package gspd.ispd.motor.metricas;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * EstatisticasReplicacoesTest
+ */
+public class EstatisticasReplicacoesTest {
+
+    private static EstatisticasReplicacoes newEstatisticas(int replicacoes, double satisfacao, double dispersao) {
+        EstatisticasReplicacoes estatisticas = new EstatisticasReplicacoes();
+        for (int i = 0; i < replicacoes; i++) {
+            double desvio = i % 2 == 0 ? dispersao : -dispersao;
+            estatisticas.add(0, new double[]{100 + desvio, satisfacao, 0.5, 0.25, 0.75}, 1);
+        }
+        return estatisticas;
+    }
+
+    @Test
+    public void testPrecisionReached() {
+        assertTrue(newEstatisticas(6, 1.0, 1).isPrecisaoAtingida(0.05, EstatisticasReplicacoes.CONFIANCA));
+    }
+
+    @Test
+    public void testWideIntervalNotReached() {
+        assertFalse(newEstatisticas(6, 1.0, 30).isPrecisaoAtingida(0.05, EstatisticasReplicacoes.CONFIANCA));
+    }
+
+    @Test
+    public void testSingleSampleNotReached() {
+        assertFalse(newEstatisticas(1, 1.0, 0).isPrecisaoAtingida(0.05, EstatisticasReplicacoes.CONFIANCA));
+    }
+
+    @Test
+    public void testUndefinedMetricIgnored() {
+        // the satisfaction of a model without tasks is NaN in every replication
+        EstatisticasReplicacoes estatisticas = newEstatisticas(6, Double.NaN, 1);
+        assertTrue(Double.isNaN(estatisticas.getMedia(EstatisticasReplicacoes.SATISFACAO)));
+        assertTrue(estatisticas.isPrecisaoAtingida(0.05, EstatisticasReplicacoes.CONFIANCA));
+        assertFalse(newEstatisticas(6, Double.NaN, 30).isPrecisaoAtingida(0.05, EstatisticasReplicacoes.CONFIANCA));
+    }
+}
@@ -1,7 +1,10 @@
 package gspd.ispd.util.distribution;
 
+import static org.junit.Assert.*;
 import org.junit.Test;
 
+import java.util.SplittableRandom;
+
 public class DistributionBuilderTest {
 
     private Distribution distribution;
@@ -10,4 +13,27 @@ public class DistributionBuilderTest {
     public void testDistributions() {
         System.out.println("Testing distributions");
     }
+
+    @Test
+    public void testSeededDistributionIsReproducible() {
+        DistributionBuilder builder = DistributionBuilder.normal(DistributionBuilder.uniform(10, 20), DistributionBuilder.exponential(2));
+        distribution = builder.build(new SplittableRandom(42));
+        Distribution other = builder.build(new SplittableRandom(42));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(distribution.random(), other.random(), 0.0);
+        }
+    }
+
+    @Test
+    public void testBulkSamplingMatchesSingleValues() {
+        DistributionBuilder builder = DistributionBuilder.uniform(DistributionBuilder.exponential(5), DistributionBuilder.normal(100, 10));
+        distribution = builder.build(new SplittableRandom(7));
+        Distribution bulk = builder.build(new SplittableRandom(7));
+        double[] values = new double[1000];
+        bulk.random(values, 0, 400);
+        bulk.random(values, 400, values.length);
+        for (double value : values) {
+            assertEquals(distribution.random(), value, 0.0);
+        }
+    }
 }